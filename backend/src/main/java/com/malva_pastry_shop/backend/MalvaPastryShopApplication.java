@@ -2,12 +2,18 @@ package com.malva_pastry_shop.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class MalvaPastryShopApplication {
 
+	/** Pasos de arranque que se guardan para el reporte (ver StartupReport) */
+	private static final int STARTUP_STEPS_CAPACITY = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(MalvaPastryShopApplication.class, args);
+		SpringApplication application = new SpringApplication(MalvaPastryShopApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+		application.run(args);
 	}
 
 }
@@ -12,53 +12,126 @@ import com.malva_pastry_shop.backend.repository.IngredientRepository;
 import com.malva_pastry_shop.backend.repository.ProductRepository;
 import com.malva_pastry_shop.backend.repository.RoleRepository;
 import com.malva_pastry_shop.backend.repository.UserRepository;
+import com.malva_pastry_shop.backend.util.SlugUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Datos iniciales (roles, usuarios, ingredientes, categorias y productos).
+ *
+ * Cada paso verifica lo que ya existe, lo que cuesta decenas de consultas.
+ * Al terminar se guarda SEED_VERSION en app_settings y los arranques
+ * siguientes solo leen ese valor: si esta al dia no se verifica nada.
+ */
 @Component
 @Profile({ "dev", "prod" })
 public class DataSeeder implements CommandLineRunner {
 
         private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
 
+        /**
+         * Incrementar al cambiar los datos iniciales o agregar un paso, para
+         * que se vuelvan a verificar en el proximo arranque.
+         */
+        static final int SEED_VERSION = 1;
+
+        private static final String SEED_VERSION_KEY = "seed_version";
+
         private final RoleRepository roleRepository;
         private final UserRepository userRepository;
         private final CategoryRepository categoryRepository;
         private final ProductRepository productRepository;
         private final IngredientRepository ingredientRepository;
         private final PasswordEncoder passwordEncoder;
+        private final JdbcTemplate jdbcTemplate;
 
         public DataSeeder(RoleRepository roleRepository,
                         UserRepository userRepository,
                         CategoryRepository categoryRepository,
                         ProductRepository productRepository,
                         IngredientRepository ingredientRepository,
-                        PasswordEncoder passwordEncoder) {
+                        PasswordEncoder passwordEncoder,
+                        JdbcTemplate jdbcTemplate) {
                 this.roleRepository = roleRepository;
                 this.userRepository = userRepository;
                 this.categoryRepository = categoryRepository;
                 this.productRepository = productRepository;
                 this.ingredientRepository = ingredientRepository;
                 this.passwordEncoder = passwordEncoder;
+                this.jdbcTemplate = jdbcTemplate;
         }
 
         @Override
         @Transactional
         public void run(String... args) throws Exception {
+                Integer stored = findSeedVersion();
+                if (stored != null && stored >= SEED_VERSION) {
+                        log.info("Datos iniciales al dia (version {})", stored);
+                        return;
+                }
+
                 seedRoles();
                 seedBasicUsers();
                 seedIngredients();
                 Map<String, Category> categories = seedCategories();
                 seedProducts(categories);
+                backfillSlugs();
+
+                saveSeedVersion();
+                log.info("Datos iniciales verificados (version {} -> {})", stored, SEED_VERSION);
+        }
+
+        // ========== Version de los datos iniciales ==========
+
+        private Integer findSeedVersion() {
+                return jdbcTemplate.query("SELECT value FROM app_settings WHERE key = ?",
+                                rs -> rs.next() ? Integer.valueOf(rs.getString(1)) : null,
+                                SEED_VERSION_KEY);
+        }
+
+        private void saveSeedVersion() {
+                jdbcTemplate.update("""
+                                INSERT INTO app_settings (key, value, updated_at) VALUES (?, ?, ?)
+                                ON CONFLICT (key) DO UPDATE SET value = EXCLUDED.value, updated_at = EXCLUDED.updated_at
+                                """, SEED_VERSION_KEY, String.valueOf(SEED_VERSION),
+                                Timestamp.valueOf(LocalDateTime.now()));
+        }
+
+        /**
+         * Asigna slug a categorias y productos creados antes de la columna.
+         * Se guarda fila por fila para que cada sufijo vea los anteriores.
+         */
+        private void backfillSlugs() {
+                int updated = 0;
+                for (Category category : categoryRepository.findBySlugIsNull()) {
+                        String base = SlugUtil.generateSlug(category.getName());
+                        long used = categoryRepository.findMaxSlugCounter(base, category.getId());
+                        category.setSlug(SlugUtil.generateUniqueSlug(base, (int) used + 1));
+                        categoryRepository.saveAndFlush(category);
+                        updated++;
+                }
+                for (Product product : productRepository.findBySlugIsNull()) {
+                        String base = SlugUtil.generateSlug(product.getName());
+                        long used = productRepository.findMaxSlugCounter(base, product.getId());
+                        product.setSlug(SlugUtil.generateUniqueSlug(base, (int) used + 1));
+                        productRepository.saveAndFlush(product);
+                        updated++;
+                }
+                if (updated > 0) {
+                        log.info("Slugs asignados: {}", updated);
+                }
         }
 
         private void seedRoles() {
@@ -400,6 +473,7 @@ public class DataSeeder implements CommandLineRunner {
                         var existingCategory = categoryRepository.findByNameIgnoreCase(name);
                         if (existingCategory.isEmpty()) {
                                 Category category = new Category(name, description);
+                                category.setSlug(SlugUtil.generateSlug(name));
                                 categoryRepository.save(category);
                                 categoryMap.put(name, category);
                                 log.info("Categoría creada: {}", name);
@@ -599,6 +673,7 @@ public class DataSeeder implements CommandLineRunner {
         private void createProduct(String name, String description, Integer preparationDays, BigDecimal basePrice,
                         Category category, String imageUrl) {
                 Product product = new Product(name, basePrice);
+                product.setSlug(SlugUtil.generateSlug(name));
                 product.setDescription(description);
                 product.setPreparationDays(preparationDays);
                 product.setCategory(category);
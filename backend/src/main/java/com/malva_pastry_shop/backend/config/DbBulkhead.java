@@ -0,0 +1,218 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead de conexiones a la base, con un carril por tipo de trafico.
+ *
+ * Cada carril es un semaforo justo (FIFO): un pedido espera su turno antes
+ * de pedir una conexion al pool y, si la espera supera el maximo del carril,
+ * se rechaza en lugar de sumarse a la cola de Hikari. Asi una rafaga de la
+ * tienda no deja sin conexiones al panel (ni al reves) y la latencia queda
+ * acotada por la espera maxima.
+ *
+ * El carril lo fija DbBulkheadFilter por pedido; el permiso se toma al
+ * abrir la primera conexion del hilo y se devuelve al cerrar la ultima
+ * (ver DbBulkheadDataSource). El codigo sin carril (tareas programadas,
+ * arranque) no se limita.
+ */
+public class DbBulkhead {
+
+    public enum Lane {
+        /** API publica de la tienda (/api/**) */
+        CATALOG,
+        /** Panel de administracion */
+        ADMIN
+    }
+
+    /** Configuracion de un carril */
+    public record LaneLimits(int permits, long maxWaitMs) {
+    }
+
+    /** Estado y esperas acumuladas de un carril */
+    public record LaneStats(Lane lane, int permits, int inUse, int queued, long acquired, long rejected,
+            double meanWaitMs, long p99WaitMs, long maxWaitMs) {
+    }
+
+    /** Rechazo por espera maxima; se responde 503 (ver DbBulkheadFilter) */
+    public static class RejectedException extends SQLTransientConnectionException {
+
+        private final Lane lane;
+
+        RejectedException(Lane lane, long maxWaitMs) {
+            super("Sin conexiones disponibles para " + lane + " despues de " + maxWaitMs + " ms");
+            this.lane = lane;
+        }
+
+        public Lane getLane() {
+            return lane;
+        }
+    }
+
+    /** Carril del pedido y conexiones abiertas por el hilo */
+    private static final class Holder {
+        final Lane lane;
+        int openConnections;
+
+        Holder(Lane lane) {
+            this.lane = lane;
+        }
+    }
+
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+    private final ThreadLocal<Holder> current = new ThreadLocal<>();
+
+    public DbBulkhead(Map<Lane, LaneLimits> limits) {
+        for (Lane lane : Lane.values()) {
+            LaneLimits laneLimits = limits.get(lane);
+            if (laneLimits == null || laneLimits.permits() < 1) {
+                throw new IllegalArgumentException("El carril " + lane + " necesita al menos un permiso");
+            }
+            lanes.put(lane, new LaneState(laneLimits));
+        }
+    }
+
+    // ========== Pedido ==========
+
+    /**
+     * Asigna el carril al hilo actual. No toma permiso: eso ocurre al abrir
+     * una conexion.
+     */
+    public void enter(Lane lane) {
+        current.set(new Holder(lane));
+    }
+
+    /**
+     * Quita el carril del hilo. Si quedo una conexion sin cerrar devuelve
+     * el permiso igual, para no perderlo.
+     *
+     * @return true si habia conexiones abiertas
+     */
+    public boolean exit() {
+        Holder holder = current.get();
+        current.remove();
+        if (holder != null && holder.openConnections > 0) {
+            lanes.get(holder.lane).semaphore.release();
+            return true;
+        }
+        return false;
+    }
+
+    // ========== Conexiones ==========
+
+    /**
+     * Antes de abrir una conexion. Solo la primera del hilo espera permiso;
+     * las anidadas (REQUIRES_NEW, JdbcTemplate fuera de la transaccion)
+     * usan el mismo, asi un pedido nunca se bloquea contra si mismo.
+     */
+    void beforeOpen() throws RejectedException {
+        Holder holder = current.get();
+        if (holder == null) {
+            return;
+        }
+        if (holder.openConnections == 0) {
+            lanes.get(holder.lane).acquire(holder.lane);
+        }
+        holder.openConnections++;
+    }
+
+    /**
+     * La conexion no se pudo abrir o se cerro.
+     */
+    void afterClose() {
+        Holder holder = current.get();
+        if (holder == null || holder.openConnections == 0) {
+            return;
+        }
+        holder.openConnections--;
+        if (holder.openConnections == 0) {
+            lanes.get(holder.lane).semaphore.release();
+        }
+    }
+
+    // ========== Metricas ==========
+
+    public List<LaneStats> stats() {
+        return lanes.keySet().stream().map(this::stats).toList();
+    }
+
+    public LaneStats stats(Lane lane) {
+        return lanes.get(lane).stats(lane);
+    }
+
+    /**
+     * Semaforo y esperas de un carril. Las esperas se cuentan en un
+     * histograma de potencias de 2 (ms) del que sale el p99 aproximado.
+     */
+    private static final class LaneState {
+
+        private static final int BUCKETS = 16;
+
+        final LaneLimits limits;
+        final Semaphore semaphore;
+        final LongAdder acquired = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder totalWaitNanos = new LongAdder();
+        final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+        final AtomicLongArray waitBuckets = new AtomicLongArray(BUCKETS);
+
+        LaneState(LaneLimits limits) {
+            this.limits = limits;
+            this.semaphore = new Semaphore(limits.permits(), true);
+        }
+
+        void acquire(Lane lane) throws RejectedException {
+            long start = System.nanoTime();
+            boolean granted;
+            try {
+                granted = semaphore.tryAcquire(limits.maxWaitMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                granted = false;
+            }
+            long waited = System.nanoTime() - start;
+            if (!granted) {
+                rejected.increment();
+                throw new RejectedException(lane, limits.maxWaitMs());
+            }
+            acquired.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+            waitBuckets.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMillis(waited)));
+        }
+
+        /** Bucket 0: menos de 1 ms; bucket i: hasta 2^i ms */
+        static int bucket(long millis) {
+            int bucket = millis <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+            return Math.min(bucket, BUCKETS - 1);
+        }
+
+        LaneStats stats(Lane lane) {
+            long count = acquired.sum();
+            long p99 = 0;
+            long threshold = (long) Math.ceil(count * 0.99);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS && count > 0; i++) {
+                seen += waitBuckets.get(i);
+                if (seen >= threshold) {
+                    p99 = i == 0 ? 0 : 1L << i;
+                    break;
+                }
+            }
+            return new LaneStats(lane, limits.permits(),
+                    limits.permits() - semaphore.availablePermits(),
+                    semaphore.getQueueLength(),
+                    count, rejected.sum(),
+                    count == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / count,
+                    p99, TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        }
+    }
+}
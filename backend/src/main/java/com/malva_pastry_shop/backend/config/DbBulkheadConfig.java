@@ -0,0 +1,144 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.malva_pastry_shop.backend.config.DbBulkhead.Lane;
+import com.malva_pastry_shop.backend.config.DbBulkhead.LaneLimits;
+import com.malva_pastry_shop.backend.config.DbBulkhead.LaneStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Bulkhead de conexiones (ver DbBulkhead): envuelve el DataSource, asigna
+ * el carril por pedido, publica las esperas en Micrometer y avisa en el log
+ * cuando hay rechazos.
+ *
+ * La suma de permisos no deberia superar el pool de Hikari; lo que sobra
+ * queda para las tareas programadas, que no pasan por el bulkhead.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.db-bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class DbBulkheadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DbBulkheadConfig.class);
+
+    @Bean
+    DbBulkhead dbBulkhead(
+            @Value("${app.db-bulkhead.catalog.permits:3}") int catalogPermits,
+            @Value("${app.db-bulkhead.catalog.max-wait-ms:1000}") long catalogMaxWaitMs,
+            @Value("${app.db-bulkhead.admin.permits:2}") int adminPermits,
+            @Value("${app.db-bulkhead.admin.max-wait-ms:5000}") long adminMaxWaitMs) {
+        return new DbBulkhead(Map.of(
+                Lane.CATALOG, new LaneLimits(catalogPermits, catalogMaxWaitMs),
+                Lane.ADMIN, new LaneLimits(adminPermits, adminMaxWaitMs)));
+    }
+
+    /**
+     * Static y con ObjectProvider: el bulkhead se crea recien al envolver el
+     * DataSource, no junto con los BeanPostProcessor.
+     */
+    @Bean
+    static BeanPostProcessor dbBulkheadDataSourcePostProcessor(ObjectProvider<DbBulkhead> bulkhead) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DbBulkheadDataSource)) {
+                    return new DbBulkheadDataSource(dataSource, bulkhead.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<DbBulkheadFilter> dbBulkheadFilter(DbBulkhead bulkhead) {
+        FilterRegistrationBean<DbBulkheadFilter> registration = new FilterRegistrationBean<>(new DbBulkheadFilter(bulkhead));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * Metricas por carril (tag lane): permisos, en uso, en cola, rechazos y
+     * tiempo de espera del permiso.
+     */
+    @Bean
+    MeterBinder dbBulkheadMetrics(DbBulkhead bulkhead) {
+        return registry -> {
+            for (Lane lane : Lane.values()) {
+                String tag = lane.name().toLowerCase(Locale.ROOT);
+                Gauge.builder("app.db.bulkhead.permits", bulkhead, b -> b.stats(lane).permits())
+                        .tag("lane", tag).register(registry);
+                Gauge.builder("app.db.bulkhead.active", bulkhead, b -> b.stats(lane).inUse())
+                        .tag("lane", tag).register(registry);
+                Gauge.builder("app.db.bulkhead.queued", bulkhead, b -> b.stats(lane).queued())
+                        .tag("lane", tag).register(registry);
+                FunctionCounter.builder("app.db.bulkhead.rejected", bulkhead, b -> b.stats(lane).rejected())
+                        .tag("lane", tag).register(registry);
+                FunctionTimer.builder("app.db.bulkhead.wait", bulkhead,
+                                b -> b.stats(lane).acquired(),
+                                b -> b.stats(lane).meanWaitMs() * b.stats(lane).acquired(),
+                                TimeUnit.MILLISECONDS)
+                        .tag("lane", tag).register(registry);
+                TimeGauge.builder("app.db.bulkhead.wait.max", bulkhead, TimeUnit.MILLISECONDS,
+                                b -> b.stats(lane).maxWaitMs())
+                        .tag("lane", tag).register(registry);
+            }
+        };
+    }
+
+    /**
+     * Deja en el log los carriles con rechazos desde el reporte anterior.
+     * Las esperas completas (media, p99, maximo) son acumuladas desde el
+     * arranque.
+     */
+    @Bean
+    DbBulkheadReporter dbBulkheadReporter(DbBulkhead bulkhead) {
+        return new DbBulkheadReporter(bulkhead);
+    }
+
+    static class DbBulkheadReporter {
+
+        private final DbBulkhead bulkhead;
+        private final Map<Lane, Long> reportedRejections = new EnumMap<>(Lane.class);
+
+        DbBulkheadReporter(DbBulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Scheduled(fixedDelayString = "${app.db-bulkhead.report-interval-ms:60000}",
+                initialDelayString = "${app.db-bulkhead.report-interval-ms:60000}")
+        public void report() {
+            for (LaneStats stats : bulkhead.stats()) {
+                long previous = reportedRejections.getOrDefault(stats.lane(), 0L);
+                if (stats.rejected() > previous) {
+                    reportedRejections.put(stats.lane(), stats.rejected());
+                    log.warn("Bulkhead {}: {} rechazo(s) nuevos; {}/{} en uso, {} en cola, espera media {} ms, "
+                            + "p99 <= {} ms, max {} ms", stats.lane(), stats.rejected() - previous,
+                            stats.inUse(), stats.permits(), stats.queued(),
+                            String.format("%.1f", stats.meanWaitMs()), stats.p99WaitMs(), stats.maxWaitMs());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource que pasa por DbBulkhead antes de pedir una conexion al pool.
+ * La conexion devuelta avisa al bulkhead cuando se cierra (una sola vez,
+ * aunque se cierre dos veces).
+ */
+public class DbBulkheadDataSource extends DelegatingDataSource {
+
+    private final DbBulkhead bulkhead;
+
+    public DbBulkheadDataSource(DataSource target, DbBulkhead bulkhead) {
+        super(target);
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        bulkhead.beforeOpen();
+        return track(this::openTarget);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        bulkhead.beforeOpen();
+        return track(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection openTarget() throws SQLException {
+        return obtainTargetDataSource().getConnection();
+    }
+
+    private interface ConnectionOpener {
+        Connection open() throws SQLException;
+    }
+
+    private Connection track(ConnectionOpener opener) throws SQLException {
+        Connection target;
+        try {
+            target = opener.open();
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.afterClose();
+            throw e;
+        }
+
+        boolean[] closed = { false };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            target.close();
+                        } finally {
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                bulkhead.afterClose();
+                            }
+                        }
+                        return null;
+                    }
+                    if ("isClosed".equals(method.getName()) && closed[0]) {
+                        return true;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,77 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.malva_pastry_shop.backend.config.DbBulkhead.Lane;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Asigna el carril del bulkhead segun la ruta (la API publica usa CATALOG,
+ * el resto ADMIN) y responde 503 con Retry-After si el pedido se rechazo
+ * por esperar demasiado una conexion. Va antes de Spring Security porque el
+ * filtro JWT ya consulta la base.
+ */
+public class DbBulkheadFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DbBulkheadFilter.class);
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final DbBulkhead bulkhead;
+
+    public DbBulkheadFilter(DbBulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        bulkhead.enter(request.getServletPath().startsWith("/api/") ? Lane.CATALOG : Lane.ADMIN);
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            DbBulkhead.RejectedException rejected = findRejection(e);
+            if (rejected == null || response.isCommitted()) {
+                throw e;
+            }
+            // El resumen de rechazos lo deja DbBulkheadReporter
+            log.debug("Pedido rechazado por el bulkhead: {} {} ({})",
+                    request.getMethod(), request.getRequestURI(), rejected.getMessage());
+            response.resetBuffer();
+            response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), rejected.getMessage());
+        } finally {
+            if (bulkhead.exit()) {
+                log.warn("Conexion sin cerrar al terminar {} {}", request.getMethod(), request.getRequestURI());
+            }
+        }
+    }
+
+    /**
+     * Actuator queda afuera: el health check de Render no debe fallar porque
+     * la tienda tiene la cola llena.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/actuator/");
+    }
+
+    private static DbBulkhead.RejectedException findRejection(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DbBulkhead.RejectedException rejected) {
+                return rejected;
+            }
+        }
+        return null;
+    }
+}
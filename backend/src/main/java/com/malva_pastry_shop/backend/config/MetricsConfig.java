@@ -0,0 +1,120 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Service;
+
+import com.malva_pastry_shop.backend.MalvaPastryShopApplication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metricas propias (el resto lo registra Actuator: pedidos HTTP por
+ * controlador, pool de Hikari, estadisticas de Hibernate, JVM y GC).
+ *
+ * Cada metodo publico de los @Service del proyecto queda medido en el timer
+ * app.service (tags class, method, exception). Es un advisor de
+ * infraestructura de Spring AOP, el mismo mecanismo que usa
+ * @Transactional: no hace falta AspectJ y los servicios transaccionales
+ * reusan el proxy que ya tenian. Las llamadas internas (this.metodo()) no
+ * pasan por el proxy y se cuentan dentro del metodo que las hace.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "app.service";
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor serviceTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new DefaultPointcutAdvisor(new ServicePointcut(), new ServiceTimingInterceptor(meterRegistry));
+    }
+
+    /** Metodos publicos de instancia de los @Service del paquete base */
+    static class ServicePointcut extends StaticMethodMatcherPointcut {
+
+        private static final String BASE_PACKAGE = MalvaPastryShopApplication.class.getPackageName();
+
+        ServicePointcut() {
+            setClassFilter(type -> type.getPackageName().startsWith(BASE_PACKAGE)
+                    && AnnotatedElementUtils.hasAnnotation(type, Service.class));
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Modifier.isPublic(method.getModifiers())
+                    && !Modifier.isStatic(method.getModifiers())
+                    && method.getDeclaringClass() != Object.class;
+        }
+    }
+
+    /**
+     * El registro se resuelve en la primera llamada: el advisor se crea junto
+     * con los BeanPostProcessor, antes que Micrometer.
+     */
+    static class ServiceTimingInterceptor implements MethodInterceptor {
+
+        private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+        private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+        private volatile MeterRegistry meterRegistry;
+
+        ServiceTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+            this.meterRegistryProvider = meterRegistryProvider;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MeterRegistry registry = registry();
+            if (registry == null) {
+                return invocation.proceed();
+            }
+
+            Method method = invocation.getMethod();
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                timers.computeIfAbsent(method, m -> timer(registry, m, "none"))
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable e) {
+                timer(registry, method, e.getClass().getSimpleName())
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        private MeterRegistry registry() {
+            MeterRegistry registry = meterRegistry;
+            if (registry == null) {
+                registry = meterRegistryProvider.getIfAvailable();
+                meterRegistry = registry;
+            }
+            return registry;
+        }
+
+        private static Timer timer(MeterRegistry registry, Method method, String exception) {
+            return Timer.builder(SERVICE_TIMER)
+                    .description("Tiempo de los metodos de servicio")
+                    .tag("class", method.getDeclaringClass().getSimpleName())
+                    .tag("method", method.getName())
+                    .tag("exception", exception)
+                    .register(registry);
+        }
+    }
+}
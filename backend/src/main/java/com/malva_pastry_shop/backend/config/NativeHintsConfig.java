@@ -0,0 +1,119 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.malva_pastry_shop.backend.MalvaPastryShopApplication;
+
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+
+/**
+ * Hints para la imagen nativa (perfil Maven "native").
+ *
+ * Spring AOT ya cubre los beans, los repositorios, las entidades JPA y los
+ * tipos que devuelven los controladores REST. Aca se agrega lo que solo se
+ * usa por reflexion en tiempo de ejecucion: los modelos que leen las
+ * plantillas Thymeleaf (SpEL invoca los getters que genera Lombok), y las
+ * clases que jjwt y el cliente de Google cargan por nombre o llenan campo a
+ * campo, mas los proxies JDK de JDBC (bulkhead, perfil SQL y replica). En
+ * la JVM no tiene efecto.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.AppRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class AppRuntimeHints implements RuntimeHintsRegistrar {
+
+        /** jjwt 0.11 crea sus implementaciones con Class.forName */
+        private static final String[] JJWT_TYPES = {
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.DefaultHeader",
+                "io.jsonwebtoken.impl.DefaultJwsHeader",
+                "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+                "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        /** El parser JSON de Google llena estos tipos por sus campos @Key */
+        private static final String[] GOOGLE_TYPES = {
+                "com.google.api.client.googleapis.auth.oauth2.GoogleIdToken$Payload",
+                "com.google.api.client.json.webtoken.JsonWebSignature$Header",
+                "com.google.api.client.json.webtoken.JsonWebToken$Header",
+                "com.google.api.client.json.webtoken.JsonWebToken$Payload",
+                "com.google.api.client.json.GenericJson",
+                "com.google.api.client.util.GenericData"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("templates/**");
+
+            // Conexiones envueltas por DbBulkheadDataSource
+            hints.proxies().registerJdkProxy(Connection.class);
+            // Conexiones diferidas de LazyConnectionDataSourceProxy (ReadReplicaConfig)
+            hints.proxies().registerJdkProxy(ConnectionProxy.class);
+            // datasource-proxy (SqlProfilerConfig) pone ProxyJdbcObject primero
+            for (Class<?> type : List.of(Connection.class, Statement.class, PreparedStatement.class,
+                    CallableStatement.class)) {
+                hints.proxies().registerJdkProxy(ProxyJdbcObject.class, type);
+            }
+
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            for (String type : GOOGLE_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.ACCESS_DECLARED_FIELDS);
+            }
+
+            for (Class<?> type : modelTypes(classLoader)) {
+                hints.reflection().registerType(type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.ACCESS_DECLARED_FIELDS);
+            }
+        }
+
+        /**
+         * Clases propias que no son beans: entidades, DTOs, proyecciones y
+         * records de los servicios. Se buscan al generar la imagen, asi una
+         * clase nueva queda cubierta sin tocar esta lista.
+         */
+        private static List<Class<?>> modelTypes(ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter((metadataReader, factory) -> true);
+
+            String basePackage = MalvaPastryShopApplication.class.getPackageName();
+            List<Class<?>> types = new ArrayList<>();
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                if (!AnnotatedElementUtils.hasAnnotation(type, Component.class)) {
+                    types.add(type);
+                }
+            }
+            return types;
+        }
+    }
+}
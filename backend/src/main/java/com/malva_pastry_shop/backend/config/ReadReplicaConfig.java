@@ -0,0 +1,200 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import com.malva_pastry_shop.backend.config.ReadReplicaRouter.Route;
+import com.malva_pastry_shop.backend.config.ReadReplicaRouter.Status;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Replica de lectura (ver ReadReplicaRouter): un pool propio para la
+ * replica y un DataSource que manda a ella las transacciones readOnly.
+ *
+ * El DataSource de Spring Boot (el primario) queda envuelto en un
+ * LazyConnectionDataSourceProxy: la conexion fisica se pide recien en la
+ * primera sentencia, cuando la transaccion ya marco la conexion como de
+ * solo lectura, y esas van al router. El bulkhead y el perfil SQL envuelven
+ * el resultado, asi cubren los dos pools.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    static final String POOL_NAME = "replica";
+
+    @Bean
+    ReadReplicaRouter readReplicaRouter(
+            @Value("${app.read-replica.url}") String url,
+            @Value("${app.read-replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.read-replica.password:${spring.datasource.password}}") String password,
+            @Value("${spring.datasource.driver-class-name:org.postgresql.Driver}") String driverClassName,
+            @Value("${app.read-replica.maximum-pool-size:5}") int maximumPoolSize,
+            @Value("${app.read-replica.minimum-idle:1}") int minimumIdle,
+            @Value("${app.read-replica.connection-timeout-ms:1000}") long connectionTimeoutMs,
+            @Value("${app.read-replica.max-lag-ms:5000}") long maxLagMs,
+            @Value("${app.read-replica.sticky-ms:10000}") long stickyMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        if (url.isBlank()) {
+            throw new IllegalStateException("app.read-replica.enabled=true necesita app.read-replica.url");
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName(driverClassName);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumIdle);
+        // Corto: si la replica no responde, la lectura va al primario
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setReadOnly(true);
+        // La aplicacion arranca aunque la replica este caida
+        config.setInitializationFailTimeout(-1);
+        // Metricas hikaricp con pool="replica"; el pool no es un bean y
+        // Spring Boot no lo registra
+        meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(
+                new MicrometerMetricsTrackerFactory(registry)));
+        return new ReadReplicaRouter(new HikariDataSource(config), maxLagMs, stickyMs);
+    }
+
+    /**
+     * Corre antes que los del bulkhead y el perfil SQL (es Ordered): tiene
+     * que recibir el pool de Hikari, no una conexion ya envuelta.
+     */
+    @Bean
+    static BeanPostProcessor readReplicaDataSourcePostProcessor(ObjectProvider<ReadReplicaRouter> router) {
+        return new RoutingPostProcessor(router);
+    }
+
+    static class RoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final ObjectProvider<ReadReplicaRouter> router;
+
+        RoutingPostProcessor(ObjectProvider<ReadReplicaRouter> router) {
+            this.router = router;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                return routing(dataSource, router.getObject());
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    static LazyConnectionDataSourceProxy routing(DataSource primary, ReadReplicaRouter router) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new ReadOnlyDataSource(primary, router));
+        return routing;
+    }
+
+    /** Conexiones de solo lectura: las entrega el router (replica o primario) */
+    static class ReadOnlyDataSource extends DelegatingDataSource {
+
+        private final ReadReplicaRouter router;
+
+        ReadOnlyDataSource(DataSource primary, ReadReplicaRouter router) {
+            super(primary);
+            this.router = router;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return router.readOnlyConnection(obtainTargetDataSource());
+        }
+    }
+
+    /**
+     * Antes del commit de una transaccion de escritura: despues del commit
+     * ya corren los listeners AFTER_COMMIT, que pueden leer.
+     */
+    @Bean
+    TransactionExecutionListener readReplicaWriteListener(ReadReplicaRouter router) {
+        return new TransactionExecutionListener() {
+            @Override
+            public void beforeCommit(TransactionExecution transaction) {
+                if (transaction.isNewTransaction() && !transaction.isReadOnly()) {
+                    router.recordWrite();
+                }
+            }
+        };
+    }
+
+    /**
+     * Fuera de una transaccion readOnly el DataSource de la aplicacion
+     * entrega conexiones del primario.
+     */
+    @Bean
+    ReadReplicaLagCheck readReplicaLagCheck(ReadReplicaRouter router, DataSource dataSource) {
+        return new ReadReplicaLagCheck(router, dataSource);
+    }
+
+    static class ReadReplicaLagCheck {
+
+        private final ReadReplicaRouter router;
+        private final DataSource primary;
+
+        ReadReplicaLagCheck(ReadReplicaRouter router, DataSource primary) {
+            this.router = router;
+            this.primary = primary;
+        }
+
+        @Scheduled(fixedDelayString = "${app.read-replica.check-interval-ms:5000}")
+        public void check() {
+            router.checkLag(primary);
+        }
+    }
+
+    /**
+     * Estado de la replica (disponible, atraso) y lecturas por destino
+     * (tag route: replica, sticky, lag, unavailable).
+     */
+    @Bean
+    MeterBinder readReplicaMetrics(ReadReplicaRouter router) {
+        return registry -> {
+            Gauge.builder("app.db.replica.available", router,
+                            r -> r.state().status() == Status.AVAILABLE ? 1 : 0)
+                    .register(registry);
+            TimeGauge.builder("app.db.replica.lag", router, TimeUnit.MILLISECONDS,
+                            r -> r.state().lagMs() < 0 ? Double.NaN : r.state().lagMs())
+                    .register(registry);
+            for (Route route : Route.values()) {
+                FunctionCounter.builder("app.db.replica.reads", router, r -> r.reads(route))
+                        .tag("route", route.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+        };
+    }
+}
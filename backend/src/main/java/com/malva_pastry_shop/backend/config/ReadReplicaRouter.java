@@ -0,0 +1,351 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Decide si una transaccion de solo lectura usa la replica o el primario.
+ *
+ * Las transacciones readOnly (los servicios de consulta y los metodos CRUD
+ * de los repositorios) piden la conexion aca (ver ReadReplicaConfig). Van
+ * al primario en lugar de la replica si:
+ * - el ultimo chequeo (checkLag, programado) encontro la replica atrasada
+ *   mas de maxLagMs, o la replica no respondio al chequeo o al pedirle una
+ *   conexion (hasta el proximo chequeo que salga bien);
+ * - la sesion escribio hace menos de stickyMs: el mismo pedido y los
+ *   siguientes de la misma sesion HTTP (panel) o del mismo token (API)
+ *   leen lo que acaban de escribir.
+ *
+ * Sin pedido (tareas programadas, arranque) la transaccion que escribio
+ * lee del primario hasta terminar, incluidos sus listeners AFTER_COMMIT
+ * (las recargas de los indices en memoria que dispara una tarea).
+ */
+public class ReadReplicaRouter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaRouter.class);
+
+    /** Posicion del WAL del primario al empezar el chequeo */
+    static final String PRIMARY_LSN_SQL = "SELECT CAST(pg_current_wal_lsn() AS text)";
+
+    /**
+     * Atraso de la replica en ms: 0 si ya aplico el WAL hasta la posicion
+     * del primario (parametro), si no el tiempo desde la ultima transaccion
+     * aplicada (null si todavia no aplico ninguna). Se compara contra el
+     * primario y no contra lo recibido: con el stream cortado la replica
+     * aplica todo lo que recibio y parece al dia. Una base que no esta en
+     * recuperacion cuenta como al dia.
+     */
+    static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0
+                ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS bigint)
+            END
+            """;
+
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 5;
+
+    private static final String WROTE_ATTRIBUTE = ReadReplicaRouter.class.getName() + ".wrote";
+
+    /** Escritura sin pedido: el hilo lee del primario hasta que termina su transaccion */
+    private static final ThreadLocal<Boolean> WROTE_ON_THREAD = new ThreadLocal<>();
+
+    public enum Status {
+        /** Todavia sin chequear */
+        UNKNOWN,
+        AVAILABLE,
+        /** Atraso mayor que el maximo o desconocido */
+        LAGGING,
+        /** Sin respuesta */
+        DOWN
+    }
+
+    /** Destino de una lectura: la replica o el motivo para ir al primario */
+    public enum Route {
+        REPLICA,
+        /** La sesion escribio hace poco */
+        STICKY,
+        /** Replica atrasada */
+        LAG,
+        /** Replica sin chequear o sin respuesta */
+        UNAVAILABLE
+    }
+
+    /** Resultado del ultimo chequeo; lagMs es -1 si no se conoce */
+    public record ReplicaState(Status status, long lagMs) {
+    }
+
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final long stickyNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<Route, LongAdder> reads = new EnumMap<>(Route.class);
+    /** Ultima escritura por sesion (System.nanoTime); se purga en cada chequeo */
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private volatile ReplicaState state = new ReplicaState(Status.UNKNOWN, -1);
+    /** Ultimo chequeo que encontro la replica al dia; -1 si ninguno */
+    private long caughtUpAt = -1;
+
+    /**
+     * @param replica  pool de la replica; se cierra con el router
+     * @param maxLagMs atraso tolerado antes de leer del primario
+     * @param stickyMs tiempo que una sesion lee del primario despues de
+     *                 escribir; deberia cubrir maxLagMs mas el intervalo
+     *                 entre chequeos
+     */
+    public ReadReplicaRouter(DataSource replica, long maxLagMs, long stickyMs) {
+        this(replica, maxLagMs, stickyMs, System::nanoTime);
+    }
+
+    ReadReplicaRouter(DataSource replica, long maxLagMs, long stickyMs, LongSupplier nanoClock) {
+        if (maxLagMs < 0 || stickyMs < 0) {
+            throw new IllegalArgumentException("Configuracion invalida de la replica de lectura");
+        }
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+        this.nanoClock = nanoClock;
+        for (Route route : Route.values()) {
+            reads.put(route, new LongAdder());
+        }
+    }
+
+    // ========== Lecturas ==========
+
+    /**
+     * Conexion para una transaccion de solo lectura: de la replica si
+     * corresponde, si no (o si la replica no entrega una) del primario.
+     */
+    public Connection readOnlyConnection(DataSource primary) throws SQLException {
+        Route route = route();
+        if (route == Route.REPLICA) {
+            try {
+                Connection connection = replica.getConnection();
+                reads.get(Route.REPLICA).increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(e);
+                route = Route.UNAVAILABLE;
+            }
+        }
+        reads.get(route).increment();
+        return primary.getConnection();
+    }
+
+    Route route() {
+        ReplicaState current = state;
+        if (current.status() == Status.LAGGING) {
+            return Route.LAG;
+        }
+        if (current.status() != Status.AVAILABLE) {
+            return Route.UNAVAILABLE;
+        }
+        return isSticky() ? Route.STICKY : Route.REPLICA;
+    }
+
+    // ========== Escrituras (leer lo propio) ==========
+
+    /**
+     * Marca que la sesion del pedido en curso escribio. Sin pedido marca el
+     * hilo hasta que termina la transaccion en curso: los listeners
+     * AFTER_COMMIT corren en el hilo antes de que termine. Fuera de una
+     * transaccion no hace nada.
+     */
+    public void recordWrite() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            recordThreadWrite();
+            return;
+        }
+        request.setAttribute(WROTE_ATTRIBUTE, Boolean.TRUE);
+        String session = sessionKey(request);
+        if (session != null && stickyNanos > 0) {
+            lastWrites.put(session, nanoClock.getAsLong());
+        }
+    }
+
+    private static void recordThreadWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || WROTE_ON_THREAD.get() != null) {
+            return;
+        }
+        WROTE_ON_THREAD.set(Boolean.TRUE);
+        // Ultima en afterCompletion: los listeners AFTER_COMMIT corren ahi
+        // y tienen orden menor o se registraron antes
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                WROTE_ON_THREAD.remove();
+            }
+        });
+    }
+
+    private boolean isSticky() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return WROTE_ON_THREAD.get() != null;
+        }
+        if (request.getAttribute(WROTE_ATTRIBUTE) != null) {
+            return true;
+        }
+        String session = sessionKey(request);
+        Long wroteAt = session != null ? lastWrites.get(session) : null;
+        return wroteAt != null && nanoClock.getAsLong() - wroteAt < stickyNanos;
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+    }
+
+    /**
+     * Sesion HTTP del panel o, en la API sin estado, un hash del token: el
+     * token no queda en memoria mientras dura la ventana.
+     */
+    static String sessionKey(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return session.getId();
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization != null ? sha256(authorization) : null;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // ========== Chequeo de la replica ==========
+
+    /**
+     * Mide el atraso de la replica respecto del primario y purga las
+     * sesiones que ya no leen del primario. Lo llama una tarea programada,
+     * nunca en paralelo.
+     */
+    public void checkLag(DataSource primary) {
+        long now = nanoClock.getAsLong();
+        lastWrites.values().removeIf(wroteAt -> now - wroteAt >= stickyNanos);
+
+        String primaryLsn;
+        try (Connection connection = primary.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery(PRIMARY_LSN_SQL)) {
+                resultSet.next();
+                primaryLsn = resultSet.getString(1);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Sin la posicion del primario no se puede medir el atraso
+            update(new ReplicaState(Status.LAGGING, -1), "sin posicion del primario: " + e.getMessage());
+            return;
+        }
+
+        Long lagMs;
+        try (Connection connection = replica.getConnection();
+                PreparedStatement statement = connection.prepareStatement(LAG_SQL)) {
+            statement.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            statement.setString(1, primaryLsn);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                long value = resultSet.getLong(1);
+                lagMs = resultSet.wasNull() ? null : value;
+            }
+        } catch (SQLException | RuntimeException e) {
+            markDown(e);
+            return;
+        }
+
+        // Despues de un rato sin escrituras en el primario, la ultima
+        // transaccion aplicada es vieja y la primera que llega haria parecer
+        // a la replica muy atrasada. Lo que le falta aplicar lo recibio
+        // despues del ultimo chequeo que la encontro al dia: el atraso real
+        // no supera ese tiempo
+        if (lagMs != null && lagMs == 0) {
+            caughtUpAt = now;
+        } else if (caughtUpAt >= 0) {
+            long sinceCaughtUpMs = TimeUnit.NANOSECONDS.toMillis(now - caughtUpAt);
+            lagMs = lagMs == null ? sinceCaughtUpMs : Math.min(lagMs, sinceCaughtUpMs);
+        }
+
+        if (lagMs == null) {
+            update(new ReplicaState(Status.LAGGING, -1), "todavia no aplico cambios del primario");
+        } else if (lagMs > maxLagMs) {
+            update(new ReplicaState(Status.LAGGING, lagMs), "atrasada " + lagMs + " ms (maximo " + maxLagMs + ")");
+        } else {
+            update(new ReplicaState(Status.AVAILABLE, lagMs), null);
+        }
+    }
+
+    private void markDown(Exception error) {
+        update(new ReplicaState(Status.DOWN, -1), "sin respuesta: " + error.getMessage());
+    }
+
+    private synchronized void update(ReplicaState next, String reason) {
+        Status previous = state.status();
+        state = next;
+        if (previous == next.status()) {
+            return;
+        }
+        if (next.status() == Status.AVAILABLE) {
+            log.info("Replica de lectura disponible (atraso {} ms)", next.lagMs());
+        } else {
+            log.warn("Replica de lectura {}: las lecturas van al primario", reason);
+        }
+    }
+
+    // ========== Estado ==========
+
+    public ReplicaState state() {
+        return state;
+    }
+
+    /** Lecturas acumuladas por destino */
+    public long reads(Route route) {
+        return reads.get(route).sum();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (replica instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.malva_pastry_shop.backend.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Habilita las tareas programadas (@Scheduled).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Con spring.main.lazy-initialization=true un bean solo se crea al
+     * usarlo, y las tareas @Scheduled se registran al crear el bean: sin
+     * este filtro los jobs que nadie inyecta no se ejecutarian nunca.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && AnnotationUtils.isCandidateClass(beanType, Scheduled.class)
+                && !MethodIntrospector.selectMethods(beanType,
+                        (MethodIntrospector.MetadataLookup<Boolean>) method -> AnnotatedElementUtils
+                                .hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null)
+                        .isEmpty();
+    }
+}
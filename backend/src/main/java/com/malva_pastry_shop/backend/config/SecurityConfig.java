@@ -32,6 +32,33 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Actuator Security Filter Chain - prioridad maxima (Order 0).
+     * Health publico (health check de Render); el resto, incluido
+     * /actuator/prometheus, con HTTP Basic de un usuario ADMIN del panel.
+     */
+    @Bean
+    @Order(0)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .anyRequest().hasRole("ADMIN"))
+                // 401 directo: con sendError el /error cae en la cadena del panel (302 al login)
+                .httpBasic(basic -> basic.authenticationEntryPoint((req, res, ex) -> {
+                    res.setHeader("WWW-Authenticate", "Basic realm=\"actuator\"");
+                    res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                }))
+                .exceptionHandling(exceptions -> exceptions
+                        .accessDeniedHandler((req, res, ex) -> res.setStatus(HttpServletResponse.SC_FORBIDDEN)));
+
+        return http.build();
+    }
+
     /**
      * API Security Filter Chain - prioridad alta (Order 1).
      * Maneja /api/** con JWT, stateless, sin CSRF.
@@ -83,6 +110,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Recursos estáticos públicos
                         .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
+                        // Catalogo estatico publicado para la tienda
+                        .requestMatchers(HttpMethod.GET, "/static-catalog/**").permitAll()
                         // Login público
                         .requestMatchers("/login", "/login/**").permitAll()
                         // Gestión de usuarios solo para ADMIN
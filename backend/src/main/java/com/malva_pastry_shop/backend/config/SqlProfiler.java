@@ -0,0 +1,297 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Perfil SQL por pedido y ranking de sentencias lentas.
+ *
+ * SqlProfilerFilter abre un perfil por pedido; cada sentencia que ejecuta
+ * el hilo suma al perfil: cantidad, tiempo en la base y las mas lentas con
+ * la forma de sus parametros (tipos, nunca valores). Ademas todas las
+ * sentencias, con pedido o sin el (tareas programadas), se agrupan por
+ * texto en una ventana rotativa para el endpoint slowqueries.
+ *
+ * Por sentencia cuesta un nanoTime y la actualizacion de un mapa; la forma
+ * de los parametros se arma solo para las que quedan entre las mas lentas.
+ * El tiempo es el de execute: no incluye recorrer el ResultSet.
+ */
+public class SqlProfiler {
+
+    public enum Sort {
+        /** Tiempo total en la ventana (lo que mas carga a la base) */
+        TOTAL,
+        /** Ejecucion mas lenta */
+        MAX,
+        /** Tiempo medio */
+        MEAN
+    }
+
+    /** Sentencia con su duracion y la forma de sus parametros, p. ej. (Long, String) */
+    public record SlowStatement(String sql, String parameters, long nanos) {
+
+        public double millis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /** Resumen SQL de un pedido; slowest va de la mas lenta a la mas rapida */
+    public record RequestProfile(int statements, long dbNanos, List<SlowStatement> slowest) {
+
+        public double dbMillis() {
+            return dbNanos / 1_000_000.0;
+        }
+    }
+
+    /** Sentencias con el mismo texto; parameters es la forma de la ejecucion mas lenta */
+    public record QueryStats(String sql, long count, double totalMs, double meanMs, double maxMs, String parameters) {
+    }
+
+    /**
+     * Ranking de la ventana. Cubre desde windowStart hasta ahora (la ventana
+     * actual y la anterior); droppedStatements son las ejecuciones que no se
+     * agruparon porque se lleno el maximo de textos distintos.
+     */
+    public record Report(Instant windowStart, int distinctQueries, long droppedStatements, List<QueryStats> queries) {
+    }
+
+    // ========== Pedido ==========
+
+    /** Perfil del pedido en curso del hilo */
+    private static final class Recorder {
+        final SlowStatement[] slowest;
+        int size;
+        int statements;
+        long dbNanos;
+
+        Recorder(int slowestPerRequest) {
+            this.slowest = new SlowStatement[slowestPerRequest];
+        }
+
+        void add(String sql, long nanos, Supplier<String> parameters) {
+            statements++;
+            dbNanos += nanos;
+            if (slowest.length == 0 || (size == slowest.length && nanos <= slowest[size - 1].nanos())) {
+                return;
+            }
+            // Insercion ordenada: son pocas posiciones
+            int position = Math.min(size, slowest.length - 1);
+            while (position > 0 && slowest[position - 1].nanos() < nanos) {
+                slowest[position] = slowest[position - 1];
+                position--;
+            }
+            slowest[position] = new SlowStatement(sql, parameters.get(), nanos);
+            size = Math.min(size + 1, slowest.length);
+        }
+
+        RequestProfile toProfile() {
+            return new RequestProfile(statements, dbNanos, List.copyOf(Arrays.asList(slowest).subList(0, size)));
+        }
+    }
+
+    // ========== Ventana ==========
+
+    private static final class Window {
+        final long startNanos = System.nanoTime();
+        final Instant start = Instant.now();
+        final Map<String, Aggregate> queries = new ConcurrentHashMap<>();
+        final LongAdder dropped = new LongAdder();
+    }
+
+    private static final class Aggregate {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        volatile long maxNanos;
+        volatile String maxParameters;
+
+        void add(long nanos, Supplier<String> parameters) {
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos) {
+                synchronized (this) {
+                    if (nanos > maxNanos) {
+                        maxNanos = nanos;
+                        maxParameters = parameters.get();
+                    }
+                }
+            }
+        }
+    }
+
+    private final int slowestPerRequest;
+    private final long windowNanos;
+    private final int maxQueries;
+    private final ThreadLocal<Recorder> current = new ThreadLocal<>();
+
+    private volatile Window window = new Window();
+    private volatile Window previous;
+
+    /**
+     * @param slowestPerRequest sentencias lentas que guarda cada perfil
+     * @param windowMinutes     duracion de la ventana del ranking; se informa
+     *                          la actual y la anterior
+     * @param maxQueries        textos distintos por ventana (acota la memoria
+     *                          si alguna consulta arma el SQL con valores)
+     */
+    public SqlProfiler(int slowestPerRequest, long windowMinutes, int maxQueries) {
+        if (slowestPerRequest < 0 || windowMinutes < 1 || maxQueries < 1) {
+            throw new IllegalArgumentException("Configuracion invalida del perfil SQL");
+        }
+        this.slowestPerRequest = slowestPerRequest;
+        this.windowNanos = TimeUnit.MINUTES.toNanos(windowMinutes);
+        this.maxQueries = maxQueries;
+    }
+
+    /** Empieza el perfil del pedido del hilo actual */
+    public void begin() {
+        current.set(new Recorder(slowestPerRequest));
+    }
+
+    /** Termina el perfil del hilo; null si no habia uno abierto */
+    public RequestProfile end() {
+        Recorder recorder = current.get();
+        current.remove();
+        return recorder == null ? null : recorder.toProfile();
+    }
+
+    /**
+     * Registra una sentencia ejecutada por el hilo actual.
+     *
+     * @param parameters forma de los parametros; se evalua solo si hace falta
+     */
+    public void record(String sql, long nanos, Supplier<String> parameters) {
+        String text = compact(sql);
+        Supplier<String> once = memoize(parameters);
+
+        Recorder recorder = current.get();
+        if (recorder != null) {
+            recorder.add(text, nanos, once);
+        }
+
+        Window target = window();
+        Aggregate aggregate = target.queries.get(text);
+        if (aggregate == null) {
+            if (target.queries.size() >= maxQueries) {
+                target.dropped.increment();
+                return;
+            }
+            aggregate = target.queries.computeIfAbsent(text, key -> new Aggregate());
+        }
+        aggregate.add(nanos, once);
+    }
+
+    // ========== Ranking ==========
+
+    public Report report(int limit, Sort sort) {
+        Window actual = window();
+        Window last = previous;
+        Map<String, long[]> totals = new HashMap<>();
+        Map<String, String> parameters = new HashMap<>();
+        long dropped = actual.dropped.sum();
+        Instant start = actual.start;
+
+        List<Window> windows = new ArrayList<>(List.of(actual));
+        if (last != null && actual.startNanos - last.startNanos <= windowNanos * 2) {
+            windows.add(last);
+            dropped += last.dropped.sum();
+            start = last.start;
+        }
+        for (Window w : windows) {
+            w.queries.forEach((sql, aggregate) -> {
+                long[] sums = totals.computeIfAbsent(sql, key -> new long[3]);
+                sums[0] += aggregate.count.sum();
+                sums[1] += aggregate.totalNanos.sum();
+                if (aggregate.maxNanos > sums[2]) {
+                    sums[2] = aggregate.maxNanos;
+                    parameters.put(sql, aggregate.maxParameters);
+                }
+            });
+        }
+
+        Comparator<QueryStats> order = switch (sort) {
+            case TOTAL -> Comparator.comparingDouble(QueryStats::totalMs);
+            case MAX -> Comparator.comparingDouble(QueryStats::maxMs);
+            case MEAN -> Comparator.comparingDouble(QueryStats::meanMs);
+        };
+        List<QueryStats> queries = totals.entrySet().stream()
+                .filter(entry -> entry.getValue()[0] > 0)
+                .map(entry -> {
+                    long[] sums = entry.getValue();
+                    return new QueryStats(entry.getKey(), sums[0], millis(sums[1]),
+                            millis(sums[1]) / sums[0], millis(sums[2]), parameters.get(entry.getKey()));
+                })
+                .sorted(order.reversed())
+                .limit(Math.max(limit, 0))
+                .toList();
+        return new Report(start, totals.size(), dropped, queries);
+    }
+
+    /** Descarta el ranking (p. ej. despues de corregir una consulta) */
+    public synchronized void reset() {
+        previous = null;
+        window = new Window();
+    }
+
+    private Window window() {
+        Window actual = window;
+        if (System.nanoTime() - actual.startNanos >= windowNanos) {
+            synchronized (this) {
+                actual = window;
+                if (System.nanoTime() - actual.startNanos >= windowNanos) {
+                    previous = actual;
+                    actual = new Window();
+                    window = actual;
+                }
+            }
+        }
+        return actual;
+    }
+
+    // ========== Utilidades ==========
+
+    /** Una linea por sentencia (con format_sql=true Hibernate las parte) */
+    static String compact(String sql) {
+        String text = sql.strip();
+        return text.indexOf('\n') < 0 && text.indexOf("  ") < 0 ? text : text.replaceAll("\\s+", " ");
+    }
+
+    /** SQL recortado para el log */
+    public static String abbreviate(String sql, int maxLength) {
+        return sql.length() <= maxLength ? sql : sql.substring(0, maxLength) + "...";
+    }
+
+    public static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.TOTAL;
+        }
+        try {
+            return Sort.valueOf(sort.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Orden invalido: " + sort + " (total, max o mean)");
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Supplier<String> memoize(Supplier<String> supplier) {
+        String[] value = { null };
+        return () -> {
+            if (value[0] == null) {
+                value[0] = supplier.get();
+            }
+            return value[0];
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import javax.sql.DataSource;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Perfil SQL (ver SqlProfiler): envuelve el DataSource con datasource-proxy,
+ * abre un perfil por pedido y publica el ranking de sentencias lentas en
+ * /actuator/slowqueries (solo ADMIN, como el resto de Actuator).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.sql-profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilerConfig {
+
+    static final String PROXY_NAME = "sql-profiler";
+
+    @Bean
+    SqlProfiler sqlProfiler(
+            @Value("${app.sql-profiler.slowest-per-request:3}") int slowestPerRequest,
+            @Value("${app.sql-profiler.window-minutes:60}") long windowMinutes,
+            @Value("${app.sql-profiler.max-queries:500}") int maxQueries) {
+        return new SqlProfiler(slowestPerRequest, windowMinutes, maxQueries);
+    }
+
+    /**
+     * Static y con ObjectProvider, como el del bulkhead: el perfil se crea
+     * recien al envolver el DataSource.
+     */
+    @Bean
+    static BeanPostProcessor sqlProfilerDataSourcePostProcessor(ObjectProvider<SqlProfiler> profiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !isProfiled(dataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(PROXY_NAME)
+                            .listener(new ProfilingListener(profiler.getObject()))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static boolean isProfiled(DataSource dataSource) {
+        return dataSource instanceof ProxyDataSource proxy
+                && PROXY_NAME.equals(proxy.getProxyConfig().getDataSourceName());
+    }
+
+    /** Antes del bulkhead, asi el tiempo del pedido incluye la espera del permiso */
+    @Bean
+    FilterRegistrationBean<SqlProfilerFilter> sqlProfilerFilter(
+            SqlProfiler profiler,
+            @Value("${app.sql-profiler.slow-request-ms:1000}") long slowRequestMs,
+            @Value("${app.sql-profiler.max-statements:50}") int maxStatements) {
+        FilterRegistrationBean<SqlProfilerFilter> registration = new FilterRegistrationBean<>(
+                new SqlProfilerFilter(profiler, slowRequestMs, maxStatements));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    SlowQueriesEndpoint slowQueriesEndpoint(SqlProfiler profiler) {
+        return new SlowQueriesEndpoint(profiler);
+    }
+
+    /**
+     * GET /actuator/slowqueries?limit=20&sort=total|max|mean
+     * DELETE /actuator/slowqueries reinicia el ranking.
+     */
+    @Endpoint(id = "slowqueries")
+    public static class SlowQueriesEndpoint {
+
+        private static final int DEFAULT_LIMIT = 20;
+
+        private final SqlProfiler profiler;
+
+        SlowQueriesEndpoint(SqlProfiler profiler) {
+            this.profiler = profiler;
+        }
+
+        /** Un orden desconocido responde 400 */
+        @ReadOperation
+        public SqlProfiler.Report slowQueries(@Nullable Integer limit, @Nullable String sort) {
+            SqlProfiler.Sort order;
+            try {
+                order = SqlProfiler.parseSort(sort);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+            }
+            return profiler.report(limit != null ? limit : DEFAULT_LIMIT, order);
+        }
+
+        @DeleteOperation
+        public void reset() {
+            profiler.reset();
+        }
+    }
+
+    /**
+     * Mide cada ejecucion con nanoTime (el elapsedTime de datasource-proxy es
+     * en milisegundos). Un batch de varias sentencias distintas reparte el
+     * tiempo entre ellas.
+     */
+    static class ProfilingListener implements QueryExecutionListener {
+
+        private static final String START = ProfilingListener.class.getName() + ".start";
+
+        private final SqlProfiler profiler;
+
+        ProfilingListener(SqlProfiler profiler) {
+            this.profiler = profiler;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            execInfo.addCustomValue(START, System.nanoTime());
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (queryInfoList.isEmpty()) {
+                return;
+            }
+            Long start = execInfo.getCustomValue(START, Long.class);
+            long nanos = start != null ? System.nanoTime() - start : execInfo.getElapsedTime() * 1_000_000;
+            long share = nanos / queryInfoList.size();
+            for (QueryInfo queryInfo : queryInfoList) {
+                profiler.record(queryInfo.getQuery(), share, () -> parameterShape(queryInfo));
+            }
+        }
+    }
+
+    /**
+     * Tipos de los parametros de la primera ejecucion en el orden en que se
+     * asignaron, p. ej. (Long, String); en un batch se agrega la cantidad de
+     * filas (x25).
+     */
+    static String parameterShape(QueryInfo queryInfo) {
+        List<List<ParameterSetOperation>> executions = queryInfo.getParametersList();
+        if (executions.isEmpty()) {
+            return "()";
+        }
+        StringJoiner shape = new StringJoiner(", ", "(", ")");
+        executions.get(0).stream()
+                .filter(operation -> !ParameterSetOperation.isRegisterOutParameterOperation(operation))
+                .forEach(operation -> shape.add(parameterType(operation)));
+        return executions.size() > 1 ? shape + " x" + executions.size() : shape.toString();
+    }
+
+    private static String parameterType(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2 || args[1] == null) {
+            return "null";
+        }
+        return args[1].getClass().getSimpleName();
+    }
+}
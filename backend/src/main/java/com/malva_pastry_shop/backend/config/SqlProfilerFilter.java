@@ -0,0 +1,81 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.malva_pastry_shop.backend.config.SqlProfiler.RequestProfile;
+import com.malva_pastry_shop.backend.config.SqlProfiler.SlowStatement;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Abre el perfil SQL de cada pedido y deja en el log los lentos (o los que
+ * ejecutan demasiadas sentencias, la marca de un N+1) con el desglose: cuantas
+ * sentencias, cuanto tiempo en la base y las mas lentas.
+ */
+public class SqlProfilerFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlProfilerFilter.class);
+
+    private static final int LOGGED_SQL_LENGTH = 300;
+
+    private final SqlProfiler profiler;
+    private final long slowRequestMs;
+    private final int maxStatements;
+
+    /**
+     * @param slowRequestMs pedidos que tardan esto o mas van al log (0 lo desactiva)
+     * @param maxStatements pedidos con mas sentencias van al log (0 lo desactiva)
+     */
+    public SqlProfilerFilter(SqlProfiler profiler, long slowRequestMs, int maxStatements) {
+        this.profiler = profiler;
+        this.slowRequestMs = slowRequestMs;
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long start = System.nanoTime();
+        profiler.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestProfile profile = profiler.end();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            if (profile != null && isReported(elapsedMs, profile)) {
+                log.warn("Pedido lento {} {} ({}): {} ms, {} sentencias, {} ms en la base{}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMs,
+                        profile.statements(), String.format("%.1f", profile.dbMillis()), describe(profile));
+            }
+        }
+    }
+
+    /** Actuator queda afuera: los scrapes de Prometheus no tocan la base */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/actuator/");
+    }
+
+    private boolean isReported(long elapsedMs, RequestProfile profile) {
+        return (slowRequestMs > 0 && elapsedMs >= slowRequestMs)
+                || (maxStatements > 0 && profile.statements() > maxStatements);
+    }
+
+    private static String describe(RequestProfile profile) {
+        StringBuilder text = new StringBuilder();
+        for (SlowStatement statement : profile.slowest()) {
+            text.append(System.lineSeparator())
+                    .append(String.format("  %8.1f ms %s %s", statement.millis(), statement.parameters(),
+                            SqlProfiler.abbreviate(statement.sql(), LOGGED_SQL_LENGTH)));
+        }
+        return text.toString();
+    }
+}
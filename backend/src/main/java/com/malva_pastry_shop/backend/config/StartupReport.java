@@ -0,0 +1,106 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reporte del arranque en el log: tiempo hasta estar listo y los beans que
+ * mas tardaron en crearse, para que una regresion se note en el deploy.
+ *
+ * Usa los pasos que registra BufferingApplicationStartup (configurado en
+ * MalvaPastryShopApplication). El tiempo de cada bean es propio, sin contar
+ * las dependencias que se crearon dentro de el.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private static final String BEAN_INSTANTIATE_STEP = "spring.beans.instantiate";
+
+    /** Tiempo propio de un bean durante el arranque */
+    record BeanTiming(String beanName, long millis) {
+    }
+
+    @Value("${app.startup.report-top:10}")
+    private int reportTop;
+
+    /** 0 desactiva el aviso */
+    @Value("${app.startup.warn-after-ms:0}")
+    private long warnAfterMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        long readyMs = runtime.getUptime();
+        boolean cds = runtime.getInputArguments().stream()
+                .anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        String slowest = startup instanceof BufferingApplicationStartup buffering
+                ? slowestBeans(buffering.getBufferedTimeline().getEvents(), reportTop).stream()
+                        .map(timing -> timing.beanName() + "=" + timing.millis() + "ms")
+                        .collect(Collectors.joining(", "))
+                : "sin datos";
+
+        log.info("Arranque: listo en {} ms desde la JVM (contexto {} ms, CDS {}, lazy {}); beans mas lentos: {}",
+                readyMs, event.getTimeTaken().toMillis(), cds ? "activo" : "inactivo",
+                event.getApplicationContext().getEnvironment()
+                        .getProperty("spring.main.lazy-initialization", "false"),
+                slowest);
+        if (warnAfterMs > 0 && readyMs > warnAfterMs) {
+            log.warn("Arranque lento: {} ms (limite {} ms)", readyMs, warnAfterMs);
+        }
+    }
+
+    /**
+     * Tiempo propio de cada bean: lo que tardo su paso menos lo que tardaron
+     * los pasos anidados (dependencias creadas mientras se creaba).
+     */
+    static List<BeanTiming> slowestBeans(List<TimelineEvent> events, int limit) {
+        Map<Long, Long> nestedNanos = new HashMap<>();
+        for (TimelineEvent timelineEvent : events) {
+            Long parentId = timelineEvent.getStartupStep().getParentId();
+            if (parentId != null) {
+                nestedNanos.merge(parentId, timelineEvent.getDuration().toNanos(), Long::sum);
+            }
+        }
+
+        return events.stream()
+                .filter(timelineEvent -> BEAN_INSTANTIATE_STEP.equals(timelineEvent.getStartupStep().getName()))
+                .map(timelineEvent -> {
+                    StartupStep step = timelineEvent.getStartupStep();
+                    long selfNanos = timelineEvent.getDuration().toNanos()
+                            - nestedNanos.getOrDefault(step.getId(), 0L);
+                    return new BeanTiming(beanName(step), selfNanos / 1_000_000);
+                })
+                .sorted(Comparator.comparingLong(BeanTiming::millis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
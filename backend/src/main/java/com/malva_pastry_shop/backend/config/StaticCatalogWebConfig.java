@@ -0,0 +1,57 @@
+package com.malva_pastry_shop.backend.config;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+/**
+ * Sirve el catalogo estatico (ver StaticCatalogPublisher) desde el
+ * directorio publicado. Los archivos versionados no cambian nunca y se
+ * cachean un ano; el manifest se revalida en cada lectura. Si el cliente
+ * acepta gzip se entrega la copia .gz ya comprimida.
+ */
+@Configuration
+public class StaticCatalogWebConfig implements WebMvcConfigurer {
+
+    private static final String PATH_PREFIX = "/static-catalog";
+
+    @Value("${app.static-catalog.dir:./static-catalog}")
+    private Path directory;
+
+    @Value("${app.cors.allowed-origins}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        String location = directory.toAbsolutePath().normalize().toUri().toString();
+
+        registry.addResourceHandler(PATH_PREFIX + "/*.json")
+                .addResourceLocations(location)
+                .setCacheControl(CacheControl.noCache().cachePublic())
+                .resourceChain(false)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+
+        registry.addResourceHandler(PATH_PREFIX + "/v-*/**")
+                .addResourceLocations(location)
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(false)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+    }
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping(PATH_PREFIX + "/**")
+                .allowedOrigins(allowedOrigins)
+                .allowedMethods("GET", "HEAD");
+    }
+}
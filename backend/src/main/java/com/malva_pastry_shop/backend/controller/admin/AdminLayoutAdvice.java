@@ -0,0 +1,25 @@
+package com.malva_pastry_shop.backend.controller.admin;
+
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+import com.malva_pastry_shop.backend.service.publicuser.PendingReviewCounter;
+
+/**
+ * Datos comunes del layout de administracion (menu lateral).
+ */
+@ControllerAdvice(basePackageClasses = AdminLayoutAdvice.class)
+public class AdminLayoutAdvice {
+
+    private final PendingReviewCounter pendingReviewCounter;
+
+    public AdminLayoutAdvice(PendingReviewCounter pendingReviewCounter) {
+        this.pendingReviewCounter = pendingReviewCounter;
+    }
+
+    // Contador cacheado: no consulta la base en cada pagina
+    @ModelAttribute("pendingReviewCount")
+    public long pendingReviewCount() {
+        return pendingReviewCounter.get();
+    }
+}
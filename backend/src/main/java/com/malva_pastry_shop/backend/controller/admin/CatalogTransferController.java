@@ -0,0 +1,88 @@
+package com.malva_pastry_shop.backend.controller.admin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import com.malva_pastry_shop.backend.domain.auth.User;
+import com.malva_pastry_shop.backend.dto.response.admin.CatalogImportResultDTO;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO;
+import com.malva_pastry_shop.backend.service.storefront.CatalogTransferService;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Exportacion e importacion del catalogo completo en JSON.
+ */
+@Controller
+@RequestMapping("/catalog-transfer")
+@PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM_ADMIN')")
+public class CatalogTransferController {
+
+    private final CatalogTransferService catalogTransferService;
+    private final JsonMapper jsonMapper;
+
+    public CatalogTransferController(CatalogTransferService catalogTransferService, JsonMapper jsonMapper) {
+        this.catalogTransferService = catalogTransferService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @GetMapping("/export")
+    @ResponseBody
+    public ResponseEntity<CatalogTransferDTO> export() {
+        String fileName = "catalogo-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".json";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(catalogTransferService.exportCatalog());
+    }
+
+    @PostMapping("/import")
+    public String importCatalog(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal User currentUser,
+            RedirectAttributes redirectAttributes) {
+
+        if (file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Selecciona un archivo JSON para importar");
+            return "redirect:/products";
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            CatalogTransferDTO catalog = jsonMapper.readValue(in, CatalogTransferDTO.class);
+            CatalogImportResultDTO result = catalogTransferService.importCatalog(catalog, currentUser);
+            redirectAttributes.addFlashAttribute("success", "Catalogo importado. " + result.summary());
+        } catch (JacksonException e) {
+            redirectAttributes.addFlashAttribute("error", "El archivo no es un catalogo JSON valido: "
+                    + e.getOriginalMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            // Una restriccion que la validacion previa no cubre, o un alta
+            // paralela desde el panel: la transaccion ya se revirtio entera
+            redirectAttributes.addFlashAttribute("error",
+                    "El catalogo no se importo: choca con datos existentes ("
+                            + e.getMostSpecificCause().getMessage() + ")");
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("error", "No se pudo leer el archivo");
+        }
+        return "redirect:/products";
+    }
+}
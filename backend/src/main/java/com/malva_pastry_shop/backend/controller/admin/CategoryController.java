@@ -59,6 +59,8 @@ public class CategoryController {
         }
 
         model.addAttribute("categories", categories);
+        // Conteos de toda la pagina en una sola consulta agrupada
+        model.addAttribute("productCounts", categoryService.countProducts(categories.map(Category::getId).getContent()));
         model.addAttribute("pageTitle", "Categorías");
         return "categories/list";
     }
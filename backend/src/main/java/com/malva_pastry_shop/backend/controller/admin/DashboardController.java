@@ -59,6 +59,9 @@ public class DashboardController {
         LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
         model.addAttribute("ingresoMes", saleService.totalRevenueInRange(startOfMonth, endOfDay));
 
+        // Ingredientes con stock bajo (marcados por el escaneo programado)
+        model.addAttribute("lowStockIngredients", ingredientService.findLowStock());
+
         return "dashboard/index";
     }
 }
@@ -56,6 +56,9 @@ public class IngredientController {
         }
 
         model.addAttribute("ingredients", ingredients);
+        // Conteos de toda la pagina en una sola consulta agrupada
+        model.addAttribute("productCounts",
+                ingredientService.countProductsUsingIngredients(ingredients.map(Ingredient::getId).getContent()));
         model.addAttribute("pageTitle", "Ingredientes");
         return "ingredients/list";
     }
@@ -83,6 +86,7 @@ public class IngredientController {
 
             model.addAttribute("ingredient", ingredient);
             model.addAttribute("usageCount", usageCount);
+            model.addAttribute("priceHistory", ingredientService.getPriceHistory(id));
             model.addAttribute("pageTitle", ingredient.getName());
             return "ingredients/show";
         } catch (EntityNotFoundException e) {
@@ -133,6 +137,9 @@ public class IngredientController {
             request.setDescription(ingredient.getDescription());
             request.setUnitCost(ingredient.getUnitCost());
             request.setUnitOfMeasure(ingredient.getUnitOfMeasure());
+            request.setOnHandQuantity(ingredient.getOnHandQuantity());
+            request.setPreviousOnHandQuantity(ingredient.getOnHandQuantity());
+            request.setReorderPoint(ingredient.getReorderPoint());
 
             model.addAttribute("ingredient", request);
             model.addAttribute("ingredientId", id);
@@ -1,6 +1,11 @@
 package com.malva_pastry_shop.backend.controller.admin;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -11,12 +16,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.access.prepost.PreAuthorize;
 import com.malva_pastry_shop.backend.domain.auth.User;
+import com.malva_pastry_shop.backend.domain.inventory.ProductComponent;
 import com.malva_pastry_shop.backend.domain.storefront.Product;
 import com.malva_pastry_shop.backend.dto.request.ProductRequest;
+import com.malva_pastry_shop.backend.dto.response.admin.RecipeCostPointDTO;
+import com.malva_pastry_shop.backend.service.inventory.IngredientPriceHistoryService;
 import com.malva_pastry_shop.backend.service.storefront.CategoryService;
 import com.malva_pastry_shop.backend.service.storefront.ProductService;
 
@@ -32,13 +41,18 @@ import org.springframework.data.domain.Sort;
 @RequestMapping("/products")
 public class ProductController {
 
+    private static final int AVAILABLE_PAGE_SIZE = 20;
+
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final IngredientPriceHistoryService priceHistoryService;
 
     public ProductController(ProductService productService,
-                             CategoryService categoryService) {
+                             CategoryService categoryService,
+                             IngredientPriceHistoryService priceHistoryService) {
         this.productService = productService;
         this.categoryService = categoryService;
+        this.priceHistoryService = priceHistoryService;
     }
 
     // ========== Listados ==========
@@ -88,7 +102,7 @@ public class ProductController {
     @GetMapping("/{id}")
     public String show(@PathVariable Long id, Model model) {
         try {
-            Product product = productService.findById(id);
+            Product product = productService.findByIdWithDetails(id);
             model.addAttribute("product", product);
             model.addAttribute("pageTitle", product.getName());
             return "products/show";
@@ -274,13 +288,29 @@ public class ProductController {
     // ========== Gestión de Recetas (Ingredientes) ==========
 
     @GetMapping("/{id}/recipe")
-    public String showRecipe(@PathVariable Long id, Model model) {
+    public String showRecipe(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(defaultValue = "0") int availablePage,
+            @RequestParam(required = false) String availableSearch,
+            Model model) {
         try {
             Product product = productService.findById(id);
             model.addAttribute("product", product);
             model.addAttribute("ingredients", productService.getProductIngredients(id));
             model.addAttribute("availableIngredients", productService.getAvailableIngredientsForProduct(id));
+            List<ProductComponent> components = productService.getProductComponents(id);
+            model.addAttribute("components", components);
+            model.addAttribute("componentCosts", productService.calculateRecipeCosts(
+                    components.stream().map(pc -> pc.getComponent().getId()).toList()));
+            model.addAttribute("availableComponents", productService.getAvailableComponentsForProduct(id,
+                    availableSearch, PageRequest.of(availablePage, AVAILABLE_PAGE_SIZE, Sort.by("name").ascending())));
+            model.addAttribute("availableSearch", availableSearch);
             model.addAttribute("recipeCost", productService.calculateRecipeCost(id));
+            if (asOf != null) {
+                model.addAttribute("asOf", asOf);
+                model.addAttribute("recipeCostAsOf", priceHistoryService.getRecipeCostAsOf(id, asOf));
+            }
             model.addAttribute("pageTitle", "Receta: " + product.getName());
             return "products/recipe";
         } catch (EntityNotFoundException e) {
@@ -335,4 +365,90 @@ public class ProductController {
         }
         return "redirect:/products/" + id + "/recipe";
     }
+
+    // ========== Gestión de Sub-recetas ==========
+
+    @PostMapping("/{id}/recipe/components/{componentId}")
+    public String addComponent(
+            @PathVariable Long id,
+            @PathVariable Long componentId,
+            @RequestParam BigDecimal quantity,
+            RedirectAttributes redirectAttributes) {
+        try {
+            productService.addComponentToProduct(id, componentId, quantity);
+            redirectAttributes.addFlashAttribute("success", "Sub-receta agregada a la receta");
+        } catch (EntityNotFoundException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/products/" + id + "/recipe";
+    }
+
+    @PostMapping("/{id}/recipe/components/{componentId}/remove")
+    public String removeComponent(
+            @PathVariable Long id,
+            @PathVariable Long componentId,
+            RedirectAttributes redirectAttributes) {
+        try {
+            productService.removeComponentFromProduct(id, componentId);
+            redirectAttributes.addFlashAttribute("success", "Sub-receta removida de la receta");
+        } catch (EntityNotFoundException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/products/" + id + "/recipe";
+    }
+
+    @PostMapping("/{id}/recipe/components/{componentId}/update")
+    public String updateComponentQuantity(
+            @PathVariable Long id,
+            @PathVariable Long componentId,
+            @RequestParam BigDecimal quantity,
+            RedirectAttributes redirectAttributes) {
+        try {
+            productService.updateComponentQuantity(id, componentId, quantity);
+            redirectAttributes.addFlashAttribute("success", "Cantidad actualizada");
+        } catch (EntityNotFoundException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/products/" + id + "/recipe";
+    }
+
+    // ========== Costo Historico de Recetas ==========
+
+    /**
+     * Costo de la receta actual con los precios vigentes en la fecha indicada.
+     */
+    @GetMapping("/{id}/recipe/cost")
+    @ResponseBody
+    public ResponseEntity<RecipeCostPointDTO> getRecipeCostAsOf(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        try {
+            productService.findById(id);
+            BigDecimal cost = priceHistoryService.getRecipeCostAsOf(id, asOf);
+            return ResponseEntity.ok(new RecipeCostPointDTO(id, asOf, cost));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Costo diario de las recetas de varios productos entre dos fechas.
+     * Ejemplo: /products/recipe-cost-trend?productIds=1,2&from=2025-01-01&to=2025-03-31
+     */
+    @GetMapping("/recipe-cost-trend")
+    @ResponseBody
+    public ResponseEntity<List<RecipeCostPointDTO>> getRecipeCostTrend(
+            @RequestParam List<Long> productIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(priceHistoryService.getRecipeCostTrend(productIds, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
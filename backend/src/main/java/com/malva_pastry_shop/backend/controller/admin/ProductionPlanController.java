@@ -0,0 +1,97 @@
+package com.malva_pastry_shop.backend.controller.admin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import com.malva_pastry_shop.backend.domain.storefront.Product;
+import com.malva_pastry_shop.backend.dto.request.ProductionPlanRequest;
+import com.malva_pastry_shop.backend.dto.response.admin.ProductionPlanDTO;
+import com.malva_pastry_shop.backend.service.inventory.ProductionPlanningService;
+import com.malva_pastry_shop.backend.service.storefront.ProductService;
+
+import jakarta.validation.Valid;
+
+@Controller
+@RequestMapping("/production-plan")
+public class ProductionPlanController {
+
+    private final ProductionPlanningService planningService;
+    private final ProductService productService;
+
+    public ProductionPlanController(ProductionPlanningService planningService,
+            ProductService productService) {
+        this.planningService = planningService;
+        this.productService = productService;
+    }
+
+    @GetMapping
+    public String showForm(Model model) {
+        return renderPage(model, Map.of(), null);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public String calculate(
+            @RequestParam(name = "productId", required = false) List<Long> productIds,
+            @RequestParam(name = "quantity", required = false) List<Integer> quantities,
+            Model model) {
+
+        List<ProductionPlanRequest.Item> items = new ArrayList<>();
+        Map<Long, Integer> entered = new HashMap<>();
+        if (productIds != null && quantities != null) {
+            for (int i = 0; i < Math.min(productIds.size(), quantities.size()); i++) {
+                Integer quantity = quantities.get(i);
+                if (quantity != null && quantity > 0) {
+                    items.add(new ProductionPlanRequest.Item(productIds.get(i), quantity));
+                    entered.put(productIds.get(i), quantity);
+                }
+            }
+        }
+
+        if (items.isEmpty()) {
+            model.addAttribute("error", "Debe indicar la cantidad de al menos un producto");
+            return renderPage(model, entered, null);
+        }
+
+        return renderPage(model, entered, planningService.plan(items));
+    }
+
+    /**
+     * Variante JSON del plan de produccion.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<ProductionPlanDTO> calculateJson(@Valid @RequestBody ProductionPlanRequest request) {
+        return ResponseEntity.ok(planningService.plan(request.getItems()));
+    }
+
+    private String renderPage(Model model, Map<Long, Integer> entered, ProductionPlanDTO plan) {
+        Pageable pageable = PageRequest.of(0, 1000, Sort.by("name").ascending());
+        List<Product> products = productService.findAllActive(pageable).getContent();
+
+        Map<Long, String> productNames = new HashMap<>();
+        products.forEach(p -> productNames.put(p.getId(), p.getName()));
+
+        model.addAttribute("products", products);
+        model.addAttribute("productNames", productNames);
+        model.addAttribute("entered", entered);
+        model.addAttribute("plan", plan);
+        model.addAttribute("pageTitle", "Plan de Produccion");
+        return "production-plan/index";
+    }
+}
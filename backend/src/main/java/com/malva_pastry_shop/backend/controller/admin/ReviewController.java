@@ -0,0 +1,116 @@
+package com.malva_pastry_shop.backend.controller.admin;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import com.malva_pastry_shop.backend.domain.auth.User;
+import com.malva_pastry_shop.backend.domain.publicuser.ReviewStatus;
+import com.malva_pastry_shop.backend.service.publicuser.ProductReviewService;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@Controller
+@RequestMapping("/reviews")
+public class ReviewController {
+
+    private final ProductReviewService reviewService;
+
+    public ReviewController(ProductReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    // ========== Listado ==========
+
+    @GetMapping
+    public String list(
+            @RequestParam(defaultValue = "PENDING") ReviewStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Model model) {
+
+        // Pendientes: las mas antiguas primero; el resto, las ultimas moderadas
+        Sort sort = status == ReviewStatus.PENDING
+                ? Sort.by("insertedAt").ascending()
+                : Sort.by("moderatedAt").descending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+
+        model.addAttribute("reviews", reviewService.findByStatus(status, pageable));
+        model.addAttribute("status", status);
+        model.addAttribute("statuses", ReviewStatus.values());
+        model.addAttribute("maxBulkSize", ProductReviewService.MAX_BULK_SIZE);
+        model.addAttribute("pageTitle", "Resenas");
+        return "reviews/list";
+    }
+
+    // ========== Moderacion ==========
+
+    @PostMapping("/{id}/approve")
+    public String approve(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "PENDING") ReviewStatus status,
+            @AuthenticationPrincipal User currentUser,
+            RedirectAttributes redirectAttributes) {
+
+        try {
+            reviewService.approve(id, currentUser);
+            redirectAttributes.addFlashAttribute("success", "Resena aprobada");
+        } catch (EntityNotFoundException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/reviews?status=" + status;
+    }
+
+    @PostMapping("/{id}/reject")
+    public String reject(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "PENDING") ReviewStatus status,
+            @AuthenticationPrincipal User currentUser,
+            RedirectAttributes redirectAttributes) {
+
+        try {
+            reviewService.reject(id, currentUser);
+            redirectAttributes.addFlashAttribute("success", "Resena rechazada");
+        } catch (EntityNotFoundException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/reviews?status=" + status;
+    }
+
+    /**
+     * Aprueba o rechaza las resenas seleccionadas en una sola operacion.
+     */
+    @PostMapping("/bulk")
+    public String bulk(
+            @RequestParam(name = "ids", required = false) List<Long> ids,
+            @RequestParam ReviewStatus target,
+            @RequestParam(defaultValue = "PENDING") ReviewStatus status,
+            @AuthenticationPrincipal User currentUser,
+            RedirectAttributes redirectAttributes) {
+
+        if (ids == null || ids.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "No se selecciono ninguna resena");
+            return "redirect:/reviews?status=" + status;
+        }
+
+        try {
+            int changed = reviewService.moderateAll(ids, target, currentUser);
+            String verb = target == ReviewStatus.APPROVED ? "aprobada(s)" : "rechazada(s)";
+            redirectAttributes.addFlashAttribute("success", changed + " resena(s) " + verb);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/reviews?status=" + status;
+    }
+}
@@ -30,6 +30,9 @@ import jakarta.validation.Valid;
 @RequestMapping("/tags")
 public class TagController {
 
+    /** Tamano de pagina del selector de productos disponibles */
+    private static final int AVAILABLE_PAGE_SIZE = 20;
+
     private final TagService tagService;
     private final ProductService productService;
 
@@ -58,6 +61,8 @@ public class TagController {
         }
 
         model.addAttribute("tags", tags);
+        // Conteos de toda la pagina en una sola consulta agrupada
+        model.addAttribute("productCounts", productService.countProductsByTags(tags.map(Tag::getId).getContent()));
         model.addAttribute("pageTitle", "Tags");
         return "tags/list";
     }
@@ -212,12 +217,25 @@ public class TagController {
     // ========== Gestión de Productos por Tag ==========
 
     @GetMapping("/{id}/products")
-    public String listProducts(@PathVariable Long id, Model model) {
+    public String listProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int availablePage,
+            @RequestParam(required = false) String availableSearch,
+            Model model) {
         try {
             Tag tag = tagService.findById(id);
+            Sort byName = Sort.by("name").ascending();
             model.addAttribute("tag", tag);
-            model.addAttribute("products", productService.getProductsByTag(id));
-            model.addAttribute("availableProducts", productService.getAvailableProductsForTag(id));
+            model.addAttribute("products",
+                    productService.getProductsByTag(id, search, PageRequest.of(page, size, byName)));
+            model.addAttribute("availableProducts",
+                    productService.getAvailableProductsForTag(id, availableSearch,
+                            PageRequest.of(availablePage, AVAILABLE_PAGE_SIZE, byName)));
+            model.addAttribute("search", search);
+            model.addAttribute("availableSearch", availableSearch);
             model.addAttribute("pageTitle", "Productos con tag: " + tag.getName());
             return "tags/products";
         } catch (EntityNotFoundException e) {
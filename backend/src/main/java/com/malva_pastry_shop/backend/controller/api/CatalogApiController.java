@@ -0,0 +1,80 @@
+package com.malva_pastry_shop.backend.controller.api;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.malva_pastry_shop.backend.dto.response.publicdto.CatalogPageDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.service.storefront.CatalogFacetIndex;
+import com.malva_pastry_shop.backend.service.storefront.CatalogService;
+
+/**
+ * Catalogo publico de productos (sin autenticacion).
+ */
+@RestController
+@RequestMapping("/api/v1/products")
+public class CatalogApiController {
+
+    private final CatalogService catalogService;
+
+    public CatalogApiController(CatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * Listado filtrado con conteos de facetas.
+     * Ejemplo: /api/v1/products?category=2&tags=3&tags=5&allTags=true&maxPrice=50&maxPreparationDays=2
+     * La categoria tambien puede indicarse por slug (categorySlug=tortas).
+     */
+    @GetMapping
+    public CatalogPageDTO search(
+            @RequestParam(required = false) Long category,
+            @RequestParam(required = false) String categorySlug,
+            @RequestParam(required = false) List<Long> tags,
+            @RequestParam(defaultValue = "false") boolean allTags,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer maxPreparationDays,
+            @RequestParam(defaultValue = "NAME") CatalogFacetIndex.Sort sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + CatalogService.DEFAULT_PAGE_SIZE) int size) {
+
+        if (category == null && categorySlug != null) {
+            category = catalogService.resolveCategoryId(categorySlug);
+        }
+        CatalogFacetIndex.Query query = new CatalogFacetIndex.Query(
+                category, tags, allTags, minPrice, maxPrice, maxPreparationDays);
+        return catalogService.search(query, sort, page, size);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductPublicDTO> show(@PathVariable Long id) {
+        return catalogService.findProduct(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Bloque "tambien te puede gustar" del detalle de producto.
+     */
+    @GetMapping("/{id}/related")
+    public List<ProductPublicDTO> related(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "" + CatalogService.DEFAULT_RELATED_SIZE) int size) {
+        return catalogService.findRelated(id, size);
+    }
+
+    @GetMapping("/slug/{slug}")
+    public ResponseEntity<ProductPublicDTO> showBySlug(@PathVariable String slug) {
+        return catalogService.findProductBySlug(slug)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,70 @@
+package com.malva_pastry_shop.backend.controller.api;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.malva_pastry_shop.backend.dto.response.publicdto.FavoriteIdsDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.security.PublicUserPrincipal;
+import com.malva_pastry_shop.backend.service.publicuser.FavoriteService;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Favoritos del usuario publico autenticado.
+ */
+@RestController
+@RequestMapping("/api/v1/favorites")
+public class FavoriteApiController {
+
+    private final FavoriteService favoriteService;
+
+    public FavoriteApiController(FavoriteService favoriteService) {
+        this.favoriteService = favoriteService;
+    }
+
+    @GetMapping
+    public List<ProductPublicDTO> list(@AuthenticationPrincipal PublicUserPrincipal principal) {
+        return favoriteService.findFavorites(principal.id());
+    }
+
+    /**
+     * Ids favoritos para marcar las tarjetas del catalogo en una sola llamada.
+     * Ejemplo: /api/v1/favorites/ids?productIds=3&productIds=8 (sin productIds, todos)
+     */
+    @GetMapping("/ids")
+    public FavoriteIdsDTO ids(
+            @AuthenticationPrincipal PublicUserPrincipal principal,
+            @RequestParam(required = false) List<Long> productIds) {
+        return new FavoriteIdsDTO(favoriteService.findProductIds(principal.id(), productIds));
+    }
+
+    @PutMapping("/{productId}")
+    public ResponseEntity<Void> add(
+            @AuthenticationPrincipal PublicUserPrincipal principal,
+            @PathVariable Long productId) {
+        try {
+            favoriteService.add(principal.id(), productId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> remove(
+            @AuthenticationPrincipal PublicUserPrincipal principal,
+            @PathVariable Long productId) {
+        favoriteService.remove(principal.id(), productId);
+        return ResponseEntity.noContent().build();
+    }
+}
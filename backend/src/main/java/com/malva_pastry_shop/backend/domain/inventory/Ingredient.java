@@ -1,6 +1,7 @@
 package com.malva_pastry_shop.backend.domain.inventory;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 import com.malva_pastry_shop.backend.domain.common.SoftDeletableEntity;
 
@@ -45,6 +46,40 @@ public class Ingredient extends SoftDeletableEntity {
     @Column(name = "unit_of_measure", nullable = false, length = 20)
     private UnitOfMeasure unitOfMeasure;
 
+    // ==================== STOCK ====================
+
+    /**
+     * Cantidad disponible en la unidad de medida del ingrediente.
+     * Null indica que no se controla stock para este ingrediente.
+     * Se escribe al crear; despues solo con UPDATE atomicos del repositorio
+     * (ventas y ajustes), nunca al guardar la entidad.
+     */
+    @Digits(integer = 10, fraction = 4, message = "El stock debe tener maximo 10 digitos enteros y 4 decimales")
+    @Column(name = "on_hand_quantity", precision = 14, scale = 4, updatable = false)
+    private BigDecimal onHandQuantity;
+
+    /**
+     * Punto de reposicion: con stock igual o menor se marca como stock bajo.
+     */
+    @DecimalMin(value = "0.0", inclusive = true, message = "El punto de reposicion debe ser mayor o igual a 0")
+    @Digits(integer = 10, fraction = 4, message = "El punto de reposicion debe tener maximo 10 digitos enteros y 4 decimales")
+    @Column(name = "reorder_point", precision = 14, scale = 4)
+    private BigDecimal reorderPoint;
+
+    /**
+     * Dias de cobertura segun el consumo reciente (null si no hubo consumo
+     * en la ventana). Solo lo escribe el escaneo de stock.
+     */
+    @Column(name = "days_of_cover", precision = 10, scale = 1, insertable = false, updatable = false)
+    private BigDecimal daysOfCover;
+
+    /**
+     * Fecha desde la cual el ingrediente esta en stock bajo (null si no lo
+     * esta). Solo lo escribe el escaneo de stock.
+     */
+    @Column(name = "low_stock_since", insertable = false, updatable = false)
+    private LocalDateTime lowStockSince;
+
     // ==================== CONSTRUCTORES ====================
 
     public Ingredient(String name, BigDecimal unitCost, UnitOfMeasure unitOfMeasure) {
@@ -52,4 +87,14 @@ public class Ingredient extends SoftDeletableEntity {
         this.unitCost = unitCost;
         this.unitOfMeasure = unitOfMeasure;
     }
+
+    // ==================== METODOS DE NEGOCIO ====================
+
+    public boolean isStockTracked() {
+        return onHandQuantity != null;
+    }
+
+    public boolean isLowStock() {
+        return lowStockSince != null;
+    }
 }
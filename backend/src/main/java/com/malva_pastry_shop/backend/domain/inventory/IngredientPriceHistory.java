@@ -0,0 +1,65 @@
+package com.malva_pastry_shop.backend.domain.inventory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.malva_pastry_shop.backend.domain.common.TimestampedEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Historial de costos unitarios de un ingrediente (solo inserciones).
+ * Cada fila indica el costo vigente desde {@code validFrom} hasta la
+ * siguiente fila del mismo ingrediente.
+ */
+@Entity
+@Table(name = "ingredient_price_history", indexes = {
+        @Index(name = "idx_ingredient_price_history_ingredient_valid_from", columnList = "ingredient_id, valid_from")
+})
+@Getter
+@NoArgsConstructor
+public class IngredientPriceHistory extends TimestampedEntity {
+
+    @NotNull(message = "El ingrediente es requerido")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ingredient_id", nullable = false, foreignKey = @ForeignKey(name = "fk_ingredient_price_history_ingredient"))
+    private Ingredient ingredient;
+
+    @NotNull(message = "El costo unitario es requerido")
+    @DecimalMin(value = "0.0", inclusive = true, message = "El costo unitario debe ser mayor o igual a 0")
+    @Digits(integer = 10, fraction = 2, message = "El costo unitario debe tener maximo 10 digitos enteros y 2 decimales")
+    @Column(name = "unit_cost", nullable = false, precision = 12, scale = 2)
+    private BigDecimal unitCost;
+
+    @NotNull(message = "La fecha de vigencia es requerida")
+    @Column(name = "valid_from", nullable = false)
+    private LocalDateTime validFrom;
+
+    // ==================== CONSTRUCTORES ====================
+
+    public IngredientPriceHistory(Ingredient ingredient, BigDecimal unitCost, LocalDateTime validFrom) {
+        this.ingredient = ingredient;
+        this.unitCost = unitCost;
+        this.validFrom = validFrom;
+    }
+
+    @Override
+    public String toString() {
+        return "IngredientPriceHistory [id=" + getId()
+                + ", ingredientId=" + (ingredient != null ? ingredient.getId() : "null")
+                + ", unitCost=" + unitCost
+                + ", validFrom=" + validFrom + "]";
+    }
+}
@@ -0,0 +1,71 @@
+package com.malva_pastry_shop.backend.domain.inventory;
+
+import java.math.BigDecimal;
+
+import com.malva_pastry_shop.backend.domain.common.TimestampedEntity;
+import com.malva_pastry_shop.backend.domain.storefront.Product;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sub-receta: un producto (componente) usado dentro de la receta de otro
+ * producto. La cantidad se expresa en unidades del componente por unidad
+ * del producto padre (ej: 0.5 de "Crema pastelera").
+ */
+@Entity
+@Table(name = "product_components", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_component", columnNames = { "parent_id", "component_id" })
+}, indexes = {
+        @Index(name = "idx_product_components_component", columnList = "component_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductComponent extends TimestampedEntity {
+
+    @NotNull(message = "El producto es requerido")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id", nullable = false, foreignKey = @ForeignKey(name = "fk_product_component_parent"))
+    private Product parent;
+
+    @NotNull(message = "La sub-receta es requerida")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "component_id", nullable = false, foreignKey = @ForeignKey(name = "fk_product_component_component"))
+    private Product component;
+
+    @NotNull(message = "La cantidad es requerida")
+    @Positive(message = "La cantidad debe ser mayor a cero")
+    @Digits(integer = 10, fraction = 4, message = "La cantidad debe tener maximo 10 digitos enteros y 4 decimales")
+    @Column(nullable = false, precision = 14, scale = 4)
+    private BigDecimal quantity;
+
+    // ==================== CONSTRUCTORES ====================
+
+    public ProductComponent(Product parent, Product component, BigDecimal quantity) {
+        this.parent = parent;
+        this.component = component;
+        this.quantity = quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductComponent [id=" + getId()
+                + ", parentId=" + (parent != null ? parent.getId() : "null")
+                + ", componentId=" + (component != null ? component.getId() : "null")
+                + ", quantity=" + quantity + "]";
+    }
+}
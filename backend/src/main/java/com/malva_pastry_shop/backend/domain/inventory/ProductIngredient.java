@@ -9,6 +9,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -20,7 +21,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "product_ingredients")
+@Table(name = "product_ingredients", indexes = {
+        @Index(name = "idx_product_ingredients_ingredient_id", columnList = "ingredient_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,70 @@
+package com.malva_pastry_shop.backend.domain.publicuser;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Agregado de calificaciones aprobadas por producto (cantidad, suma e
+ * histograma 1-5). Se actualiza con deltas al moderar una resena y se
+ * reconstruye periodicamente desde product_reviews.
+ */
+@Entity
+@Table(name = "product_rating_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductRatingStats {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "rating_count", nullable = false)
+    private int ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    @Column(name = "rating_1", nullable = false)
+    private int rating1;
+
+    @Column(name = "rating_2", nullable = false)
+    private int rating2;
+
+    @Column(name = "rating_3", nullable = false)
+    private int rating3;
+
+    @Column(name = "rating_4", nullable = false)
+    private int rating4;
+
+    @Column(name = "rating_5", nullable = false)
+    private int rating5;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // ==================== METODOS DE AYUDA ====================
+
+    /**
+     * Promedio con un decimal, o null si no hay calificaciones.
+     */
+    public static BigDecimal average(long ratingSum, int ratingCount) {
+        if (ratingCount <= 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(ratingCount), 1, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal getAverage() {
+        return average(ratingSum, ratingCount);
+    }
+}
@@ -9,9 +9,13 @@ import com.malva_pastry_shop.backend.domain.auth.User;
 import com.malva_pastry_shop.backend.domain.common.TimestampedEntity;
 import com.malva_pastry_shop.backend.domain.storefront.Product;
 
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.JoinColumn;
@@ -30,7 +34,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+        @Index(name = "idx_sales_sale_date", columnList = "sale_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -51,6 +57,7 @@ public class Sale extends TimestampedEntity {
      */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", foreignKey = @ForeignKey(name = "fk_sale_product"))
+    @OnDelete(action = OnDeleteAction.SET_NULL)
     private Product product;
 
     /**
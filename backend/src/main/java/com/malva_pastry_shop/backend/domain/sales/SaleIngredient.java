@@ -1,14 +1,19 @@
 package com.malva_pastry_shop.backend.domain.sales;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 import com.malva_pastry_shop.backend.domain.common.TimestampedEntity;
 import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
 
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -22,7 +27,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "sale_ingredients")
+@Table(name = "sale_ingredients", indexes = {
+        // Cubre el agregado de consumo por ingrediente (escaneo de stock bajo)
+        @Index(name = "idx_sale_ingredients_sale_ingredient_qty", columnList = "sale_id, ingredient_id, quantity_used")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -39,6 +47,7 @@ public class SaleIngredient extends TimestampedEntity {
      */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingredient_id", foreignKey = @ForeignKey(name = "fk_sale_ingredient_ingredient"))
+    @OnDelete(action = OnDeleteAction.SET_NULL)
     private Ingredient ingredient;
 
     /**
@@ -94,7 +103,8 @@ public class SaleIngredient extends TimestampedEntity {
         this.quantityUsed = quantityUsed;
         this.unitCost = unitCost;
         this.unitOfMeasure = unitOfMeasure;
-        this.totalCost = quantityUsed.multiply(unitCost);
+        // Redondeo a la escala de la columna (cantidades fraccionarias)
+        this.totalCost = quantityUsed.multiply(unitCost).setScale(2, RoundingMode.HALF_UP);
     }
 
     @Override
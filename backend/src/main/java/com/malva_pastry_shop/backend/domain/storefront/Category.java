@@ -23,6 +23,12 @@ public class Category extends SoftDeletableEntity {
     @Column(nullable = false, length = 100)
     private String name;
 
+    // Unico; se genera desde el nombre (ver SlugUtil). Nullable solo para
+    // filas anteriores a la columna, que se completan al iniciar.
+    @Size(max = 120, message = "El slug de la categoría no puede exceder 120 caracteres")
+    @Column(unique = true, length = 120)
+    private String slug;
+
     @Size(max = 500, message = "La descripción no puede exceder los 500 caracteres")
     @Column(columnDefinition = "TEXT")
     private String description;
@@ -13,6 +13,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -28,7 +29,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_id", columnList = "category_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -39,6 +42,12 @@ public class Product extends SoftDeletableEntity {
     @Column(nullable = false, length = 100)
     private String name;
 
+    // Unico; se genera desde el nombre (ver SlugUtil). Nullable solo para
+    // filas anteriores a la columna, que se completan al iniciar.
+    @Size(max = 120, message = "El slug del producto no puede exceder 120 caracteres")
+    @Column(unique = true, length = 120)
+    private String slug;
+
     @Size(max = 500, message = "La descripcion no puede exceder los 500 caracteres")
     @Column(columnDefinition = "TEXT")
     private String description;
@@ -0,0 +1,34 @@
+package com.malva_pastry_shop.backend.domain.storefront;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Puntaje de popularidad con decaimiento exponencial, en escala
+ * logaritmica relativa a PopularityRanking.EPOCH (ver esa clase).
+ * Lo escribe PopularityRanking en lotes; no se edita desde JPA.
+ */
+@Entity
+@Table(name = "product_popularity")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductPopularity {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "log_score", nullable = false)
+    private double logScore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
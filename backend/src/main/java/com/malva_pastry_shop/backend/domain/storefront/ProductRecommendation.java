@@ -0,0 +1,40 @@
+package com.malva_pastry_shop.backend.domain.storefront;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Productos relacionados precalculados ("tambien te puede gustar").
+ *
+ * Una fila por producto con los ids relacionados ya ordenados por
+ * puntaje. Es un dato derivado: RelatedProductsJob reemplaza la tabla
+ * completa en cada calculo, por eso no tiene timestamps ni FK.
+ */
+@Entity
+@Table(name = "product_recommendations")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductRecommendation {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "related_product_ids", nullable = false, columnDefinition = "bigint[]")
+    private Long[] relatedProductIds;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotNull;
@@ -17,6 +18,9 @@ import lombok.Setter;
 @Entity
 @Table(name = "product_tags", uniqueConstraints = {
         @UniqueConstraint(name = "uk_product_tag", columnNames = { "product_id", "tag_id" })
+}, indexes = {
+        // Miembros de un tag (la unique cubre la busqueda por producto)
+        @Index(name = "idx_product_tags_tag_product", columnList = "tag_id, product_id")
 })
 @Getter
 @Setter
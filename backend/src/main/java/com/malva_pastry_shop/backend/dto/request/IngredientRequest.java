@@ -35,4 +35,18 @@ public class IngredientRequest {
 
     @NotNull(message = "La unidad de medida es requerida")
     private UnitOfMeasure unitOfMeasure;
+
+    @Digits(integer = 10, fraction = 4, message = "El stock debe tener maximo 10 digitos enteros y 4 decimales")
+    private BigDecimal onHandQuantity;
+
+    /**
+     * Stock que mostraba el formulario de edicion: el cambio se aplica como
+     * diferencia sobre el stock actual, sin pisar lo que vendieron mientras
+     * tanto. Null al crear o si el ingrediente no controlaba stock.
+     */
+    private BigDecimal previousOnHandQuantity;
+
+    @DecimalMin(value = "0.0", inclusive = true, message = "El punto de reposicion debe ser mayor o igual a 0")
+    @Digits(integer = 10, fraction = 4, message = "El punto de reposicion debe tener maximo 10 digitos enteros y 4 decimales")
+    private BigDecimal reorderPoint;
 }
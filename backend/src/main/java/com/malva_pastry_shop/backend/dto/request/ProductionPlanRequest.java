@@ -0,0 +1,43 @@
+package com.malva_pastry_shop.backend.dto.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO para calcular un plan de produccion: productos y unidades a elaborar.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductionPlanRequest {
+
+    @NotEmpty(message = "Debe indicar al menos un producto")
+    @Valid
+    private List<Item> items = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "El producto es requerido")
+        private Long productId;
+
+        @NotNull(message = "La cantidad es requerida")
+        @Min(value = 1, message = "La cantidad debe ser al menos 1")
+        private Integer quantity;
+
+        public Item(Long productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
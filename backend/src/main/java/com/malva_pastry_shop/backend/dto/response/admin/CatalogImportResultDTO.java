@@ -0,0 +1,27 @@
+package com.malva_pastry_shop.backend.dto.response.admin;
+
+/**
+ * Resumen de una importacion del catalogo.
+ */
+public record CatalogImportResultDTO(
+        Counts categories,
+        Counts tags,
+        Counts ingredients,
+        Counts products,
+        int tagLinks,
+        int recipeLines) {
+
+    public record Counts(
+            int created,
+            int updated) {
+    }
+
+    public String summary() {
+        return String.format("Categorias: %d nuevas, %d actualizadas. Tags: %d nuevos, %d actualizados. "
+                + "Ingredientes: %d nuevos, %d actualizados. Productos: %d nuevos, %d actualizados. "
+                + "%d tags asignados y %d lineas de receta.",
+                categories.created(), categories.updated(), tags.created(), tags.updated(),
+                ingredients.created(), ingredients.updated(), products.created(), products.updated(),
+                tagLinks, recipeLines);
+    }
+}
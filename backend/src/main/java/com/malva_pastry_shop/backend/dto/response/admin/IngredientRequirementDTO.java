@@ -0,0 +1,15 @@
+package com.malva_pastry_shop.backend.dto.response.admin;
+
+import java.math.BigDecimal;
+
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+
+/**
+ * Cantidad total requerida de un ingrediente, expresada en su unidad de medida.
+ */
+public record IngredientRequirementDTO(
+        Long ingredientId,
+        String ingredientName,
+        UnitOfMeasure unitOfMeasure,
+        BigDecimal quantity) {
+}
@@ -0,0 +1,12 @@
+package com.malva_pastry_shop.backend.dto.response.admin;
+
+import java.util.List;
+
+/**
+ * Resultado de un plan de produccion: requerimientos agregados por
+ * ingrediente y productos que no tienen receta cargada.
+ */
+public record ProductionPlanDTO(
+        List<IngredientRequirementDTO> requirements,
+        List<Long> productsWithoutRecipe) {
+}
@@ -0,0 +1,13 @@
+package com.malva_pastry_shop.backend.dto.response.admin;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Costo de la receta de un producto en un dia determinado.
+ */
+public record RecipeCostPointDTO(
+        Long productId,
+        LocalDate date,
+        BigDecimal cost) {
+}
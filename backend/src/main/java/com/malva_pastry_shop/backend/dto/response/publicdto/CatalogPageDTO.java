@@ -0,0 +1,35 @@
+package com.malva_pastry_shop.backend.dto.response.publicdto;
+
+import java.util.List;
+
+/**
+ * Pagina del catalogo publico filtrado, con los conteos de cada faceta.
+ */
+public record CatalogPageDTO(
+        List<ProductPublicDTO> content,
+        int page,
+        int size,
+        long totalElements,
+        int totalPages,
+        Facets facets) {
+
+    /**
+     * Conteos por faceta. Cada dimension se cuenta aplicando los demas
+     * filtros, para que el cliente pueda cambiar de opcion sin quedar en cero.
+     */
+    public record Facets(
+            List<FacetCount> categories,
+            List<FacetCount> tags,
+            List<FacetCount> priceRanges,
+            List<FacetCount> preparationDays) {
+    }
+
+    /**
+     * Opcion de una faceta: clave para filtrar, etiqueta y cantidad de productos.
+     */
+    public record FacetCount(
+            String key,
+            String label,
+            int count) {
+    }
+}
@@ -6,5 +6,6 @@ package com.malva_pastry_shop.backend.dto.response.publicdto;
 public record CategoryPublicDTO(
         Long id,
         String name,
+        String slug,
         String description) {
 }
@@ -0,0 +1,8 @@
+package com.malva_pastry_shop.backend.dto.response.publicdto;
+
+/**
+ * Ids de productos favoritos del usuario, ordenados de forma ascendente.
+ * Alcanza para marcar todas las tarjetas de una pagina del catalogo.
+ */
+public record FavoriteIdsDTO(long[] productIds) {
+}
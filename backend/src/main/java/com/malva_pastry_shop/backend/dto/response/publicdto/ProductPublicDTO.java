@@ -10,10 +10,13 @@ import java.util.List;
 public record ProductPublicDTO(
         Long id,
         String name,
+        String slug,
         String description,
         BigDecimal basePrice,
         Integer preparationDays,
         String imageUrl,
+        BigDecimal averageRating,
+        Integer ratingCount,
         CategoryPublicDTO category,
         List<TagPublicDTO> tags) {
     /**
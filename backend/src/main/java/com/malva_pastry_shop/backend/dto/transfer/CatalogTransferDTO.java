@@ -0,0 +1,72 @@
+package com.malva_pastry_shop.backend.dto.transfer;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+
+/**
+ * Catalogo completo para exportar e importar entre bases (categorias,
+ * tags, ingredientes, productos, tags de cada producto y recetas).
+ *
+ * Las referencias usan claves naturales en lugar de ids: slug para
+ * categorias, tags y productos (si falta, se genera desde el nombre) y
+ * nombre para ingredientes, sin distinguir mayusculas.
+ */
+public record CatalogTransferDTO(
+        Integer formatVersion,
+        List<CategoryEntry> categories,
+        List<TagEntry> tags,
+        List<IngredientEntry> ingredients,
+        List<ProductEntry> products) {
+
+    public static final int FORMAT_VERSION = 1;
+
+    public record CategoryEntry(
+            String name,
+            String slug,
+            String description) {
+    }
+
+    public record TagEntry(
+            String name,
+            String slug,
+            String description) {
+    }
+
+    public record IngredientEntry(
+            String name,
+            String description,
+            BigDecimal unitCost,
+            UnitOfMeasure unitOfMeasure) {
+    }
+
+    /**
+     * category, tags e ingredientes/componentes se refieren por clave. Las
+     * listas en null no modifican lo existente; una lista vacia lo borra.
+     */
+    public record ProductEntry(
+            String name,
+            String slug,
+            String description,
+            Integer preparationDays,
+            BigDecimal basePrice,
+            String imageUrl,
+            String category,
+            List<String> tags,
+            List<RecipeLine> ingredients,
+            List<ComponentLine> components) {
+    }
+
+    /** Ingrediente de la receta, por nombre */
+    public record RecipeLine(
+            String ingredient,
+            BigDecimal quantity) {
+    }
+
+    /** Sub-receta, por slug del producto componente */
+    public record ComponentLine(
+            String product,
+            BigDecimal quantity) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.malva_pastry_shop.backend.event;
+
+/**
+ * Se publica cuando cambia un producto visible en el catalogo (datos,
+ * categoria, tags o alta/baja logica). Con productId null se indica un
+ * cambio que afecta a muchos productos (renombrar o eliminar un tag o una
+ * categoria). Los listeners reaccionan despues del commit.
+ */
+public record CatalogChangedEvent(Long productId) {
+
+    public static CatalogChangedEvent all() {
+        return new CatalogChangedEvent(null);
+    }
+}
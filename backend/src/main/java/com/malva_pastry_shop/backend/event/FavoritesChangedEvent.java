@@ -0,0 +1,8 @@
+package com.malva_pastry_shop.backend.event;
+
+/**
+ * Se publica al agregar o quitar un favorito. La cache de ids del usuario
+ * se invalida despues del commit.
+ */
+public record FavoritesChangedEvent(Long publicUserId) {
+}
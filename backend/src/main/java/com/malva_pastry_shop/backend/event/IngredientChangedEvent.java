@@ -0,0 +1,8 @@
+package com.malva_pastry_shop.backend.event;
+
+/**
+ * Se publica cuando se modifican los datos de un ingrediente
+ * (nombre, unidad de medida o costo).
+ */
+public record IngredientChangedEvent(Long ingredientId) {
+}
@@ -0,0 +1,22 @@
+package com.malva_pastry_shop.backend.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Senal de interes en un producto (venta o favorito) para el ranking de
+ * popularidad. El listener la aplica despues del commit.
+ */
+public record PopularitySignalEvent(Long productId, Signal signal, int quantity, LocalDateTime occurredAt) {
+
+    public enum Signal {
+        SALE, FAVORITE
+    }
+
+    public static PopularitySignalEvent sale(Long productId, int quantity, LocalDateTime occurredAt) {
+        return new PopularitySignalEvent(productId, Signal.SALE, quantity, occurredAt);
+    }
+
+    public static PopularitySignalEvent favorite(Long productId, LocalDateTime occurredAt) {
+        return new PopularitySignalEvent(productId, Signal.FAVORITE, 1, occurredAt);
+    }
+}
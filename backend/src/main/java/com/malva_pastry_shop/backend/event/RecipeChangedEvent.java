@@ -0,0 +1,14 @@
+package com.malva_pastry_shop.backend.event;
+
+/**
+ * Se publica cuando cambia la receta de un producto o su disponibilidad
+ * (alta/baja logica). Con productId null se indica un cambio que afecta a
+ * muchos productos (importacion del catalogo). Los listeners reaccionan
+ * despues del commit.
+ */
+public record RecipeChangedEvent(Long productId) {
+
+    public static RecipeChangedEvent all() {
+        return new RecipeChangedEvent(null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.malva_pastry_shop.backend.event;
+
+/**
+ * Se publica cuando se recalcula la tabla de productos relacionados.
+ * El indice en memoria la vuelve a leer despues del commit.
+ */
+public record RelatedProductsComputedEvent(int productCount) {
+}
@@ -0,0 +1,8 @@
+package com.malva_pastry_shop.backend.event;
+
+/**
+ * Se publica cuando cambia el estado de una o mas resenas. El contador de
+ * pendientes se invalida despues del commit.
+ */
+public record ReviewsModeratedEvent(int count) {
+}
@@ -1,11 +1,15 @@
 package com.malva_pastry_shop.backend.repository;
 
 import com.malva_pastry_shop.backend.domain.storefront.Category;
+import com.malva_pastry_shop.backend.repository.projection.NameOwner;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,6 +27,33 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Categorías eliminadas (papelera)
     Page<Category> findByDeletedAtIsNotNull(Pageable pageable);
 
-    // Validacion de nombre unico (case-insensitive)
+    // Validacion de nombre unico (case-insensitive), index-only sobre uk_categories_name_lower
+    @Query("SELECT new com.malva_pastry_shop.backend.repository.projection.NameOwner(c.id, c.deletedAt) "
+            + "FROM Category c WHERE LOWER(c.name) = LOWER(:name)")
+    Optional<NameOwner> findNameOwner(@Param("name") String name);
+
+    // Entidad completa por nombre (usado por DataSeeder)
     Optional<Category> findByNameIgnoreCase(String name);
+
+    // ========== Slugs ==========
+
+    @Query("SELECT c.id FROM Category c WHERE c.slug = :slug AND c.deletedAt IS NULL")
+    Optional<Long> findActiveIdBySlug(@Param("slug") String slug);
+
+    List<Category> findBySlugIsNull();
+
+    /**
+     * Mayor sufijo en uso para un slug base (1 si solo existe el base, 0 si
+     * esta libre), en una sola consulta. El siguiente slug libre es
+     * SlugUtil.generateUniqueSlug(base, resultado + 1).
+     */
+    @Query(value = """
+            SELECT COALESCE(MAX(CASE WHEN t.slug = :base THEN 1
+                                     ELSE CAST(SUBSTRING(t.slug FROM LENGTH(:base) + 2) AS bigint) END), 0)
+            FROM categories t
+            WHERE t.id <> :excludeId
+              AND t.slug LIKE CONCAT(:base, '%')
+              AND (t.slug = :base OR t.slug ~ CONCAT('^', :base, '-[0-9]{1,9}$'))
+            """, nativeQuery = true)
+    long findMaxSlugCounter(@Param("base") String base, @Param("excludeId") Long excludeId);
 }
@@ -5,6 +5,9 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.malva_pastry_shop.backend.domain.publicuser.Favorite;
@@ -16,10 +19,24 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @EntityGraph(attributePaths = {"product"})
     List<Favorite> findByPublicUserId(Long publicUserId);
 
+    // Solo los ids, ordenados: se resuelve con el indice unico (usuario, producto)
+    @Query("SELECT f.product.id FROM Favorite f WHERE f.publicUser.id = :publicUserId ORDER BY f.product.id")
+    List<Long> findProductIdsByPublicUserId(@Param("publicUserId") Long publicUserId);
+
     Optional<Favorite> findByPublicUserIdAndProductId(Long publicUserId, Long productId);
 
     boolean existsByPublicUserIdAndProductId(Long publicUserId, Long productId);
 
+    // Alta atomica contra el indice unico (usuario, producto): devuelve 0 si
+    // ya era favorito, tambien cuando otro pedido lo agrego en paralelo
+    @Modifying
+    @Query(value = """
+            INSERT INTO favorites (public_user_id, product_id, inserted_at, updated_at)
+            VALUES (:publicUserId, :productId, NOW(), NOW())
+            ON CONFLICT (public_user_id, product_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("publicUserId") Long publicUserId, @Param("productId") Long productId);
+
     void deleteByPublicUserIdAndProductId(Long publicUserId, Long productId);
 
     long countByProductId(Long productId);
@@ -0,0 +1,106 @@
+package com.malva_pastry_shop.backend.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.malva_pastry_shop.backend.domain.inventory.IngredientPriceHistory;
+
+@Repository
+public interface IngredientPriceHistoryRepository extends JpaRepository<IngredientPriceHistory, Long> {
+
+    // ========== Consultas por Ingrediente ==========
+
+    List<IngredientPriceHistory> findByIngredientIdOrderByValidFromDesc(Long ingredientId);
+
+    boolean existsByIngredientId(Long ingredientId);
+
+    // Eliminar el historial de un ingrediente (hard delete) en una sola sentencia
+    @Modifying
+    @Query("DELETE FROM IngredientPriceHistory h WHERE h.ingredient.id = :ingredientId")
+    void deleteByIngredientId(@Param("ingredientId") Long ingredientId);
+
+    // ========== Costo de Receta a una Fecha ==========
+
+    /**
+     * Costo de la receta actual de un producto (incluyendo sub-recetas) con
+     * los precios vigentes al final del dia indicado. Si un ingrediente no
+     * tiene historial previo a esa fecha se usa su costo actual. Como
+     * findFlattenedRecipe, ignora los ingredientes en la papelera: el costo
+     * a hoy coincide con el costo actual de la receta.
+     */
+    @Query(value = """
+            WITH RECURSIVE tree(product_id, factor, depth) AS (
+                SELECT CAST(:productId AS bigint), CAST(1 AS numeric), 0
+                UNION ALL
+                SELECT pc.component_id, t.factor * pc.quantity, t.depth + 1
+                FROM product_components pc
+                JOIN tree t ON pc.parent_id = t.product_id
+                JOIN products c ON c.id = pc.component_id AND c.deleted_at IS NULL
+                WHERE t.depth < 16
+            )
+            SELECT COALESCE(SUM(t.factor * pi.quantity * COALESCE(h.unit_cost, i.unit_cost)), 0)
+            FROM tree t
+            JOIN product_ingredients pi ON pi.product_id = t.product_id
+            JOIN ingredients i ON i.id = pi.ingredient_id AND i.deleted_at IS NULL
+            LEFT JOIN LATERAL (
+                SELECT ph.unit_cost
+                FROM ingredient_price_history ph
+                WHERE ph.ingredient_id = pi.ingredient_id
+                  AND ph.valid_from < CAST(:asOf AS date) + 1
+                ORDER BY ph.valid_from DESC
+                LIMIT 1
+            ) h ON TRUE
+            """, nativeQuery = true)
+    BigDecimal calculateRecipeCostAsOf(@Param("productId") Long productId, @Param("asOf") LocalDate asOf);
+
+    /**
+     * Costo diario de las recetas de varios productos en un rango de fechas.
+     * Primero aplana cada receta (sub-recetas incluidas) y luego la valoriza
+     * por dia (sin los ingredientes en la papelera). Una sola consulta: cada
+     * fila es [product_id, dia, costo].
+     */
+    @Query(value = """
+            WITH RECURSIVE tree(root_id, product_id, factor, depth) AS (
+                SELECT p.id, p.id, CAST(1 AS numeric), 0
+                FROM products p
+                WHERE p.id IN (:productIds)
+                UNION ALL
+                SELECT t.root_id, pc.component_id, t.factor * pc.quantity, t.depth + 1
+                FROM product_components pc
+                JOIN tree t ON pc.parent_id = t.product_id
+                JOIN products c ON c.id = pc.component_id AND c.deleted_at IS NULL
+                WHERE t.depth < 16
+            ),
+            lines AS (
+                SELECT t.root_id, pi.ingredient_id, SUM(t.factor * pi.quantity) AS quantity
+                FROM tree t
+                JOIN product_ingredients pi ON pi.product_id = t.product_id
+                GROUP BY t.root_id, pi.ingredient_id
+            )
+            SELECT l.root_id, CAST(d.day AS date) AS day,
+                   SUM(l.quantity * COALESCE(h.unit_cost, i.unit_cost)) AS cost
+            FROM generate_series(CAST(:startDate AS date), CAST(:endDate AS date), INTERVAL '1 day') AS d(day)
+            CROSS JOIN lines l
+            JOIN ingredients i ON i.id = l.ingredient_id AND i.deleted_at IS NULL
+            LEFT JOIN LATERAL (
+                SELECT ph.unit_cost
+                FROM ingredient_price_history ph
+                WHERE ph.ingredient_id = l.ingredient_id
+                  AND ph.valid_from < d.day + INTERVAL '1 day'
+                ORDER BY ph.valid_from DESC
+                LIMIT 1
+            ) h ON TRUE
+            GROUP BY l.root_id, d.day
+            ORDER BY l.root_id, d.day
+            """, nativeQuery = true)
+    List<Object[]> calculateRecipeCostTrend(@Param("productIds") Collection<Long> productIds,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
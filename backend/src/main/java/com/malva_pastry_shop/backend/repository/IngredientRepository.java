@@ -1,11 +1,16 @@
 package com.malva_pastry_shop.backend.repository;
 
 import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.repository.projection.NameOwner;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,5 +33,32 @@ public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
 
     // ========== Validacion de nombre unico (case-insensitive) ==========
 
+    // Index-only sobre uk_ingredients_name_lower
+    @Query("SELECT new com.malva_pastry_shop.backend.repository.projection.NameOwner(i.id, i.deletedAt) "
+            + "FROM Ingredient i WHERE LOWER(i.name) = LOWER(:name)")
+    Optional<NameOwner> findNameOwner(@Param("name") String name);
+
+    // Entidad completa por nombre (usado por DataSeeder)
     Optional<Ingredient> findByNameIgnoreCase(String name);
+
+    // ========== Stock ==========
+
+    List<Ingredient> findByLowStockSinceIsNotNullAndDeletedAtIsNullOrderByLowStockSinceAsc();
+
+    // Descuenta stock sin cargar la entidad; no afecta ingredientes sin control de stock
+    @Modifying
+    @Query("UPDATE Ingredient i SET i.onHandQuantity = i.onHandQuantity - :quantity "
+            + "WHERE i.id = :id AND i.onHandQuantity IS NOT NULL")
+    int decrementOnHand(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
+
+    // Ajuste manual del stock como diferencia, sin pisar las ventas concurrentes
+    @Modifying
+    @Query("UPDATE Ingredient i SET i.onHandQuantity = i.onHandQuantity + :delta "
+            + "WHERE i.id = :id AND i.onHandQuantity IS NOT NULL")
+    int adjustOnHand(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // Empieza o deja de controlar stock (null)
+    @Modifying
+    @Query("UPDATE Ingredient i SET i.onHandQuantity = :quantity WHERE i.id = :id")
+    int setOnHand(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
 }
@@ -0,0 +1,103 @@
+package com.malva_pastry_shop.backend.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.malva_pastry_shop.backend.domain.inventory.ProductComponent;
+import com.malva_pastry_shop.backend.repository.projection.RecipeComponentRow;
+
+@Repository
+public interface ProductComponentRepository extends JpaRepository<ProductComponent, Long> {
+
+    // Sub-recetas de un producto (con fetch del componente para evitar N+1)
+    @EntityGraph(attributePaths = {"component"})
+    List<ProductComponent> findByParentId(Long parentId);
+
+    @EntityGraph(attributePaths = {"component"})
+    Optional<ProductComponent> findByParentIdAndComponentId(Long parentId, Long componentId);
+
+    boolean existsByParentIdAndComponentId(Long parentId, Long componentId);
+
+    // Productos activos que usan a este producto como sub-receta
+    long countByComponentIdAndParentDeletedAtIsNull(Long componentId);
+
+    // Eliminar aristas donde el producto es padre o componente (hard delete)
+    @Modifying
+    @Query("DELETE FROM ProductComponent pc WHERE pc.parent.id = :productId OR pc.component.id = :productId")
+    void deleteByParentIdOrComponentId(@Param("productId") Long productId);
+
+    /**
+     * Indica si {@code targetId} es alcanzable desde {@code startId} bajando
+     * por las sub-recetas. Se usa para detectar ciclos antes de agregar una
+     * arista padre -> componente.
+     */
+    @Query(value = """
+            WITH RECURSIVE descendants(id) AS (
+                SELECT pc.component_id FROM product_components pc WHERE pc.parent_id = :startId
+                UNION
+                SELECT pc.component_id
+                FROM product_components pc
+                JOIN descendants d ON pc.parent_id = d.id
+            )
+            SELECT EXISTS (SELECT 1 FROM descendants WHERE id = :targetId)
+            """, nativeQuery = true)
+    boolean isReachable(@Param("startId") Long startId, @Param("targetId") Long targetId);
+
+    /**
+     * Niveles de sub-recetas de la cadena mas larga que pasaria por una
+     * nueva arista padre -> componente: los ancestros del padre, la arista y
+     * los descendientes del componente. Cuenta tambien los productos en la
+     * papelera (pueden restaurarse) y deja de bajar o subir pasado
+     * {@code maxDepth}, asi que el resultado solo dice si lo supera.
+     */
+    @Query(value = """
+            WITH RECURSIVE down(id, depth) AS (
+                SELECT CAST(:componentId AS bigint), 0
+                UNION
+                SELECT pc.component_id, d.depth + 1
+                FROM product_components pc
+                JOIN down d ON pc.parent_id = d.id
+                WHERE d.depth <= :maxDepth
+            ),
+            up(id, depth) AS (
+                SELECT CAST(:parentId AS bigint), 0
+                UNION
+                SELECT pc.parent_id, u.depth + 1
+                FROM product_components pc
+                JOIN up u ON pc.component_id = u.id
+                WHERE u.depth <= :maxDepth
+            )
+            SELECT (SELECT MAX(depth) FROM up) + 1 + (SELECT MAX(depth) FROM down)
+            """, nativeQuery = true)
+    int findChainDepthThrough(@Param("parentId") Long parentId, @Param("componentId") Long componentId,
+            @Param("maxDepth") int maxDepth);
+
+    // ========== Matriz de Recetas ==========
+
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.RecipeComponentRow(
+                p.id, c.id, pc.quantity)
+            FROM ProductComponent pc
+            JOIN pc.parent p
+            JOIN pc.component c
+            WHERE p.deletedAt IS NULL AND c.deletedAt IS NULL
+            """)
+    List<RecipeComponentRow> findActiveComponentRows();
+
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.RecipeComponentRow(
+                p.id, c.id, pc.quantity)
+            FROM ProductComponent pc
+            JOIN pc.parent p
+            JOIN pc.component c
+            WHERE p.id = :parentId AND p.deletedAt IS NULL AND c.deletedAt IS NULL
+            """)
+    List<RecipeComponentRow> findActiveComponentRowsByParentId(@Param("parentId") Long parentId);
+}
@@ -1,10 +1,16 @@
 package com.malva_pastry_shop.backend.repository;
 
 import com.malva_pastry_shop.backend.domain.inventory.ProductIngredient;
+import com.malva_pastry_shop.backend.repository.projection.FlattenedRecipeLine;
+import com.malva_pastry_shop.backend.repository.projection.IdCount;
+import com.malva_pastry_shop.backend.repository.projection.RecipeLineRow;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +28,15 @@ public interface ProductIngredientRepository extends JpaRepository<ProductIngred
     // Contar productos que usan un ingrediente
     long countByIngredientId(Long ingredientId);
 
+    // Contar productos de varios ingredientes en una sola consulta
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.IdCount(pi.ingredient.id, COUNT(pi))
+            FROM ProductIngredient pi
+            WHERE pi.ingredient.id IN :ingredientIds
+            GROUP BY pi.ingredient.id
+            """)
+    List<IdCount> countByIngredientIds(@Param("ingredientIds") Collection<Long> ingredientIds);
+
     // Verificar si un ingrediente esta en uso
     boolean existsByIngredientId(Long ingredientId);
 
@@ -34,4 +49,51 @@ public interface ProductIngredientRepository extends JpaRepository<ProductIngred
 
     // Eliminar todos los ingredientes de un producto
     void deleteByProductId(Long productId);
+
+    // Lineas de receta de todos los productos activos (carga de la matriz de recetas)
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.RecipeLineRow(
+                p.id, i.id, i.name, i.unitOfMeasure, i.unitCost, pi.quantity)
+            FROM ProductIngredient pi
+            JOIN pi.product p
+            JOIN pi.ingredient i
+            WHERE p.deletedAt IS NULL AND i.deletedAt IS NULL
+            """)
+    List<RecipeLineRow> findActiveRecipeLines();
+
+    // Lineas de receta de un producto activo (refresco incremental de la matriz)
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.RecipeLineRow(
+                p.id, i.id, i.name, i.unitOfMeasure, i.unitCost, pi.quantity)
+            FROM ProductIngredient pi
+            JOIN pi.product p
+            JOIN pi.ingredient i
+            WHERE p.id = :productId AND p.deletedAt IS NULL AND i.deletedAt IS NULL
+            """)
+    List<RecipeLineRow> findActiveRecipeLinesByProductId(@Param("productId") Long productId);
+
+    /**
+     * Receta aplanada de un producto: recorre las sub-recetas con un CTE
+     * recursivo y suma las cantidades de cada ingrediente por unidad del
+     * producto raiz. Una sola consulta, sin carga perezosa.
+     */
+    @Query(value = """
+            WITH RECURSIVE tree(product_id, factor, depth) AS (
+                SELECT CAST(:productId AS bigint), CAST(1 AS numeric), 0
+                UNION ALL
+                SELECT pc.component_id, t.factor * pc.quantity, t.depth + 1
+                FROM product_components pc
+                JOIN tree t ON pc.parent_id = t.product_id
+                JOIN products c ON c.id = pc.component_id AND c.deleted_at IS NULL
+                WHERE t.depth < 16
+            )
+            SELECT i.id AS ingredientId, i.name AS ingredientName, i.unit_of_measure AS unitOfMeasure,
+                   i.unit_cost AS unitCost, SUM(t.factor * pi.quantity) AS quantity
+            FROM tree t
+            JOIN product_ingredients pi ON pi.product_id = t.product_id
+            JOIN ingredients i ON i.id = pi.ingredient_id AND i.deleted_at IS NULL
+            GROUP BY i.id, i.name, i.unit_of_measure, i.unit_cost
+            ORDER BY i.name
+            """, nativeQuery = true)
+    List<FlattenedRecipeLine> findFlattenedRecipe(@Param("productId") Long productId);
 }
@@ -0,0 +1,38 @@
+package com.malva_pastry_shop.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.malva_pastry_shop.backend.domain.publicuser.ProductRatingStats;
+
+@Repository
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, Long> {
+
+    // Suma (delta = 1) o resta (delta = -1) una calificacion al agregado
+    // del producto; crea la fila si no existe
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_rating_stats AS s
+                (product_id, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            VALUES (:productId, :delta, :delta * :rating,
+                    CASE WHEN :rating = 1 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 2 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 3 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 4 THEN :delta ELSE 0 END,
+                    CASE WHEN :rating = 5 THEN :delta ELSE 0 END,
+                    NOW())
+            ON CONFLICT (product_id) DO UPDATE SET
+                rating_count = s.rating_count + EXCLUDED.rating_count,
+                rating_sum = s.rating_sum + EXCLUDED.rating_sum,
+                rating_1 = s.rating_1 + EXCLUDED.rating_1,
+                rating_2 = s.rating_2 + EXCLUDED.rating_2,
+                rating_3 = s.rating_3 + EXCLUDED.rating_3,
+                rating_4 = s.rating_4 + EXCLUDED.rating_4,
+                rating_5 = s.rating_5 + EXCLUDED.rating_5,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void applyDelta(@Param("productId") Long productId, @Param("rating") int rating, @Param("delta") int delta);
+}
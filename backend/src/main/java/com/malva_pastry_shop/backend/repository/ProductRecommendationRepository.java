@@ -0,0 +1,10 @@
+package com.malva_pastry_shop.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.malva_pastry_shop.backend.domain.storefront.ProductRecommendation;
+
+@Repository
+public interface ProductRecommendationRepository extends JpaRepository<ProductRecommendation, Long> {
+}
@@ -1,12 +1,19 @@
 package com.malva_pastry_shop.backend.repository;
 
 import com.malva_pastry_shop.backend.domain.storefront.Product;
+import com.malva_pastry_shop.backend.repository.projection.CatalogProductRow;
+import com.malva_pastry_shop.backend.repository.projection.IdCount;
+import com.malva_pastry_shop.backend.repository.projection.NameOwner;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -28,16 +35,135 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @EntityGraph(attributePaths = { "category" })
     Optional<Product> findByIdAndDeletedAtIsNull(Long id);
 
+    // Producto activo con lo que muestra el detalle, en una sola consulta
+    @EntityGraph(attributePaths = { "category", "createdBy.role", "productTags.tag" })
+    Optional<Product> findWithDetailsByIdAndDeletedAtIsNull(Long id);
+
     // Contar productos por categoria
     long countByCategoryId(Long categoryId);
 
     // Contar productos activos por categoria
     long countByCategoryIdAndDeletedAtIsNull(Long categoryId);
 
-    // Validacion de nombre unico (case-insensitive)
-    Optional<Product> findByNameIgnoreCase(String name);
+    // Productos activos de varias categorias en una sola consulta
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.IdCount(p.category.id, COUNT(p))
+            FROM Product p
+            WHERE p.category.id IN :categoryIds AND p.deletedAt IS NULL
+            GROUP BY p.category.id
+            """)
+    List<IdCount> countActiveByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds);
+
+    // Validacion de nombre unico (case-insensitive), index-only sobre uk_products_name_lower
+    @Query("SELECT new com.malva_pastry_shop.backend.repository.projection.NameOwner(p.id, p.deletedAt) "
+            + "FROM Product p WHERE LOWER(p.name) = LOWER(:name)")
+    Optional<NameOwner> findNameOwner(@Param("name") String name);
 
     // Productos eliminados (papelera)
     @EntityGraph(attributePaths = { "category" })
     Page<Product> findByDeletedAtIsNotNull(Pageable pageable);
+
+    // ========== Slugs ==========
+
+    @Query("SELECT p.id FROM Product p WHERE p.slug = :slug AND p.deletedAt IS NULL")
+    Optional<Long> findActiveIdBySlug(@Param("slug") String slug);
+
+    List<Product> findBySlugIsNull();
+
+    /**
+     * Mayor sufijo en uso para un slug base (1 si solo existe el base, 0 si
+     * esta libre), en una sola consulta. El siguiente slug libre es
+     * SlugUtil.generateUniqueSlug(base, resultado + 1).
+     */
+    @Query(value = """
+            SELECT COALESCE(MAX(CASE WHEN t.slug = :base THEN 1
+                                     ELSE CAST(SUBSTRING(t.slug FROM LENGTH(:base) + 2) AS bigint) END), 0)
+            FROM products t
+            WHERE t.id <> :excludeId
+              AND t.slug LIKE CONCAT(:base, '%')
+              AND (t.slug = :base OR t.slug ~ CONCAT('^', :base, '-[0-9]{1,9}$'))
+            """, nativeQuery = true)
+    long findMaxSlugCounter(@Param("base") String base, @Param("excludeId") Long excludeId);
+
+    // ========== Membresia de Tags ==========
+
+    // Productos activos de un tag, filtrados por nombre ("" = todos). La
+    // busqueda llega con %, _ y \ escapados (ProductService.normalizeSearch)
+    @EntityGraph(attributePaths = { "category" })
+    @Query(value = """
+            SELECT p FROM Product p
+            WHERE p.deletedAt IS NULL
+              AND LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '\\'
+              AND EXISTS (SELECT 1 FROM ProductTag pt WHERE pt.product = p AND pt.tag.id = :tagId)
+            """, countQuery = """
+            SELECT COUNT(p) FROM Product p
+            WHERE p.deletedAt IS NULL
+              AND LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '\\'
+              AND EXISTS (SELECT 1 FROM ProductTag pt WHERE pt.product = p AND pt.tag.id = :tagId)
+            """)
+    Page<Product> findActiveByTagId(@Param("tagId") Long tagId, @Param("search") String search, Pageable pageable);
+
+    // Productos activos que NO tienen el tag (anti-join), filtrados por nombre
+    @EntityGraph(attributePaths = { "category" })
+    @Query(value = """
+            SELECT p FROM Product p
+            WHERE p.deletedAt IS NULL
+              AND LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '\\'
+              AND NOT EXISTS (SELECT 1 FROM ProductTag pt WHERE pt.product = p AND pt.tag.id = :tagId)
+            """, countQuery = """
+            SELECT COUNT(p) FROM Product p
+            WHERE p.deletedAt IS NULL
+              AND LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '\\'
+              AND NOT EXISTS (SELECT 1 FROM ProductTag pt WHERE pt.product = p AND pt.tag.id = :tagId)
+            """)
+    Page<Product> findActiveWithoutTagId(@Param("tagId") Long tagId, @Param("search") String search,
+            Pageable pageable);
+
+    /**
+     * Productos activos que se pueden agregar como sub-receta de un producto:
+     * ni el propio producto ni los que ya son sus sub-recetas (anti-join).
+     */
+    @Query(value = """
+            SELECT p FROM Product p
+            WHERE p.deletedAt IS NULL
+              AND p.id <> :productId
+              AND LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '\\'
+              AND NOT EXISTS (SELECT 1 FROM ProductComponent pc
+                              WHERE pc.parent.id = :productId AND pc.component = p)
+            """, countQuery = """
+            SELECT COUNT(p) FROM Product p
+            WHERE p.deletedAt IS NULL
+              AND p.id <> :productId
+              AND LOWER(p.name) LIKE LOWER(CONCAT('%', :search, '%')) ESCAPE '\\'
+              AND NOT EXISTS (SELECT 1 FROM ProductComponent pc
+                              WHERE pc.parent.id = :productId AND pc.component = p)
+            """)
+    Page<Product> findActiveComponentCandidates(@Param("productId") Long productId, @Param("search") String search,
+            Pageable pageable);
+
+    // ========== Catalogo (indice de facetas) ==========
+
+    // Todos los productos activos con su categoria, sin cargar entidades
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.CatalogProductRow(
+                p.id, p.name, p.slug, p.description, p.basePrice, p.preparationDays, p.imageUrl,
+                c.id, c.name, c.slug, c.description, rs.ratingCount, rs.ratingSum)
+            FROM Product p
+            LEFT JOIN p.category c
+            LEFT JOIN ProductRatingStats rs ON rs.productId = p.id
+            WHERE p.deletedAt IS NULL
+            """)
+    List<CatalogProductRow> findCatalogRows();
+
+    // Un producto activo (refresco incremental del indice)
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.CatalogProductRow(
+                p.id, p.name, p.slug, p.description, p.basePrice, p.preparationDays, p.imageUrl,
+                c.id, c.name, c.slug, c.description, rs.ratingCount, rs.ratingSum)
+            FROM Product p
+            LEFT JOIN p.category c
+            LEFT JOIN ProductRatingStats rs ON rs.productId = p.id
+            WHERE p.id = :productId AND p.deletedAt IS NULL
+            """)
+    Optional<CatalogProductRow> findCatalogRowById(@Param("productId") Long productId);
 }
@@ -1,17 +1,26 @@
 package com.malva_pastry_shop.backend.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.malva_pastry_shop.backend.domain.auth.User;
 import com.malva_pastry_shop.backend.domain.publicuser.ProductReview;
 import com.malva_pastry_shop.backend.domain.publicuser.ReviewStatus;
+import com.malva_pastry_shop.backend.repository.projection.ReviewModerationRow;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface ProductReviewRepository extends JpaRepository<ProductReview, Long> {
@@ -33,4 +42,34 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
     Page<ProductReview> findByStatus(ReviewStatus status, Pageable pageable);
 
     long countByStatus(ReviewStatus status);
+
+    // Bloquea la fila: dos moderaciones simultaneas de la misma resena no
+    // deben aplicar dos veces el delta al agregado de calificaciones
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM ProductReview r WHERE r.id = :id")
+    Optional<ProductReview> findByIdForUpdate(@Param("id") Long id);
+
+    // ========== Moderacion masiva ==========
+
+    // Estado actual de las resenas seleccionadas, con las filas bloqueadas
+    // hasta el fin de la transaccion
+    @Query(value = """
+            SELECT id, product_id AS productId, rating, status
+            FROM product_reviews
+            WHERE id IN (:ids)
+            ORDER BY id
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<ReviewModerationRow> findModerationRowsForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Un solo UPDATE para todas las resenas; no pasa por las entidades
+    @Modifying
+    @Query("""
+            UPDATE ProductReview r
+            SET r.status = :status, r.moderatedBy = :moderator, r.moderatedAt = :moderatedAt,
+                r.updatedAt = :moderatedAt
+            WHERE r.id IN :ids
+            """)
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") ReviewStatus status,
+            @Param("moderator") User moderator, @Param("moderatedAt") LocalDateTime moderatedAt);
 }
@@ -1,13 +1,18 @@
 package com.malva_pastry_shop.backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.malva_pastry_shop.backend.domain.storefront.ProductTag;
+import com.malva_pastry_shop.backend.repository.projection.CatalogTagRow;
+import com.malva_pastry_shop.backend.repository.projection.IdCount;
 
 @Repository
 public interface ProductTagRepository extends JpaRepository<ProductTag, Long> {
@@ -26,4 +31,41 @@ public interface ProductTagRepository extends JpaRepository<ProductTag, Long> {
     Optional<ProductTag> findByProductIdAndTagId(Long productId, Long tagId);
 
     void deleteByProductId(Long productId);
+
+    // Cantidad de productos activos de un tag, sin cargar filas
+    @Query("SELECT COUNT(pt) FROM ProductTag pt WHERE pt.tag.id = :tagId AND pt.product.deletedAt IS NULL")
+    long countActiveProductsByTagId(@Param("tagId") Long tagId);
+
+    // Productos activos de varios tags en una sola consulta
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.IdCount(pt.tag.id, COUNT(pt))
+            FROM ProductTag pt
+            WHERE pt.tag.id IN :tagIds AND pt.product.deletedAt IS NULL
+            GROUP BY pt.tag.id
+            """)
+    List<IdCount> countActiveProductsByTagIds(@Param("tagIds") Collection<Long> tagIds);
+
+    // ========== Catalogo (indice de facetas) ==========
+
+    // Pares producto-tag activos
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.CatalogTagRow(
+                p.id, t.id, t.name, t.slug, t.description)
+            FROM ProductTag pt
+            JOIN pt.product p
+            JOIN pt.tag t
+            WHERE p.deletedAt IS NULL AND t.deletedAt IS NULL
+            """)
+    List<CatalogTagRow> findCatalogRows();
+
+    // Tags activos de un producto (refresco incremental del indice)
+    @Query("""
+            SELECT new com.malva_pastry_shop.backend.repository.projection.CatalogTagRow(
+                p.id, t.id, t.name, t.slug, t.description)
+            FROM ProductTag pt
+            JOIN pt.product p
+            JOIN pt.tag t
+            WHERE p.id = :productId AND t.deletedAt IS NULL
+            """)
+    List<CatalogTagRow> findCatalogRowsByProductId(@Param("productId") Long productId);
 }
@@ -1,9 +1,12 @@
 package com.malva_pastry_shop.backend.repository;
 
 import com.malva_pastry_shop.backend.domain.storefront.Tag;
+import com.malva_pastry_shop.backend.repository.projection.NameOwner;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -28,7 +31,10 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
 
     // ========== Validacion de nombre unico (case-insensitive) ==========
 
-    Optional<Tag> findByNameIgnoreCase(String name);
+    // Index-only sobre uk_tags_name_lower
+    @Query("SELECT new com.malva_pastry_shop.backend.repository.projection.NameOwner(t.id, t.deletedAt) "
+            + "FROM Tag t WHERE LOWER(t.name) = LOWER(:name)")
+    Optional<NameOwner> findNameOwner(@Param("name") String name);
 
     // ========== Busqueda por IDs ==========
 
@@ -1,6 +1,9 @@
 package com.malva_pastry_shop.backend.repository;
 
 import com.malva_pastry_shop.backend.domain.auth.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,6 +12,11 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // El rol es EAGER: sin el grafo se carga con una consulta por usuario
+    @Override
+    @EntityGraph(attributePaths = { "role" })
+    Page<User> findAll(Pageable pageable);
+
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
@@ -0,0 +1,24 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila plana de producto activo para el indice del catalogo. Las
+ * calificaciones salen del agregado product_rating_stats (null si el
+ * producto no tiene resenas aprobadas).
+ */
+public record CatalogProductRow(
+        Long id,
+        String name,
+        String slug,
+        String description,
+        BigDecimal basePrice,
+        Integer preparationDays,
+        String imageUrl,
+        Long categoryId,
+        String categoryName,
+        String categorySlug,
+        String categoryDescription,
+        Integer ratingCount,
+        Long ratingSum) {
+}
@@ -0,0 +1,12 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+/**
+ * Fila plana de tag activo asociado a un producto activo.
+ */
+public record CatalogTagRow(
+        Long productId,
+        Long tagId,
+        String tagName,
+        String tagSlug,
+        String tagDescription) {
+}
@@ -0,0 +1,20 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Ingrediente de una receta aplanada (incluye sub-recetas), con la
+ * cantidad total por unidad del producto raiz.
+ */
+public interface FlattenedRecipeLine {
+
+    Long getIngredientId();
+
+    String getIngredientName();
+
+    String getUnitOfMeasure();
+
+    BigDecimal getUnitCost();
+
+    BigDecimal getQuantity();
+}
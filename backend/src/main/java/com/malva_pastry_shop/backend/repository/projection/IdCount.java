@@ -0,0 +1,20 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conteo agrupado por id (GROUP BY), para mostrar cantidades de una pagina
+ * completa con una sola consulta.
+ */
+public record IdCount(Long id, Long count) {
+
+    public static Map<Long, Long> toMap(List<IdCount> rows) {
+        Map<Long, Long> counts = new HashMap<>(rows.size() * 2);
+        for (IdCount row : rows) {
+            counts.put(row.id(), row.count());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,14 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila que ya usa un nombre (activa o en papelera). Se lee solo del indice
+ * unico sobre lower(name), sin cargar la entidad.
+ */
+public record NameOwner(Long id, LocalDateTime deletedAt) {
+
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+}
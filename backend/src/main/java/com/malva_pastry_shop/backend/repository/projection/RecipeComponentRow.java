@@ -0,0 +1,12 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Arista del arbol de recetas: producto padre, sub-receta y cantidad.
+ */
+public record RecipeComponentRow(
+        Long parentId,
+        Long componentId,
+        BigDecimal quantity) {
+}
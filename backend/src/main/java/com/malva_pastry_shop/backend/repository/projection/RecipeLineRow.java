@@ -0,0 +1,17 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+
+/**
+ * Fila plana de receta: un ingrediente de un producto con su cantidad.
+ */
+public record RecipeLineRow(
+        Long productId,
+        Long ingredientId,
+        String ingredientName,
+        UnitOfMeasure unitOfMeasure,
+        BigDecimal unitCost,
+        BigDecimal quantity) {
+}
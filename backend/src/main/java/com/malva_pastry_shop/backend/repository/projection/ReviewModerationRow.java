@@ -0,0 +1,16 @@
+package com.malva_pastry_shop.backend.repository.projection;
+
+/**
+ * Estado actual de una resena a moderar, leido con la fila bloqueada,
+ * para calcular los deltas del agregado de calificaciones.
+ */
+public interface ReviewModerationRow {
+
+    Long getId();
+
+    Long getProductId();
+
+    Integer getRating();
+
+    String getStatus();
+}
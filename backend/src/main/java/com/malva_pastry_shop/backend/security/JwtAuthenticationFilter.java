@@ -1,6 +1,8 @@
 package com.malva_pastry_shop.backend.security;
 
 import com.malva_pastry_shop.backend.repository.PublicUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,13 +18,19 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /** Tiempo de validar el token y cargar el usuario (sin el resto de la cadena) */
+    static final String AUTH_TIMER = "app.auth.jwt";
+
     private final JwtTokenProvider tokenProvider;
     private final PublicUserRepository publicUserRepository;
+    private final MeterRegistry meterRegistry;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
-                                   PublicUserRepository publicUserRepository) {
+                                   PublicUserRepository publicUserRepository,
+                                   MeterRegistry meterRegistry) {
         this.tokenProvider = tokenProvider;
         this.publicUserRepository = publicUserRepository;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -33,10 +41,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = extractTokenFromHeader(request);
 
-        if (token != null && tokenProvider.validateToken(token)) {
-            Long publicUserId = tokenProvider.getPublicUserIdFromToken(token);
-            publicUserRepository.findById(publicUserId).ifPresent(publicUser -> {
-                if (publicUser.isEnabled()) {
+        if (token != null) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = authenticate(token, request) ? "authenticated" : "rejected";
+            sample.stop(meterRegistry.timer(AUTH_TIMER, "outcome", outcome));
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return true si el token es valido y el usuario existe y esta habilitado
+     */
+    private boolean authenticate(String token, HttpServletRequest request) {
+        if (!tokenProvider.validateToken(token)) {
+            return false;
+        }
+        Long publicUserId = tokenProvider.getPublicUserIdFromToken(token);
+        return publicUserRepository.findById(publicUserId)
+                .filter(publicUser -> publicUser.isEnabled())
+                .map(publicUser -> {
                     PublicUserPrincipal principal = PublicUserPrincipal.from(publicUser);
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
@@ -44,11 +68,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     authentication.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                }
-            });
-        }
-
-        filterChain.doFilter(request, response);
+                    return true;
+                })
+                .orElse(false);
     }
 
     private String extractTokenFromHeader(HttpServletRequest request) {
@@ -0,0 +1,128 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.domain.inventory.IngredientPriceHistory;
+import com.malva_pastry_shop.backend.dto.response.admin.RecipeCostPointDTO;
+import com.malva_pastry_shop.backend.repository.IngredientPriceHistoryRepository;
+
+/**
+ * Registro y consulta del historial de costos de ingredientes.
+ * Permite calcular el costo de una receta con los precios vigentes
+ * en una fecha pasada.
+ */
+@Service
+@Transactional(readOnly = true)
+public class IngredientPriceHistoryService {
+
+    /** Rango maximo de dias para una consulta de tendencia */
+    public static final int MAX_TREND_DAYS = 366;
+
+    private final IngredientPriceHistoryRepository priceHistoryRepository;
+
+    public IngredientPriceHistoryService(IngredientPriceHistoryRepository priceHistoryRepository) {
+        this.priceHistoryRepository = priceHistoryRepository;
+    }
+
+    // ========== Registro ==========
+
+    /**
+     * Registra el costo inicial de un ingrediente recien creado.
+     */
+    @Transactional
+    public void recordInitialPrice(Ingredient ingredient) {
+        priceHistoryRepository.save(
+                new IngredientPriceHistory(ingredient, ingredient.getUnitCost(), LocalDateTime.now()));
+    }
+
+    /**
+     * Registra un cambio de costo. Si el ingrediente es anterior al historial
+     * (sin filas), primero se guarda el costo previo como vigente desde su
+     * fecha de creacion para no perder ese tramo.
+     */
+    @Transactional
+    public void recordPriceChange(Ingredient ingredient, BigDecimal previousCost, BigDecimal newCost) {
+        if (previousCost != null && previousCost.compareTo(newCost) == 0) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (previousCost != null && !priceHistoryRepository.existsByIngredientId(ingredient.getId())) {
+            LocalDateTime since = ingredient.getInsertedAt() != null ? ingredient.getInsertedAt() : now;
+            priceHistoryRepository.save(new IngredientPriceHistory(ingredient, previousCost, since));
+        }
+
+        priceHistoryRepository.save(new IngredientPriceHistory(ingredient, newCost, now));
+    }
+
+    @Transactional
+    public void deleteHistory(Long ingredientId) {
+        priceHistoryRepository.deleteByIngredientId(ingredientId);
+    }
+
+    // ========== Consultas ==========
+
+    public List<IngredientPriceHistory> getHistory(Long ingredientId) {
+        return priceHistoryRepository.findByIngredientIdOrderByValidFromDesc(ingredientId);
+    }
+
+    /**
+     * Costo de la receta de un producto con los precios vigentes al final del
+     * dia indicado.
+     */
+    public BigDecimal getRecipeCostAsOf(Long productId, LocalDate asOf) {
+        BigDecimal cost = priceHistoryRepository.calculateRecipeCostAsOf(productId, asOf);
+        return cost != null ? cost : BigDecimal.ZERO;
+    }
+
+    /**
+     * Costo diario de las recetas de varios productos entre dos fechas
+     * (inclusive), resuelto en una sola consulta.
+     */
+    public List<RecipeCostPointDTO> getRecipeCostTrend(Collection<Long> productIds, LocalDate from, LocalDate to) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la fecha final");
+        }
+        if (from.plusDays(MAX_TREND_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("El rango maximo es de " + MAX_TREND_DAYS + " dias");
+        }
+
+        List<Object[]> rows = priceHistoryRepository.calculateRecipeCostTrend(productIds, from, to);
+        List<RecipeCostPointDTO> points = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            points.add(new RecipeCostPointDTO(
+                    ((Number) row[0]).longValue(),
+                    toLocalDate(row[1]),
+                    (BigDecimal) row[2]));
+        }
+        return points;
+    }
+
+    // ========== Utilidades ==========
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        }
+        if (value instanceof Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime.toLocalDate();
+        }
+        throw new IllegalStateException("Tipo de fecha no soportado: " + value);
+    }
+}
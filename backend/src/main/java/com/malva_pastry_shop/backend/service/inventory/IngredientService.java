@@ -1,30 +1,44 @@
 package com.malva_pastry_shop.backend.service.inventory;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import com.malva_pastry_shop.backend.domain.auth.User;
 import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.domain.inventory.IngredientPriceHistory;
 import com.malva_pastry_shop.backend.dto.request.IngredientRequest;
+import com.malva_pastry_shop.backend.event.IngredientChangedEvent;
 import com.malva_pastry_shop.backend.repository.IngredientRepository;
 import com.malva_pastry_shop.backend.repository.ProductIngredientRepository;
+import com.malva_pastry_shop.backend.repository.projection.IdCount;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Transactional(readOnly = true)
 public class IngredientService {
 
     private final IngredientRepository ingredientRepository;
     private final ProductIngredientRepository productIngredientRepository;
+    private final IngredientPriceHistoryService priceHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public IngredientService(IngredientRepository ingredientRepository,
-            ProductIngredientRepository productIngredientRepository) {
+            ProductIngredientRepository productIngredientRepository,
+            IngredientPriceHistoryService priceHistoryService,
+            ApplicationEventPublisher eventPublisher) {
         this.ingredientRepository = ingredientRepository;
         this.productIngredientRepository = productIngredientRepository;
+        this.priceHistoryService = priceHistoryService;
+        this.eventPublisher = eventPublisher;
     }
 
     // ========== Consultas ==========
@@ -46,6 +60,13 @@ public class IngredientService {
         return ingredientRepository.findByDeletedAtIsNullOrderByNameAsc();
     }
 
+    /**
+     * Ingredientes marcados con stock bajo por el ultimo escaneo, los mas antiguos primero.
+     */
+    public List<Ingredient> findLowStock() {
+        return ingredientRepository.findByLowStockSinceIsNotNullAndDeletedAtIsNullOrderByLowStockSinceAsc();
+    }
+
     public Page<Ingredient> findDeleted(Pageable pageable) {
         return ingredientRepository.findByDeletedAtIsNotNull(pageable);
     }
@@ -61,8 +82,12 @@ public class IngredientService {
         ingredient.setDescription(request.getDescription());
         ingredient.setUnitCost(request.getUnitCost());
         ingredient.setUnitOfMeasure(request.getUnitOfMeasure());
+        ingredient.setOnHandQuantity(request.getOnHandQuantity());
+        ingredient.setReorderPoint(request.getReorderPoint());
 
-        return ingredientRepository.save(ingredient);
+        Ingredient saved = ingredientRepository.save(ingredient);
+        priceHistoryService.recordInitialPrice(saved);
+        return saved;
     }
 
     @Transactional
@@ -70,12 +95,35 @@ public class IngredientService {
         Ingredient ingredient = findById(id);
         validateIngredientName(request.getName(), id);
 
+        BigDecimal previousCost = ingredient.getUnitCost();
+
         ingredient.setName(request.getName());
         ingredient.setDescription(request.getDescription());
         ingredient.setUnitCost(request.getUnitCost());
         ingredient.setUnitOfMeasure(request.getUnitOfMeasure());
+        ingredient.setReorderPoint(request.getReorderPoint());
 
-        return ingredientRepository.save(ingredient);
+        Ingredient saved = ingredientRepository.save(ingredient);
+        adjustStock(id, request.getPreviousOnHandQuantity(), request.getOnHandQuantity());
+        priceHistoryService.recordPriceChange(saved, previousCost, saved.getUnitCost());
+        eventPublisher.publishEvent(new IngredientChangedEvent(id));
+        return saved;
+    }
+
+    /**
+     * Aplica el cambio de stock del formulario. Las ventas descuentan stock
+     * en paralelo, asi que un stock que ya se controlaba se ajusta por la
+     * diferencia con lo que mostraba el formulario; sin cambio no se escribe.
+     */
+    private void adjustStock(Long id, BigDecimal previous, BigDecimal requested) {
+        if (previous == null ? requested == null : requested != null && previous.compareTo(requested) == 0) {
+            return;
+        }
+        if (previous != null && requested != null) {
+            ingredientRepository.adjustOnHand(id, requested.subtract(previous));
+        } else {
+            ingredientRepository.setOnHand(id, requested);
+        }
     }
 
     // ========== Soft Delete ==========
@@ -104,15 +152,6 @@ public class IngredientService {
             throw new IllegalStateException("El ingrediente no esta eliminado");
         }
 
-        // Verificar que no exista otro ingrediente activo con el mismo nombre
-        // (case-insensitive)
-        ingredientRepository.findByNameIgnoreCase(ingredient.getName()).ifPresent(existing -> {
-            if (!existing.getId().equals(id) && !existing.isDeleted()) {
-                throw new IllegalStateException(
-                        "Ya existe un ingrediente activo con el nombre: " + ingredient.getName());
-            }
-        });
-
         ingredient.restore();
         return ingredientRepository.save(ingredient);
     }
@@ -138,6 +177,7 @@ public class IngredientService {
                             + " producto(s)");
         }
 
+        priceHistoryService.deleteHistory(id);
         ingredientRepository.delete(ingredient);
     }
 
@@ -147,6 +187,21 @@ public class IngredientService {
         return productIngredientRepository.countByIngredientId(ingredientId);
     }
 
+    /**
+     * Productos que usan cada ingrediente (id -> cantidad) con una sola
+     * consulta. Los ingredientes sin uso no aparecen en el mapa.
+     */
+    public Map<Long, Long> countProductsUsingIngredients(Collection<Long> ingredientIds) {
+        if (ingredientIds.isEmpty()) {
+            return Map.of();
+        }
+        return IdCount.toMap(productIngredientRepository.countByIngredientIds(ingredientIds));
+    }
+
+    public List<IngredientPriceHistory> getPriceHistory(Long ingredientId) {
+        return priceHistoryService.getHistory(ingredientId);
+    }
+
     // ========== Validaciones ==========
 
     /**
@@ -158,9 +213,9 @@ public class IngredientService {
      *                  creates
      */
     private void validateIngredientName(String name, Long excludeId) {
-        ingredientRepository.findByNameIgnoreCase(name).ifPresent(existing -> {
+        ingredientRepository.findNameOwner(name).ifPresent(existing -> {
             // Si es update y es el mismo ingrediente, no hay conflicto
-            if (excludeId != null && existing.getId().equals(excludeId)) {
+            if (excludeId != null && existing.id().equals(excludeId)) {
                 return;
             }
 
@@ -0,0 +1,114 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+
+/**
+ * Escaneo periodico de stock bajo.
+ *
+ * Calcula los dias de cobertura de cada ingrediente con control de stock
+ * a partir del consumo registrado en las ventas de los ultimos N dias, y
+ * marca como stock bajo los que estan en o bajo su punto de reposicion o
+ * con menos cobertura que el minimo configurado. Todo se resuelve en una
+ * sola sentencia; solo se escriben las filas cuyo estado cambia.
+ */
+@Service
+public class LowStockScanService {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockScanService.class);
+
+    private static final String SCAN_SQL = """
+            WITH consumption AS (
+                SELECT si.ingredient_id, SUM(si.quantity_used) AS used
+                FROM sales s
+                JOIN sale_ingredients si ON si.sale_id = s.id
+                WHERE s.sale_date >= ?
+                GROUP BY si.ingredient_id
+            ),
+            cover AS (
+                SELECT i.id,
+                       CASE WHEN c.used > 0
+                            THEN ROUND(i.on_hand_quantity / (c.used / ?), 1)
+                       END AS days_of_cover,
+                       (i.reorder_point IS NOT NULL AND i.on_hand_quantity <= i.reorder_point) AS below_reorder
+                FROM ingredients i
+                LEFT JOIN consumption c ON c.ingredient_id = i.id
+                WHERE i.deleted_at IS NULL AND i.on_hand_quantity IS NOT NULL
+            ),
+            flags AS (
+                SELECT id, days_of_cover,
+                       (below_reorder OR COALESCE(days_of_cover < ?, FALSE)) AS low
+                FROM cover
+            )
+            UPDATE ingredients i
+            SET days_of_cover = f.days_of_cover,
+                low_stock_since = CASE WHEN f.low THEN COALESCE(i.low_stock_since, ?) END
+            FROM flags f
+            WHERE i.id = f.id
+              AND (i.days_of_cover IS DISTINCT FROM f.days_of_cover
+                   OR (i.low_stock_since IS NOT NULL) <> f.low)
+            """;
+
+    private static final String CLEAR_UNTRACKED_SQL = """
+            UPDATE ingredients
+            SET days_of_cover = NULL, low_stock_since = NULL
+            WHERE (on_hand_quantity IS NULL OR deleted_at IS NOT NULL)
+              AND (days_of_cover IS NOT NULL OR low_stock_since IS NOT NULL)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.stock.consumption-window-days:14}")
+    private int windowDays;
+
+    @Value("${app.stock.min-days-of-cover:3}")
+    private int minDaysOfCover;
+
+    public LowStockScanService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // La llamada interna a scan() no pasa por el proxy: la transaccion
+    // (necesaria para el lock) se abre aca
+    @Scheduled(cron = "${app.stock.scan-cron:0 */15 * * * *}")
+    @Transactional
+    public void scheduledScan() {
+        scan();
+    }
+
+    /**
+     * Ejecuta el escaneo si ninguna otra instancia lo esta haciendo.
+     *
+     * @return cantidad de ingredientes actualizados, o -1 si no se obtuvo el lock
+     */
+    @Transactional
+    public int scan() {
+        if (!AdvisoryLock.tryTransactionLock(jdbcTemplate, AdvisoryLock.LOW_STOCK_SCAN)) {
+            log.debug("Escaneo de stock omitido: otra instancia tiene el lock");
+            return -1;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update(SCAN_SQL,
+                Timestamp.valueOf(now.minusDays(windowDays)),
+                windowDays,
+                minDaysOfCover,
+                Timestamp.valueOf(now));
+        updated += jdbcTemplate.update(CLEAR_UNTRACKED_SQL);
+
+        if (updated > 0) {
+            log.info("Escaneo de stock: {} ingrediente(s) actualizados", updated);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,68 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.malva_pastry_shop.backend.dto.request.ProductionPlanRequest;
+import com.malva_pastry_shop.backend.dto.response.admin.IngredientRequirementDTO;
+import com.malva_pastry_shop.backend.dto.response.admin.ProductionPlanDTO;
+
+/**
+ * Explosion de recetas para planificar la produccion del dia.
+ * Trabaja sobre la matriz en memoria, sin consultas a la base de datos.
+ */
+@Service
+public class ProductionPlanningService {
+
+    private final RecipeMatrix recipeMatrix;
+
+    public ProductionPlanningService(RecipeMatrix recipeMatrix) {
+        this.recipeMatrix = recipeMatrix;
+    }
+
+    /**
+     * Suma los ingredientes necesarios para elaborar las cantidades pedidas,
+     * incluyendo los de sus sub-recetas. Las cantidades quedan en la unidad
+     * de medida de cada ingrediente.
+     */
+    public ProductionPlanDTO plan(List<ProductionPlanRequest.Item> items) {
+        RecipeMatrix.Snapshot matrix = recipeMatrix.snapshot();
+        BigDecimal[] totals = new BigDecimal[matrix.ingredientCount()];
+        List<Long> withoutRecipe = new ArrayList<>();
+
+        for (ProductionPlanRequest.Item item : items) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
+            }
+            if (!matrix.hasRecipe(item.getProductId())) {
+                withoutRecipe.add(item.getProductId());
+                continue;
+            }
+
+            BigDecimal units = BigDecimal.valueOf(item.getQuantity());
+            for (RecipeMatrix.Line line : matrix.flatten(item.getProductId())) {
+                BigDecimal required = line.quantity().multiply(units);
+                BigDecimal total = totals[line.ingredient()];
+                totals[line.ingredient()] = total == null ? required : total.add(required);
+            }
+        }
+
+        List<IngredientRequirementDTO> requirements = new ArrayList<>();
+        for (int ordinal = 0; ordinal < totals.length; ordinal++) {
+            if (totals[ordinal] == null) {
+                continue;
+            }
+            RecipeMatrix.IngredientInfo ingredient = matrix.ingredient(ordinal);
+            requirements.add(new IngredientRequirementDTO(
+                    ingredient.id(), ingredient.name(), ingredient.unitOfMeasure(),
+                    totals[ordinal]));
+        }
+        requirements.sort(Comparator.comparing(IngredientRequirementDTO::ingredientName, String.CASE_INSENSITIVE_ORDER));
+
+        return new ProductionPlanDTO(requirements, withoutRecipe);
+    }
+}
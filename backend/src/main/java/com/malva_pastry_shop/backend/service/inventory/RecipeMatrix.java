@@ -0,0 +1,457 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+import com.malva_pastry_shop.backend.event.IngredientChangedEvent;
+import com.malva_pastry_shop.backend.event.RecipeChangedEvent;
+import com.malva_pastry_shop.backend.repository.IngredientRepository;
+import com.malva_pastry_shop.backend.repository.ProductComponentRepository;
+import com.malva_pastry_shop.backend.repository.ProductIngredientRepository;
+import com.malva_pastry_shop.backend.repository.projection.RecipeComponentRow;
+import com.malva_pastry_shop.backend.repository.projection.RecipeLineRow;
+
+/**
+ * Matriz de recetas en memoria. Cada producto tiene lineas de ingredientes
+ * directos y sub-recetas (otros productos), formando un DAG.
+ *
+ * Se carga con dos consultas al iniciar y se actualiza por producto cuando
+ * cambia una receta. Cada actualizacion publica un snapshot nuevo e
+ * inmutable (copy-on-write), asi las lecturas nunca bloquean. La receta
+ * aplanada y el costo de cada producto se memorizan por snapshot; al
+ * cambiar una receta o el costo de un ingrediente solo se invalidan los
+ * productos afectados y sus ancestros.
+ */
+@Component
+public class RecipeMatrix {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeMatrix.class);
+
+    /**
+     * Profundidad maxima de anidamiento (igual que en los CTE recursivos).
+     * ProductService y la importacion del catalogo no dejan armar cadenas
+     * mas largas.
+     */
+    public static final int MAX_DEPTH = 16;
+
+    private final ProductIngredientRepository productIngredientRepository;
+    private final ProductComponentRepository productComponentRepository;
+    private final IngredientRepository ingredientRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Serializa las recargas (leen la base). ReentrantLock y no synchronized:
+     * con hilos virtuales un synchronized con I/O adentro fija el hilo
+     * portador mientras espera la consulta.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RecipeMatrix(ProductIngredientRepository productIngredientRepository,
+            ProductComponentRepository productComponentRepository,
+            IngredientRepository ingredientRepository) {
+        this.productIngredientRepository = productIngredientRepository;
+        this.productComponentRepository = productComponentRepository;
+        this.ingredientRepository = ingredientRepository;
+    }
+
+    // ========== Tipos ==========
+
+    public record IngredientInfo(Long id, String name, UnitOfMeasure unitOfMeasure, BigDecimal unitCost) {
+    }
+
+    /** Linea de receta: ordinal denso del ingrediente y cantidad por unidad de producto */
+    public record Line(int ingredient, BigDecimal quantity) {
+    }
+
+    /** Sub-receta: producto componente y unidades por unidad del padre */
+    public record SubRecipe(Long productId, BigDecimal quantity) {
+    }
+
+    /**
+     * Vista inmutable de la matriz. Los ingredientes se indexan con ordinales
+     * densos para acumular requerimientos en un arreglo.
+     */
+    public static final class Snapshot {
+
+        private static final Line[] NO_LINES = new Line[0];
+        private static final SubRecipe[] NO_SUB_RECIPES = new SubRecipe[0];
+
+        private final Map<Long, Integer> ordinals;
+        private final IngredientInfo[] ingredients;
+        private final Map<Long, Line[]> recipes;
+        private final Map<Long, SubRecipe[]> subRecipes;
+
+        // Aristas inversas para invalidacion: componente -> padres, ingrediente -> productos
+        private final Map<Long, Set<Long>> parents = new HashMap<>();
+        private final Map<Integer, Set<Long>> ingredientUsers = new HashMap<>();
+
+        // Memoizacion (valida durante la vida del snapshot)
+        private final ConcurrentHashMap<Long, Line[]> flattened;
+        private final ConcurrentHashMap<Long, BigDecimal> costs;
+
+        private Snapshot(Map<Long, Integer> ordinals, IngredientInfo[] ingredients,
+                Map<Long, Line[]> recipes, Map<Long, SubRecipe[]> subRecipes,
+                Map<Long, Line[]> flattened, Map<Long, BigDecimal> costs) {
+            this.ordinals = ordinals;
+            this.ingredients = ingredients;
+            this.recipes = recipes;
+            this.subRecipes = subRecipes;
+            this.flattened = new ConcurrentHashMap<>(flattened);
+            this.costs = new ConcurrentHashMap<>(costs);
+
+            recipes.forEach((productId, lines) -> {
+                for (Line line : lines) {
+                    ingredientUsers.computeIfAbsent(line.ingredient(), k -> new HashSet<>()).add(productId);
+                }
+            });
+            subRecipes.forEach((productId, components) -> {
+                for (SubRecipe sub : components) {
+                    parents.computeIfAbsent(sub.productId(), k -> new HashSet<>()).add(productId);
+                }
+            });
+        }
+
+        public Line[] recipe(Long productId) {
+            return recipes.getOrDefault(productId, NO_LINES);
+        }
+
+        public SubRecipe[] subRecipes(Long productId) {
+            return subRecipes.getOrDefault(productId, NO_SUB_RECIPES);
+        }
+
+        public boolean hasRecipe(Long productId) {
+            return recipes.containsKey(productId) || subRecipes.containsKey(productId);
+        }
+
+        public IngredientInfo ingredient(int ordinal) {
+            return ingredients[ordinal];
+        }
+
+        public int ingredientCount() {
+            return ingredients.length;
+        }
+
+        public int productCount() {
+            Set<Long> products = new HashSet<>(recipes.keySet());
+            products.addAll(subRecipes.keySet());
+            return products.size();
+        }
+
+        /**
+         * Receta aplanada: ingredientes directos mas los de sus sub-recetas,
+         * multiplicados por la cantidad de cada sub-receta.
+         */
+        public Line[] flatten(Long productId) {
+            return flatten(productId, 0);
+        }
+
+        /**
+         * Costo de una unidad del producto con los costos actuales.
+         */
+        public BigDecimal cost(Long productId) {
+            return cost(productId, 0);
+        }
+
+        private Line[] flatten(Long productId, int depth) {
+            Line[] memo = flattened.get(productId);
+            if (memo != null) {
+                return memo;
+            }
+            checkDepth(productId, depth);
+
+            SubRecipe[] components = subRecipes.get(productId);
+            Line[] own = recipe(productId);
+            Line[] result;
+            if (components == null) {
+                result = own;
+            } else {
+                Map<Integer, BigDecimal> totals = new LinkedHashMap<>();
+                for (Line line : own) {
+                    totals.merge(line.ingredient(), line.quantity(), BigDecimal::add);
+                }
+                for (SubRecipe sub : components) {
+                    for (Line line : flatten(sub.productId(), depth + 1)) {
+                        totals.merge(line.ingredient(), line.quantity().multiply(sub.quantity()), BigDecimal::add);
+                    }
+                }
+                result = new Line[totals.size()];
+                int i = 0;
+                for (Map.Entry<Integer, BigDecimal> entry : totals.entrySet()) {
+                    result[i++] = new Line(entry.getKey(), entry.getValue());
+                }
+            }
+
+            Line[] previous = flattened.putIfAbsent(productId, result);
+            return previous != null ? previous : result;
+        }
+
+        private BigDecimal cost(Long productId, int depth) {
+            BigDecimal memo = costs.get(productId);
+            if (memo != null) {
+                return memo;
+            }
+            checkDepth(productId, depth);
+
+            BigDecimal total = BigDecimal.ZERO;
+            for (Line line : recipe(productId)) {
+                total = total.add(line.quantity().multiply(ingredients[line.ingredient()].unitCost()));
+            }
+            for (SubRecipe sub : subRecipes(productId)) {
+                total = total.add(sub.quantity().multiply(cost(sub.productId(), depth + 1)));
+            }
+
+            BigDecimal previous = costs.putIfAbsent(productId, total);
+            return previous != null ? previous : total;
+        }
+
+        private static void checkDepth(Long productId, int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalStateException(
+                        "La receta del producto " + productId + " tiene un ciclo o demasiados niveles de sub-recetas");
+            }
+        }
+
+        /**
+         * Productos dados mas todos sus ancestros (productos que los usan
+         * directa o indirectamente como sub-receta).
+         */
+        private Set<Long> withAncestors(Set<Long> productIds) {
+            Set<Long> result = new HashSet<>(productIds);
+            Deque<Long> pending = new ArrayDeque<>(productIds);
+            while (!pending.isEmpty()) {
+                for (Long parent : parents.getOrDefault(pending.pop(), Set.of())) {
+                    if (result.add(parent)) {
+                        pending.push(parent);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    // ========== Consultas ==========
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // ========== Carga y Refresco ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Recarga completa de la matriz (dos consultas).
+     */
+    public void reload() {
+        lock.lock();
+        try {
+            List<RecipeLineRow> rows = productIngredientRepository.findActiveRecipeLines();
+            List<RecipeComponentRow> componentRows = productComponentRepository.findActiveComponentRows();
+
+            Map<Long, Integer> ordinals = new HashMap<>();
+            List<IngredientInfo> ingredients = new ArrayList<>();
+            Map<Long, List<Line>> grouped = new LinkedHashMap<>();
+            for (RecipeLineRow row : rows) {
+                int ordinal = ordinalOf(row, ordinals, ingredients);
+                grouped.computeIfAbsent(row.productId(), k -> new ArrayList<>())
+                        .add(new Line(ordinal, row.quantity()));
+            }
+
+            Map<Long, Line[]> recipes = new HashMap<>(grouped.size() * 2);
+            grouped.forEach((productId, lines) -> recipes.put(productId, lines.toArray(Line[]::new)));
+
+            Map<Long, List<SubRecipe>> groupedSubs = new LinkedHashMap<>();
+            for (RecipeComponentRow row : componentRows) {
+                groupedSubs.computeIfAbsent(row.parentId(), k -> new ArrayList<>())
+                        .add(new SubRecipe(row.componentId(), row.quantity()));
+            }
+            Map<Long, SubRecipe[]> subRecipes = new HashMap<>(groupedSubs.size() * 2);
+            groupedSubs.forEach((productId, subs) -> subRecipes.put(productId, subs.toArray(SubRecipe[]::new)));
+
+            snapshot = new Snapshot(ordinals, ingredients.toArray(IngredientInfo[]::new), recipes, subRecipes,
+                    Map.of(), Map.of());
+            log.info("Matriz de recetas cargada: {} productos, {} ingredientes, {} sub-recetas",
+                    recipes.size(), ingredients.size(), componentRows.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reemplaza la receta de un producto sin recargar el resto de la matriz.
+     * Invalida la memoizacion del producto y de sus ancestros.
+     */
+    public void refreshProduct(Long productId) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                reload();
+                return;
+            }
+
+            List<RecipeLineRow> rows = productIngredientRepository.findActiveRecipeLinesByProductId(productId);
+            List<RecipeComponentRow> componentRows = productComponentRepository
+                    .findActiveComponentRowsByParentId(productId);
+
+            Map<Long, Integer> ordinals = new HashMap<>(current.ordinals);
+            List<IngredientInfo> ingredients = new ArrayList<>(Arrays.asList(current.ingredients));
+            Set<Integer> changedIngredients = new HashSet<>();
+            Line[] lines = new Line[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                RecipeLineRow row = rows.get(i);
+                int ordinal = ordinalOf(row, ordinals, ingredients);
+                if (ordinal < current.ingredients.length && !current.ingredients[ordinal].equals(ingredients.get(ordinal))) {
+                    changedIngredients.add(ordinal);
+                }
+                lines[i] = new Line(ordinal, row.quantity());
+            }
+            SubRecipe[] subs = componentRows.stream()
+                    .map(row -> new SubRecipe(row.componentId(), row.quantity()))
+                    .toArray(SubRecipe[]::new);
+
+            Map<Long, Line[]> recipes = new HashMap<>(current.recipes);
+            putOrRemove(recipes, productId, lines);
+            Map<Long, SubRecipe[]> subRecipes = new HashMap<>(current.subRecipes);
+            putOrRemove(subRecipes, productId, subs);
+
+            Set<Long> invalidated = current.withAncestors(Set.of(productId));
+            Set<Long> costInvalidated = new HashSet<>(invalidated);
+            costInvalidated.addAll(current.withAncestors(usersOf(current, changedIngredients)));
+
+            snapshot = new Snapshot(ordinals, ingredients.toArray(IngredientInfo[]::new), recipes, subRecipes,
+                    without(current.flattened, invalidated), without(current.costs, costInvalidated));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Actualiza nombre, unidad y costo de un ingrediente. Solo se invalida el
+     * costo memorizado de los productos que lo usan (y sus ancestros).
+     */
+    public void refreshIngredient(Long ingredientId) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                reload();
+                return;
+            }
+
+            Integer ordinal = current.ordinals.get(ingredientId);
+            if (ordinal == null) {
+                return;
+            }
+
+            Ingredient ingredient = ingredientRepository.findById(ingredientId).orElse(null);
+            if (ingredient == null) {
+                return;
+            }
+            IngredientInfo info = new IngredientInfo(ingredient.getId(), ingredient.getName(),
+                    ingredient.getUnitOfMeasure(), ingredient.getUnitCost());
+            if (info.equals(current.ingredients[ordinal])) {
+                return;
+            }
+
+            IngredientInfo[] ingredients = current.ingredients.clone();
+            ingredients[ordinal] = info;
+
+            Map<Long, BigDecimal> costs = current.costs;
+            if (!Objects.equals(current.ingredients[ordinal].unitCost(), info.unitCost())) {
+                costs = without(costs, current.withAncestors(usersOf(current, Set.of(ordinal))));
+            }
+
+            snapshot = new Snapshot(current.ordinals, ingredients, current.recipes, current.subRecipes,
+                    current.flattened, costs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== Eventos ==========
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.productId() == null) {
+            reload();
+        } else {
+            refreshProduct(event.productId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        refreshIngredient(event.ingredientId());
+    }
+
+    // ========== Utilidades ==========
+
+    private static int ordinalOf(RecipeLineRow row, Map<Long, Integer> ordinals, List<IngredientInfo> ingredients) {
+        IngredientInfo info = new IngredientInfo(row.ingredientId(), row.ingredientName(), row.unitOfMeasure(),
+                row.unitCost());
+        Integer ordinal = ordinals.get(row.ingredientId());
+        if (ordinal != null) {
+            // La fila es mas reciente que el snapshot
+            ingredients.set(ordinal, info);
+            return ordinal;
+        }
+        int next = ingredients.size();
+        ingredients.add(info);
+        ordinals.put(row.ingredientId(), next);
+        return next;
+    }
+
+    private static Set<Long> usersOf(Snapshot snapshot, Set<Integer> ingredientOrdinals) {
+        Set<Long> users = new HashSet<>();
+        for (Integer ordinal : ingredientOrdinals) {
+            users.addAll(snapshot.ingredientUsers.getOrDefault(ordinal, Set.of()));
+        }
+        return users;
+    }
+
+    private static <T> void putOrRemove(Map<Long, T[]> map, Long key, T[] values) {
+        if (values.length == 0) {
+            map.remove(key);
+        } else {
+            map.put(key, values);
+        }
+    }
+
+    private static <V> Map<Long, V> without(Map<Long, V> memo, Set<Long> keys) {
+        Map<Long, V> copy = new HashMap<>(memo);
+        copy.keySet().removeAll(keys);
+        return copy;
+    }
+}
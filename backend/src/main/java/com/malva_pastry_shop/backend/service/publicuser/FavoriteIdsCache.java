@@ -0,0 +1,89 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.event.FavoritesChangedEvent;
+import com.malva_pastry_shop.backend.repository.FavoriteRepository;
+
+/**
+ * Ids de productos favoritos por usuario, como arreglo ordenado. Una pagina
+ * del catalogo marca todas sus tarjetas con una sola lectura (o ninguna, si
+ * el usuario ya esta en cache) en lugar de una consulta por producto.
+ *
+ * Cache LRU acotada por cantidad de usuarios. Se invalida al cambiar los
+ * favoritos en esta instancia; el vencimiento cubre cambios de otras.
+ */
+@Component
+public class FavoriteIdsCache {
+
+    private final FavoriteRepository favoriteRepository;
+
+    @Value("${app.favorites.cache-max-users:10000}")
+    private int maxUsers;
+
+    @Value("${app.favorites.cache-ttl-ms:300000}")
+    private long ttlMillis;
+
+    private record Entry(long[] productIds, long expiresAt) {
+    }
+
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    // Invalidaciones realizadas; una lectura que se cruzo con una no se guarda
+    private long invalidations;
+
+    public FavoriteIdsCache(FavoriteRepository favoriteRepository) {
+        this.favoriteRepository = favoriteRepository;
+    }
+
+    /**
+     * Ids favoritos del usuario en orden ascendente. El arreglo es
+     * compartido: no debe modificarse.
+     */
+    public long[] productIds(Long publicUserId) {
+        long seen;
+        synchronized (entries) {
+            Entry entry = entries.get(publicUserId);
+            if (entry != null && System.currentTimeMillis() < entry.expiresAt()) {
+                return entry.productIds();
+            }
+            seen = invalidations;
+        }
+
+        long[] productIds = favoriteRepository.findProductIdsByPublicUserId(publicUserId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+
+        synchronized (entries) {
+            if (seen == invalidations) {
+                entries.put(publicUserId, new Entry(productIds, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return productIds;
+    }
+
+    public static boolean contains(long[] productIds, long productId) {
+        return Arrays.binarySearch(productIds, productId) >= 0;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onFavoritesChanged(FavoritesChangedEvent event) {
+        synchronized (entries) {
+            entries.remove(event.publicUserId());
+            invalidations++;
+        }
+    }
+}
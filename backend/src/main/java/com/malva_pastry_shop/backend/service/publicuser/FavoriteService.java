@@ -0,0 +1,104 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malva_pastry_shop.backend.domain.publicuser.Favorite;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.event.FavoritesChangedEvent;
+import com.malva_pastry_shop.backend.event.PopularitySignalEvent;
+import com.malva_pastry_shop.backend.repository.FavoriteRepository;
+import com.malva_pastry_shop.backend.service.storefront.CatalogService;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@Service
+@Transactional(readOnly = true)
+public class FavoriteService {
+
+    private final FavoriteRepository favoriteRepository;
+    private final FavoriteIdsCache favoriteIdsCache;
+    private final CatalogService catalogService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FavoriteService(FavoriteRepository favoriteRepository,
+            FavoriteIdsCache favoriteIdsCache,
+            CatalogService catalogService,
+            ApplicationEventPublisher eventPublisher) {
+        this.favoriteRepository = favoriteRepository;
+        this.favoriteIdsCache = favoriteIdsCache;
+        this.catalogService = catalogService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // ========== Consultas ==========
+
+    /**
+     * Ids favoritos del usuario, ordenados. Si se indican productIds (las
+     * tarjetas de una pagina), devuelve solo los que son favoritos.
+     */
+    public long[] findProductIds(Long publicUserId, Collection<Long> productIds) {
+        long[] favorites = favoriteIdsCache.productIds(publicUserId);
+        if (productIds == null || productIds.isEmpty()) {
+            return favorites;
+        }
+        return productIds.stream()
+                .mapToLong(Long::longValue)
+                .filter(id -> FavoriteIdsCache.contains(favorites, id))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Favoritos visibles en el catalogo publico; se omiten los productos
+     * ocultos o eliminados.
+     */
+    public List<ProductPublicDTO> findFavorites(Long publicUserId) {
+        return Arrays.stream(favoriteIdsCache.productIds(publicUserId))
+                .mapToObj(catalogService::findProduct)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    // ========== Alta y Baja ==========
+
+    /**
+     * Agrega el producto a favoritos. Devuelve false si ya lo era.
+     */
+    @Transactional
+    public boolean add(Long publicUserId, Long productId) {
+        if (catalogService.findProduct(productId).isEmpty()) {
+            throw new EntityNotFoundException("Producto no encontrado con ID: " + productId);
+        }
+        if (favoriteRepository.insertIfAbsent(publicUserId, productId) == 0) {
+            return false;
+        }
+
+        eventPublisher.publishEvent(new FavoritesChangedEvent(publicUserId));
+        eventPublisher.publishEvent(PopularitySignalEvent.favorite(productId, LocalDateTime.now()));
+        return true;
+    }
+
+    /**
+     * Quita el producto de favoritos. Devuelve false si no lo era.
+     */
+    @Transactional
+    public boolean remove(Long publicUserId, Long productId) {
+        Optional<Favorite> favorite = favoriteRepository.findByPublicUserIdAndProductId(publicUserId, productId);
+        if (favorite.isEmpty()) {
+            return false;
+        }
+
+        favoriteRepository.delete(favorite.get());
+        eventPublisher.publishEvent(new FavoritesChangedEvent(publicUserId));
+        return true;
+    }
+}
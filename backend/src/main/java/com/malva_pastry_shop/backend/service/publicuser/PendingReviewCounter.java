@@ -0,0 +1,49 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.domain.publicuser.ReviewStatus;
+import com.malva_pastry_shop.backend.event.ReviewsModeratedEvent;
+import com.malva_pastry_shop.backend.repository.ProductReviewRepository;
+
+/**
+ * Cantidad de resenas pendientes para el indicador del menu de
+ * administracion, que se muestra en todas las paginas. Se cachea por un
+ * tiempo corto (cubre resenas nuevas y moderaciones de otras instancias)
+ * y se invalida al moderar desde esta instancia.
+ */
+@Component
+public class PendingReviewCounter {
+
+    private final ProductReviewRepository reviewRepository;
+
+    @Value("${app.reviews.pending-count-ttl-ms:60000}")
+    private long ttlMillis;
+
+    private record Cached(long count, long expiresAt) {
+    }
+
+    private volatile Cached cached;
+
+    public PendingReviewCounter(ProductReviewRepository reviewRepository) {
+        this.reviewRepository = reviewRepository;
+    }
+
+    public long get() {
+        Cached current = cached;
+        long now = System.currentTimeMillis();
+        if (current == null || now >= current.expiresAt()) {
+            current = new Cached(reviewRepository.countByStatus(ReviewStatus.PENDING), now + ttlMillis);
+            cached = current;
+        }
+        return current.count();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReviewsModerated(ReviewsModeratedEvent event) {
+        cached = null;
+    }
+}
@@ -0,0 +1,186 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malva_pastry_shop.backend.domain.auth.User;
+import com.malva_pastry_shop.backend.domain.publicuser.ProductReview;
+import com.malva_pastry_shop.backend.domain.publicuser.ReviewStatus;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.event.ReviewsModeratedEvent;
+import com.malva_pastry_shop.backend.repository.ProductRatingStatsRepository;
+import com.malva_pastry_shop.backend.repository.ProductReviewRepository;
+import com.malva_pastry_shop.backend.repository.projection.ReviewModerationRow;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@Service
+public class ProductReviewService {
+
+    /** Maximo de resenas por operacion masiva */
+    public static final int MAX_BULK_SIZE = 500;
+
+    // Deltas de un producto (los cinco contadores) en una fila; la moderacion
+    // masiva manda una fila por producto en un solo batch
+    static final String APPLY_DELTAS_SQL = """
+            INSERT INTO product_rating_stats AS s
+                (product_id, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, NOW())
+            ON CONFLICT (product_id) DO UPDATE SET
+                rating_count = s.rating_count + EXCLUDED.rating_count,
+                rating_sum = s.rating_sum + EXCLUDED.rating_sum,
+                rating_1 = s.rating_1 + EXCLUDED.rating_1,
+                rating_2 = s.rating_2 + EXCLUDED.rating_2,
+                rating_3 = s.rating_3 + EXCLUDED.rating_3,
+                rating_4 = s.rating_4 + EXCLUDED.rating_4,
+                rating_5 = s.rating_5 + EXCLUDED.rating_5,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final ProductReviewRepository reviewRepository;
+    private final ProductRatingStatsRepository ratingStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductReviewService(ProductReviewRepository reviewRepository,
+            ProductRatingStatsRepository ratingStatsRepository,
+            ApplicationEventPublisher eventPublisher,
+            JdbcTemplate jdbcTemplate) {
+        this.reviewRepository = reviewRepository;
+        this.ratingStatsRepository = ratingStatsRepository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ========== Consultas ==========
+
+    @Transactional(readOnly = true)
+    public Page<ProductReview> findByStatus(ReviewStatus status, Pageable pageable) {
+        return reviewRepository.findByStatus(status, pageable);
+    }
+
+    // ========== Moderacion ==========
+
+    @Transactional
+    public ProductReview approve(Long reviewId, User admin) {
+        return moderate(reviewId, admin, ReviewStatus.APPROVED);
+    }
+
+    @Transactional
+    public ProductReview reject(Long reviewId, User admin) {
+        return moderate(reviewId, admin, ReviewStatus.REJECTED);
+    }
+
+    /**
+     * Cambia el estado y, si la resena entra o sale de las aprobadas,
+     * ajusta el agregado de calificaciones del producto en la misma
+     * transaccion.
+     */
+    private ProductReview moderate(Long reviewId, User admin, ReviewStatus target) {
+        ProductReview review = reviewRepository.findByIdForUpdate(reviewId)
+                .orElseThrow(() -> new EntityNotFoundException("Resena no encontrada con ID: " + reviewId));
+
+        ReviewStatus previous = review.getStatus();
+        boolean wasApproved = review.isApproved();
+        if (target == ReviewStatus.APPROVED) {
+            review.approve(admin);
+        } else {
+            review.reject(admin);
+        }
+
+        if (wasApproved != review.isApproved()) {
+            Long productId = review.getProduct().getId();
+            ratingStatsRepository.applyDelta(productId, review.getRating(), review.isApproved() ? 1 : -1);
+            eventPublisher.publishEvent(new CatalogChangedEvent(productId));
+        }
+        if (previous != review.getStatus()) {
+            eventPublisher.publishEvent(new ReviewsModeratedEvent(1));
+        }
+        return review;
+    }
+
+    // ========== Moderacion masiva ==========
+
+    /**
+     * Aprueba o rechaza varias resenas con una cantidad fija de sentencias:
+     * una lectura con bloqueo, un UPDATE para todas y un delta del agregado
+     * por producto y calificacion. Las resenas que ya tienen el estado
+     * pedido o que no existen se ignoran.
+     *
+     * @return cantidad de resenas que cambiaron de estado
+     */
+    @Transactional
+    public int moderateAll(Collection<Long> reviewIds, ReviewStatus target, User admin) {
+        if (target == ReviewStatus.PENDING) {
+            throw new IllegalArgumentException("Solo se puede aprobar o rechazar");
+        }
+        Set<Long> ids = new LinkedHashSet<>(reviewIds);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException(
+                    "No se pueden moderar mas de " + MAX_BULK_SIZE + " resenas a la vez");
+        }
+
+        List<Long> changed = new ArrayList<>(ids.size());
+        // productId -> delta por calificacion (indice 0 = 1 estrella)
+        Map<Long, int[]> deltas = new HashMap<>();
+        int delta = target == ReviewStatus.APPROVED ? 1 : -1;
+        for (ReviewModerationRow row : reviewRepository.findModerationRowsForUpdate(ids)) {
+            ReviewStatus current = ReviewStatus.valueOf(row.getStatus());
+            if (current == target) {
+                continue;
+            }
+            changed.add(row.getId());
+            // Solo entrar o salir de APROBADA cambia el agregado
+            if (target == ReviewStatus.APPROVED || current == ReviewStatus.APPROVED) {
+                deltas.computeIfAbsent(row.getProductId(), k -> new int[5])[row.getRating() - 1] += delta;
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        reviewRepository.updateStatus(changed, target, admin, LocalDateTime.now());
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_DELTAS_SQL, deltaRows(deltas));
+        }
+
+        if (deltas.size() == 1) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(deltas.keySet().iterator().next()));
+        } else if (!deltas.isEmpty()) {
+            eventPublisher.publishEvent(CatalogChangedEvent.all());
+        }
+        eventPublisher.publishEvent(new ReviewsModeratedEvent(changed.size()));
+        return changed.size();
+    }
+
+    private static List<Object[]> deltaRows(Map<Long, int[]> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, byRating) -> {
+            int count = 0;
+            int sum = 0;
+            for (int i = 0; i < byRating.length; i++) {
+                count += byRating[i];
+                sum += byRating[i] * (i + 1);
+            }
+            rows.add(new Object[] { productId, count, sum,
+                    byRating[0], byRating[1], byRating[2], byRating[3], byRating[4] });
+        });
+        return rows;
+    }
+}
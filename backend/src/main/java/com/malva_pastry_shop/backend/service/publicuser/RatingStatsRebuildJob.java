@@ -0,0 +1,67 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+
+/**
+ * Reconstruccion periodica de product_rating_stats desde las resenas
+ * aprobadas. Corrige cualquier desvio de los deltas aplicados al moderar
+ * (por ejemplo, resenas modificadas directamente en la base).
+ */
+@Service
+public class RatingStatsRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingStatsRebuildJob.class);
+
+    private static final String DELETE_SQL = "DELETE FROM product_rating_stats";
+
+    private static final String REBUILD_SQL = """
+            INSERT INTO product_rating_stats
+                (product_id, rating_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5, updated_at)
+            SELECT product_id, COUNT(*), SUM(rating),
+                   COUNT(*) FILTER (WHERE rating = 1),
+                   COUNT(*) FILTER (WHERE rating = 2),
+                   COUNT(*) FILTER (WHERE rating = 3),
+                   COUNT(*) FILTER (WHERE rating = 4),
+                   COUNT(*) FILTER (WHERE rating = 5),
+                   NOW()
+            FROM product_reviews
+            WHERE status = 'APPROVED'
+            GROUP BY product_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RatingStatsRebuildJob(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return cantidad de productos con calificaciones, o -1 si no se obtuvo el lock
+     */
+    @Scheduled(cron = "${app.reviews.stats-rebuild-cron:0 0 4 * * *}")
+    @Transactional
+    public int rebuild() {
+        if (!AdvisoryLock.tryTransactionLock(jdbcTemplate, AdvisoryLock.RATING_STATS_REBUILD)) {
+            log.debug("Reconstruccion de calificaciones omitida: otra instancia tiene el lock");
+            return -1;
+        }
+
+        jdbcTemplate.update(DELETE_SQL);
+        int products = jdbcTemplate.update(REBUILD_SQL);
+
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        log.info("Calificaciones reconstruidas para {} producto(s)", products);
+        return products;
+    }
+}
@@ -1,39 +1,51 @@
 package com.malva_pastry_shop.backend.service.sales;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.malva_pastry_shop.backend.domain.auth.User;
-import com.malva_pastry_shop.backend.domain.inventory.ProductIngredient;
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
 import com.malva_pastry_shop.backend.domain.sales.Sale;
 import com.malva_pastry_shop.backend.domain.sales.SaleIngredient;
 import com.malva_pastry_shop.backend.domain.storefront.Product;
 import com.malva_pastry_shop.backend.dto.request.SaleRequest;
+import com.malva_pastry_shop.backend.event.PopularitySignalEvent;
+import com.malva_pastry_shop.backend.repository.IngredientRepository;
 import com.malva_pastry_shop.backend.repository.SaleIngredientRepository;
 import com.malva_pastry_shop.backend.repository.SaleRepository;
+import com.malva_pastry_shop.backend.repository.projection.FlattenedRecipeLine;
 import com.malva_pastry_shop.backend.service.storefront.ProductService;
 
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
+@Transactional(readOnly = true)
 public class SaleService {
 
     private final SaleRepository saleRepository;
     private final SaleIngredientRepository saleIngredientRepository;
+    private final IngredientRepository ingredientRepository;
     private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SaleService(SaleRepository saleRepository,
             SaleIngredientRepository saleIngredientRepository,
-            ProductService productService) {
+            IngredientRepository ingredientRepository,
+            ProductService productService,
+            ApplicationEventPublisher eventPublisher) {
         this.saleRepository = saleRepository;
         this.saleIngredientRepository = saleIngredientRepository;
+        this.ingredientRepository = ingredientRepository;
         this.productService = productService;
+        this.eventPublisher = eventPublisher;
     }
 
     // ========== Consultas ==========
@@ -132,46 +144,55 @@ public class SaleService {
 
         sale.setTotalAmount(totalAmount);
 
-        // 3. Obtener ingredientes del producto (receta)
-        List<ProductIngredient> productIngredients = productService.getProductIngredients(product.getId());
+        // 3. Obtener la receta aplanada (incluye sub-recetas) en una sola consulta
+        List<FlattenedRecipeLine> recipeLines = productService.getFlattenedRecipe(product.getId());
 
         // 4. Por cada ingrediente, crear SaleIngredient con snapshots
-        for (ProductIngredient pi : productIngredients) {
+        for (FlattenedRecipeLine line : recipeLines) {
             // quantityUsed = receta.quantity * cantidadVendida
-            BigDecimal quantityUsed = pi.getQuantity()
-                    .multiply(BigDecimal.valueOf(request.getQuantity()));
+            // (las sub-recetas pueden generar mas de 4 decimales)
+            BigDecimal quantityUsed = line.getQuantity()
+                    .multiply(BigDecimal.valueOf(request.getQuantity()))
+                    .setScale(4, RoundingMode.HALF_UP);
 
             // Validar que quantityUsed no exceda 10 dígitos enteros
             if (quantityUsed.precision() - quantityUsed.scale() > 10) {
                 throw new IllegalArgumentException(
-                        "La cantidad del ingrediente '" + pi.getIngredient().getName() +
+                        "La cantidad del ingrediente '" + line.getIngredientName() +
                                 "' excede el límite permitido. Reduce la cantidad de venta.");
             }
 
-            BigDecimal unitCost = pi.getIngredient().getUnitCost();
+            BigDecimal unitCost = line.getUnitCost();
             BigDecimal totalCost = quantityUsed.multiply(unitCost);
 
             // Validar que totalCost no exceda 10 dígitos enteros
             if (totalCost.precision() - totalCost.scale() > 10) {
                 throw new IllegalArgumentException(
-                        "El costo total del ingrediente '" + pi.getIngredient().getName() +
+                        "El costo total del ingrediente '" + line.getIngredientName() +
                                 "' excede el límite permitido (máximo: 9,999,999,999.9999). " +
                                 "Reduce la cantidad de venta o el costo unitario del ingrediente.");
             }
 
+            // Referencia sin consulta: solo se necesita el id para la FK
             SaleIngredient saleIngredient = new SaleIngredient(
                     sale,
-                    pi.getIngredient(),
-                    pi.getIngredient().getName(),
+                    ingredientRepository.getReferenceById(line.getIngredientId()),
+                    line.getIngredientName(),
                     quantityUsed,
                     unitCost,
-                    pi.getIngredient().getUnitOfMeasure().getDisplayName());
+                    UnitOfMeasure.valueOf(line.getUnitOfMeasure()).getDisplayName());
 
             sale.addSaleIngredient(saleIngredient);
+
+            // 5. Descontar stock (solo ingredientes con control de stock)
+            ingredientRepository.decrementOnHand(line.getIngredientId(), quantityUsed);
         }
 
         // 6. Guardar Sale (cascade guarda SaleIngredient)
-        return saleRepository.save(sale);
+        Sale saved = saleRepository.save(sale);
+        eventPublisher.publishEvent(
+                PopularitySignalEvent.sale(product.getId(), sale.getQuantity(), sale.getSaleDate()));
+        return saved;
     }
 
     // ========== Filtros Combinados ==========
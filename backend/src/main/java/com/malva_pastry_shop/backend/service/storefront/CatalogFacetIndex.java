@@ -0,0 +1,650 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.domain.publicuser.ProductRatingStats;
+import com.malva_pastry_shop.backend.dto.response.publicdto.CatalogPageDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.CatalogPageDTO.FacetCount;
+import com.malva_pastry_shop.backend.dto.response.publicdto.CategoryPublicDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.TagPublicDTO;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+import com.malva_pastry_shop.backend.repository.ProductTagRepository;
+import com.malva_pastry_shop.backend.repository.projection.CatalogProductRow;
+import com.malva_pastry_shop.backend.repository.projection.CatalogTagRow;
+
+/**
+ * Indice de facetas del catalogo publico en memoria.
+ *
+ * Cada producto activo ocupa una posicion (slot) y cada valor de faceta
+ * (categoria, tag, rango de precio, dias de preparacion) tiene un BitSet
+ * con los slots que lo cumplen. Un filtro combinado es un AND/OR de
+ * BitSets y los conteos de facetas son cardinalidades, sin consultar la
+ * base de datos.
+ *
+ * Se carga con dos consultas al iniciar y se actualiza por producto despues
+ * de cada commit. Como en la matriz de recetas, cada cambio publica un
+ * snapshot nuevo e inmutable (copy-on-write) y las lecturas nunca bloquean.
+ */
+@Component
+public class CatalogFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogFacetIndex.class);
+
+    /** Limites de los rangos de precio: [0,10), [10,20), ..., [200, +inf) */
+    static final BigDecimal[] PRICE_BOUNDS = {
+            BigDecimal.valueOf(10), BigDecimal.valueOf(20), BigDecimal.valueOf(50),
+            BigDecimal.valueOf(100), BigDecimal.valueOf(200) };
+
+    /** Dias de preparacion desde los que se agrupa en un solo rango abierto */
+    static final int PREP_OPEN_BUCKET = 7;
+
+    private final ProductRepository productRepository;
+    private final ProductTagRepository productTagRepository;
+
+    private volatile Snapshot snapshot;
+
+    /** Serializa las recargas; no synchronized por los hilos virtuales (ver RecipeMatrix) */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CatalogFacetIndex(ProductRepository productRepository, ProductTagRepository productTagRepository) {
+        this.productRepository = productRepository;
+        this.productTagRepository = productTagRepository;
+    }
+
+    // ========== Tipos ==========
+
+    /**
+     * POPULAR necesita el ranking de popularidad (ver CatalogService); sin
+     * el, el snapshot ordena por nombre.
+     */
+    public enum Sort {
+        NAME, PRICE_ASC, PRICE_DESC, POPULAR
+    }
+
+    /**
+     * Filtros del catalogo. Los campos null (o lista vacia) no filtran.
+     * Los rangos de precio y dias de preparacion son inclusivos.
+     */
+    public record Query(
+            Long categoryId,
+            List<Long> tagIds,
+            boolean matchAllTags,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Integer maxPreparationDays) {
+    }
+
+    /**
+     * Vista inmutable del indice.
+     */
+    public static final class Snapshot {
+
+        private final ProductPublicDTO[] products;
+        private final Map<Long, Integer> slots;
+        private final BitSet live;
+        private final Map<Long, BitSet> byCategory;
+        private final Map<Long, BitSet> byTag;
+        private final BitSet[] byPrice;
+        private final BitSet[] byPreparation;
+        private final Map<Long, CategoryPublicDTO> categories;
+        private final Map<Long, TagPublicDTO> tags;
+
+        private final int[] nameOrder;
+        private final int[] priceAscOrder;
+        private final int[] priceDescOrder;
+
+        private Snapshot(Builder builder) {
+            this.products = builder.products.toArray(ProductPublicDTO[]::new);
+            this.slots = builder.slots;
+            this.live = builder.live;
+            this.byCategory = builder.byCategory;
+            this.byTag = builder.byTag;
+            this.byPrice = builder.byPrice;
+            this.byPreparation = builder.byPreparation;
+            this.categories = builder.categories;
+            this.tags = builder.tags;
+
+            Comparator<ProductPublicDTO> byName = Comparator
+                    .comparing(ProductPublicDTO::name, String.CASE_INSENSITIVE_ORDER)
+                    .thenComparing(ProductPublicDTO::id);
+            this.nameOrder = order(byName);
+            this.priceAscOrder = order(Comparator.comparing(ProductPublicDTO::basePrice,
+                    Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder())).thenComparing(byName));
+            this.priceDescOrder = order(Comparator.comparing(ProductPublicDTO::basePrice,
+                    Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder())).thenComparing(byName));
+        }
+
+        private int[] order(Comparator<ProductPublicDTO> comparator) {
+            return live.stream()
+                    .boxed()
+                    .sorted((a, b) -> comparator.compare(products[a], products[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        public int productCount() {
+            return live.cardinality();
+        }
+
+        public Optional<ProductPublicDTO> product(Long productId) {
+            Integer slot = slots.get(productId);
+            return slot != null ? Optional.ofNullable(products[slot]) : Optional.empty();
+        }
+
+        /**
+         * Categorias con al menos un producto activo, por nombre.
+         */
+        public List<CategoryPublicDTO> categories() {
+            return byCategory.keySet().stream()
+                    .map(categories::get)
+                    .sorted(Comparator.comparing(CategoryPublicDTO::name, String.CASE_INSENSITIVE_ORDER))
+                    .toList();
+        }
+
+        /**
+         * Tags con al menos un producto activo, por nombre.
+         */
+        public List<TagPublicDTO> tags() {
+            return byTag.keySet().stream()
+                    .map(tags::get)
+                    .sorted(Comparator.comparing(TagPublicDTO::name, String.CASE_INSENSITIVE_ORDER))
+                    .toList();
+        }
+
+        /**
+         * Aplica los filtros, devuelve la pagina pedida y los conteos de
+         * facetas. Cada dimension se cuenta con los filtros de las demas
+         * (salvo tags en modo "todos", que refina sobre el resultado).
+         */
+        public CatalogPageDTO search(Query query, Sort sort, int page, int size) {
+            int[] order = switch (sort) {
+                case PRICE_ASC -> priceAscOrder;
+                case PRICE_DESC -> priceDescOrder;
+                default -> nameOrder;
+            };
+            return search(query, order, page, size);
+        }
+
+        /**
+         * Orden de slots para un ranking externo: primero los productos
+         * rankeados que siguen activos, despues el resto por nombre.
+         */
+        int[] rankOrder(long[] rankedProductIds) {
+            int[] order = new int[nameOrder.length];
+            BitSet placed = new BitSet(products.length);
+            int next = 0;
+            for (long productId : rankedProductIds) {
+                Integer slot = slots.get(productId);
+                if (slot != null && live.get(slot) && !placed.get(slot)) {
+                    placed.set(slot);
+                    order[next++] = slot;
+                }
+            }
+            for (int slot : nameOrder) {
+                if (!placed.get(slot)) {
+                    order[next++] = slot;
+                }
+            }
+            return order;
+        }
+
+        CatalogPageDTO search(Query query, int[] order, int page, int size) {
+            BitSet category = categoryMask(query);
+            BitSet tag = tagMask(query);
+            BitSet price = priceMask(query);
+            BitSet preparation = preparationMask(query);
+
+            BitSet result = intersect(category, tag, price, preparation);
+            int total = result.cardinality();
+
+            List<ProductPublicDTO> content = new ArrayList<>(Math.min(size, total));
+            long skip = (long) page * size;
+            for (int slot : order) {
+                if (content.size() == size) {
+                    break;
+                }
+                if (result.get(slot) && skip-- <= 0) {
+                    content.add(products[slot]);
+                }
+            }
+
+            CatalogPageDTO.Facets facets = new CatalogPageDTO.Facets(
+                    categoryFacets(intersect(null, tag, price, preparation)),
+                    tagFacets(query.matchAllTags() ? result : intersect(category, null, price, preparation)),
+                    priceFacets(intersect(category, tag, null, preparation)),
+                    preparationFacets(intersect(category, tag, price, null)));
+
+            int totalPages = size > 0 ? (total + size - 1) / size : 0;
+            return new CatalogPageDTO(content, page, size, total, totalPages, facets);
+        }
+
+        // ---------- Mascaras por dimension (null = sin filtro) ----------
+
+        private BitSet categoryMask(Query query) {
+            if (query.categoryId() == null) {
+                return null;
+            }
+            return byCategory.getOrDefault(query.categoryId(), new BitSet());
+        }
+
+        private BitSet tagMask(Query query) {
+            if (query.tagIds() == null || query.tagIds().isEmpty()) {
+                return null;
+            }
+            BitSet mask;
+            if (query.matchAllTags()) {
+                mask = (BitSet) live.clone();
+                for (Long tagId : query.tagIds()) {
+                    mask.and(byTag.getOrDefault(tagId, new BitSet()));
+                }
+            } else {
+                mask = new BitSet();
+                for (Long tagId : query.tagIds()) {
+                    BitSet members = byTag.get(tagId);
+                    if (members != null) {
+                        mask.or(members);
+                    }
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * Los rangos completamente contenidos se suman con OR; solo los de
+         * los extremos se revisan producto por producto.
+         */
+        private BitSet priceMask(Query query) {
+            BigDecimal min = query.minPrice();
+            BigDecimal max = query.maxPrice();
+            if (min == null && max == null) {
+                return null;
+            }
+
+            BitSet mask = new BitSet();
+            for (int bucket = 0; bucket < byPrice.length; bucket++) {
+                BigDecimal lower = priceLower(bucket);
+                BigDecimal upper = priceUpper(bucket);
+                boolean overlaps = (max == null || lower.compareTo(max) <= 0)
+                        && (min == null || upper == null || min.compareTo(upper) < 0);
+                if (!overlaps) {
+                    continue;
+                }
+                boolean contained = (min == null || min.compareTo(lower) <= 0)
+                        && (max == null || (upper != null && upper.compareTo(max) <= 0));
+                if (contained) {
+                    mask.or(byPrice[bucket]);
+                } else {
+                    BitSet members = byPrice[bucket];
+                    for (int slot = members.nextSetBit(0); slot >= 0; slot = members.nextSetBit(slot + 1)) {
+                        BigDecimal value = products[slot].basePrice();
+                        if ((min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0)) {
+                            mask.set(slot);
+                        }
+                    }
+                }
+            }
+            return mask;
+        }
+
+        private BitSet preparationMask(Query query) {
+            Integer max = query.maxPreparationDays();
+            if (max == null) {
+                return null;
+            }
+
+            BitSet mask = new BitSet();
+            for (int bucket = 0; bucket <= Math.min(max, PREP_OPEN_BUCKET - 1); bucket++) {
+                mask.or(byPreparation[bucket]);
+            }
+            if (max >= PREP_OPEN_BUCKET) {
+                BitSet members = byPreparation[PREP_OPEN_BUCKET];
+                for (int slot = members.nextSetBit(0); slot >= 0; slot = members.nextSetBit(slot + 1)) {
+                    if (products[slot].preparationDays() <= max) {
+                        mask.set(slot);
+                    }
+                }
+            }
+            return mask;
+        }
+
+        private BitSet intersect(BitSet... masks) {
+            BitSet result = (BitSet) live.clone();
+            for (BitSet mask : masks) {
+                if (mask != null) {
+                    result.and(mask);
+                }
+            }
+            return result;
+        }
+
+        // ---------- Conteos de facetas ----------
+
+        private List<FacetCount> categoryFacets(BitSet base) {
+            List<FacetCount> facets = new ArrayList<>();
+            byCategory.forEach((categoryId, members) -> {
+                int count = countIn(base, members);
+                if (count > 0) {
+                    facets.add(new FacetCount(categoryId.toString(), categories.get(categoryId).name(), count));
+                }
+            });
+            facets.sort(Comparator.comparing(FacetCount::label, String.CASE_INSENSITIVE_ORDER));
+            return facets;
+        }
+
+        private List<FacetCount> tagFacets(BitSet base) {
+            List<FacetCount> facets = new ArrayList<>();
+            byTag.forEach((tagId, members) -> {
+                int count = countIn(base, members);
+                if (count > 0) {
+                    facets.add(new FacetCount(tagId.toString(), tags.get(tagId).name(), count));
+                }
+            });
+            facets.sort(Comparator.comparing(FacetCount::label, String.CASE_INSENSITIVE_ORDER));
+            return facets;
+        }
+
+        private List<FacetCount> priceFacets(BitSet base) {
+            List<FacetCount> facets = new ArrayList<>(byPrice.length);
+            for (int bucket = 0; bucket < byPrice.length; bucket++) {
+                String lower = priceLower(bucket).toPlainString();
+                BigDecimal upper = priceUpper(bucket);
+                String key = lower + "-" + (upper != null ? upper.toPlainString() : "");
+                String label = upper != null
+                        ? "S/ " + lower + " - " + upper.toPlainString()
+                        : "S/ " + lower + " o mas";
+                facets.add(new FacetCount(key, label, countIn(base, byPrice[bucket])));
+            }
+            return facets;
+        }
+
+        private List<FacetCount> preparationFacets(BitSet base) {
+            List<FacetCount> facets = new ArrayList<>(byPreparation.length);
+            for (int bucket = 0; bucket < byPreparation.length; bucket++) {
+                String key = bucket == PREP_OPEN_BUCKET ? bucket + "+" : String.valueOf(bucket);
+                String label = switch (bucket) {
+                    case 0 -> "Mismo dia";
+                    case 1 -> "1 dia";
+                    case PREP_OPEN_BUCKET -> bucket + " dias o mas";
+                    default -> bucket + " dias";
+                };
+                facets.add(new FacetCount(key, label, countIn(base, byPreparation[bucket])));
+            }
+            return facets;
+        }
+
+        private static int countIn(BitSet base, BitSet members) {
+            BitSet both = (BitSet) base.clone();
+            both.and(members);
+            return both.cardinality();
+        }
+    }
+
+    /**
+     * Estado mutable usado para construir un snapshot, desde cero o a partir
+     * de una copia del anterior.
+     */
+    private static final class Builder {
+
+        private final List<ProductPublicDTO> products;
+        private final Map<Long, Integer> slots;
+        private final BitSet live;
+        private final Map<Long, BitSet> byCategory;
+        private final Map<Long, BitSet> byTag;
+        private final BitSet[] byPrice;
+        private final BitSet[] byPreparation;
+        private final Map<Long, CategoryPublicDTO> categories;
+        private final Map<Long, TagPublicDTO> tags;
+
+        private Builder() {
+            this.products = new ArrayList<>();
+            this.slots = new HashMap<>();
+            this.live = new BitSet();
+            this.byCategory = new HashMap<>();
+            this.byTag = new HashMap<>();
+            this.byPrice = newBitSets(PRICE_BOUNDS.length + 1);
+            this.byPreparation = newBitSets(PREP_OPEN_BUCKET + 1);
+            this.categories = new HashMap<>();
+            this.tags = new HashMap<>();
+        }
+
+        private Builder(Snapshot source) {
+            this.products = new ArrayList<>(Arrays.asList(source.products));
+            this.slots = new HashMap<>(source.slots);
+            this.live = (BitSet) source.live.clone();
+            this.byCategory = copy(source.byCategory);
+            this.byTag = copy(source.byTag);
+            this.byPrice = copy(source.byPrice);
+            this.byPreparation = copy(source.byPreparation);
+            this.categories = new HashMap<>(source.categories);
+            this.tags = new HashMap<>(source.tags);
+        }
+
+        void add(CatalogProductRow row, List<CatalogTagRow> tagRows) {
+            CategoryPublicDTO category = null;
+            if (row.categoryId() != null) {
+                category = new CategoryPublicDTO(row.categoryId(), row.categoryName(), row.categorySlug(),
+                        row.categoryDescription());
+                categories.put(category.id(), category);
+            }
+            List<TagPublicDTO> productTags = new ArrayList<>(tagRows.size());
+            for (CatalogTagRow tagRow : tagRows) {
+                TagPublicDTO tag = new TagPublicDTO(tagRow.tagId(), tagRow.tagName(), tagRow.tagSlug(),
+                        tagRow.tagDescription());
+                tags.put(tag.id(), tag);
+                productTags.add(tag);
+            }
+            productTags.sort(Comparator.comparing(TagPublicDTO::name, String.CASE_INSENSITIVE_ORDER));
+
+            int ratingCount = row.ratingCount() != null ? row.ratingCount() : 0;
+            BigDecimal averageRating = ProductRatingStats.average(
+                    row.ratingSum() != null ? row.ratingSum() : 0L, ratingCount);
+            ProductPublicDTO product = new ProductPublicDTO(row.id(), row.name(), row.slug(), row.description(),
+                    row.basePrice(), row.preparationDays(), row.imageUrl(), averageRating, ratingCount,
+                    category, List.copyOf(productTags));
+
+            // Un producto que vuelve al indice conserva su slot
+            int slot = slots.computeIfAbsent(product.id(), id -> {
+                products.add(null);
+                return products.size() - 1;
+            });
+            products.set(slot, product);
+            live.set(slot);
+
+            if (category != null) {
+                byCategory.computeIfAbsent(category.id(), k -> new BitSet()).set(slot);
+            }
+            for (TagPublicDTO tag : productTags) {
+                byTag.computeIfAbsent(tag.id(), k -> new BitSet()).set(slot);
+            }
+            int priceBucket = priceBucket(product.basePrice());
+            if (priceBucket >= 0) {
+                byPrice[priceBucket].set(slot);
+            }
+            int preparationBucket = preparationBucket(product.preparationDays());
+            if (preparationBucket >= 0) {
+                byPreparation[preparationBucket].set(slot);
+            }
+        }
+
+        void remove(Long productId) {
+            Integer slot = slots.get(productId);
+            if (slot == null || products.get(slot) == null) {
+                return;
+            }
+            ProductPublicDTO product = products.get(slot);
+            if (product.category() != null) {
+                clear(byCategory, product.category().id(), slot);
+            }
+            for (TagPublicDTO tag : product.tags()) {
+                clear(byTag, tag.id(), slot);
+            }
+            for (BitSet members : byPrice) {
+                members.clear(slot);
+            }
+            for (BitSet members : byPreparation) {
+                members.clear(slot);
+            }
+            live.clear(slot);
+            products.set(slot, null);
+        }
+
+        Snapshot build() {
+            return new Snapshot(this);
+        }
+
+        private static void clear(Map<Long, BitSet> facet, Long key, int slot) {
+            BitSet members = facet.get(key);
+            if (members != null) {
+                members.clear(slot);
+                if (members.isEmpty()) {
+                    facet.remove(key);
+                }
+            }
+        }
+
+        private static BitSet[] newBitSets(int count) {
+            BitSet[] result = new BitSet[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = new BitSet();
+            }
+            return result;
+        }
+
+        private static Map<Long, BitSet> copy(Map<Long, BitSet> source) {
+            Map<Long, BitSet> result = new HashMap<>(source.size() * 2);
+            source.forEach((key, members) -> result.put(key, (BitSet) members.clone()));
+            return result;
+        }
+
+        private static BitSet[] copy(BitSet[] source) {
+            BitSet[] result = new BitSet[source.length];
+            for (int i = 0; i < source.length; i++) {
+                result[i] = (BitSet) source[i].clone();
+            }
+            return result;
+        }
+    }
+
+    // ========== Rangos ==========
+
+    static int priceBucket(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDS.length && price.compareTo(PRICE_BOUNDS[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    static int preparationBucket(Integer preparationDays) {
+        if (preparationDays == null) {
+            return -1;
+        }
+        return Math.min(preparationDays, PREP_OPEN_BUCKET);
+    }
+
+    private static BigDecimal priceLower(int bucket) {
+        return bucket == 0 ? BigDecimal.ZERO : PRICE_BOUNDS[bucket - 1];
+    }
+
+    /** Limite superior exclusivo; null para el ultimo rango */
+    private static BigDecimal priceUpper(int bucket) {
+        return bucket < PRICE_BOUNDS.length ? PRICE_BOUNDS[bucket] : null;
+    }
+
+    // ========== Acceso ==========
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // ========== Carga y actualizacion ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Recarga completa del indice (dos consultas). Compacta los slots
+     * liberados por productos eliminados.
+     */
+    public void reload() {
+        lock.lock();
+        try {
+            List<CatalogProductRow> rows = productRepository.findCatalogRows();
+            Map<Long, List<CatalogTagRow>> tagsByProduct = new HashMap<>();
+            for (CatalogTagRow tagRow : productTagRepository.findCatalogRows()) {
+                tagsByProduct.computeIfAbsent(tagRow.productId(), k -> new ArrayList<>()).add(tagRow);
+            }
+
+            Builder builder = new Builder();
+            for (CatalogProductRow row : rows) {
+                builder.add(row, tagsByProduct.getOrDefault(row.id(), List.of()));
+            }
+            snapshot = builder.build();
+            log.info("Indice del catalogo cargado: {} productos, {} categorias, {} tags",
+                    rows.size(), builder.byCategory.size(), builder.byTag.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reemplaza un producto en el indice sin recargar el resto. Si el
+     * producto ya no esta activo, solo se quita.
+     */
+    public void refreshProduct(Long productId) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                reload();
+                return;
+            }
+
+            Optional<CatalogProductRow> row = productRepository.findCatalogRowById(productId);
+            Builder builder = new Builder(current);
+            builder.remove(productId);
+            row.ifPresent(r -> builder.add(r, productTagRepository.findCatalogRowsByProductId(productId)));
+            snapshot = builder.build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() == null) {
+            reload();
+        } else {
+            refreshProduct(event.productId());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.malva_pastry_shop.backend.dto.response.publicdto.CatalogPageDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+
+/**
+ * Consultas del catalogo publico. Se resuelven contra el indice de facetas
+ * en memoria, sin acceder a la base de datos.
+ */
+@Service
+public class CatalogService {
+
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_RELATED_SIZE = 8;
+
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final SlugResolver slugResolver;
+    private final RelatedProductsIndex relatedProductsIndex;
+    private final PopularityRanking popularityRanking;
+
+    // Orden por popularidad del ultimo par (snapshot, ranking) consultado
+    private volatile PopularOrder popularOrder;
+
+    private record PopularOrder(CatalogFacetIndex.Snapshot snapshot, long[] ranking, int[] order) {
+    }
+
+    public CatalogService(CatalogFacetIndex catalogFacetIndex, SlugResolver slugResolver,
+            RelatedProductsIndex relatedProductsIndex, PopularityRanking popularityRanking) {
+        this.catalogFacetIndex = catalogFacetIndex;
+        this.slugResolver = slugResolver;
+        this.relatedProductsIndex = relatedProductsIndex;
+        this.popularityRanking = popularityRanking;
+    }
+
+    public CatalogPageDTO search(CatalogFacetIndex.Query query, CatalogFacetIndex.Sort sort, int page, int size) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        CatalogFacetIndex.Snapshot snapshot = catalogFacetIndex.snapshot();
+        if (sort == CatalogFacetIndex.Sort.POPULAR) {
+            return snapshot.search(query, popularOrder(snapshot), safePage, safeSize);
+        }
+        return snapshot.search(query, sort, safePage, safeSize);
+    }
+
+    /**
+     * El orden se recalcula solo si cambio el catalogo o el ranking; en el
+     * resto de las consultas se reutiliza.
+     */
+    private int[] popularOrder(CatalogFacetIndex.Snapshot snapshot) {
+        long[] ranking = popularityRanking.rankedProductIds();
+        PopularOrder cached = popularOrder;
+        if (cached != null && cached.snapshot() == snapshot && cached.ranking() == ranking) {
+            return cached.order();
+        }
+        int[] order = snapshot.rankOrder(ranking);
+        popularOrder = new PopularOrder(snapshot, ranking, order);
+        return order;
+    }
+
+    public Optional<ProductPublicDTO> findProduct(Long productId) {
+        return catalogFacetIndex.snapshot().product(productId);
+    }
+
+    public Optional<ProductPublicDTO> findProductBySlug(String slug) {
+        return slugResolver.resolveProduct(slug).flatMap(this::findProduct);
+    }
+
+    /**
+     * Productos relacionados precalculados; vacio si el producto no existe
+     * o todavia no tiene calculo.
+     */
+    public List<ProductPublicDTO> findRelated(Long productId, int size) {
+        return relatedProductsIndex.related(productId, Math.clamp(size, 1, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Id de una categoria activa por slug. Un slug desconocido devuelve -1
+     * para que el filtro no coincida con ningun producto.
+     */
+    public Long resolveCategoryId(String slug) {
+        return slugResolver.resolveCategory(slug).orElse(-1L);
+    }
+}
@@ -0,0 +1,733 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malva_pastry_shop.backend.domain.auth.User;
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+import com.malva_pastry_shop.backend.dto.response.admin.CatalogImportResultDTO;
+import com.malva_pastry_shop.backend.dto.response.admin.CatalogImportResultDTO.Counts;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.CategoryEntry;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.ComponentLine;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.IngredientEntry;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.ProductEntry;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.RecipeLine;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.TagEntry;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.event.RecipeChangedEvent;
+import com.malva_pastry_shop.backend.service.inventory.RecipeMatrix;
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+import com.malva_pastry_shop.backend.util.SlugUtil;
+
+/**
+ * Exportacion e importacion masiva del catalogo (ver CatalogTransferDTO).
+ *
+ * La importacion hace upsert por clave natural en una sola transaccion:
+ * carga un indice clave -> id de cada tabla (una consulta por tabla),
+ * valida todo el archivo en memoria contra esos indices (referencias,
+ * duplicados, ciclos de sub-recetas) y recien despues escribe con
+ * sentencias JDBC en lotes. Un error de validacion no escribe nada.
+ */
+@Service
+public class CatalogTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogTransferService.class);
+
+    /** Filas por lote JDBC */
+    static final int BATCH_SIZE = 500;
+
+    /** Cantidad maxima de errores de validacion que se informan */
+    static final int MAX_REPORTED_ERRORS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Fila existente en la base, indexada por clave natural */
+    private record Existing(long id, String name, boolean deleted, BigDecimal unitCost) {
+    }
+
+    public CatalogTransferService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // ========== Exportacion ==========
+
+    /**
+     * Catalogo activo completo (sin eliminados), en seis consultas.
+     */
+    @Transactional(readOnly = true)
+    public CatalogTransferDTO exportCatalog() {
+        List<CategoryEntry> categories = jdbcTemplate.query(
+                "SELECT name, slug, description FROM categories WHERE deleted_at IS NULL ORDER BY name, id",
+                (rs, i) -> new CategoryEntry(rs.getString("name"),
+                        key(rs.getString("slug"), rs.getString("name")), rs.getString("description")));
+
+        List<TagEntry> tags = jdbcTemplate.query(
+                "SELECT name, slug, description FROM tags WHERE deleted_at IS NULL ORDER BY name, id",
+                (rs, i) -> new TagEntry(rs.getString("name"),
+                        key(rs.getString("slug"), rs.getString("name")), rs.getString("description")));
+
+        List<IngredientEntry> ingredients = jdbcTemplate.query("""
+                SELECT name, description, unit_cost, unit_of_measure
+                FROM ingredients
+                WHERE deleted_at IS NULL
+                ORDER BY name, id
+                """,
+                (rs, i) -> new IngredientEntry(rs.getString("name"), rs.getString("description"),
+                        rs.getBigDecimal("unit_cost"),
+                        UnitOfMeasure.valueOf(rs.getString("unit_of_measure"))));
+
+        Map<Long, List<String>> tagsByProduct = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT pt.product_id, t.name, t.slug
+                FROM product_tags pt
+                JOIN tags t ON t.id = pt.tag_id AND t.deleted_at IS NULL
+                ORDER BY t.name, t.id
+                """,
+                (RowCallbackHandler) rs -> tagsByProduct
+                        .computeIfAbsent(rs.getLong("product_id"), k -> new ArrayList<>())
+                        .add(key(rs.getString("slug"), rs.getString("name"))));
+
+        Map<Long, List<RecipeLine>> recipeByProduct = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT pi.product_id, i.name, pi.quantity
+                FROM product_ingredients pi
+                JOIN ingredients i ON i.id = pi.ingredient_id AND i.deleted_at IS NULL
+                ORDER BY i.name, i.id
+                """,
+                (RowCallbackHandler) rs -> recipeByProduct
+                        .computeIfAbsent(rs.getLong("product_id"), k -> new ArrayList<>())
+                        .add(new RecipeLine(rs.getString("name"), rs.getBigDecimal("quantity"))));
+
+        Map<Long, List<ComponentLine>> componentsByProduct = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT pc.parent_id, c.name, c.slug, pc.quantity
+                FROM product_components pc
+                JOIN products c ON c.id = pc.component_id AND c.deleted_at IS NULL
+                ORDER BY c.name, c.id
+                """,
+                (RowCallbackHandler) rs -> componentsByProduct
+                        .computeIfAbsent(rs.getLong("parent_id"), k -> new ArrayList<>())
+                        .add(new ComponentLine(key(rs.getString("slug"), rs.getString("name")),
+                                rs.getBigDecimal("quantity"))));
+
+        List<ProductEntry> products = jdbcTemplate.query("""
+                SELECT p.id, p.name, p.slug, p.description, p.preparation_days, p.base_price, p.image_url,
+                       c.name AS category_name, c.slug AS category_slug
+                FROM products p
+                LEFT JOIN categories c ON c.id = p.category_id AND c.deleted_at IS NULL
+                WHERE p.deleted_at IS NULL
+                ORDER BY p.name, p.id
+                """,
+                (rs, i) -> {
+                    long id = rs.getLong("id");
+                    String categoryName = rs.getString("category_name");
+                    return new ProductEntry(
+                            rs.getString("name"),
+                            key(rs.getString("slug"), rs.getString("name")),
+                            rs.getString("description"),
+                            rs.getObject("preparation_days", Integer.class),
+                            rs.getBigDecimal("base_price"),
+                            rs.getString("image_url"),
+                            categoryName != null ? key(rs.getString("category_slug"), categoryName) : null,
+                            tagsByProduct.getOrDefault(id, List.of()),
+                            recipeByProduct.getOrDefault(id, List.of()),
+                            componentsByProduct.getOrDefault(id, List.of()));
+                });
+
+        return new CatalogTransferDTO(CatalogTransferDTO.FORMAT_VERSION, categories, tags, ingredients, products);
+    }
+
+    // ========== Importacion ==========
+
+    /**
+     * Importa el catalogo: crea lo que no existe, actualiza (y restaura si
+     * estaba eliminado) lo que coincide por clave y reemplaza tags y
+     * recetas de los productos que las incluyen.
+     *
+     * @throws IllegalArgumentException si el archivo tiene errores; no se escribe nada
+     * @throws IllegalStateException    si hay otra importacion en curso
+     */
+    @Transactional
+    public CatalogImportResultDTO importCatalog(CatalogTransferDTO catalog, User importedBy) {
+        if (catalog == null) {
+            throw new IllegalArgumentException("El archivo no contiene un catalogo");
+        }
+        if (catalog.formatVersion() != null && catalog.formatVersion() != CatalogTransferDTO.FORMAT_VERSION) {
+            throw new IllegalArgumentException("Version de formato no soportada: " + catalog.formatVersion());
+        }
+        if (!AdvisoryLock.tryTransactionLock(jdbcTemplate, AdvisoryLock.CATALOG_IMPORT)) {
+            throw new IllegalStateException("Hay otra importacion del catalogo en curso");
+        }
+
+        List<CategoryEntry> categories = orEmpty(catalog.categories());
+        List<TagEntry> tags = orEmpty(catalog.tags());
+        List<IngredientEntry> ingredients = orEmpty(catalog.ingredients());
+        List<ProductEntry> products = orEmpty(catalog.products());
+
+        // ---------- Indices precargados ----------
+        Map<String, Existing> existingCategories = loadSluggedIndex("categories");
+        Map<String, Existing> existingTags = loadSluggedIndex("tags");
+        Map<String, Existing> existingIngredients = loadIngredientIndex();
+        Map<String, Existing> existingProducts = loadSluggedIndex("products");
+
+        // ---------- Validacion en memoria ----------
+        List<String> errors = new ArrayList<>();
+        Set<String> categoryKeys = validateSlugged("Categoria", categories.stream()
+                .map(c -> new String[] { c.name(), c.slug() }).toList(), 100, 120, existingCategories, errors);
+        Set<String> tagKeys = validateSlugged("Tag", tags.stream()
+                .map(t -> new String[] { t.name(), t.slug() }).toList(), 50, 100, existingTags, errors);
+        Set<String> ingredientKeys = validateIngredients(ingredients, existingIngredients, errors);
+        Set<String> productKeys = validateSlugged("Producto", products.stream()
+                .map(p -> new String[] { p.name(), p.slug() }).toList(), 100, 120, existingProducts, errors);
+        validateProducts(products, productKeys, existingProducts, categoryKeys, existingCategories,
+                tagKeys, existingTags, ingredientKeys, existingIngredients, errors);
+        if (products.stream().anyMatch(p -> p.components() != null)) {
+            // El mismo lock que ProductService.addComponentToProduct: el grafo
+            // leido no cambia hasta el commit
+            AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.RECIPE_GRAPH);
+            validateNoCycles(products, existingProducts, errors);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(describe(errors));
+        }
+
+        // ---------- Escritura ----------
+        Counts categoryCounts = upsertSlugged("categories", categories.stream()
+                .map(c -> new Object[] { c.name().trim(), key(c.slug(), c.name()), c.description() }).toList(),
+                existingCategories);
+        Counts tagCounts = upsertSlugged("tags", tags.stream()
+                .map(t -> new Object[] { t.name().trim(), key(t.slug(), t.name()), t.description() }).toList(),
+                existingTags);
+        Counts ingredientCounts = upsertIngredients(ingredients, existingIngredients);
+
+        Map<String, Existing> categoryIndex = categoryCounts.created() > 0
+                ? loadSluggedIndex("categories") : existingCategories;
+        Counts productCounts = upsertProducts(products, existingProducts, categoryIndex, importedBy);
+
+        Map<String, Existing> productIndex = productCounts.created() > 0
+                ? loadSluggedIndex("products") : existingProducts;
+        Map<String, Existing> tagIndex = tagCounts.created() > 0 ? loadSluggedIndex("tags") : existingTags;
+        Map<String, Existing> ingredientIndex = ingredientCounts.created() > 0
+                ? loadIngredientIndex() : existingIngredients;
+
+        int tagLinks = replaceProductTags(products, productIndex, tagIndex);
+        int recipeLines = replaceRecipes(products, productIndex, ingredientIndex);
+
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        eventPublisher.publishEvent(RecipeChangedEvent.all());
+
+        CatalogImportResultDTO result = new CatalogImportResultDTO(categoryCounts, tagCounts, ingredientCounts,
+                productCounts, tagLinks, recipeLines);
+        log.info("Catalogo importado: {}", result.summary());
+        return result;
+    }
+
+    // ========== Indices ==========
+
+    /**
+     * Clave -> fila para una tabla con slug. Ante claves repetidas gana la
+     * fila activa con slug propio.
+     */
+    private Map<String, Existing> loadSluggedIndex(String table) {
+        Map<String, Existing> index = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name, slug, deleted_at IS NOT NULL AS deleted FROM " + table
+                + " ORDER BY deleted_at IS NOT NULL, slug IS NULL, id",
+                (RowCallbackHandler) rs -> index.putIfAbsent(key(rs.getString("slug"), rs.getString("name")),
+                        new Existing(rs.getLong("id"), rs.getString("name"), rs.getBoolean("deleted"), null)));
+        return index;
+    }
+
+    private Map<String, Existing> loadIngredientIndex() {
+        Map<String, Existing> index = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name, unit_cost, deleted_at IS NOT NULL AS deleted FROM ingredients"
+                + " ORDER BY deleted_at IS NOT NULL, id",
+                (RowCallbackHandler) rs -> index.putIfAbsent(nameKey(rs.getString("name")),
+                        new Existing(rs.getLong("id"), rs.getString("name"), rs.getBoolean("deleted"),
+                                rs.getBigDecimal("unit_cost"))));
+        return index;
+    }
+
+    // ========== Validacion ==========
+
+    /**
+     * Nombre obligatorio, largos maximos y claves unicas dentro del archivo.
+     * El nombre (sin distinguir mayusculas) tampoco puede repetirse ni ser
+     * de otra fila de la base: lo exige el indice unico sobre lower(name).
+     * El slug solo puede tener [a-z0-9-]: se usa en URLs y en los nombres de
+     * archivo del catalogo estatico. Cada fila es {nombre, slug}.
+     */
+    private static Set<String> validateSlugged(String label, List<String[]> rows, int maxName, int maxSlug,
+            Map<String, Existing> existing, List<String> errors) {
+        Map<String, String> keyByName = new HashMap<>(existing.size() * 2);
+        existing.forEach((key, row) -> keyByName.put(nameKey(row.name()), key));
+
+        Set<String> keys = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            String name = rows.get(i)[0];
+            String where = label + " #" + (i + 1);
+            if (name == null || name.isBlank()) {
+                errors.add(where + ": el nombre es obligatorio");
+                continue;
+            }
+            String key = key(rows.get(i)[1], name);
+            if (name.trim().length() > maxName) {
+                errors.add(where + " (" + key + "): el nombre supera " + maxName + " caracteres");
+            }
+            if (key.isEmpty() || key.length() > maxSlug) {
+                errors.add(where + " (" + key + "): slug vacio o de mas de " + maxSlug + " caracteres");
+            } else if (!SlugUtil.isValidSlug(key)) {
+                errors.add(where + " (" + key + "): el slug solo puede tener minusculas, digitos y '-'");
+            }
+            String normalizedName = nameKey(name);
+            String owner = keyByName.get(normalizedName);
+            if (!keys.add(key)) {
+                errors.add(where + ": clave repetida en el archivo '" + key + "'");
+            } else if (!names.add(normalizedName)) {
+                errors.add(where + ": nombre repetido en el archivo '" + name.trim() + "'");
+            } else if (owner != null && !owner.equals(key)) {
+                errors.add(where + " (" + key + "): el nombre '" + name.trim() + "' ya lo usa '" + owner + "'");
+            }
+        }
+        return keys;
+    }
+
+    private static Set<String> validateIngredients(List<IngredientEntry> ingredients,
+            Map<String, Existing> existing, List<String> errors) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < ingredients.size(); i++) {
+            IngredientEntry ingredient = ingredients.get(i);
+            String where = "Ingrediente #" + (i + 1);
+            if (ingredient.name() == null || ingredient.name().isBlank()) {
+                errors.add(where + ": el nombre es obligatorio");
+                continue;
+            }
+            String key = nameKey(ingredient.name());
+            where += " (" + ingredient.name().trim() + ")";
+            if (ingredient.name().trim().length() > 100) {
+                errors.add(where + ": el nombre supera 100 caracteres");
+            }
+            if (!keys.add(key)) {
+                errors.add(where + ": nombre repetido en el archivo");
+            }
+            // Costo y unidad son obligatorios solo al crear
+            if (!existing.containsKey(key) && (ingredient.unitCost() == null || ingredient.unitOfMeasure() == null)) {
+                errors.add(where + ": el costo y la unidad de medida son obligatorios");
+            }
+            if (ingredient.unitCost() != null && ingredient.unitCost().signum() < 0) {
+                errors.add(where + ": el costo no puede ser negativo");
+            }
+        }
+        return keys;
+    }
+
+    private static void validateProducts(List<ProductEntry> products, Set<String> productKeys,
+            Map<String, Existing> existingProducts, Set<String> categoryKeys,
+            Map<String, Existing> existingCategories, Set<String> tagKeys, Map<String, Existing> existingTags,
+            Set<String> ingredientKeys, Map<String, Existing> existingIngredients, List<String> errors) {
+
+        for (int i = 0; i < products.size(); i++) {
+            ProductEntry product = products.get(i);
+            if (product.name() == null || product.name().isBlank()) {
+                continue; // ya informado
+            }
+            String productKey = key(product.slug(), product.name());
+            String where = "Producto #" + (i + 1) + " (" + productKey + ")";
+
+            if (product.basePrice() != null && product.basePrice().signum() < 0) {
+                errors.add(where + ": el precio no puede ser negativo");
+            }
+            if (product.preparationDays() != null && product.preparationDays() < 0) {
+                errors.add(where + ": los dias de preparacion no pueden ser negativos");
+            }
+            if (product.category() != null
+                    && !resolvable(product.category().trim(), categoryKeys, existingCategories)) {
+                errors.add(where + ": categoria inexistente '" + product.category() + "'");
+            }
+            for (String tag : orEmpty(product.tags())) {
+                if (tag == null || !resolvable(tag.trim(), tagKeys, existingTags)) {
+                    errors.add(where + ": tag inexistente '" + tag + "'");
+                }
+            }
+
+            Set<String> seen = new HashSet<>();
+            for (RecipeLine line : orEmpty(product.ingredients())) {
+                String ingredient = line.ingredient() != null ? nameKey(line.ingredient()) : "";
+                if (!resolvable(ingredient, ingredientKeys, existingIngredients)) {
+                    errors.add(where + ": ingrediente inexistente '" + line.ingredient() + "'");
+                } else if (!seen.add(ingredient)) {
+                    errors.add(where + ": ingrediente repetido en la receta '" + line.ingredient() + "'");
+                }
+                if (line.quantity() == null || line.quantity().signum() <= 0) {
+                    errors.add(where + ": cantidad invalida para '" + line.ingredient() + "'");
+                }
+            }
+
+            seen.clear();
+            for (ComponentLine line : orEmpty(product.components())) {
+                String component = line.product() != null ? line.product().trim() : "";
+                if (component.equals(productKey)) {
+                    errors.add(where + ": no puede usarse a si mismo como sub-receta");
+                } else if (!resolvable(component, productKeys, existingProducts)) {
+                    errors.add(where + ": sub-receta inexistente '" + line.product() + "'");
+                } else if (!seen.add(component)) {
+                    errors.add(where + ": sub-receta repetida '" + line.product() + "'");
+                }
+                if (line.quantity() == null || line.quantity().signum() <= 0) {
+                    errors.add(where + ": cantidad invalida para la sub-receta '" + line.product() + "'");
+                }
+            }
+        }
+    }
+
+    /** Existe en el archivo o activa en la base */
+    private static boolean resolvable(String key, Set<String> fileKeys, Map<String, Existing> existing) {
+        if (fileKeys.contains(key)) {
+            return true;
+        }
+        Existing row = existing.get(key);
+        return row != null && !row.deleted();
+    }
+
+    /**
+     * Las sub-recetas del archivo, sumadas a las de la base de los productos
+     * que no las reemplaza, no pueden formar un ciclo ni una cadena de mas
+     * de RecipeMatrix.MAX_DEPTH niveles (igual que en
+     * ProductService.addComponentToProduct).
+     */
+    private void validateNoCycles(List<ProductEntry> products, Map<String, Existing> existingProducts,
+            List<String> errors) {
+        Map<Long, String> keyById = new HashMap<>();
+        existingProducts.forEach((key, row) -> keyById.put(row.id(), key));
+
+        Set<String> replaced = new HashSet<>();
+        Map<String, List<String>> graph = new HashMap<>();
+        for (ProductEntry product : products) {
+            if (product.components() != null && product.name() != null && !product.name().isBlank()) {
+                String parent = key(product.slug(), product.name());
+                replaced.add(parent);
+                for (ComponentLine line : product.components()) {
+                    // La auto-referencia ya se informa al validar el producto
+                    if (line.product() != null && !line.product().trim().equals(parent)) {
+                        graph.computeIfAbsent(parent, k -> new ArrayList<>()).add(line.product().trim());
+                    }
+                }
+            }
+        }
+        jdbcTemplate.query("SELECT parent_id, component_id FROM product_components",
+                (RowCallbackHandler) rs -> {
+                    String parent = keyById.get(rs.getLong("parent_id"));
+                    String component = keyById.get(rs.getLong("component_id"));
+                    if (parent != null && component != null && !replaced.contains(parent)) {
+                        graph.computeIfAbsent(parent, k -> new ArrayList<>()).add(component);
+                    }
+                });
+
+        Map<String, Boolean> visiting = new HashMap<>(); // true = en la pila, false = terminado
+        for (String start : replaced) {
+            List<String> cycle = findCycle(start, graph, visiting, new ArrayList<>());
+            if (cycle != null) {
+                errors.add("Las sub-recetas forman un ciclo: " + String.join(" -> ", cycle));
+                return;
+            }
+        }
+
+        Map<String, List<String>> parents = new HashMap<>();
+        graph.forEach((parent, components) -> components.forEach(
+                component -> parents.computeIfAbsent(component, k -> new ArrayList<>()).add(parent)));
+        Map<String, Integer> heights = new HashMap<>();
+        Map<String, Integer> depths = new HashMap<>();
+        for (String product : replaced) {
+            int levels = longestPath(product, parents, depths) + longestPath(product, graph, heights);
+            if (levels > RecipeMatrix.MAX_DEPTH) {
+                errors.add("Las sub-recetas de '" + product + "' forman una cadena de " + levels
+                        + " niveles (maximo " + RecipeMatrix.MAX_DEPTH + ")");
+                return;
+            }
+        }
+    }
+
+    /** Aristas del camino mas largo desde node siguiendo edges (grafo sin ciclos) */
+    private static int longestPath(String node, Map<String, List<String>> edges, Map<String, Integer> memo) {
+        Integer known = memo.get(node);
+        if (known != null) {
+            return known;
+        }
+        int longest = 0;
+        for (String next : edges.getOrDefault(node, List.of())) {
+            longest = Math.max(longest, longestPath(next, edges, memo) + 1);
+        }
+        memo.put(node, longest);
+        return longest;
+    }
+
+    private static List<String> findCycle(String node, Map<String, List<String>> graph,
+            Map<String, Boolean> visiting, List<String> path) {
+        Boolean state = visiting.get(node);
+        if (Boolean.FALSE.equals(state)) {
+            return null;
+        }
+        path.add(node);
+        if (Boolean.TRUE.equals(state)) {
+            return path.subList(path.indexOf(node), path.size());
+        }
+        visiting.put(node, true);
+        for (String next : graph.getOrDefault(node, List.of())) {
+            List<String> cycle = findCycle(next, graph, visiting, path);
+            if (cycle != null) {
+                return cycle;
+            }
+        }
+        visiting.put(node, false);
+        path.removeLast();
+        return null;
+    }
+
+    private static String describe(List<String> errors) {
+        String shown = String.join("; ", errors.subList(0, Math.min(errors.size(), MAX_REPORTED_ERRORS)));
+        int hidden = errors.size() - MAX_REPORTED_ERRORS;
+        return "El catalogo tiene " + errors.size() + " error(es): " + shown
+                + (hidden > 0 ? " (y " + hidden + " mas)" : "");
+    }
+
+    // ========== Escritura ==========
+
+    /**
+     * Upsert de categorias o tags. Cada fila es {nombre, slug, descripcion}.
+     */
+    private Counts upsertSlugged(String table, List<Object[]> rows, Map<String, Existing> existing) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Object[] row : rows) {
+            Existing current = existing.get((String) row[1]);
+            if (current == null) {
+                inserts.add(row);
+            } else {
+                updates.add(new Object[] { row[0], row[1], row[2], current.id() });
+            }
+        }
+        batch("INSERT INTO " + table + " (name, slug, description, inserted_at, updated_at)"
+                + " VALUES (?, ?, ?, now(), now())", inserts, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR);
+        batch("UPDATE " + table + " SET name = ?, slug = ?, description = ?,"
+                + " deleted_at = NULL, deleted_by_id = NULL, updated_at = now() WHERE id = ?", updates,
+                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT);
+        return new Counts(inserts.size(), updates.size());
+    }
+
+    /**
+     * Upsert de ingredientes por nombre. Los cambios de costo quedan en el
+     * historial de precios igual que al editar desde el formulario.
+     */
+    private Counts upsertIngredients(List<IngredientEntry> ingredients, Map<String, Existing> existing) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> previousCosts = new ArrayList<>();
+        List<Object[]> changedCosts = new ArrayList<>();
+        for (IngredientEntry ingredient : ingredients) {
+            Existing current = existing.get(nameKey(ingredient.name()));
+            String unit = ingredient.unitOfMeasure() != null ? ingredient.unitOfMeasure().name() : null;
+            if (current == null) {
+                inserts.add(new Object[] { ingredient.name().trim(), ingredient.description(),
+                        ingredient.unitCost(), unit });
+            } else {
+                updates.add(new Object[] { ingredient.name().trim(), ingredient.description(),
+                        ingredient.unitCost(), unit, current.id() });
+                if (ingredient.unitCost() != null && (current.unitCost() == null
+                        || current.unitCost().compareTo(ingredient.unitCost()) != 0)) {
+                    previousCosts.add(new Object[] { current.id() });
+                    changedCosts.add(new Object[] { current.id(), ingredient.unitCost() });
+                }
+            }
+        }
+
+        // Ingredientes anteriores al historial: primero su costo vigente
+        batch("""
+                INSERT INTO ingredient_price_history (ingredient_id, unit_cost, valid_from, inserted_at, updated_at)
+                SELECT i.id, i.unit_cost, i.inserted_at, now(), now()
+                FROM ingredients i
+                WHERE i.id = ?
+                  AND NOT EXISTS (SELECT 1 FROM ingredient_price_history h WHERE h.ingredient_id = i.id)
+                """, previousCosts, Types.BIGINT);
+        batch("""
+                INSERT INTO ingredients (name, description, unit_cost, unit_of_measure, inserted_at, updated_at)
+                VALUES (?, ?, ?, ?, now(), now())
+                """, inserts, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR);
+        batch("""
+                UPDATE ingredients
+                SET name = ?, description = ?, unit_cost = COALESCE(?, unit_cost),
+                    unit_of_measure = COALESCE(?, unit_of_measure),
+                    deleted_at = NULL, deleted_by_id = NULL, updated_at = now()
+                WHERE id = ?
+                """, updates, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR, Types.BIGINT);
+
+        if (!inserts.isEmpty()) {
+            Map<String, Existing> index = loadIngredientIndex();
+            for (Object[] insert : inserts) {
+                Existing created = index.get(nameKey((String) insert[0]));
+                changedCosts.add(new Object[] { created.id(), insert[2] });
+            }
+        }
+        batch("""
+                INSERT INTO ingredient_price_history (ingredient_id, unit_cost, valid_from, inserted_at, updated_at)
+                VALUES (?, ?, now(), now(), now())
+                """, changedCosts, Types.BIGINT, Types.NUMERIC);
+
+        return new Counts(inserts.size(), updates.size());
+    }
+
+    private Counts upsertProducts(List<ProductEntry> products, Map<String, Existing> existing,
+            Map<String, Existing> categories, User importedBy) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        Long userId = importedBy != null ? importedBy.getId() : null;
+        for (ProductEntry product : products) {
+            String key = key(product.slug(), product.name());
+            Long categoryId = product.category() != null ? categories.get(product.category().trim()).id() : null;
+            Object[] values = { product.name().trim(), key, product.description(), product.preparationDays(),
+                    product.basePrice(), product.imageUrl(), categoryId };
+            Existing current = existing.get(key);
+            if (current == null) {
+                inserts.add(append(values, userId));
+            } else {
+                updates.add(append(values, current.id()));
+            }
+        }
+        batch("""
+                INSERT INTO products (name, slug, description, preparation_days, base_price, image_url,
+                                      category_id, user_id, inserted_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+                """, inserts, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.NUMERIC, Types.VARCHAR, Types.BIGINT, Types.BIGINT);
+        batch("""
+                UPDATE products
+                SET name = ?, slug = ?, description = ?, preparation_days = ?, base_price = ?, image_url = ?,
+                    category_id = ?, deleted_at = NULL, deleted_by_id = NULL, updated_at = now()
+                WHERE id = ?
+                """, updates, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.NUMERIC, Types.VARCHAR, Types.BIGINT, Types.BIGINT);
+        return new Counts(inserts.size(), updates.size());
+    }
+
+    /** Reemplaza los tags de los productos que traen la lista */
+    private int replaceProductTags(List<ProductEntry> products, Map<String, Existing> productIndex,
+            Map<String, Existing> tagIndex) {
+        List<Long> replaced = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (ProductEntry product : products) {
+            if (product.tags() == null) {
+                continue;
+            }
+            long productId = productIndex.get(key(product.slug(), product.name())).id();
+            replaced.add(productId);
+            for (String tag : new LinkedHashSet<>(product.tags().stream().map(String::trim).toList())) {
+                inserts.add(new Object[] { productId, tagIndex.get(tag).id() });
+            }
+        }
+        deleteByIds("product_tags", "product_id", replaced);
+        batch("INSERT INTO product_tags (product_id, tag_id, inserted_at, updated_at) VALUES (?, ?, now(), now())",
+                inserts, Types.BIGINT, Types.BIGINT);
+        return inserts.size();
+    }
+
+    /** Reemplaza ingredientes y sub-recetas de los productos que los traen */
+    private int replaceRecipes(List<ProductEntry> products, Map<String, Existing> productIndex,
+            Map<String, Existing> ingredientIndex) {
+        List<Long> ingredientsReplaced = new ArrayList<>();
+        List<Object[]> ingredientInserts = new ArrayList<>();
+        List<Long> componentsReplaced = new ArrayList<>();
+        List<Object[]> componentInserts = new ArrayList<>();
+        for (ProductEntry product : products) {
+            long productId = productIndex.get(key(product.slug(), product.name())).id();
+            if (product.ingredients() != null) {
+                ingredientsReplaced.add(productId);
+                for (RecipeLine line : product.ingredients()) {
+                    ingredientInserts.add(new Object[] { productId,
+                            ingredientIndex.get(nameKey(line.ingredient())).id(), line.quantity() });
+                }
+            }
+            if (product.components() != null) {
+                componentsReplaced.add(productId);
+                for (ComponentLine line : product.components()) {
+                    componentInserts.add(new Object[] { productId,
+                            productIndex.get(line.product().trim()).id(), line.quantity() });
+                }
+            }
+        }
+        deleteByIds("product_ingredients", "product_id", ingredientsReplaced);
+        batch("""
+                INSERT INTO product_ingredients (product_id, ingredient_id, quantity, inserted_at, updated_at)
+                VALUES (?, ?, ?, now(), now())
+                """, ingredientInserts, Types.BIGINT, Types.BIGINT, Types.NUMERIC);
+        deleteByIds("product_components", "parent_id", componentsReplaced);
+        batch("""
+                INSERT INTO product_components (parent_id, component_id, quantity, inserted_at, updated_at)
+                VALUES (?, ?, ?, now(), now())
+                """, componentInserts, Types.BIGINT, Types.BIGINT, Types.NUMERIC);
+        return ingredientInserts.size() + componentInserts.size();
+    }
+
+    /**
+     * Un solo DELETE con la lista de ids: product_ingredients no tiene indice
+     * por product_id y un DELETE por producto recorreria la tabla cada vez.
+     */
+    private void deleteByIds(String table, String column, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM " + table + " WHERE " + column + " = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    /**
+     * Lotes de BATCH_SIZE filas. Los tipos SQL evitan que el driver tenga que
+     * consultar el tipo de cada parametro null.
+     */
+    private void batch(String sql, List<Object[]> rows, int... argTypes) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())), argTypes);
+        }
+    }
+
+    // ========== Utilidades ==========
+
+    /** Clave de categorias, tags y productos: el slug, o el generado desde el nombre */
+    static String key(String slug, String name) {
+        if (slug != null && !slug.isBlank()) {
+            return slug.trim();
+        }
+        return name != null ? SlugUtil.generateSlug(name) : "";
+    }
+
+    /** Nombre normalizado como lower(name): clave de ingredientes y de la unicidad de nombres */
+    static String nameKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private static Object[] append(Object[] values, Object last) {
+        Object[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = last;
+        return result;
+    }
+}
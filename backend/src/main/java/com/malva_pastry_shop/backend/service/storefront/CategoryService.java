@@ -1,27 +1,42 @@
 package com.malva_pastry_shop.backend.service.storefront;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import com.malva_pastry_shop.backend.domain.auth.User;
 import com.malva_pastry_shop.backend.domain.storefront.Category;
 import com.malva_pastry_shop.backend.dto.request.CategoryRequest;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
 import com.malva_pastry_shop.backend.repository.CategoryRepository;
 import com.malva_pastry_shop.backend.repository.ProductRepository;
+import com.malva_pastry_shop.backend.repository.projection.IdCount;
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+import com.malva_pastry_shop.backend.util.SlugUtil;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Transactional(readOnly = true)
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
 
-    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository) {
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository,
+            ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     // ========== Consultas ==========
@@ -47,10 +62,13 @@ public class CategoryService {
 
     @Transactional
     public Category create(CategoryRequest request) {
+        // Ordena altas y renombres concurrentes (ver ProductService.lockNames)
+        AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.CATEGORY_NAMES);
         validateCategoryName(request.getName(), null);
 
         Category category = new Category();
         category.setName(request.getName());
+        category.setSlug(allocateSlug(request.getName(), null));
         category.setDescription(request.getDescription());
 
         return categoryRepository.save(category);
@@ -59,12 +77,22 @@ public class CategoryService {
     @Transactional
     public Category update(Long id, CategoryRequest request) {
         Category category = findById(id);
+        boolean renamed = category.getSlug() == null || !category.getName().equals(request.getName());
+        if (renamed) {
+            AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.CATEGORY_NAMES);
+        }
         validateCategoryName(request.getName(), id);
 
+        if (renamed) {
+            category.setSlug(allocateSlug(request.getName(), id));
+        }
         category.setName(request.getName());
         category.setDescription(request.getDescription());
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        // El nombre de la categoria se muestra en cada producto del catalogo
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     // ========== Soft Delete ==========
@@ -82,6 +110,7 @@ public class CategoryService {
 
         category.softDelete(deletedBy);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 
     @Transactional
@@ -93,16 +122,10 @@ public class CategoryService {
             throw new IllegalStateException("La categoría no está eliminada");
         }
 
-        // Verificar que no exista otra categoría activa con el mismo nombre
-        // (case-insensitive)
-        categoryRepository.findByNameIgnoreCase(category.getName()).ifPresent(existing -> {
-            if (!existing.getId().equals(id) && !existing.isDeleted()) {
-                throw new IllegalStateException("Ya existe una categoría activa con el nombre: " + category.getName());
-            }
-        });
-
         category.restore();
-        return categoryRepository.save(category);
+        Category restored = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return restored;
     }
 
     // ========== Hard Delete ==========
@@ -135,8 +158,31 @@ public class CategoryService {
         return productRepository.countByCategoryIdAndDeletedAtIsNull(categoryId);
     }
 
+    /**
+     * Productos activos por categoria (id -> cantidad) con una sola consulta.
+     * Las categorias sin productos no aparecen en el mapa.
+     */
+    public Map<Long, Long> countProducts(Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return Map.of();
+        }
+        return IdCount.toMap(productRepository.countActiveByCategoryIds(categoryIds));
+    }
+
     // ========== Validaciones ==========
 
+    /**
+     * Slug unico para un nombre, con el sufijo libre resuelto en una sola consulta.
+     */
+    String allocateSlug(String name, Long excludeId) {
+        String base = SlugUtil.generateSlug(name);
+        if (base == null || base.isEmpty()) {
+            base = "categoria";
+        }
+        long used = categoryRepository.findMaxSlugCounter(base, excludeId != null ? excludeId : -1L);
+        return SlugUtil.generateUniqueSlug(base, (int) used + 1);
+    }
+
     /**
      * Valida que el nombre de la categoría sea único (case-insensitive).
      * Verifica tanto categorías activas como en papelera.
@@ -146,9 +192,9 @@ public class CategoryService {
      *                  creates
      */
     private void validateCategoryName(String name, Long excludeId) {
-        categoryRepository.findByNameIgnoreCase(name).ifPresent(existing -> {
+        categoryRepository.findNameOwner(name).ifPresent(existing -> {
             // Si es update y es la misma categoría, no hay conflicto
-            if (excludeId != null && existing.getId().equals(excludeId)) {
+            if (excludeId != null && existing.id().equals(excludeId)) {
                 return;
             }
 
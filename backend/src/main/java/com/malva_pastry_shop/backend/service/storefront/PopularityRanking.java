@@ -0,0 +1,254 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.event.PopularitySignalEvent;
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+
+/**
+ * Ranking de popularidad (ventas y favoritos) con decaimiento exponencial.
+ *
+ * Cada senal de peso w en el instante t aporta w * 2^(-(ahora - t) / vida media).
+ * En vez de envejecer todos los puntajes periodicamente se guarda, por
+ * producto, log(suma de w * e^(lambda * (t - EPOCH))): sumar una senal es un
+ * log-sum-exp y el orden entre productos es el mismo que el del puntaje
+ * decaido en cualquier instante.
+ *
+ * Las senales se acumulan en memoria y se vuelcan cada cierto tiempo a
+ * product_popularity sumandolas a lo guardado, de modo que varias
+ * instancias no se pisan. La lista ordenada de ids se recalcula solo
+ * cuando hubo cambios.
+ */
+@Component
+public class PopularityRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(PopularityRanking.class);
+
+    static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+
+    private static final String LOAD_SQL = "SELECT product_id, log_score FROM product_popularity";
+
+    private static final String MERGE_SQL = """
+            INSERT INTO product_popularity AS pp (product_id, log_score, updated_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (product_id) DO UPDATE
+            SET log_score = GREATEST(pp.log_score, EXCLUDED.log_score)
+                    + LN(1 + EXP(LEAST(pp.log_score, EXCLUDED.log_score)
+                                 - GREATEST(pp.log_score, EXCLUDED.log_score))),
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    // Reconstruccion desde el historial; se resta el maximo por producto
+    // antes de EXP para no desbordar
+    private static final String REBUILD_SQL = """
+            WITH signals AS (
+                SELECT product_id,
+                       LN(quantity * ?) + ? * EXTRACT(EPOCH FROM (sale_date - ?))::float8 / 86400 AS x
+                FROM sales
+                WHERE product_id IS NOT NULL AND quantity > 0
+                UNION ALL
+                SELECT product_id,
+                       LN(?) + ? * EXTRACT(EPOCH FROM (inserted_at - ?))::float8 / 86400
+                FROM favorites
+            ),
+            peaks AS (
+                SELECT product_id, MAX(x) AS m FROM signals GROUP BY product_id
+            )
+            INSERT INTO product_popularity (product_id, log_score, updated_at)
+            SELECT s.product_id, p.m + LN(SUM(EXP(s.x - p.m))), ?
+            FROM signals s
+            JOIN peaks p ON p.product_id = s.product_id
+            GROUP BY s.product_id, p.m
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.popularity.half-life-days:14}")
+    private double halfLifeDays;
+
+    @Value("${app.popularity.sale-weight:1.0}")
+    private double saleWeight;
+
+    @Value("${app.popularity.favorite-weight:3.0}")
+    private double favoriteWeight;
+
+    // Ultimo estado leido de la base
+    private Map<Long, Double> persisted = Map.of();
+    // Senales en curso de escritura (ya no estan en pending, aun no en persisted)
+    private Map<Long, Double> inFlight = Map.of();
+    // Senales nuevas desde el ultimo volcado
+    private Map<Long, Double> pending = new HashMap<>();
+
+    private volatile long version;
+    private volatile Ranked ranked = new Ranked(-1, new long[0]);
+
+    /** Ids ordenados de mas a menos popular para una version de los puntajes */
+    private record Ranked(long version, long[] productIds) {
+    }
+
+    public PopularityRanking(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ========== Consulta ==========
+
+    /**
+     * Ids de productos con puntaje, del mas al menos popular. Devuelve la
+     * misma instancia mientras no haya cambios.
+     */
+    public long[] rankedProductIds() {
+        Ranked current = ranked;
+        if (current.version() != version) {
+            current = rank();
+        }
+        return current.productIds();
+    }
+
+    private synchronized Ranked rank() {
+        long at = version;
+        if (ranked.version() == at) {
+            return ranked;
+        }
+
+        Map<Long, Double> scores = new HashMap<>(persisted);
+        inFlight.forEach((id, score) -> scores.merge(id, score, PopularityRanking::logAdd));
+        pending.forEach((id, score) -> scores.merge(id, score, PopularityRanking::logAdd));
+
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(scores.entrySet());
+        entries.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        long[] ids = new long[entries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries.get(i).getKey();
+        }
+
+        ranked = new Ranked(at, ids);
+        return ranked;
+    }
+
+    // ========== Senales ==========
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPopularitySignal(PopularitySignalEvent event) {
+        double weight = switch (event.signal()) {
+            case SALE -> saleWeight * event.quantity();
+            case FAVORITE -> favoriteWeight * event.quantity();
+        };
+        record(event.productId(), weight, event.occurredAt());
+    }
+
+    synchronized void record(Long productId, double weight, LocalDateTime occurredAt) {
+        if (productId == null || weight <= 0) {
+            return;
+        }
+        pending.merge(productId, logWeight(weight, occurredAt), PopularityRanking::logAdd);
+        version++;
+    }
+
+    /** log(w * e^(lambda * dias desde EPOCH)) */
+    double logWeight(double weight, LocalDateTime occurredAt) {
+        double days = Duration.between(EPOCH, occurredAt).toMillis() / MILLIS_PER_DAY;
+        return Math.log(weight) + decayRate() * days;
+    }
+
+    /** lambda por dia: ln 2 / vida media */
+    private double decayRate() {
+        return Math.log(2) / halfLifeDays;
+    }
+
+    /** log(e^a + e^b) sin desbordar */
+    static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    // ========== Persistencia ==========
+
+    /**
+     * Suma las senales pendientes a la tabla y vuelve a leerla, lo que
+     * tambien incorpora lo escrito por otras instancias.
+     */
+    @Scheduled(fixedDelayString = "${app.popularity.flush-interval-ms:60000}",
+            initialDelayString = "${app.popularity.flush-interval-ms:60000}")
+    public void flush() {
+        Map<Long, Double> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new HashMap<>();
+            inFlight = batch;
+        }
+
+        if (!batch.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            batch.forEach((id, score) -> rows.add(new Object[] { id, score, now }));
+            try {
+                jdbcTemplate.batchUpdate(MERGE_SQL, rows);
+            } catch (RuntimeException e) {
+                // Se reintenta en el proximo volcado
+                synchronized (this) {
+                    batch.forEach((id, score) -> pending.merge(id, score, PopularityRanking::logAdd));
+                    inFlight = Map.of();
+                }
+                log.warn("No se pudo guardar la popularidad de {} producto(s): {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+        reload();
+    }
+
+    public void reload() {
+        Map<Long, Double> loaded = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            loaded.put(rs.getLong(1), rs.getDouble(2));
+        });
+        synchronized (this) {
+            persisted = loaded;
+            inFlight = Map.of();
+            version++;
+        }
+    }
+
+    /**
+     * Primer calculo desde el historial de ventas y favoritos si la tabla
+     * esta vacia (instalacion nueva o tabla truncada al cambiar la vida media).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM product_popularity)", Boolean.class);
+        if (Boolean.TRUE.equals(empty)
+                && AdvisoryLock.tryTransactionLock(jdbcTemplate, AdvisoryLock.POPULARITY_REBUILD)) {
+            Timestamp epoch = Timestamp.valueOf(EPOCH);
+            double rate = decayRate();
+            int products = jdbcTemplate.update(REBUILD_SQL,
+                    saleWeight, rate, epoch,
+                    favoriteWeight, rate, epoch,
+                    Timestamp.valueOf(LocalDateTime.now()));
+            log.info("Popularidad reconstruida desde el historial: {} producto(s)", products);
+        }
+        reload();
+    }
+}
@@ -1,28 +1,42 @@
 package com.malva_pastry_shop.backend.service.storefront;
 
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import com.malva_pastry_shop.backend.domain.auth.User;
 import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.domain.inventory.ProductComponent;
 import com.malva_pastry_shop.backend.domain.inventory.ProductIngredient;
 import com.malva_pastry_shop.backend.domain.storefront.Category;
 import com.malva_pastry_shop.backend.domain.storefront.Product;
 import com.malva_pastry_shop.backend.domain.storefront.ProductTag;
 import com.malva_pastry_shop.backend.domain.storefront.Tag;
 import com.malva_pastry_shop.backend.dto.request.ProductRequest;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.event.RecipeChangedEvent;
 import com.malva_pastry_shop.backend.repository.CategoryRepository;
 import com.malva_pastry_shop.backend.repository.IngredientRepository;
+import com.malva_pastry_shop.backend.repository.ProductComponentRepository;
 import com.malva_pastry_shop.backend.repository.ProductIngredientRepository;
 import com.malva_pastry_shop.backend.repository.ProductRepository;
 import com.malva_pastry_shop.backend.repository.ProductTagRepository;
 import com.malva_pastry_shop.backend.repository.TagRepository;
+import com.malva_pastry_shop.backend.repository.projection.FlattenedRecipeLine;
+import com.malva_pastry_shop.backend.repository.projection.IdCount;
+import com.malva_pastry_shop.backend.service.inventory.RecipeMatrix;
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+import com.malva_pastry_shop.backend.util.SlugUtil;
 
 import java.math.BigDecimal;
 
@@ -30,6 +44,7 @@ import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Transactional(readOnly = true)
 public class ProductService {
 
     private final ProductRepository productRepository;
@@ -38,19 +53,31 @@ public class ProductService {
     private final ProductTagRepository productTagRepository;
     private final IngredientRepository ingredientRepository;
     private final ProductIngredientRepository productIngredientRepository;
+    private final ProductComponentRepository productComponentRepository;
+    private final RecipeMatrix recipeMatrix;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
 
     public ProductService(ProductRepository productRepository,
             CategoryRepository categoryRepository,
             TagRepository tagRepository,
             ProductTagRepository productTagRepository,
             IngredientRepository ingredientRepository,
-            ProductIngredientRepository productIngredientRepository) {
+            ProductIngredientRepository productIngredientRepository,
+            ProductComponentRepository productComponentRepository,
+            RecipeMatrix recipeMatrix,
+            ApplicationEventPublisher eventPublisher,
+            JdbcTemplate jdbcTemplate) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.tagRepository = tagRepository;
         this.productTagRepository = productTagRepository;
         this.ingredientRepository = ingredientRepository;
         this.productIngredientRepository = productIngredientRepository;
+        this.productComponentRepository = productComponentRepository;
+        this.recipeMatrix = recipeMatrix;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     // ========== Consultas ==========
@@ -72,6 +99,15 @@ public class ProductService {
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con ID: " + id));
     }
 
+    /**
+     * Producto activo con categoria, creador y tags inicializados para la
+     * vista de detalle.
+     */
+    public Product findByIdWithDetails(Long id) {
+        return productRepository.findWithDetailsByIdAndDeletedAtIsNull(id)
+                .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con ID: " + id));
+    }
+
     public Page<Product> findDeleted(Pageable pageable) {
         return productRepository.findByDeletedAtIsNotNull(pageable);
     }
@@ -80,10 +116,12 @@ public class ProductService {
 
     @Transactional
     public Product create(ProductRequest request, User createdBy) {
+        lockNames();
         validateProductName(request.getName(), null);
 
         Product product = new Product();
         product.setName(request.getName());
+        product.setSlug(allocateSlug(request.getName(), null));
         product.setDescription(request.getDescription());
         product.setPreparationDays(request.getPreparationDays());
         product.setBasePrice(request.getBasePrice());
@@ -96,14 +134,24 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public Product update(Long id, ProductRequest request) {
         Product product = findById(id);
+        boolean renamed = product.getSlug() == null || !product.getName().equals(request.getName());
+        if (renamed) {
+            lockNames();
+        }
         validateProductName(request.getName(), id);
 
+        // Renombrar cambia el slug; el cache de slugs se invalida con el evento
+        if (renamed) {
+            product.setSlug(allocateSlug(request.getName(), id));
+        }
         product.setName(request.getName());
         product.setDescription(request.getDescription());
         product.setPreparationDays(request.getPreparationDays());
@@ -118,7 +166,9 @@ public class ProductService {
             product.setCategory(null);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
+        return saved;
     }
 
     // ========== Soft Delete ==========
@@ -126,8 +176,20 @@ public class ProductService {
     @Transactional
     public void softDelete(Long id, User deletedBy) {
         Product product = findById(id);
+
+        // Verificar que no sea sub-receta de productos activos (con el lock,
+        // restore no puede reactivar un padre mientras tanto)
+        AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.RECIPE_GRAPH);
+        long usageCount = productComponentRepository.countByComponentIdAndParentDeletedAtIsNull(id);
+        if (usageCount > 0) {
+            throw new IllegalStateException(
+                    "No se puede eliminar el producto porque es sub-receta de " + usageCount + " producto(s)");
+        }
+
         product.softDelete(deletedBy);
         productRepository.save(product);
+        eventPublisher.publishEvent(new RecipeChangedEvent(id));
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
     }
 
     @Transactional
@@ -139,14 +201,25 @@ public class ProductService {
             throw new IllegalStateException("El producto no está eliminado");
         }
 
-        productRepository.findByNameIgnoreCase(product.getName()).ifPresent(existing -> {
-            if (!existing.getId().equals(id) && !existing.isDeleted()) {
-                throw new IllegalStateException("Ya existe un producto activo con el nombre: " + product.getName());
-            }
-        });
+        // La matriz y los CTE ignoran las sub-recetas en la papelera: el
+        // producto restaurado se costearia sin ellas
+        AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.RECIPE_GRAPH);
+        List<String> trashedComponents = productComponentRepository.findByParentId(id).stream()
+                .map(ProductComponent::getComponent)
+                .filter(Product::isDeleted)
+                .map(Product::getName)
+                .sorted()
+                .toList();
+        if (!trashedComponents.isEmpty()) {
+            throw new IllegalStateException("No se puede restaurar el producto porque sus sub-recetas "
+                    + String.join(", ", trashedComponents) + " están en la papelera. Restáuralas primero.");
+        }
 
         product.restore();
-        return productRepository.save(product);
+        Product restored = productRepository.save(product);
+        eventPublisher.publishEvent(new RecipeChangedEvent(id));
+        eventPublisher.publishEvent(new CatalogChangedEvent(id));
+        return restored;
     }
 
     // ========== Hard Delete ==========
@@ -161,14 +234,60 @@ public class ProductService {
                     "Solo se pueden eliminar permanentemente los productos que están en la papelera");
         }
 
+        // Igual que la purga de la papelera: borrar el producto no puede
+        // quitarle una sub-receta a un producto activo
+        AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.RECIPE_GRAPH);
+        long usageCount = productComponentRepository.countByComponentIdAndParentDeletedAtIsNull(id);
+        if (usageCount > 0) {
+            throw new IllegalStateException("No se puede eliminar permanentemente el producto porque es sub-receta de "
+                    + usageCount + " producto(s) activo(s)");
+        }
+
+        productComponentRepository.deleteByParentIdOrComponentId(id);
         productRepository.delete(product);
     }
 
     // ========== Validaciones ==========
 
+    /**
+     * Nombre y slug se validan contra la base antes del INSERT/UPDATE: dos
+     * altas con el mismo nombre en paralelo calcularian el mismo sufijo y
+     * una fallaria en el indice unico. El lock las ordena hasta el commit.
+     */
+    private void lockNames() {
+        AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.PRODUCT_NAMES);
+    }
+
+    /**
+     * Slug unico para un nombre: el sufijo libre se obtiene con una sola
+     * consulta en lugar de probar "-2", "-3", ... uno por uno.
+     */
+    String allocateSlug(String name, Long excludeId) {
+        String base = SlugUtil.generateSlug(name);
+        if (base == null || base.isEmpty()) {
+            base = "producto";
+        }
+        long used = productRepository.findMaxSlugCounter(base, excludeId != null ? excludeId : -1L);
+        return SlugUtil.generateUniqueSlug(base, (int) used + 1);
+    }
+
+    /**
+     * Busqueda por nombre para LIKE ... ESCAPE '\': % y _ se buscan como
+     * texto, igual que en las consultas derivadas ...ContainingIgnoreCase.
+     */
+    private static String normalizeSearch(String search) {
+        if (search == null) {
+            return "";
+        }
+        return search.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
     private void validateProductName(String name, Long excludeId) {
-        productRepository.findByNameIgnoreCase(name).ifPresent(existing -> {
-            if (excludeId != null && existing.getId().equals(excludeId)) {
+        productRepository.findNameOwner(name).ifPresent(existing -> {
+            if (excludeId != null && existing.id().equals(excludeId)) {
                 return;
             }
 
@@ -235,6 +354,7 @@ public class ProductService {
 
         ProductTag productTag = new ProductTag(product, tag);
         productTagRepository.save(productTag);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     /**
@@ -249,49 +369,48 @@ public class ProductService {
                 .orElseThrow(() -> new EntityNotFoundException("El producto no tiene este tag"));
 
         productTagRepository.delete(productTag);
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     // ========== Consultas por Tag ==========
 
     /**
-     * Obtiene los productos activos de un tag.
+     * Productos activos de un tag, paginados y filtrados por nombre.
      */
-    public List<Product> getProductsByTag(Long tagId) {
+    public Page<Product> getProductsByTag(Long tagId, String search, Pageable pageable) {
         tagRepository.findByIdAndDeletedAtIsNull(tagId)
                 .orElseThrow(() -> new EntityNotFoundException("Tag no encontrado"));
 
-        return productTagRepository.findByTagId(tagId).stream()
-                .map(ProductTag::getProduct)
-                .filter(product -> !product.isDeleted())
-                .sorted(Comparator.comparing(Product::getName))
-                .collect(Collectors.toList());
+        return productRepository.findActiveByTagId(tagId, normalizeSearch(search), pageable);
     }
 
     /**
-     * Obtiene productos activos que NO están asociados a un tag.
+     * Productos activos que NO estan asociados a un tag, paginados y
+     * filtrados por nombre. Se resuelve con un anti-join en la base.
      */
-    public List<Product> getAvailableProductsForTag(Long tagId) {
+    public Page<Product> getAvailableProductsForTag(Long tagId, String search, Pageable pageable) {
         tagRepository.findByIdAndDeletedAtIsNull(tagId)
                 .orElseThrow(() -> new EntityNotFoundException("Tag no encontrado"));
 
-        Set<Long> currentProductIds = productTagRepository.findByTagId(tagId).stream()
-                .map(pt -> pt.getProduct().getId())
-                .collect(Collectors.toSet());
-
-        return productRepository.findByDeletedAtIsNull(Pageable.unpaged()).stream()
-                .filter(product -> !currentProductIds.contains(product.getId()))
-                .sorted(Comparator.comparing(Product::getName))
-                .collect(Collectors.toList());
+        return productRepository.findActiveWithoutTagId(tagId, normalizeSearch(search), pageable);
     }
 
     /**
      * Cuenta cuántos productos activos usan un tag.
      */
     public long countProductsByTag(Long tagId) {
-        return productTagRepository.findByTagId(tagId).stream()
-                .map(ProductTag::getProduct)
-                .filter(product -> !product.isDeleted())
-                .count();
+        return productTagRepository.countActiveProductsByTagId(tagId);
+    }
+
+    /**
+     * Productos activos por tag (id -> cantidad) con una sola consulta.
+     * Los tags sin productos no aparecen en el mapa.
+     */
+    public Map<Long, Long> countProductsByTags(Collection<Long> tagIds) {
+        if (tagIds.isEmpty()) {
+            return Map.of();
+        }
+        return IdCount.toMap(productTagRepository.countActiveProductsByTagIds(tagIds));
     }
 
     /**
@@ -366,6 +485,7 @@ public class ProductService {
 
         ProductIngredient productIngredient = new ProductIngredient(product, ingredient, quantity);
         productIngredientRepository.save(productIngredient);
+        eventPublisher.publishEvent(new RecipeChangedEvent(productId));
     }
 
     /**
@@ -380,6 +500,7 @@ public class ProductService {
                 .orElseThrow(() -> new EntityNotFoundException("El producto no tiene este ingrediente en su receta"));
 
         productIngredientRepository.delete(productIngredient);
+        eventPublisher.publishEvent(new RecipeChangedEvent(productId));
     }
 
     /**
@@ -399,16 +520,144 @@ public class ProductService {
 
         productIngredient.setQuantity(quantity);
         productIngredientRepository.save(productIngredient);
+        eventPublisher.publishEvent(new RecipeChangedEvent(productId));
     }
 
     /**
-     * Calcula el costo total de los ingredientes de un producto.
+     * Calcula el costo total de la receta de un producto, incluyendo sus
+     * sub-recetas. Usa el costo memorizado de la matriz de recetas.
      */
     @Transactional(readOnly = true)
     public BigDecimal calculateRecipeCost(Long productId) {
-        List<ProductIngredient> ingredients = getProductIngredients(productId);
-        return ingredients.stream()
-                .map(pi -> pi.getIngredient().getUnitCost().multiply(pi.getQuantity()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Verificar que el producto existe
+        findById(productId);
+        return recipeMatrix.snapshot().cost(productId);
+    }
+
+    /**
+     * Costos unitarios de receta de varios productos, sin consultas
+     * adicionales (matriz de recetas en memoria).
+     */
+    public Map<Long, BigDecimal> calculateRecipeCosts(Collection<Long> productIds) {
+        RecipeMatrix.Snapshot matrix = recipeMatrix.snapshot();
+        Map<Long, BigDecimal> costs = new HashMap<>();
+        for (Long productId : productIds) {
+            costs.put(productId, matrix.cost(productId));
+        }
+        return costs;
+    }
+
+    /**
+     * Receta aplanada del producto (ingredientes propios y de sus sub-recetas),
+     * resuelta en una sola consulta.
+     */
+    @Transactional(readOnly = true)
+    public List<FlattenedRecipeLine> getFlattenedRecipe(Long productId) {
+        return productIngredientRepository.findFlattenedRecipe(productId);
+    }
+
+    // ========== Gestión de Sub-recetas ==========
+
+    /**
+     * Obtiene las sub-recetas (productos componentes) de un producto.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductComponent> getProductComponents(Long productId) {
+        // Verificar que el producto existe
+        findById(productId);
+
+        return productComponentRepository.findByParentId(productId).stream()
+                .filter(pc -> !pc.getComponent().isDeleted())
+                .sorted(Comparator.comparing(pc -> pc.getComponent().getName()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Productos activos que se pueden agregar como sub-receta, paginados y
+     * filtrados por nombre. Excluye el propio producto y los que ya son
+     * sub-recetas con un anti-join en la base.
+     */
+    public Page<Product> getAvailableComponentsForProduct(Long productId, String search, Pageable pageable) {
+        // Verificar que el producto existe
+        findById(productId);
+
+        return productRepository.findActiveComponentCandidates(productId, normalizeSearch(search), pageable);
+    }
+
+    /**
+     * Agrega un producto como sub-receta de otro. Rechaza la operacion si
+     * formaria un ciclo (el componente ya contiene al producto) o una cadena
+     * de mas de RecipeMatrix.MAX_DEPTH niveles, que la matriz no costea y
+     * los CTE recursivos cortarian.
+     */
+    @Transactional
+    public void addComponentToProduct(Long productId, Long componentId, BigDecimal quantity) {
+        Product product = findById(productId);
+        Product component = productRepository.findByIdAndDeletedAtIsNull(componentId)
+                .orElseThrow(() -> new EntityNotFoundException("Sub-receta no encontrada"));
+
+        if (productId.equals(componentId)) {
+            throw new IllegalArgumentException("Un producto no puede ser sub-receta de si mismo");
+        }
+
+        if (productComponentRepository.existsByParentIdAndComponentId(productId, componentId)) {
+            throw new IllegalStateException("El producto ya tiene esta sub-receta");
+        }
+
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
+        }
+
+        // Sin el lock, A -> B y B -> A en paralelo pasarian los dos el chequeo
+        // (y dos aristas en paralelo podrian pasar cada una el de niveles)
+        AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.RECIPE_GRAPH);
+        if (productComponentRepository.isReachable(componentId, productId)) {
+            throw new IllegalStateException("No se puede agregar '" + component.getName()
+                    + "' porque ya contiene a '" + product.getName() + "' (se formaria un ciclo)");
+        }
+        int depth = productComponentRepository.findChainDepthThrough(productId, componentId,
+                RecipeMatrix.MAX_DEPTH);
+        if (depth > RecipeMatrix.MAX_DEPTH) {
+            throw new IllegalStateException("No se puede agregar '" + component.getName()
+                    + "': la receta tendria mas de " + RecipeMatrix.MAX_DEPTH + " niveles de sub-recetas");
+        }
+
+        productComponentRepository.save(new ProductComponent(product, component, quantity));
+        eventPublisher.publishEvent(new RecipeChangedEvent(productId));
+    }
+
+    /**
+     * Quita una sub-receta de un producto.
+     */
+    @Transactional
+    public void removeComponentFromProduct(Long productId, Long componentId) {
+        // Verificar que el producto existe
+        findById(productId);
+
+        ProductComponent productComponent = productComponentRepository.findByParentIdAndComponentId(productId, componentId)
+                .orElseThrow(() -> new EntityNotFoundException("El producto no tiene esta sub-receta"));
+
+        productComponentRepository.delete(productComponent);
+        eventPublisher.publishEvent(new RecipeChangedEvent(productId));
+    }
+
+    /**
+     * Actualiza la cantidad de una sub-receta.
+     */
+    @Transactional
+    public void updateComponentQuantity(Long productId, Long componentId, BigDecimal quantity) {
+        // Verificar que el producto existe
+        findById(productId);
+
+        if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
+        }
+
+        ProductComponent productComponent = productComponentRepository.findByParentIdAndComponentId(productId, componentId)
+                .orElseThrow(() -> new EntityNotFoundException("El producto no tiene esta sub-receta"));
+
+        productComponent.setQuantity(quantity);
+        productComponentRepository.save(productComponent);
+        eventPublisher.publishEvent(new RecipeChangedEvent(productId));
     }
 }
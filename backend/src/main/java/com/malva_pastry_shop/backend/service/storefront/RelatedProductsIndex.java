@@ -0,0 +1,92 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.domain.storefront.ProductRecommendation;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.event.RelatedProductsComputedEvent;
+import com.malva_pastry_shop.backend.repository.ProductRecommendationRepository;
+
+/**
+ * Copia en memoria de product_recommendations (producto -> ids
+ * relacionados en orden). Los datos de cada relacionado salen del indice
+ * del catalogo, asi que una consulta no toca la base y los productos
+ * dados de baja desde el ultimo calculo se omiten solos.
+ */
+@Component
+public class RelatedProductsIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductsIndex.class);
+
+    private final ProductRecommendationRepository recommendationRepository;
+    private final CatalogFacetIndex catalogFacetIndex;
+
+    private volatile Map<Long, long[]> relatedByProduct = Map.of();
+
+    public RelatedProductsIndex(ProductRecommendationRepository recommendationRepository,
+            CatalogFacetIndex catalogFacetIndex) {
+        this.recommendationRepository = recommendationRepository;
+        this.catalogFacetIndex = catalogFacetIndex;
+    }
+
+    // ========== Consulta ==========
+
+    public List<ProductPublicDTO> related(Long productId, int limit) {
+        long[] ids = relatedByProduct.get(productId);
+        if (ids == null || limit <= 0) {
+            return List.of();
+        }
+
+        CatalogFacetIndex.Snapshot catalog = catalogFacetIndex.snapshot();
+        List<ProductPublicDTO> result = new ArrayList<>(Math.min(ids.length, limit));
+        for (long id : ids) {
+            Optional<ProductPublicDTO> product = catalog.product(id);
+            if (product.isPresent()) {
+                result.add(product.get());
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // ========== Carga ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRelatedProductsComputed(RelatedProductsComputedEvent event) {
+        reload();
+    }
+
+    public void reload() {
+        List<ProductRecommendation> rows = recommendationRepository.findAll();
+        Map<Long, long[]> loaded = new HashMap<>(rows.size() * 2);
+        for (ProductRecommendation row : rows) {
+            Long[] ids = row.getRelatedProductIds();
+            long[] compact = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                compact[i] = ids[i];
+            }
+            loaded.put(row.getProductId(), compact);
+        }
+        relatedByProduct = loaded;
+        log.info("Productos relacionados cargados: {} producto(s)", loaded.size());
+    }
+}
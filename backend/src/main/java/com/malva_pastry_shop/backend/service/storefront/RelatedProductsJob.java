@@ -0,0 +1,165 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malva_pastry_shop.backend.event.RelatedProductsComputedEvent;
+import com.malva_pastry_shop.backend.repository.ProductRecommendationRepository;
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+
+/**
+ * Calculo periodico de productos relacionados.
+ *
+ * El puntaje de cada par combina la similitud de Jaccard de sus tags con
+ * la de sus compradores (clientes identificados por DNI o telefono en las
+ * ventas de los ultimos N dias). Se guardan los K mejores por producto.
+ * Todo se resuelve en una sentencia; la pagina de detalle solo lee el
+ * resultado.
+ */
+@Service
+public class RelatedProductsJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductsJob.class);
+
+    private static final String DELETE_SQL = "DELETE FROM product_recommendations";
+
+    private static final String COMPUTE_SQL = """
+            WITH active AS (
+                SELECT id FROM products WHERE deleted_at IS NULL
+            ),
+            tagged AS (
+                SELECT pt.product_id, pt.tag_id
+                FROM product_tags pt
+                JOIN active a ON a.id = pt.product_id
+                JOIN tags t ON t.id = pt.tag_id AND t.deleted_at IS NULL
+            ),
+            tag_sizes AS (
+                SELECT product_id, COUNT(*) AS n FROM tagged GROUP BY product_id
+            ),
+            tag_sim AS (
+                SELECT x.product_id AS p, y.product_id AS q,
+                       COUNT(*)::float8 / (MIN(sx.n) + MIN(sy.n) - COUNT(*)) AS sim
+                FROM tagged x
+                JOIN tagged y ON y.tag_id = x.tag_id AND y.product_id <> x.product_id
+                JOIN tag_sizes sx ON sx.product_id = x.product_id
+                JOIN tag_sizes sy ON sy.product_id = y.product_id
+                GROUP BY x.product_id, y.product_id
+            ),
+            buyers AS (
+                SELECT DISTINCT product_id, customer
+                FROM (
+                    SELECT s.product_id,
+                           COALESCE(NULLIF(TRIM(s.customer_dni), ''),
+                                    'tel:' || NULLIF(regexp_replace(s.customer_phone, '[^0-9]', '', 'g'), ''))
+                               AS customer
+                    FROM sales s
+                    JOIN active a ON a.id = s.product_id
+                    WHERE s.sale_date >= ?
+                ) k
+                WHERE customer IS NOT NULL
+            ),
+            buyer_sizes AS (
+                SELECT product_id, COUNT(*) AS n FROM buyers GROUP BY product_id
+            ),
+            basket_sim AS (
+                SELECT x.product_id AS p, y.product_id AS q, COUNT(*) AS shared,
+                       COUNT(*)::float8 / (MIN(sx.n) + MIN(sy.n) - COUNT(*)) AS sim
+                FROM buyers x
+                JOIN buyers y ON y.customer = x.customer AND y.product_id <> x.product_id
+                JOIN buyer_sizes sx ON sx.product_id = x.product_id
+                JOIN buyer_sizes sy ON sy.product_id = y.product_id
+                GROUP BY x.product_id, y.product_id
+            ),
+            ranked AS (
+                SELECT p, q,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY p
+                           ORDER BY ? * COALESCE(t.sim, 0) + (1 - ?) * COALESCE(b.sim, 0) DESC,
+                                    COALESCE(b.shared, 0) DESC, q
+                       ) AS rn
+                FROM tag_sim t
+                FULL JOIN basket_sim b USING (p, q)
+            )
+            INSERT INTO product_recommendations (product_id, related_product_ids, computed_at)
+            SELECT p, array_agg(q ORDER BY rn), ?
+            FROM ranked
+            WHERE rn <= ?
+            GROUP BY p
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRecommendationRepository recommendationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.recommendations.top-k:8}")
+    private int topK;
+
+    @Value("${app.recommendations.tag-weight:0.5}")
+    private double tagWeight;
+
+    @Value("${app.recommendations.basket-window-days:180}")
+    private int basketWindowDays;
+
+    public RelatedProductsJob(JdbcTemplate jdbcTemplate,
+            ProductRecommendationRepository recommendationRepository,
+            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recommendationRepository = recommendationRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Primer calculo al iniciar si la tabla esta vacia (instalacion nueva).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void computeIfEmpty() {
+        if (recommendationRepository.count() == 0
+                && AdvisoryLock.tryTransactionLock(jdbcTemplate, AdvisoryLock.RELATED_PRODUCTS)) {
+            compute();
+        }
+    }
+
+    /**
+     * Recalcula la tabla si ninguna otra instancia lo esta haciendo.
+     *
+     * @return cantidad de productos con relacionados, o -1 si no se obtuvo el lock
+     */
+    @Scheduled(cron = "${app.recommendations.cron:0 30 3 * * *}")
+    @Transactional
+    public int recompute() {
+        if (!AdvisoryLock.tryTransactionLock(jdbcTemplate, AdvisoryLock.RELATED_PRODUCTS)) {
+            log.debug("Calculo de relacionados omitido: otra instancia tiene el lock");
+            return -1;
+        }
+        return compute();
+    }
+
+    private int compute() {
+        LocalDateTime now = LocalDateTime.now();
+        double weight = Math.clamp(tagWeight, 0.0, 1.0);
+
+        jdbcTemplate.update(DELETE_SQL);
+        int products = jdbcTemplate.update(COMPUTE_SQL,
+                Timestamp.valueOf(now.minusDays(basketWindowDays)),
+                weight,
+                weight,
+                Timestamp.valueOf(now),
+                topK);
+
+        eventPublisher.publishEvent(new RelatedProductsComputedEvent(products));
+        log.info("Productos relacionados calculados para {} producto(s)", products);
+        return products;
+    }
+}
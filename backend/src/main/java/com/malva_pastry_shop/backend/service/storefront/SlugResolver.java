@@ -0,0 +1,71 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.repository.CategoryRepository;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+
+/**
+ * Resuelve slugs publicos a ids con un cache en memoria. Solo se guardan
+ * slugs de productos y categorias activos; un fallo de cache consulta el
+ * indice unico de la columna slug.
+ *
+ * Las entradas de un producto se descartan cuando cambia (renombrar,
+ * eliminar), y todo el cache cuando el cambio es general.
+ */
+@Component
+public class SlugResolver {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    private final Map<String, Long> productIds = new ConcurrentHashMap<>();
+    private final Map<String, Long> categoryIds = new ConcurrentHashMap<>();
+
+    public SlugResolver(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    public Optional<Long> resolveProduct(String slug) {
+        return resolve(productIds, slug, productRepository::findActiveIdBySlug);
+    }
+
+    public Optional<Long> resolveCategory(String slug) {
+        return resolve(categoryIds, slug, categoryRepository::findActiveIdBySlug);
+    }
+
+    private static Optional<Long> resolve(Map<String, Long> cache, String slug,
+            Function<String, Optional<Long>> loader) {
+        if (slug == null || slug.isBlank()) {
+            return Optional.empty();
+        }
+        Long cached = cache.get(slug);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> id = loader.apply(slug);
+        id.ifPresent(value -> cache.put(slug, value));
+        return id;
+    }
+
+    // ========== Invalidacion ==========
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.productId() == null) {
+            productIds.clear();
+            categoryIds.clear();
+        } else {
+            productIds.values().removeIf(id -> id.equals(event.productId()));
+        }
+    }
+}
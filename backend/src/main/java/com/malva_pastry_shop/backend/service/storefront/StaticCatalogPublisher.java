@@ -0,0 +1,299 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.malva_pastry_shop.backend.dto.response.publicdto.CategoryPublicDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.TagPublicDTO;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.util.SlugUtil;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Publica el catalogo publico como archivos JSON estaticos, para que la
+ * tienda pueda leerlo sin pasar por la base de datos ni por los
+ * controladores.
+ *
+ * Cada publicacion se escribe en un directorio versionado por hash del
+ * contenido (v-xxxxxxxxxxxx/), con una copia .gz de cada archivo, y se
+ * sirve con cache inmutable. manifest.json apunta a la version vigente y
+ * es lo unico que el cliente revalida. Se genera desde el snapshot del
+ * indice de facetas, sin consultas; los cambios del catalogo se agrupan
+ * (debounce) para no regenerar en cada edicion.
+ */
+@Component
+public class StaticCatalogPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(StaticCatalogPublisher.class);
+
+    static final String MANIFEST = "manifest.json";
+    static final String VERSION_PREFIX = "v-";
+
+    private final CatalogFacetIndex catalogFacetIndex;
+    private final JsonMapper jsonMapper;
+
+    @Value("${app.static-catalog.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.static-catalog.dir:./static-catalog}")
+    private Path directory;
+
+    @Value("${app.static-catalog.debounce-ms:30000}")
+    private long debounceMillis;
+
+    @Value("${app.static-catalog.keep-versions:2}")
+    private int keepVersions;
+
+    /** Momento del ultimo cambio sin publicar; 0 si no hay pendientes */
+    private volatile long lastChangeAt;
+
+    private volatile String currentVersion;
+
+    /** Serializa las publicaciones; no synchronized por los hilos virtuales (ver RecipeMatrix) */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Contenido de manifest.json.
+     */
+    public record Manifest(String version, String basePath, int productCount, LocalDateTime publishedAt) {
+    }
+
+    public StaticCatalogPublisher(CatalogFacetIndex catalogFacetIndex, JsonMapper jsonMapper) {
+        this.catalogFacetIndex = catalogFacetIndex;
+        this.jsonMapper = jsonMapper;
+    }
+
+    // ========== Disparadores ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            publish();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        lastChangeAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Publica cuando el catalogo lleva debounce-ms sin cambios.
+     */
+    @Scheduled(fixedDelayString = "${app.static-catalog.check-interval-ms:5000}")
+    public void publishIfDue() {
+        long changedAt = lastChangeAt;
+        if (!enabled || changedAt == 0 || System.currentTimeMillis() - changedAt < debounceMillis) {
+            return;
+        }
+        publish();
+        // Si hubo otro cambio mientras se publicaba, queda pendiente
+        if (lastChangeAt == changedAt) {
+            lastChangeAt = 0;
+        }
+    }
+
+    // ========== Publicacion ==========
+
+    /**
+     * Genera y escribe todos los archivos. Si el contenido no cambio
+     * respecto de la version vigente, no escribe nada.
+     *
+     * @return version publicada
+     */
+    public String publish() {
+        lock.lock();
+        try {
+            return writeVersion();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String writeVersion() {
+        CatalogFacetIndex.Snapshot snapshot = catalogFacetIndex.snapshot();
+        Map<String, byte[]> files = render(snapshot);
+        String version = VERSION_PREFIX + hash(files);
+        if (version.equals(currentVersion)) {
+            return version;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            Path target = directory.resolve(version);
+            if (!Files.isDirectory(target)) {
+                Path staging = Files.createTempDirectory(directory, ".staging-");
+                for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                    write(resolveInside(staging, file.getKey()), file.getValue());
+                }
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                // Version ya escrita (p. ej. antes de un reinicio): pasa a ser la mas reciente
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            }
+
+            Manifest manifest = new Manifest(version, version + "/", snapshot.productCount(),
+                    LocalDateTime.now());
+            Path staging = directory.resolve(".staging-" + MANIFEST);
+            write(staging, jsonMapper.writeValueAsBytes(manifest));
+            Files.move(staging, directory.resolve(MANIFEST),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(directory.resolve(".staging-" + MANIFEST + ".gz"), directory.resolve(MANIFEST + ".gz"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            currentVersion = version;
+            deleteOldVersions(version);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo publicar el catalogo estatico en " + directory, e);
+        }
+
+        log.info("Catalogo estatico publicado: {} ({} archivos, {} productos)",
+                version, files.size(), snapshot.productCount());
+        return version;
+    }
+
+    /**
+     * Archivos de una version: listado completo, categorias, tags y una
+     * pagina por categoria y por tag (con los mismos conteos de facetas que
+     * la API).
+     */
+    Map<String, byte[]> render(CatalogFacetIndex.Snapshot snapshot) {
+        int all = Math.max(snapshot.productCount(), 1);
+        List<CategoryPublicDTO> categories = snapshot.categories();
+        List<TagPublicDTO> tags = snapshot.tags();
+
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("products.json", jsonMapper.writeValueAsBytes(
+                snapshot.search(query(null, null), CatalogFacetIndex.Sort.NAME, 0, all)));
+        files.put("categories.json", jsonMapper.writeValueAsBytes(categories));
+        files.put("tags.json", jsonMapper.writeValueAsBytes(tags));
+        for (CategoryPublicDTO category : categories) {
+            files.put("categories/" + fileName(category.slug(), category.id()), jsonMapper.writeValueAsBytes(
+                    snapshot.search(query(category.id(), null), CatalogFacetIndex.Sort.NAME, 0, all)));
+        }
+        for (TagPublicDTO tag : tags) {
+            files.put("tags/" + fileName(tag.slug(), tag.id()), jsonMapper.writeValueAsBytes(
+                    snapshot.search(query(null, tag.id()), CatalogFacetIndex.Sort.NAME, 0, all)));
+        }
+        return files;
+    }
+
+    public String currentVersion() {
+        return currentVersion;
+    }
+
+    // ========== Helpers ==========
+
+    private static CatalogFacetIndex.Query query(Long categoryId, Long tagId) {
+        return new CatalogFacetIndex.Query(categoryId, tagId != null ? List.of(tagId) : null,
+                false, null, null, null);
+    }
+
+    /** Archivo por slug; un slug fuera de [a-z0-9-] (dato viejo o manual) usa el id */
+    private static String fileName(String slug, Long id) {
+        return (SlugUtil.isValidSlug(slug) ? slug : id.toString()) + ".json";
+    }
+
+    /**
+     * Ruta del archivo dentro de la version. Rechaza nombres que salgan del
+     * directorio (../, rutas absolutas): el publicador nunca escribe fuera
+     * de su raiz.
+     */
+    static Path resolveInside(Path root, String relative) {
+        Path base = root.toAbsolutePath().normalize();
+        Path path = base.resolve(relative).normalize();
+        if (!path.startsWith(base) || path.equals(base)) {
+            throw new IllegalStateException("Ruta fuera del catalogo estatico: " + relative);
+        }
+        return path;
+    }
+
+    /** Escribe el archivo y su version comprimida (.gz) */
+    private static void write(Path path, byte[] content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+        Path compressed = path.resolveSibling(path.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed)) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+    }
+
+    private static String hash(Map<String, byte[]> files) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            files.forEach((name, content) -> {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update(content);
+            });
+            return HexFormat.of().formatHex(digest.digest(), 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Conserva las ultimas keep-versions para los clientes con un manifest anterior */
+    private void deleteOldVersions(String current) throws IOException {
+        List<Path> versions = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(directory, VERSION_PREFIX + "*")) {
+            dirs.forEach(versions::add);
+        }
+        versions.sort(Comparator.comparing(StaticCatalogPublisher::lastModified).reversed());
+        for (Path version : versions.subList(Math.min(keepVersions, versions.size()), versions.size())) {
+            if (!version.getFileName().toString().equals(current)) {
+                deleteRecursively(version);
+            }
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.malva_pastry_shop.backend.service.storefront;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,18 +11,22 @@ import org.springframework.transaction.annotation.Transactional;
 import com.malva_pastry_shop.backend.domain.auth.User;
 import com.malva_pastry_shop.backend.domain.storefront.Tag;
 import com.malva_pastry_shop.backend.dto.request.TagRequest;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
 import com.malva_pastry_shop.backend.repository.TagRepository;
 import com.malva_pastry_shop.backend.util.SlugUtil;
 
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
+@Transactional(readOnly = true)
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TagService(TagRepository tagRepository) {
+    public TagService(TagRepository tagRepository, ApplicationEventPublisher eventPublisher) {
         this.tagRepository = tagRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // ========== Consultas ==========
@@ -70,7 +75,10 @@ public class TagService {
         tag.setSlug(SlugUtil.generateSlug(request.getName()));
         tag.setDescription(request.getDescription());
 
-        return tagRepository.save(tag);
+        Tag saved = tagRepository.save(tag);
+        // Cambia el nombre o la visibilidad del tag en todos sus productos
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     // ========== Soft Delete ==========
@@ -80,6 +88,7 @@ public class TagService {
         Tag tag = findById(id);
         tag.softDelete(deletedBy);
         tagRepository.save(tag);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 
     @Transactional
@@ -91,15 +100,10 @@ public class TagService {
             throw new IllegalStateException("El tag no está eliminado");
         }
 
-        // Verificar que no exista otro tag activo con el mismo nombre (case-insensitive)
-        tagRepository.findByNameIgnoreCase(tag.getName()).ifPresent(existing -> {
-            if (!existing.getId().equals(id) && !existing.isDeleted()) {
-                throw new IllegalStateException("Ya existe un tag activo con el nombre: " + tag.getName());
-            }
-        });
-
         tag.restore();
-        return tagRepository.save(tag);
+        Tag saved = tagRepository.save(tag);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     // ========== Hard Delete ==========
@@ -126,9 +130,9 @@ public class TagService {
      * @param excludeId ID del tag a excluir (para updates), null para creates
      */
     private void validateTagName(String name, Long excludeId) {
-        tagRepository.findByNameIgnoreCase(name).ifPresent(existingTag -> {
+        tagRepository.findNameOwner(name).ifPresent(existingTag -> {
             // Si es update y es el mismo tag, no hay conflicto
-            if (excludeId != null && existingTag.getId().equals(excludeId)) {
+            if (excludeId != null && existingTag.id().equals(excludeId)) {
                 return;
             }
 
@@ -0,0 +1,204 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+
+/**
+ * Purga programada de la papelera: elimina definitivamente productos,
+ * categorias, tags e ingredientes eliminados hace mas de N dias.
+ *
+ * Aplica las mismas reglas que los hardDelete de cada servicio pero por
+ * lotes: los candidatos se eligen con una consulta que ya descarta los que
+ * siguen en uso, y sus dependencias se borran con "= ANY(ids)". Cada lote
+ * es una transaccion corta con su propio lock, asi la purga nunca bloquea
+ * las tablas por mucho tiempo. Las ventas conservan su snapshot: la FK pasa
+ * a null (ver V4__trash_purge_support.sql).
+ */
+@Service
+public class TrashPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TrashPurgeJob.class);
+
+    /**
+     * Que se purga de cada tabla. La consulta de candidatos recibe la fecha
+     * de corte y el tamano de lote; las sentencias de dependencias reciben
+     * el arreglo de ids.
+     */
+    private enum Trash {
+
+        // Productos que no son sub-receta de un producto que se conserva
+        PRODUCTS("products", """
+                SELECT p.id FROM products p
+                WHERE p.deleted_at < ?
+                  AND NOT EXISTS (
+                      SELECT 1 FROM product_components pc
+                      JOIN products parent ON parent.id = pc.parent_id
+                      WHERE pc.component_id = p.id
+                        AND (parent.deleted_at IS NULL OR parent.deleted_at >= ?))
+                ORDER BY p.deleted_at
+                LIMIT ?
+                FOR UPDATE OF p SKIP LOCKED
+                """, List.of(
+                "DELETE FROM favorites WHERE product_id = ANY(?)",
+                "DELETE FROM product_reviews WHERE product_id = ANY(?)",
+                "DELETE FROM product_tags WHERE product_id = ANY(?)",
+                "DELETE FROM product_ingredients WHERE product_id = ANY(?)",
+                "DELETE FROM product_components WHERE parent_id = ANY(?)",
+                "DELETE FROM product_components WHERE component_id = ANY(?)",
+                "DELETE FROM product_popularity WHERE product_id = ANY(?)",
+                "DELETE FROM product_rating_stats WHERE product_id = ANY(?)",
+                "DELETE FROM product_recommendations WHERE product_id = ANY(?)")),
+
+        // Categorias sin productos (ni activos ni en papelera)
+        CATEGORIES("categories", """
+                SELECT c.id FROM categories c
+                WHERE c.deleted_at < ?
+                  AND NOT EXISTS (SELECT 1 FROM products p WHERE p.category_id = c.id)
+                ORDER BY c.deleted_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+                """, List.of()),
+
+        TAGS("tags", """
+                SELECT t.id FROM tags t
+                WHERE t.deleted_at < ?
+                ORDER BY t.deleted_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+                """, List.of(
+                "DELETE FROM product_tags WHERE tag_id = ANY(?)")),
+
+        // Ingredientes que no estan en ninguna receta
+        INGREDIENTS("ingredients", """
+                SELECT i.id FROM ingredients i
+                WHERE i.deleted_at < ?
+                  AND NOT EXISTS (SELECT 1 FROM product_ingredients pi WHERE pi.ingredient_id = i.id)
+                ORDER BY i.deleted_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+                """, List.of(
+                "DELETE FROM ingredient_price_history WHERE ingredient_id = ANY(?)"));
+
+        private final String table;
+        private final String candidatesSql;
+        private final List<String> dependentsSql;
+
+        Trash(String table, String candidatesSql, List<String> dependentsSql) {
+            this.table = table;
+            this.candidatesSql = candidatesSql;
+            this.dependentsSql = dependentsSql;
+        }
+    }
+
+    /** Filas eliminadas por tabla en una ejecucion */
+    public record Result(int products, int categories, int tags, int ingredients) {
+
+        public int total() {
+            return products + categories + tags + ingredients;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.trash.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.trash.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.trash.max-batches:50}")
+    private int maxBatches;
+
+    public TrashPurgeJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Sin @Transactional: cada lote abre y confirma su propia transaccion.
+     * Los productos van primero para que las categorias que quedan vacias
+     * se purguen en la misma ejecucion.
+     *
+     * @return filas eliminadas por tabla (todo en 0 si esta desactivada)
+     */
+    @Scheduled(cron = "${app.trash.purge-cron:0 15 4 * * *}")
+    public Result purge() {
+        if (retentionDays <= 0) {
+            return new Result(0, 0, 0, 0);
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+
+        Result result = new Result(
+                purge(Trash.PRODUCTS, cutoff),
+                purge(Trash.CATEGORIES, cutoff),
+                purge(Trash.TAGS, cutoff),
+                purge(Trash.INGREDIENTS, cutoff));
+
+        if (result.total() > 0) {
+            log.info("Papelera purgada (eliminados hace mas de {} dias): {} producto(s), {} categoria(s), "
+                    + "{} tag(s), {} ingrediente(s)", retentionDays, result.products(), result.categories(),
+                    result.tags(), result.ingredients());
+        }
+        return result;
+    }
+
+    /**
+     * Lotes hasta vaciar los candidatos o llegar a maxBatches; lo que quede
+     * se purga en la proxima ejecucion.
+     */
+    private int purge(Trash trash, LocalDateTime cutoff) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            Integer purged = transactionTemplate.execute(status -> purgeBatch(trash, cutoff));
+            if (purged == null || purged < 0) {
+                log.debug("Purga de {} omitida: otra instancia tiene el lock", trash.table);
+                break;
+            }
+            total += purged;
+            if (purged < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return filas eliminadas, o -1 si no se obtuvo el lock
+     */
+    private int purgeBatch(Trash trash, LocalDateTime cutoff) {
+        if (!AdvisoryLock.tryTransactionLock(jdbcTemplate, AdvisoryLock.TRASH_PURGE)) {
+            return -1;
+        }
+
+        Timestamp before = Timestamp.valueOf(cutoff);
+        List<Long> ids = trash == Trash.PRODUCTS
+                ? jdbcTemplate.queryForList(trash.candidatesSql, Long.class, before, before, batchSize)
+                : jdbcTemplate.queryForList(trash.candidatesSql, Long.class, before, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Long[] idArray = ids.toArray(Long[]::new);
+        for (String sql : trash.dependentsSql) {
+            deleteByIds(sql, idArray);
+        }
+        return deleteByIds("DELETE FROM " + trash.table + " WHERE id = ANY(?)", idArray);
+    }
+
+    private int deleteByIds(String sql, Long[] ids) {
+        return jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+    }
+}
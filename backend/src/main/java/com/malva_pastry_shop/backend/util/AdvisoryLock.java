@@ -0,0 +1,47 @@
+package com.malva_pastry_shop.backend.util;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Locks consultivos de PostgreSQL para tareas programadas.
+ * Garantizan que una tarea se ejecute en una sola instancia aunque haya
+ * varias replicas de la aplicacion apuntando a la misma base. Tambien
+ * serializan cambios que se validan contra el estado de la base antes de
+ * escribir (el grafo de sub-recetas, nombres y slugs unicos).
+ */
+public class AdvisoryLock {
+
+    // ========== Claves por tarea ==========
+
+    public static final long LOW_STOCK_SCAN = 7_301_001L;
+    public static final long RELATED_PRODUCTS = 7_301_002L;
+    public static final long POPULARITY_REBUILD = 7_301_003L;
+    public static final long RATING_STATS_REBUILD = 7_301_004L;
+    public static final long CATALOG_IMPORT = 7_301_005L;
+    public static final long TRASH_PURGE = 7_301_006L;
+    public static final long RECIPE_GRAPH = 7_301_007L;
+    public static final long PRODUCT_NAMES = 7_301_008L;
+    public static final long CATEGORY_NAMES = 7_301_009L;
+
+    /**
+     * Intenta tomar un lock a nivel de transaccion sin esperar.
+     * Debe llamarse dentro de una transaccion; el lock se libera al
+     * hacer commit o rollback.
+     *
+     * @return true si se obtuvo el lock, false si otra instancia lo tiene
+     */
+    public static boolean tryTransactionLock(JdbcTemplate jdbcTemplate, long key) {
+        Boolean acquired = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, key);
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    /**
+     * Toma un lock a nivel de transaccion, esperando si otra transaccion lo
+     * tiene. Debe llamarse dentro de una transaccion.
+     */
+    public static void transactionLock(JdbcTemplate jdbcTemplate, long key) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", (RowCallbackHandler) rs -> {
+        }, key);
+    }
+}
@@ -1,6 +1,7 @@
 package com.malva_pastry_shop.backend.util;
 
 import java.text.Normalizer;
+import java.util.regex.Pattern;
 
 /**
  * Utilidad para generar slugs URL-friendly a partir de strings.
@@ -9,6 +10,8 @@ import java.text.Normalizer;
  */
 public class SlugUtil {
 
+    private static final Pattern VALID_SLUG = Pattern.compile("[a-z0-9-]+");
+
     /**
      * Genera un slug a partir de un string.
      * 
@@ -59,4 +62,17 @@ public class SlugUtil {
         }
         return baseSlug + "-" + counter;
     }
+
+    /**
+     * Indica si el texto tiene solo los caracteres que genera
+     * {@link #generateSlug(String)}: minusculas sin acentos, digitos y guiones.
+     * Los slugs terminan en URLs y nombres de archivo, asi que un slug que
+     * viene de afuera (p. ej. una importacion) debe pasar este control.
+     *
+     * @param slug Slug a validar
+     * @return true si el slug no es null y solo tiene [a-z0-9-]
+     */
+    public static boolean isValidSlug(String slug) {
+        return slug != null && VALID_SLUG.matcher(slug).matches();
+    }
 }
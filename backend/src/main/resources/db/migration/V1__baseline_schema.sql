@@ -0,0 +1,273 @@
+-- ================================================
+-- V1: esquema base
+-- ================================================
+-- Esquema generado por Hibernate a partir de las entidades tal como
+-- estaban antes de introducir migraciones. En bases existentes (creadas con
+-- ddl-auto=update) esta version no se ejecuta: Flyway la registra como
+-- baseline y aplica solo las siguientes. Por eso este archivo queda igual
+-- al esquema de produccion: todo lo que se agrego despues va en V2 en
+-- adelante, tambien en bases nuevas.
+
+create table categories (
+    deleted_at timestamp(6),
+    deleted_by_id bigint,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    updated_at timestamp(6),
+    name varchar(100) not null,
+    description TEXT,
+    primary key (id)
+);
+
+create table favorites (
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    product_id bigint not null,
+    public_user_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_favorite_public_user_product unique (public_user_id, product_id)
+);
+
+create table ingredients (
+    unit_cost numeric(12,2) not null,
+    deleted_at timestamp(6),
+    deleted_by_id bigint,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    updated_at timestamp(6),
+    unit_of_measure varchar(20) not null check ((unit_of_measure in ('GRAMO','KILOGRAMO','MILIGRAMO','LIBRA','ONZA','MILILITRO','LITRO','TAZA','CUCHARADA','CUCHARADITA','UNIDAD','DOCENA','PAQUETE','PIEZA'))),
+    name varchar(100) not null,
+    description TEXT,
+    primary key (id)
+);
+
+create table product_ingredients (
+    quantity numeric(14,4) not null,
+    id bigint generated by default as identity,
+    ingredient_id bigint not null,
+    inserted_at timestamp(6) not null,
+    product_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create table product_reviews (
+    rating integer not null check ((rating>=1) and (rating<=5)),
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    moderated_at timestamp(6),
+    moderated_by_id bigint,
+    product_id bigint not null,
+    public_user_id bigint not null,
+    updated_at timestamp(6),
+    status varchar(20) not null check ((status in ('PENDING','APPROVED','REJECTED'))),
+    content TEXT not null,
+    primary key (id),
+    constraint uk_review_public_user_product unique (public_user_id, product_id)
+);
+
+create table product_tags (
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    product_id bigint not null,
+    tag_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_product_tag unique (product_id, tag_id)
+);
+
+create table products (
+    base_price numeric(12,2),
+    preparation_days integer check ((preparation_days>=0)),
+    category_id bigint,
+    deleted_at timestamp(6),
+    deleted_by_id bigint,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    updated_at timestamp(6),
+    user_id bigint,
+    name varchar(100) not null,
+    description TEXT,
+    image_url varchar(500),
+    primary key (id)
+);
+
+create table public_users (
+    enabled boolean not null,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    updated_at timestamp(6),
+    display_name varchar(150) not null,
+    avatar_url varchar(500),
+    email varchar(255) not null unique,
+    google_id varchar(255) not null unique,
+    primary key (id)
+);
+
+create table roles (
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    updated_at timestamp(6),
+    description TEXT,
+    name varchar(255) not null unique check ((name in ('USER','EMPLOYEE','ADMIN'))),
+    primary key (id)
+);
+
+create table sale_ingredients (
+    quantity_used numeric(14,4) not null,
+    total_cost numeric(12,2) not null,
+    unit_cost numeric(12,2) not null,
+    id bigint generated by default as identity,
+    ingredient_id bigint,
+    inserted_at timestamp(6) not null,
+    sale_id bigint not null,
+    updated_at timestamp(6),
+    unit_of_measure varchar(20) not null,
+    ingredient_name varchar(100) not null,
+    primary key (id)
+);
+
+create table sales (
+    quantity integer not null check ((quantity>=1)),
+    total_amount numeric(12,2) not null,
+    unit_price numeric(12,2) not null,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    product_id bigint,
+    registered_by_id bigint not null,
+    sale_date timestamp(6) not null,
+    updated_at timestamp(6),
+    customer_dni varchar(20),
+    customer_phone varchar(20),
+    product_name varchar(100) not null,
+    customer_name varchar(150),
+    notes TEXT,
+    primary key (id)
+);
+
+create table tags (
+    deleted_at timestamp(6),
+    deleted_by_id bigint,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    updated_at timestamp(6),
+    name varchar(50) not null,
+    slug varchar(100) not null unique,
+    description varchar(200),
+    primary key (id)
+);
+
+create table users (
+    enabled boolean not null,
+    system_admin boolean not null,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    role_id bigint not null,
+    updated_at timestamp(6),
+    last_name varchar(100),
+    name varchar(100) not null,
+    email varchar(255) not null unique,
+    password_hash varchar(255) not null,
+    primary key (id)
+);
+
+alter table categories
+   add constraint FKb6mfb2u43va8ofjna6alm3th4
+   foreign key (deleted_by_id)
+   references users;
+
+alter table favorites
+   add constraint fk_favorite_product
+   foreign key (product_id)
+   references products;
+
+alter table favorites
+   add constraint fk_favorite_public_user
+   foreign key (public_user_id)
+   references public_users;
+
+alter table ingredients
+   add constraint FKj2s9962ugfoqrlx8eu22u3k05
+   foreign key (deleted_by_id)
+   references users;
+
+alter table product_ingredients
+   add constraint fk_product_ingredient_ingredient
+   foreign key (ingredient_id)
+   references ingredients;
+
+alter table product_ingredients
+   add constraint fk_product_ingredient_product
+   foreign key (product_id)
+   references products;
+
+alter table product_reviews
+   add constraint fk_review_moderated_by
+   foreign key (moderated_by_id)
+   references users;
+
+alter table product_reviews
+   add constraint fk_review_product
+   foreign key (product_id)
+   references products;
+
+alter table product_reviews
+   add constraint fk_review_public_user
+   foreign key (public_user_id)
+   references public_users;
+
+alter table product_tags
+   add constraint fk_product_tag_product
+   foreign key (product_id)
+   references products;
+
+alter table product_tags
+   add constraint fk_product_tag_tag
+   foreign key (tag_id)
+   references tags;
+
+alter table products
+   add constraint FKgghpqnjfc7ocnrqa82ipnn90l
+   foreign key (deleted_by_id)
+   references users;
+
+alter table products
+   add constraint fk_product_category
+   foreign key (category_id)
+   references categories;
+
+alter table products
+   add constraint fk_product_user
+   foreign key (user_id)
+   references users;
+
+alter table sale_ingredients
+   add constraint fk_sale_ingredient_ingredient
+   foreign key (ingredient_id)
+   references ingredients;
+
+alter table sale_ingredients
+   add constraint fk_sale_ingredient_sale
+   foreign key (sale_id)
+   references sales;
+
+alter table sales
+   add constraint fk_sale_product
+   foreign key (product_id)
+   references products;
+
+alter table sales
+   add constraint fk_sale_user
+   foreign key (registered_by_id)
+   references users;
+
+alter table tags
+   add constraint FK6iseuctnukl62jbw4gqkgsv32
+   foreign key (deleted_by_id)
+   references users;
+
+alter table users
+   add constraint FKp56c1712k691lhsyewcssf40f
+   foreign key (role_id)
+   references roles;
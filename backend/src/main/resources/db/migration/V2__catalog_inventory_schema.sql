@@ -0,0 +1,119 @@
+-- ================================================
+-- V2: tablas y columnas de catalogo e inventario
+-- ================================================
+-- Todo lo que las entidades agregaron sobre el esquema base (V1): historial
+-- de precios, stock de ingredientes, sub-recetas, slugs, los agregados del
+-- catalogo publico y los indices de las consultas por lote. Las bases
+-- registradas como baseline en V1 no tienen nada de esto y ddl-auto no lo
+-- crea (validate/none), asi que tiene que venir de una migracion. Las de
+-- desarrollo creadas con ddl-auto=update ya lo tienen: todo usa
+-- "if not exists" (las FK van dentro del create table) y ahi no hace nada.
+
+-- ========== Historial de precios ==========
+-- Costo vigente desde valid_from; el costo de una receta a una fecha toma la
+-- ultima fila anterior de cada ingrediente.
+
+create table if not exists ingredient_price_history (
+    unit_cost numeric(12,2) not null,
+    id bigint generated by default as identity,
+    ingredient_id bigint not null,
+    inserted_at timestamp(6) not null,
+    updated_at timestamp(6),
+    valid_from timestamp(6) not null,
+    primary key (id),
+    constraint fk_ingredient_price_history_ingredient
+       foreign key (ingredient_id)
+       references ingredients
+);
+
+create index if not exists idx_ingredient_price_history_ingredient_valid_from
+   on ingredient_price_history (ingredient_id, valid_from);
+
+-- ========== Stock de ingredientes ==========
+-- days_of_cover y low_stock_since los escribe solo el escaneo de stock bajo.
+
+alter table ingredients
+    add column if not exists days_of_cover numeric(10,1),
+    add column if not exists on_hand_quantity numeric(14,4),
+    add column if not exists reorder_point numeric(14,4),
+    add column if not exists low_stock_since timestamp(6);
+
+create index if not exists idx_sales_sale_date
+   on sales (sale_date);
+
+create index if not exists idx_sale_ingredients_sale_ingredient_qty
+   on sale_ingredients (sale_id, ingredient_id, quantity_used);
+
+-- ========== Sub-recetas ==========
+
+create table if not exists product_components (
+    quantity numeric(14,4) not null,
+    component_id bigint not null,
+    id bigint generated by default as identity,
+    inserted_at timestamp(6) not null,
+    parent_id bigint not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint uk_product_component unique (parent_id, component_id),
+    constraint fk_product_component_component
+       foreign key (component_id)
+       references products,
+    constraint fk_product_component_parent
+       foreign key (parent_id)
+       references products
+);
+
+create index if not exists idx_product_components_component
+   on product_components (component_id);
+
+-- ========== Slugs ==========
+-- Las filas existentes quedan en null; DataSeeder les genera el slug al
+-- arrancar.
+
+alter table categories
+    add column if not exists slug varchar(120) unique;
+
+alter table products
+    add column if not exists slug varchar(120) unique;
+
+-- ========== Agregados del catalogo ==========
+-- Tablas derivadas, una fila por producto: las recalculan los jobs de
+-- popularidad, calificaciones y productos relacionados.
+
+create table if not exists product_popularity (
+    log_score float(53) not null,
+    product_id bigint not null,
+    updated_at timestamp(6) not null,
+    primary key (product_id)
+);
+
+create table if not exists product_rating_stats (
+    rating_1 integer not null,
+    rating_2 integer not null,
+    rating_3 integer not null,
+    rating_4 integer not null,
+    rating_5 integer not null,
+    rating_count integer not null,
+    product_id bigint not null,
+    rating_sum bigint not null,
+    updated_at timestamp(6) not null,
+    primary key (product_id)
+);
+
+create table if not exists product_recommendations (
+    computed_at timestamp(6) not null,
+    product_id bigint not null,
+    related_product_ids bigint[] not null,
+    primary key (product_id)
+);
+
+-- ========== Indices de conteos y pertenencia ==========
+
+create index if not exists idx_product_tags_tag_product
+   on product_tags (tag_id, product_id);
+
+create index if not exists idx_products_category_id
+   on products (category_id);
+
+create index if not exists idx_product_ingredients_ingredient_id
+   on product_ingredients (ingredient_id);
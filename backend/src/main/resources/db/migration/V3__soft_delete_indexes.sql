@@ -0,0 +1,96 @@
+-- ================================================
+-- V3: indices para soft delete y nombres unicos
+-- ================================================
+-- Casi todas las consultas filtran deleted_at IS NULL; los indices parciales
+-- cubren solo las filas activas y no crecen con la papelera. La papelera
+-- tiene su propio indice parcial, ordenado como se lista (deleted_at DESC).
+--
+-- Los nombres son unicos sin distinguir mayusculas entre activos y papelera
+-- (un nombre en la papelera bloquea crear otro igual hasta restaurarlo o
+-- eliminarlo). El indice unico sobre lower(name) lo garantiza en la base y
+-- resuelve findNameOwner con un index-only scan: incluye id, deleted_at y
+-- name (PostgreSQL necesita la columna base para no leer la tabla).
+
+-- ========== Nombres repetidos ==========
+-- Las bases que venian de ddl-auto=update no tenian esta restriccion y
+-- pueden tener nombres que solo difieren en mayusculas. En ese caso el
+-- create unique index fallaria con un error que nombra solo una fila: se
+-- listan todos los repetidos antes y la migracion no avanza hasta que se
+-- renombren o se eliminen definitivamente (la migracion es transaccional,
+-- no queda nada a medias).
+
+do $$
+declare
+    duplicates text;
+begin
+    select string_agg(format('%s [%s]', table_name, names), '; ' order by table_name, names)
+      into duplicates
+      from (
+        select 'products' as table_name, string_agg(format('%s (id %s)', name, id), ', ' order by id) as names
+          from products group by lower(name) having count(*) > 1
+        union all
+        select 'categories', string_agg(format('%s (id %s)', name, id), ', ' order by id)
+          from categories group by lower(name) having count(*) > 1
+        union all
+        select 'tags', string_agg(format('%s (id %s)', name, id), ', ' order by id)
+          from tags group by lower(name) having count(*) > 1
+        union all
+        select 'ingredients', string_agg(format('%s (id %s)', name, id), ', ' order by id)
+          from ingredients group by lower(name) having count(*) > 1
+      ) repeated;
+
+    if duplicates is not null then
+        raise exception 'Nombres repetidos sin distinguir mayusculas: %', duplicates
+            using hint = 'Renombrar o eliminar definitivamente los repetidos (papelera incluida) y volver a migrar';
+    end if;
+end $$;
+
+-- ========== Productos ==========
+
+create unique index uk_products_name_lower
+    on products (lower(name)) include (id, deleted_at, name);
+
+create index idx_products_active_name
+    on products (name) where deleted_at is null;
+
+create index idx_products_active_category_name
+    on products (category_id, name) where deleted_at is null;
+
+create index idx_products_trash
+    on products (deleted_at desc) where deleted_at is not null;
+
+-- ========== Categorias ==========
+
+create unique index uk_categories_name_lower
+    on categories (lower(name)) include (id, deleted_at, name);
+
+create index idx_categories_active_name
+    on categories (name) where deleted_at is null;
+
+create index idx_categories_trash
+    on categories (deleted_at desc) where deleted_at is not null;
+
+-- ========== Tags ==========
+
+create unique index uk_tags_name_lower
+    on tags (lower(name)) include (id, deleted_at, name);
+
+create index idx_tags_active_name
+    on tags (name) where deleted_at is null;
+
+create index idx_tags_trash
+    on tags (deleted_at desc) where deleted_at is not null;
+
+-- ========== Ingredientes ==========
+
+create unique index uk_ingredients_name_lower
+    on ingredients (lower(name)) include (id, deleted_at, name);
+
+create index idx_ingredients_active_name
+    on ingredients (name) where deleted_at is null;
+
+create index idx_ingredients_trash
+    on ingredients (deleted_at desc) where deleted_at is not null;
+
+create index idx_ingredients_active_low_stock
+    on ingredients (low_stock_since) where deleted_at is null and low_stock_since is not null;
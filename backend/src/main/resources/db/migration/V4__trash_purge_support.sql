@@ -0,0 +1,39 @@
+-- ================================================
+-- V4: soporte para la purga de la papelera
+-- ================================================
+-- Las ventas guardan un snapshot del producto y de sus ingredientes; al
+-- eliminar definitivamente uno de ellos la referencia pasa a null (las
+-- entidades ya lo documentaban, pero las FK se habian creado sin accion).
+--
+-- La purga borra por lotes con "= ANY(ids)" y cada FK hacia products o
+-- ingredients se verifica por fila eliminada: sin un indice que empiece por
+-- la columna referenciante, cada verificacion recorre la tabla completa.
+
+-- ========== FK con SET NULL ==========
+
+alter table sales drop constraint fk_sale_product;
+alter table sales
+    add constraint fk_sale_product
+    foreign key (product_id) references products on delete set null;
+
+alter table sale_ingredients drop constraint fk_sale_ingredient_ingredient;
+alter table sale_ingredients
+    add constraint fk_sale_ingredient_ingredient
+    foreign key (ingredient_id) references ingredients on delete set null;
+
+-- ========== Indices de FK usados al borrar ==========
+
+create index idx_sales_product_id
+    on sales (product_id);
+
+create index idx_sale_ingredients_ingredient_id
+    on sale_ingredients (ingredient_id);
+
+create index idx_favorites_product_id
+    on favorites (product_id);
+
+create index idx_product_reviews_product_id
+    on product_reviews (product_id);
+
+create index idx_product_ingredients_product_id
+    on product_ingredients (product_id);
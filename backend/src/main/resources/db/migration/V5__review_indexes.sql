@@ -0,0 +1,15 @@
+-- ================================================
+-- V5: indices de moderacion de resenas
+-- ================================================
+-- La cola de pendientes se lista por antiguedad y se cuenta para el
+-- contador del menu; las moderadas se listan por fecha de moderacion.
+--
+-- Las FK hacia users (deleted_by_id, user_id, registered_by_id,
+-- moderated_by_id) quedan sin indice a proposito: los usuarios nunca se
+-- eliminan (se deshabilitan), asi que esas FK no se verifican al borrar.
+
+create index idx_product_reviews_pending
+    on product_reviews (inserted_at) where status = 'PENDING';
+
+create index idx_product_reviews_moderated
+    on product_reviews (status, moderated_at desc) where status <> 'PENDING';
@@ -0,0 +1,13 @@
+-- ================================================
+-- V6: ajustes de la aplicacion (clave/valor)
+-- ================================================
+-- Valores que la aplicacion guarda para si misma entre reinicios. El primero
+-- es la version de los datos iniciales: DataSeeder la lee al arrancar y, si
+-- ya esta al dia, omite todas las verificaciones con una sola consulta.
+
+create table app_settings (
+    key varchar(100) not null,
+    value varchar(255) not null,
+    updated_at timestamp(6) not null,
+    primary key (key)
+);
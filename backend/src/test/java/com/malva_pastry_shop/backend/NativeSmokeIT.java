@@ -0,0 +1,245 @@
+package com.malva_pastry_shop.backend;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de humo del binario nativo (perfil Maven "native", la corre
+ * failsafe despues de native:compile).
+ *
+ * Arranca el ejecutable indicado en native.binary con el perfil prod (el
+ * mismo con el que se genera la imagen) contra un PostgreSQL local
+ * (smoke.db-url, smoke.db-username y smoke.db-password) y recorre lo que
+ * mas depende de reflexion: login del panel, listado de productos
+ * (Thymeleaf y API JSON) y alta de una venta. La salida del binario queda
+ * en target/native-smoke.log.
+ *
+ * smoke.db-url es obligatorio y no tiene valor por defecto: la prueba
+ * escribe en la base. Al terminar borra la venta y devuelve el stock que
+ * desconto, pero los efectos derivados (popularidad) quedan, asi que debe
+ * ser una base descartable y no la de desarrollo.
+ */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("NativeSmokeIT Tests")
+class NativeSmokeIT {
+
+    private static final Logger log = LoggerFactory.getLogger(NativeSmokeIT.class);
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(90);
+
+    /** Solo para la prueba: el perfil prod no tiene secreto por defecto */
+    private static final String JWT_SECRET =
+            "c21va2UtdGVzdC1vbmx5LXNtb2tlLXRlc3Qtb25seS1zbW9rZS10ZXN0LW9ubHktc21va2UtdGVzdC1vbmx5";
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Pattern PRODUCT_OPTION = Pattern.compile("<option value=\"(\\d+)\"");
+    private static final Pattern SALE_LOCATION = Pattern.compile("/sales/(\\d+)$");
+
+    private static Process process;
+    private static String baseUrl;
+    private static HttpClient client;
+    private static String dbUrl;
+    private static Long createdSaleId;
+
+    @BeforeAll
+    static void startBinary() throws Exception {
+        dbUrl = System.getProperty("smoke.db-url");
+        assertThat(dbUrl).as("indicar -Dsmoke.db-url con una base descartable (la prueba escribe en ella)")
+                .isNotBlank();
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+
+        long startedAt = System.nanoTime();
+        process = new ProcessBuilder(System.getProperty("native.binary"),
+                "--spring.profiles.active=prod",
+                "--server.port=" + port,
+                "--spring.datasource.url=" + dbUrl,
+                "--spring.datasource.username=" + dbUsername(),
+                "--spring.datasource.password=" + dbPassword(),
+                "--app.jwt.secret=" + JWT_SECRET,
+                "--app.static-catalog.enabled=false",
+                "--management.endpoint.health.probes.enabled=true")
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/native-smoke.log"))
+                .start();
+
+        client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+
+        long deadline = startedAt + STARTUP_TIMEOUT.toNanos();
+        while (true) {
+            assertThat(process.isAlive()).as("el binario termino al arrancar, ver target/native-smoke.log").isTrue();
+            try {
+                // Listo despues de DataSeeder: en una base nueva los usuarios se crean al arrancar
+                if (get("/actuator/health/readiness").statusCode() == 200) {
+                    break;
+                }
+            } catch (IOException e) {
+                // Todavia no escucha
+            }
+            assertThat(System.nanoTime()).as("el binario no respondio a tiempo").isLessThan(deadline);
+            Thread.sleep(100);
+        }
+        log.info("Binario listo en {} ms", Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+    }
+
+    @AfterAll
+    static void stopBinary() throws Exception {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+        }
+        if (createdSaleId != null) {
+            deleteSale(createdSaleId);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Debe iniciar sesion en el panel de administracion")
+    void shouldLogIn() throws Exception {
+        String csrf = find(CSRF, get("/login").body());
+
+        HttpResponse<String> response = postForm("/login", Map.of(
+                "email", "sysadmin@malva.com",
+                "password", "sysadmin123",
+                "_csrf", csrf));
+
+        assertThat(response.statusCode()).isEqualTo(302);
+        assertThat(response.headers().firstValue("Location")).hasValueSatisfying(
+                location -> assertThat(location).endsWith("/dashboard"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Debe listar productos en el panel y en la API publica")
+    void shouldListProducts() throws Exception {
+        HttpResponse<String> page = get("/products");
+        assertThat(page.statusCode()).isEqualTo(200);
+        assertThat(page.body()).contains("<table");
+
+        HttpResponse<String> api = get("/api/v1/products");
+        assertThat(api.statusCode()).isEqualTo(200);
+        assertThat(api.body()).contains("\"content\"", "\"facets\"");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Debe crear una venta y mostrarla")
+    void shouldCreateSale() throws Exception {
+        String form = get("/sales/new").body();
+
+        HttpResponse<String> response = postForm("/sales", Map.of(
+                "productId", find(PRODUCT_OPTION, form),
+                "quantity", "1",
+                "unitPrice", "1.00",
+                "notes", "Prueba de humo del binario nativo",
+                "_csrf", find(CSRF, form)));
+
+        assertThat(response.statusCode()).isEqualTo(302);
+        String location = response.headers().firstValue("Location").orElseThrow();
+        String saleId = find(SALE_LOCATION, location);
+        createdSaleId = Long.valueOf(saleId);
+
+        HttpResponse<String> show = get("/sales/" + saleId);
+        assertThat(show.statusCode()).isEqualTo(200);
+        assertThat(show.body()).contains("Venta #" + saleId);
+    }
+
+    // ========== Base ==========
+
+    private static String dbUsername() {
+        return System.getProperty("smoke.db-username", "postgres");
+    }
+
+    private static String dbPassword() {
+        return System.getProperty("smoke.db-password", "postgres123");
+    }
+
+    /** Deshace la venta de la prueba: devuelve el stock descontado y la borra, todo o nada */
+    private static void deleteSale(long saleId) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(dbUrl, dbUsername(), dbPassword())) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement restock = connection.prepareStatement("""
+                    UPDATE ingredients i SET on_hand_quantity = i.on_hand_quantity + s.used
+                    FROM (SELECT ingredient_id, SUM(quantity_used) AS used FROM sale_ingredients
+                          WHERE sale_id = ? GROUP BY ingredient_id) s
+                    WHERE i.id = s.ingredient_id AND i.on_hand_quantity IS NOT NULL
+                    """);
+                    PreparedStatement lines = connection.prepareStatement(
+                            "DELETE FROM sale_ingredients WHERE sale_id = ?");
+                    PreparedStatement sale = connection.prepareStatement("DELETE FROM sales WHERE id = ?")) {
+                for (PreparedStatement statement : new PreparedStatement[] { restock, lines, sale }) {
+                    statement.setLong(1, saleId);
+                    statement.executeUpdate();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // ========== HTTP ==========
+
+    private static HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> postForm(String path, Map<String, String> fields) throws Exception {
+        String body = fields.entrySet().stream()
+                .map(field -> field.getKey() + "=" + URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String find(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        assertThat(matcher.find()).as("no se encontro %s", pattern).isTrue();
+        return matcher.group(1);
+    }
+}
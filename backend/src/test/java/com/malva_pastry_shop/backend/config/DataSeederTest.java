@@ -0,0 +1,93 @@
+package com.malva_pastry_shop.backend.config;
+
+import com.malva_pastry_shop.backend.domain.auth.Role;
+import com.malva_pastry_shop.backend.domain.auth.RoleType;
+import com.malva_pastry_shop.backend.repository.CategoryRepository;
+import com.malva_pastry_shop.backend.repository.IngredientRepository;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+import com.malva_pastry_shop.backend.repository.RoleRepository;
+import com.malva_pastry_shop.backend.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DataSeeder Tests")
+class DataSeederTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DataSeeder dataSeeder;
+
+    private void storedSeedVersion(Integer version) {
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq("seed_version")))
+                .thenReturn(version);
+    }
+
+    @Test
+    @DisplayName("Debe terminar despues de leer la version cuando los datos iniciales estan al dia")
+    void shouldSkipWhenUpToDate() throws Exception {
+        storedSeedVersion(DataSeeder.SEED_VERSION);
+
+        dataSeeder.run();
+
+        verify(jdbcTemplate).query(anyString(), any(ResultSetExtractor.class), eq("seed_version"));
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(roleRepository, userRepository, categoryRepository, productRepository,
+                ingredientRepository, passwordEncoder);
+    }
+
+    @Test
+    @DisplayName("Debe volver a verificar los datos iniciales y guardar la version nueva cuando la version sube")
+    void shouldSeedAgainWhenVersionIsBumped() throws Exception {
+        storedSeedVersion(DataSeeder.SEED_VERSION - 1);
+        when(roleRepository.existsByName(any(RoleType.class))).thenReturn(true);
+        when(roleRepository.findByName(any(RoleType.class))).thenReturn(Optional.of(new Role(RoleType.ADMIN)));
+        when(ingredientRepository.count()).thenReturn(1L);
+        when(productRepository.count()).thenReturn(1L);
+
+        dataSeeder.run();
+
+        verify(roleRepository, times(RoleType.values().length)).existsByName(any(RoleType.class));
+        verify(userRepository).findByEmail("sysadmin@malva.com");
+        verify(categoryRepository).findByNameIgnoreCase("Pasteles");
+        verify(productRepository).findBySlugIsNull();
+        verify(jdbcTemplate).update(contains("INSERT INTO app_settings"), eq("seed_version"),
+                eq(String.valueOf(DataSeeder.SEED_VERSION)), any(Timestamp.class));
+    }
+}
@@ -0,0 +1,156 @@
+package com.malva_pastry_shop.backend.config;
+
+import com.malva_pastry_shop.backend.config.DbBulkhead.Lane;
+import com.malva_pastry_shop.backend.config.DbBulkhead.LaneLimits;
+import com.malva_pastry_shop.backend.config.DbBulkhead.LaneStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@DisplayName("DbBulkhead Tests")
+class DbBulkheadTest {
+
+    private DataSource target;
+    private DbBulkhead bulkhead;
+    private DbBulkheadDataSource dataSource;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        bulkhead = new DbBulkhead(Map.of(
+                Lane.CATALOG, new LaneLimits(1, 50),
+                Lane.ADMIN, new LaneLimits(1, 50)));
+        dataSource = new DbBulkheadDataSource(target, bulkhead);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.exit();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Debe compartir un permiso entre conexiones anidadas del mismo pedido")
+    void shouldShareThePermitBetweenNestedConnections() throws Exception {
+        bulkhead.enter(Lane.CATALOG);
+
+        Connection outer = dataSource.getConnection();
+        Connection inner = dataSource.getConnection();
+        assertThat(stats(Lane.CATALOG).inUse()).isEqualTo(1);
+
+        inner.close();
+        assertThat(stats(Lane.CATALOG).inUse()).isEqualTo(1);
+        outer.close();
+        assertThat(stats(Lane.CATALOG).inUse()).isZero();
+        assertThat(stats(Lane.CATALOG).acquired()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un pedido despues de la espera maxima de su carril")
+    void shouldRejectAfterMaxWait() throws Exception {
+        bulkhead.enter(Lane.CATALOG);
+        Connection held = dataSource.getConnection();
+
+        CompletableFuture<Throwable> other = CompletableFuture.supplyAsync(() -> {
+            bulkhead.enter(Lane.CATALOG);
+            try {
+                dataSource.getConnection();
+                return null;
+            } catch (Exception e) {
+                return e;
+            } finally {
+                bulkhead.exit();
+            }
+        }, executor);
+
+        assertThat(other.get(5, TimeUnit.SECONDS)).isInstanceOf(DbBulkhead.RejectedException.class);
+        assertThat(stats(Lane.CATALOG).rejected()).isEqualTo(1);
+        held.close();
+    }
+
+    @Test
+    @DisplayName("Debe mantener los carriles independientes")
+    void shouldKeepLanesIndependent() throws Exception {
+        bulkhead.enter(Lane.CATALOG);
+        Connection held = dataSource.getConnection();
+
+        Boolean opened = CompletableFuture.supplyAsync(() -> {
+            bulkhead.enter(Lane.ADMIN);
+            try (Connection connection = dataSource.getConnection()) {
+                return connection != null;
+            } catch (Exception e) {
+                return false;
+            } finally {
+                bulkhead.exit();
+            }
+        }, executor).get(5, TimeUnit.SECONDS);
+
+        assertThat(opened).isTrue();
+        held.close();
+    }
+
+    @Test
+    @DisplayName("Debe liberar el permiso cuando no se puede abrir la conexion")
+    void shouldReleaseWhenOpenFails() throws Exception {
+        when(target.getConnection()).thenThrow(new java.sql.SQLException("sin base"));
+        bulkhead.enter(Lane.ADMIN);
+
+        assertThatThrownBy(() -> dataSource.getConnection()).hasMessage("sin base");
+        assertThat(stats(Lane.ADMIN).inUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe liberar al salir un permiso sin cerrar e ignorar un segundo cierre")
+    void shouldReleaseLeakedPermitOnExit() throws Exception {
+        bulkhead.enter(Lane.ADMIN);
+        Connection leaked = dataSource.getConnection();
+
+        assertThat(bulkhead.exit()).isTrue();
+        assertThat(stats(Lane.ADMIN).inUse()).isZero();
+
+        leaked.close();
+        leaked.close();
+        assertThat(leaked.isClosed()).isTrue();
+        assertThat(stats(Lane.ADMIN).inUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("No debe limitar el codigo que corre sin carril")
+    void shouldPassThroughWithoutLane() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThat(stats(Lane.CATALOG).inUse()).isZero();
+        assertThat(stats(Lane.ADMIN).inUse()).isZero();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un carril sin permisos")
+    void shouldRejectLaneWithoutPermits() {
+        assertThatThrownBy(() -> new DbBulkhead(Map.of(Lane.CATALOG, new LaneLimits(2, 100))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ADMIN");
+    }
+
+    private LaneStats stats(Lane lane) {
+        return bulkhead.stats().stream().filter(s -> s.lane() == lane).findFirst().orElseThrow();
+    }
+}
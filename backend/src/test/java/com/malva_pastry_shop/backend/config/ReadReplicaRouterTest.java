@@ -0,0 +1,356 @@
+package com.malva_pastry_shop.backend.config;
+
+import com.malva_pastry_shop.backend.config.ReadReplicaRouter.ReplicaState;
+import com.malva_pastry_shop.backend.config.ReadReplicaRouter.Route;
+import com.malva_pastry_shop.backend.config.ReadReplicaRouter.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ReadReplicaRouter Tests")
+class ReadReplicaRouterTest {
+
+    private static final long MAX_LAG_MS = 1000;
+    private static final long STICKY_MS = 5000;
+    private static final String PRIMARY_LSN = "0/3000148";
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private Statement primaryStatement;
+    private PreparedStatement lagStatement;
+    private ResultSet lagResult;
+    private AtomicLong clock;
+    private ReadReplicaRouter router;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        primaryStatement = mock(Statement.class);
+        ResultSet lsnResult = mock(ResultSet.class);
+        when(primaryConnection.createStatement()).thenReturn(primaryStatement);
+        when(primaryStatement.executeQuery(ReadReplicaRouter.PRIMARY_LSN_SQL)).thenReturn(lsnResult);
+        when(lsnResult.next()).thenReturn(true);
+        when(lsnResult.getString(1)).thenReturn(PRIMARY_LSN);
+
+        lagStatement = mock(PreparedStatement.class);
+        lagResult = mock(ResultSet.class);
+        when(replicaConnection.prepareStatement(ReadReplicaRouter.LAG_SQL)).thenReturn(lagStatement);
+        when(lagStatement.executeQuery()).thenReturn(lagResult);
+        when(lagResult.next()).thenReturn(true);
+
+        clock = new AtomicLong();
+        router = new ReadReplicaRouter(replica, MAX_LAG_MS, STICKY_MS, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void replicaLag(long lagMs) throws SQLException {
+        when(lagResult.getLong(1)).thenReturn(lagMs);
+        when(lagResult.wasNull()).thenReturn(false);
+        router.checkLag(primary);
+    }
+
+    private static MockHttpServletRequest request(MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+
+    private void advanceMs(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Nested
+    @DisplayName("Atraso y caidas")
+    class Availability {
+
+        @Test
+        @DisplayName("Debe leer del primario hasta el primer chequeo")
+        void shouldUsePrimaryBeforeFirstCheck() throws Exception {
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+            assertThat(router.state().status()).isEqualTo(Status.UNKNOWN);
+            assertThat(router.reads(Route.UNAVAILABLE)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Debe leer de la replica mientras su atraso este bajo el maximo")
+        void shouldUseReplicaWhenCaughtUp() throws Exception {
+            replicaLag(200);
+
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+            assertThat(router.state().lagMs()).isEqualTo(200);
+            assertThat(router.reads(Route.REPLICA)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Debe medir el atraso contra la posicion del WAL del primario")
+        void shouldCompareAgainstThePrimaryPosition() throws Exception {
+            replicaLag(0);
+
+            verify(lagStatement).setString(1, PRIMARY_LSN);
+        }
+
+        @Test
+        @DisplayName("Debe tratar la replica como atrasada si no puede leer la posicion del primario")
+        void shouldTreatUnknownPrimaryPositionAsLagging() throws Exception {
+            replicaLag(0);
+            when(primaryStatement.executeQuery(ReadReplicaRouter.PRIMARY_LSN_SQL))
+                    .thenThrow(new SQLException("canceling statement due to statement timeout"));
+            clearInvocations(replicaConnection);
+
+            router.checkLag(primary);
+
+            assertThat(router.state()).isEqualTo(new ReplicaState(Status.LAGGING, -1));
+            verify(replicaConnection, never()).prepareStatement(ReadReplicaRouter.LAG_SQL);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+        }
+
+        @Test
+        @DisplayName("Debe leer del primario mientras la replica este atrasada y volver cuando se ponga al dia")
+        void shouldFallBackWhileLagging() throws Exception {
+            replicaLag(MAX_LAG_MS + 1);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+            assertThat(router.state().status()).isEqualTo(Status.LAGGING);
+
+            replicaLag(0);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+            assertThat(router.reads(Route.LAG)).isEqualTo(1);
+            assertThat(router.reads(Route.REPLICA)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Debe acotar el atraso por el tiempo desde que la replica estuvo al dia")
+        void shouldBoundTheLagAfterAnIdlePrimary() throws Exception {
+            replicaLag(0);
+            advanceMs(500);
+
+            // La ultima transaccion aplicada es de hace diez minutos
+            replicaLag(600_000);
+
+            assertThat(router.state().lagMs()).isEqualTo(500);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+
+            advanceMs(MAX_LAG_MS);
+            replicaLag(600_000);
+            assertThat(router.state().status()).isEqualTo(Status.LAGGING);
+        }
+
+        @Test
+        @DisplayName("Debe tratar un atraso desconocido como atrasada")
+        void shouldTreatUnknownLagAsLagging() throws Exception {
+            when(lagResult.wasNull()).thenReturn(true);
+            router.checkLag(primary);
+
+            assertThat(router.state().status()).isEqualTo(Status.LAGGING);
+            assertThat(router.state().lagMs()).isEqualTo(-1);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+        }
+
+        @Test
+        @DisplayName("Debe leer del primario cuando la replica rechaza una conexion")
+        void shouldFallBackWhenReplicaFails() throws Exception {
+            replicaLag(0);
+            when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+            assertThat(router.state().status()).isEqualTo(Status.DOWN);
+            // Hasta el proximo chequeo no vuelve a intentar
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+            verify(replica, times(2)).getConnection();
+            assertThat(router.reads(Route.UNAVAILABLE)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Debe marcar la replica caida cuando falla el chequeo")
+        void shouldMarkDownWhenCheckFails() throws Exception {
+            replicaLag(0);
+            when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+            router.checkLag(primary);
+
+            assertThat(router.state().status()).isEqualTo(Status.DOWN);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+        }
+    }
+
+    @Nested
+    @DisplayName("Leer lo propio")
+    class ReadYourWrites {
+
+        @BeforeEach
+        void replicaCaughtUp() throws Exception {
+            replicaLag(0);
+        }
+
+        @Test
+        @DisplayName("Debe leer del primario el resto del pedido que escribio")
+        void shouldStickForTheRequest() throws Exception {
+            request(null);
+
+            router.recordWrite();
+
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+            assertThat(router.reads(Route.STICKY)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Debe leer del primario en los pedidos siguientes de la misma sesion hasta que termine la ventana")
+        void shouldStickForTheSession() throws Exception {
+            MockHttpSession session = new MockHttpSession();
+            request(session);
+            router.recordWrite();
+
+            request(session);
+            advanceMs(STICKY_MS - 1);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+
+            advanceMs(1);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+        }
+
+        @Test
+        @DisplayName("Debe usar el token como sesion de los pedidos sin estado de la API")
+        void shouldStickByToken() throws Exception {
+            request(null).addHeader("Authorization", "Bearer abc");
+            router.recordWrite();
+
+            request(null).addHeader("Authorization", "Bearer abc");
+            assertThat(router.readOnlyConnection(primary)).isSameAs(primaryConnection);
+
+            request(null).addHeader("Authorization", "Bearer xyz");
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+        }
+
+        @Test
+        @DisplayName("No debe guardar el token en claro como clave de la sesion")
+        void shouldHashTheToken() {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer abc");
+
+            assertThat(ReadReplicaRouter.sessionKey(request))
+                    .doesNotContain("abc")
+                    .hasSize(64)
+                    .isEqualTo(ReadReplicaRouter.sessionKey(request));
+        }
+
+        @Test
+        @DisplayName("Debe mantener en la replica otras sesiones y los pedidos sin sesion")
+        void shouldNotAffectOtherSessions() throws Exception {
+            request(new MockHttpSession());
+            router.recordWrite();
+
+            request(new MockHttpSession());
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+            request(null);
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+        }
+
+        @Test
+        @DisplayName("Debe leer del primario en los listeners AFTER_COMMIT de una escritura fuera de un pedido")
+        void shouldStickForTheTransactionWithoutRequest() throws Exception {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(primary);
+            transactionManager.addListener(new ReadReplicaConfig().readReplicaWriteListener(router));
+            TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+            List<Connection> afterCommit = new ArrayList<>();
+
+            transactions.executeWithoutResult(status -> {
+                // Como un @TransactionalEventListener(AFTER_COMMIT) de una tarea programada
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completion) {
+                        afterCommit.add(readOnlyConnection());
+                    }
+                });
+                afterCommit.add(readOnlyConnection());
+            });
+
+            assertThat(afterCommit).containsExactly(replicaConnection, primaryConnection);
+            assertThat(router.reads(Route.STICKY)).isEqualTo(1);
+            // Termino la transaccion: el hilo vuelve a la replica
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+        }
+
+        @Test
+        @DisplayName("Debe ignorar escrituras fuera de un pedido y de una transaccion")
+        void shouldIgnoreWritesWithoutRequestOrTransaction() throws Exception {
+            router.recordWrite();
+
+            assertThat(router.readOnlyConnection(primary)).isSameAs(replicaConnection);
+        }
+
+        private Connection readOnlyConnection() {
+            try {
+                return router.readOnlyConnection(primary);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Debe mandar las transacciones readOnly a la replica a traves del DataSource de ruteo")
+    void shouldRouteReadOnlyTransactions() throws Exception {
+        replicaLag(0);
+        clearInvocations(replica, replicaConnection, primaryConnection);
+        when(primaryConnection.getAutoCommit()).thenReturn(true);
+        DataSource routing = ReadReplicaConfig.routing(primary, router);
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(routing));
+
+        transactions.setReadOnly(true);
+        transactions.executeWithoutResult(status -> useConnection(routing));
+        transactions.setReadOnly(false);
+        transactions.executeWithoutResult(status -> useConnection(routing));
+
+        verify(replicaConnection).createStatement();
+        verify(replicaConnection).commit();
+        verify(primaryConnection).createStatement();
+        verify(primaryConnection).commit();
+        verify(replica, times(1)).getConnection();
+    }
+
+    private static void useConnection(DataSource dataSource) {
+        try {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.malva_pastry_shop.backend.config;
+
+import com.malva_pastry_shop.backend.config.SqlProfiler.QueryStats;
+import com.malva_pastry_shop.backend.config.SqlProfiler.Report;
+import com.malva_pastry_shop.backend.config.SqlProfiler.RequestProfile;
+import com.malva_pastry_shop.backend.config.SqlProfiler.SlowStatement;
+import com.malva_pastry_shop.backend.config.SqlProfiler.Sort;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("SqlProfiler Tests")
+class SqlProfilerTest {
+
+    private SqlProfiler profiler;
+
+    @BeforeEach
+    void setUp() {
+        profiler = new SqlProfiler(2, 60, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        profiler.end();
+    }
+
+    private static long ms(long millis) {
+        return millis * 1_000_000;
+    }
+
+    @Nested
+    @DisplayName("Perfil por pedido")
+    class RequestProfiles {
+
+        @Test
+        @DisplayName("Debe contar sentencias, sumar el tiempo de base y guardar las mas lentas en orden")
+        void shouldSummarizeTheRequest() {
+            profiler.begin();
+            profiler.record("select 1", ms(5), () -> "()");
+            profiler.record("select 2", ms(30), () -> "(Long)");
+            profiler.record("select 3", ms(10), () -> "(String)");
+            profiler.record("select 4", ms(20), () -> "(Long, Long)");
+
+            RequestProfile profile = profiler.end();
+
+            assertThat(profile.statements()).isEqualTo(4);
+            assertThat(profile.dbMillis()).isEqualTo(65.0);
+            assertThat(profile.slowest()).extracting(SlowStatement::sql, SlowStatement::parameters)
+                    .containsExactly(
+                            tuple("select 2", "(Long)"),
+                            tuple("select 4", "(Long, Long)"));
+        }
+
+        @Test
+        @DisplayName("Debe manejar pedidos con menos sentencias que lugares")
+        void shouldSummarizeShortRequests() {
+            profiler.begin();
+            assertThat(profiler.end().slowest()).isEmpty();
+
+            profiler.begin();
+            profiler.record("select 1", ms(5), () -> "()");
+
+            assertThat(profiler.end().slowest()).extracting(SlowStatement::sql).containsExactly("select 1");
+        }
+
+        @Test
+        @DisplayName("Debe armar la forma de los parametros una vez y solo para las sentencias que se guardan")
+        void shouldBuildTheShapeLazily() {
+            AtomicInteger built = new AtomicInteger();
+            Supplier<String> shape = () -> {
+                built.incrementAndGet();
+                return "(Long)";
+            };
+
+            profiler.begin();
+            profiler.record("select a", ms(20), shape);
+            profiler.record("select b", ms(30), shape);
+            built.set(0);
+            // Mas rapida que las dos guardadas y que el maximo de su texto
+            profiler.record("select a", ms(1), shape);
+            profiler.end();
+
+            assertThat(built).hasValue(0);
+        }
+
+        @Test
+        @DisplayName("Debe devolver null sin pedido abierto y aun asi rankear la sentencia")
+        void shouldRankStatementsOutsideRequests() {
+            profiler.record("select job", ms(8), () -> "()");
+
+            assertThat(profiler.end()).isNull();
+            assertThat(profiler.report(10, Sort.TOTAL).queries())
+                    .extracting(QueryStats::sql).containsExactly("select job");
+        }
+    }
+
+    @Nested
+    @DisplayName("Ranking de sentencias")
+    class Ranking {
+
+        @Test
+        @DisplayName("Debe agrupar por texto ignorando saltos de linea y ordenar segun lo pedido")
+        void shouldGroupAndSort() {
+            profiler.record("select *\n  from products\n where id = ?", ms(2), () -> "(Long)");
+            profiler.record("select * from products where id = ?", ms(2), () -> "(Long)");
+            profiler.record("select * from products where id = ?", ms(2), () -> "(Long)");
+            profiler.record("select * from sales", ms(5), () -> "()");
+
+            Report byTotal = profiler.report(10, Sort.TOTAL);
+            Report byMax = profiler.report(10, Sort.MAX);
+
+            assertThat(byTotal.distinctQueries()).isEqualTo(2);
+            assertThat(byTotal.queries()).extracting(QueryStats::sql, QueryStats::count)
+                    .containsExactly(
+                            tuple("select * from products where id = ?", 3L),
+                            tuple("select * from sales", 1L));
+            assertThat(byMax.queries()).extracting(QueryStats::sql)
+                    .containsExactly("select * from sales", "select * from products where id = ?");
+            assertThat(profiler.report(1, Sort.MEAN).queries()).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Debe guardar la forma de los parametros de la ejecucion mas lenta")
+        void shouldKeepTheShapeOfTheSlowestExecution() {
+            profiler.record("select * from products where name like ?", ms(1), () -> "(String)");
+            profiler.record("select * from products where name like ?", ms(9), () -> "(null)");
+
+            QueryStats stats = profiler.report(10, Sort.MAX).queries().get(0);
+
+            assertThat(stats.maxMs()).isEqualTo(9.0);
+            assertThat(stats.meanMs()).isEqualTo(5.0);
+            assertThat(stats.parameters()).isEqualTo("(null)");
+        }
+
+        @Test
+        @DisplayName("Debe contar como descartadas las ejecuciones que superan el limite de textos distintos")
+        void shouldDropTextsOverTheLimit() {
+            for (int i = 0; i < 5; i++) {
+                profiler.record("select " + i, ms(1), () -> "()");
+            }
+            profiler.record("select 0", ms(1), () -> "()");
+
+            Report report = profiler.report(10, Sort.TOTAL);
+
+            assertThat(report.distinctQueries()).isEqualTo(3);
+            assertThat(report.droppedStatements()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Debe empezar de cero despues de reiniciar")
+        void shouldResetTheRanking() {
+            profiler.record("select 1", ms(1), () -> "()");
+
+            profiler.reset();
+
+            assertThat(profiler.report(10, Sort.TOTAL).queries()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Debe rechazar un orden desconocido")
+        void shouldRejectUnknownSort() {
+            assertThat(SqlProfiler.parseSort(null)).isEqualTo(Sort.TOTAL);
+            assertThat(SqlProfiler.parseSort(" max ")).isEqualTo(Sort.MAX);
+            assertThatThrownBy(() -> SqlProfiler.parseSort("slowest"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe describir los parametros por tipo, con el tamano del lote")
+    void shouldDescribeParameterShapes() throws Exception {
+        QueryInfo queryInfo = new QueryInfo("insert into sales (product_id, notes) values (?, ?)");
+        List<List<ParameterSetOperation>> executions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            executions.add(List.of(
+                    new ParameterSetOperation(PreparedStatement.class.getMethod("setLong", int.class, long.class),
+                            new Object[] { 1, 42L }),
+                    new ParameterSetOperation(PreparedStatement.class.getMethod("setNull", int.class, int.class),
+                            new Object[] { 2, Types.VARCHAR })));
+        }
+        queryInfo.setParametersList(executions);
+
+        assertThat(SqlProfilerConfig.parameterShape(queryInfo)).isEqualTo("(Long, null) x3");
+        assertThat(SqlProfilerConfig.parameterShape(new QueryInfo("select 1"))).isEqualTo("()");
+    }
+}
@@ -0,0 +1,62 @@
+package com.malva_pastry_shop.backend.config;
+
+import com.malva_pastry_shop.backend.config.StartupReport.BeanTiming;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DisplayName("StartupReport Tests")
+class StartupReportTest {
+
+    private static final String BEAN_STEP = "spring.beans.instantiate";
+
+    private static TimelineEvent event(long id, Long parentId, String name, String beanName, long millis) {
+        StartupStep.Tag tag = mock(StartupStep.Tag.class);
+        when(tag.getKey()).thenReturn("beanName");
+        when(tag.getValue()).thenReturn(beanName);
+        StartupStep.Tags tags = mock(StartupStep.Tags.class);
+        when(tags.iterator()).thenAnswer(invocation -> List.of(tag).iterator());
+
+        StartupStep step = mock(StartupStep.class);
+        when(step.getId()).thenReturn(id);
+        when(step.getParentId()).thenReturn(parentId);
+        when(step.getName()).thenReturn(name);
+        when(step.getTags()).thenReturn(tags);
+
+        TimelineEvent event = mock(TimelineEvent.class);
+        when(event.getStartupStep()).thenReturn(step);
+        when(event.getDuration()).thenReturn(Duration.ofMillis(millis));
+        return event;
+    }
+
+    private static List<TimelineEvent> timeline() {
+        // catalogo (100 ms) crea dentro a repositorio (70 ms) y corre un paso que no es un bean (10 ms)
+        return List.of(
+                event(2, 1L, BEAN_STEP, "repositorio", 70),
+                event(3, 1L, "spring.context.config-classes.enhance", "-", 10),
+                event(1, null, BEAN_STEP, "catalogo", 100),
+                event(4, null, BEAN_STEP, "cache", 5));
+    }
+
+    @Test
+    @DisplayName("Debe descontar a cada bean el tiempo de los pasos anidados y ordenar de mas lento a mas rapido")
+    void shouldReportSelfTime() {
+        assertThat(StartupReport.slowestBeans(timeline(), 10)).containsExactly(
+                new BeanTiming("repositorio", 70),
+                new BeanTiming("catalogo", 20),
+                new BeanTiming("cache", 5));
+    }
+
+    @Test
+    @DisplayName("Debe limitar el reporte a los beans mas lentos")
+    void shouldLimitTheReport() {
+        assertThat(StartupReport.slowestBeans(timeline(), 1)).containsExactly(new BeanTiming("repositorio", 70));
+    }
+}
@@ -0,0 +1,294 @@
+package com.malva_pastry_shop.backend.controller.admin;
+
+import com.malva_pastry_shop.backend.support.QueryBudgetFixture;
+import com.malva_pastry_shop.backend.support.QueryBudgetTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+
+/**
+ * Presupuesto de consultas de las pantallas del panel. Si un cambio de
+ * mapeo o de template vuelve a cargar relaciones de a una fila, la cuenta
+ * sube y el test falla con las sentencias ejecutadas.
+ */
+@DisplayName("Presupuesto de consultas - Panel de administracion")
+class AdminQueryBudgetTest extends QueryBudgetTestSupport {
+
+    private QueryBudgetFixture.Data data;
+
+    @BeforeEach
+    void setUp() {
+        data = fixture.data();
+    }
+
+    private MockHttpServletRequestBuilder admin(String url, Object... vars) {
+        return get(url, vars).with(user(data.admin()));
+    }
+
+    @Nested
+    @DisplayName("Productos")
+    class Products {
+
+        @Test
+        @DisplayName("Listado")
+        void list() throws Exception {
+            assertQueryBudget(admin("/products"), 3);
+        }
+
+        @Test
+        @DisplayName("Eliminados")
+        void deleted() throws Exception {
+            assertQueryBudget(admin("/products/deleted"), 1);
+        }
+
+        @Test
+        @DisplayName("Detalle con tags y sub-recetas")
+        void show() throws Exception {
+            assertQueryBudget(admin("/products/{id}", data.productId()), 1);
+        }
+
+        @Test
+        @DisplayName("Formulario de alta")
+        void createForm() throws Exception {
+            assertQueryBudget(admin("/products/new"), 1);
+        }
+
+        @Test
+        @DisplayName("Formulario de edicion")
+        void editForm() throws Exception {
+            assertQueryBudget(admin("/products/{id}/edit", data.productId()), 2);
+        }
+
+        @Test
+        @DisplayName("Tags del producto")
+        void tags() throws Exception {
+            assertQueryBudget(admin("/products/{id}/tags", data.productId()), 6);
+        }
+
+        @Test
+        @DisplayName("Receta con ingredientes y sub-recetas")
+        void recipe() throws Exception {
+            assertQueryBudget(admin("/products/{id}/recipe", data.productId()), 12);
+        }
+
+        @Test
+        @DisplayName("Costo de la receta a una fecha")
+        void recipeCostAsOf() throws Exception {
+            assertQueryBudget(admin("/products/{id}/recipe/cost", data.productId())
+                    .param("asOf", LocalDate.now().toString()), 2);
+        }
+
+        @Test
+        @DisplayName("Tendencia de costo de varias recetas")
+        void recipeCostTrend() throws Exception {
+            assertQueryBudget(admin("/products/recipe-cost-trend")
+                    .param("productIds", data.productIds().stream().map(String::valueOf).toArray(String[]::new))
+                    .param("from", LocalDate.now().minusDays(30).toString())
+                    .param("to", LocalDate.now().toString()), 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Categorias")
+    class Categories {
+
+        @Test
+        @DisplayName("Listado")
+        void list() throws Exception {
+            assertQueryBudget(admin("/categories"), 2);
+        }
+
+        @Test
+        @DisplayName("Eliminadas")
+        void deleted() throws Exception {
+            assertQueryBudget(admin("/categories/deleted"), 1);
+        }
+
+        @Test
+        @DisplayName("Detalle")
+        void show() throws Exception {
+            assertQueryBudget(admin("/categories/{id}", data.categoryId()), 2);
+        }
+
+        @Test
+        @DisplayName("Productos de la categoria")
+        void products() throws Exception {
+            assertQueryBudget(admin("/categories/{id}/products", data.categoryId()), 2);
+        }
+
+        @Test
+        @DisplayName("Formulario de alta")
+        void createForm() throws Exception {
+            assertQueryBudget(admin("/categories/new"), 0);
+        }
+
+        @Test
+        @DisplayName("Formulario de edicion")
+        void editForm() throws Exception {
+            assertQueryBudget(admin("/categories/{id}/edit", data.categoryId()), 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tags")
+    class Tags {
+
+        @Test
+        @DisplayName("Listado")
+        void list() throws Exception {
+            assertQueryBudget(admin("/tags"), 2);
+        }
+
+        @Test
+        @DisplayName("Eliminados")
+        void deleted() throws Exception {
+            assertQueryBudget(admin("/tags/deleted"), 1);
+        }
+
+        @Test
+        @DisplayName("Detalle")
+        void show() throws Exception {
+            assertQueryBudget(admin("/tags/{id}", data.tagIds().get(0)), 2);
+        }
+
+        @Test
+        @DisplayName("Productos del tag")
+        void products() throws Exception {
+            assertQueryBudget(admin("/tags/{id}/products", data.tagIds().get(0)), 6);
+        }
+
+        @Test
+        @DisplayName("Formulario de alta")
+        void createForm() throws Exception {
+            assertQueryBudget(admin("/tags/new"), 0);
+        }
+
+        @Test
+        @DisplayName("Formulario de edicion")
+        void editForm() throws Exception {
+            assertQueryBudget(admin("/tags/{id}/edit", data.tagIds().get(0)), 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Ingredientes")
+    class Ingredients {
+
+        @Test
+        @DisplayName("Listado")
+        void list() throws Exception {
+            assertQueryBudget(admin("/ingredients"), 3);
+        }
+
+        @Test
+        @DisplayName("Eliminados")
+        void deleted() throws Exception {
+            assertQueryBudget(admin("/ingredients/deleted"), 1);
+        }
+
+        @Test
+        @DisplayName("Detalle con historial de precios")
+        void show() throws Exception {
+            assertQueryBudget(admin("/ingredients/{id}", data.ingredientIds().get(0)), 3);
+        }
+
+        @Test
+        @DisplayName("Formulario de alta")
+        void createForm() throws Exception {
+            assertQueryBudget(admin("/ingredients/new"), 0);
+        }
+
+        @Test
+        @DisplayName("Formulario de edicion")
+        void editForm() throws Exception {
+            assertQueryBudget(admin("/ingredients/{id}/edit", data.ingredientIds().get(0)), 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Ventas")
+    class Sales {
+
+        @Test
+        @DisplayName("Listado")
+        void list() throws Exception {
+            assertQueryBudget(admin("/sales"), 2);
+        }
+
+        @Test
+        @DisplayName("Detalle")
+        void show() throws Exception {
+            assertQueryBudget(admin("/sales/{id}", data.saleIds().get(0)), 7);
+        }
+
+        @Test
+        @DisplayName("Formulario de alta")
+        void createForm() throws Exception {
+            assertQueryBudget(admin("/sales/new"), 1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Usuarios")
+    class Users {
+
+        @Test
+        @DisplayName("Listado")
+        void list() throws Exception {
+            assertQueryBudget(admin("/users"), 1);
+        }
+
+        @Test
+        @DisplayName("Detalle")
+        void show() throws Exception {
+            assertQueryBudget(admin("/users/{id}", data.admin().getId()), 1);
+        }
+
+        @Test
+        @DisplayName("Formulario de alta")
+        void createForm() throws Exception {
+            assertQueryBudget(admin("/users/new"), 1);
+        }
+
+        @Test
+        @DisplayName("Formulario de edicion")
+        void editForm() throws Exception {
+            assertQueryBudget(admin("/users/{id}/edit", data.admin().getId()), 2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Otras pantallas")
+    class Others {
+
+        @Test
+        @DisplayName("Dashboard")
+        void dashboard() throws Exception {
+            assertQueryBudget(admin("/dashboard"), 7);
+        }
+
+        @Test
+        @DisplayName("Moderacion de resenas")
+        void reviews() throws Exception {
+            assertQueryBudget(admin("/reviews"), 1);
+        }
+
+        @Test
+        @DisplayName("Plan de produccion")
+        void productionPlan() throws Exception {
+            assertQueryBudget(admin("/production-plan"), 1);
+        }
+
+        @Test
+        @DisplayName("Exportacion del catalogo")
+        void catalogExport() throws Exception {
+            assertQueryBudget(admin("/catalog-transfer/export"), 7);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.malva_pastry_shop.backend.controller.api;
+
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.service.storefront.CatalogFacetIndex;
+import com.malva_pastry_shop.backend.service.storefront.CatalogService;
+import com.malva_pastry_shop.backend.support.QueryBudgetFixture;
+import com.malva_pastry_shop.backend.support.QueryBudgetTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+
+/**
+ * Presupuesto de consultas de la API publica. El catalogo se sirve de los
+ * indices en memoria y no deberia tocar la base; los favoritos son del
+ * usuario del token.
+ */
+@DisplayName("Presupuesto de consultas - API publica")
+class ApiQueryBudgetTest extends QueryBudgetTestSupport {
+
+    @Autowired
+    private CatalogService catalogService;
+
+    private QueryBudgetFixture.Data data;
+
+    @BeforeEach
+    void setUp() {
+        data = fixture.data();
+    }
+
+    @Nested
+    @DisplayName("Catalogo")
+    class Catalog {
+
+        // Uno del catalogo sembrado, que ya esta en los indices al arrancar
+        private ProductPublicDTO product;
+
+        @BeforeEach
+        void setUp() {
+            product = catalogService.search(
+                    new CatalogFacetIndex.Query(null, null, false, null, null, null),
+                    CatalogFacetIndex.Sort.NAME, 0, 1).content().get(0);
+        }
+
+        @Test
+        @DisplayName("Busqueda con facetas")
+        void search() throws Exception {
+            assertQueryBudget(get("/api/v1/products"), 0);
+        }
+
+        @Test
+        @DisplayName("Detalle")
+        void show() throws Exception {
+            assertQueryBudget(get("/api/v1/products/{id}", product.id()), 0);
+        }
+
+        @Test
+        @DisplayName("Relacionados")
+        void related() throws Exception {
+            assertQueryBudget(get("/api/v1/products/{id}/related", product.id()), 0);
+        }
+
+        @Test
+        @DisplayName("Detalle por slug")
+        void showBySlug() throws Exception {
+            assertQueryBudget(get("/api/v1/products/slug/{slug}", product.slug()), 0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Favoritos")
+    class Favorites {
+
+        private MockHttpServletRequestBuilder authenticated(String url) {
+            return get(url).header(HttpHeaders.AUTHORIZATION, "Bearer " + data.publicUserToken());
+        }
+
+        @Test
+        @DisplayName("Listado")
+        void list() throws Exception {
+            assertQueryBudget(authenticated("/api/v1/favorites"), 1);
+        }
+
+        @Test
+        @DisplayName("Ids favoritos")
+        void ids() throws Exception {
+            assertQueryBudget(authenticated("/api/v1/favorites/ids"), 1);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.malva_pastry_shop.backend.security;
 
 import com.malva_pastry_shop.backend.domain.publicuser.PublicUser;
 import com.malva_pastry_shop.backend.repository.PublicUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -36,6 +39,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private FilterChain filterChain;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -259,4 +265,38 @@ class JwtAuthenticationFilterTest {
             verify(filterChain).doFilter(request, response);
         }
     }
+
+    @Nested
+    @DisplayName("doFilterInternal Tests - Metricas")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Debe medir la autenticacion segun el resultado")
+        void doFilter_RecordsAuthTimerByOutcome() throws ServletException, IOException {
+            request.addHeader("Authorization", "Bearer valid.jwt.token");
+            when(tokenProvider.validateToken("valid.jwt.token")).thenReturn(true);
+            when(tokenProvider.getPublicUserIdFromToken("valid.jwt.token")).thenReturn(1L);
+            when(publicUserRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+            jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+            MockHttpServletRequest invalid = new MockHttpServletRequest();
+            invalid.setServletPath("/api/v1/me");
+            invalid.addHeader("Authorization", "Bearer invalid.jwt.token");
+            jwtAuthenticationFilter.doFilterInternal(invalid, response, filterChain);
+
+            assertThat(meterRegistry.get(JwtAuthenticationFilter.AUTH_TIMER)
+                    .tag("outcome", "authenticated").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get(JwtAuthenticationFilter.AUTH_TIMER)
+                    .tag("outcome", "rejected").timer().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("No debe medir pedidos sin token")
+        void doFilter_WithoutToken_RecordsNothing() throws ServletException, IOException {
+            jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+            assertThat(meterRegistry.find(JwtAuthenticationFilter.AUTH_TIMER).timers()).isEmpty();
+        }
+    }
 }
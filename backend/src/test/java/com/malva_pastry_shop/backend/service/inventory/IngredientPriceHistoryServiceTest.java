@@ -0,0 +1,113 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.domain.inventory.IngredientPriceHistory;
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+import com.malva_pastry_shop.backend.dto.response.admin.RecipeCostPointDTO;
+import com.malva_pastry_shop.backend.repository.IngredientPriceHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngredientPriceHistoryService Tests")
+class IngredientPriceHistoryServiceTest {
+
+    @Mock
+    private IngredientPriceHistoryRepository priceHistoryRepository;
+
+    @InjectMocks
+    private IngredientPriceHistoryService priceHistoryService;
+
+    private Ingredient flour;
+
+    @BeforeEach
+    void setUp() {
+        flour = new Ingredient("Harina", new BigDecimal("1.50"), UnitOfMeasure.KILOGRAMO);
+        flour.setId(1L);
+        flour.setInsertedAt(LocalDateTime.of(2025, 1, 1, 8, 0));
+    }
+
+    @Nested
+    @DisplayName("recordPriceChange Tests")
+    class RecordPriceChangeTests {
+
+        @Test
+        @DisplayName("No debe registrar nada cuando el costo no cambia")
+        void shouldIgnoreSameCost() {
+            priceHistoryService.recordPriceChange(flour, new BigDecimal("1.50"), new BigDecimal("1.500"));
+
+            verifyNoInteractions(priceHistoryRepository);
+        }
+
+        @Test
+        @DisplayName("Debe registrar el costo anterior cuando el ingrediente no tiene historial")
+        void shouldBackfillPreviousCost() {
+            when(priceHistoryRepository.existsByIngredientId(1L)).thenReturn(false);
+
+            priceHistoryService.recordPriceChange(flour, new BigDecimal("1.50"), new BigDecimal("2.00"));
+
+            ArgumentCaptor<IngredientPriceHistory> captor = ArgumentCaptor.forClass(IngredientPriceHistory.class);
+            verify(priceHistoryRepository, times(2)).save(captor.capture());
+            List<IngredientPriceHistory> saved = captor.getAllValues();
+            assertThat(saved.get(0).getUnitCost()).isEqualByComparingTo("1.50");
+            assertThat(saved.get(0).getValidFrom()).isEqualTo(flour.getInsertedAt());
+            assertThat(saved.get(1).getUnitCost()).isEqualByComparingTo("2.00");
+        }
+
+        @Test
+        @DisplayName("Debe agregar solo el costo nuevo cuando ya hay historial")
+        void shouldAppendNewCost() {
+            when(priceHistoryRepository.existsByIngredientId(1L)).thenReturn(true);
+
+            priceHistoryService.recordPriceChange(flour, new BigDecimal("1.50"), new BigDecimal("2.00"));
+
+            verify(priceHistoryRepository, times(1)).save(any(IngredientPriceHistory.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("getRecipeCostTrend Tests")
+    class GetRecipeCostTrendTests {
+
+        @Test
+        @DisplayName("Debe mapear las filas de una sola consulta")
+        void shouldMapRows() {
+            LocalDate day = LocalDate.of(2025, 3, 1);
+            when(priceHistoryRepository.calculateRecipeCostTrend(List.of(5L), day, day))
+                    .thenReturn(List.<Object[]>of(new Object[] { 5L, Date.valueOf(day), new BigDecimal("12.40") }));
+
+            List<RecipeCostPointDTO> points = priceHistoryService.getRecipeCostTrend(List.of(5L), day, day);
+
+            assertThat(points).containsExactly(new RecipeCostPointDTO(5L, day, new BigDecimal("12.40")));
+        }
+
+        @Test
+        @DisplayName("Debe rechazar un rango de fechas invertido")
+        void shouldRejectInvertedRange() {
+            LocalDate from = LocalDate.of(2025, 3, 2);
+            LocalDate to = LocalDate.of(2025, 3, 1);
+
+            assertThatThrownBy(() -> priceHistoryService.getRecipeCostTrend(List.of(5L), from, to))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(priceHistoryRepository);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+import com.malva_pastry_shop.backend.dto.request.IngredientRequest;
+import com.malva_pastry_shop.backend.repository.IngredientRepository;
+import com.malva_pastry_shop.backend.repository.ProductIngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngredientService Tests")
+class IngredientServiceTest {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private ProductIngredientRepository productIngredientRepository;
+
+    @Mock
+    private IngredientPriceHistoryService priceHistoryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private IngredientService ingredientService;
+
+    private Ingredient flour;
+
+    @BeforeEach
+    void setUp() {
+        flour = new Ingredient("Harina", new BigDecimal("1.50"), UnitOfMeasure.KILOGRAMO);
+        flour.setId(1L);
+        flour.setOnHandQuantity(new BigDecimal("8"));
+        when(ingredientRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(flour));
+        when(ingredientRepository.save(any(Ingredient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static IngredientRequest request(String previousOnHand, String onHand) {
+        IngredientRequest request = new IngredientRequest();
+        request.setName("Harina");
+        request.setUnitCost(new BigDecimal("1.50"));
+        request.setUnitOfMeasure(UnitOfMeasure.KILOGRAMO);
+        request.setPreviousOnHandQuantity(previousOnHand != null ? new BigDecimal(previousOnHand) : null);
+        request.setOnHandQuantity(onHand != null ? new BigDecimal(onHand) : null);
+        return request;
+    }
+
+    @Nested
+    @DisplayName("update Tests - Stock")
+    class UpdateStockTests {
+
+        @Test
+        @DisplayName("No debe tocar el stock cuando el formulario no lo cambio")
+        void shouldKeepStockWhenUnchanged() {
+            // El formulario mostraba 10; mientras tanto una venta dejo 8
+            ingredientService.update(1L, request("10", "10.0"));
+
+            verify(ingredientRepository, never()).adjustOnHand(anyLong(), any());
+            verify(ingredientRepository, never()).setOnHand(anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("Debe aplicar el cambio del formulario como diferencia sobre el stock actual")
+        void shouldApplyDelta() {
+            ingredientService.update(1L, request("10", "15"));
+
+            verify(ingredientRepository).adjustOnHand(1L, new BigDecimal("5"));
+            verify(ingredientRepository, never()).setOnHand(anyLong(), any());
+        }
+
+        @Test
+        @DisplayName("Debe empezar y dejar de controlar stock con un valor absoluto")
+        void shouldSetStockWhenTrackingChanges() {
+            ingredientService.update(1L, request(null, "20"));
+            ingredientService.update(1L, request("20", null));
+
+            verify(ingredientRepository).setOnHand(1L, new BigDecimal("20"));
+            verify(ingredientRepository).setOnHand(1L, null);
+            verify(ingredientRepository, never()).adjustOnHand(anyLong(), any());
+        }
+    }
+}
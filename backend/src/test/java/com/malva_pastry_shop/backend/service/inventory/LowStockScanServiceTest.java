@@ -0,0 +1,51 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LowStockScanService Tests")
+class LowStockScanServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private LowStockScanService scanService;
+
+    @Test
+    @DisplayName("Debe saltear el escaneo cuando otra instancia tiene el lock")
+    void shouldSkipWhenLockIsTaken() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(false);
+
+        int updated = scanService.scan();
+
+        assertThat(updated).isEqualTo(-1);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+
+    @Test
+    @DisplayName("Debe correr el update agregado una vez cuando obtiene el lock")
+    void shouldRunSingleUpdateWithLock() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(3);
+        when(jdbcTemplate.update(anyString())).thenReturn(1);
+
+        int updated = scanService.scan();
+
+        assertThat(updated).isEqualTo(4);
+        verify(jdbcTemplate, times(1)).update(anyString(), any(Object[].class));
+    }
+}
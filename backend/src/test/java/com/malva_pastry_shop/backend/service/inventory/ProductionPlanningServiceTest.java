@@ -0,0 +1,179 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import com.malva_pastry_shop.backend.domain.inventory.Ingredient;
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+import com.malva_pastry_shop.backend.dto.request.ProductionPlanRequest;
+import com.malva_pastry_shop.backend.dto.response.admin.IngredientRequirementDTO;
+import com.malva_pastry_shop.backend.dto.response.admin.ProductionPlanDTO;
+import com.malva_pastry_shop.backend.repository.IngredientRepository;
+import com.malva_pastry_shop.backend.repository.ProductComponentRepository;
+import com.malva_pastry_shop.backend.repository.ProductIngredientRepository;
+import com.malva_pastry_shop.backend.repository.projection.RecipeComponentRow;
+import com.malva_pastry_shop.backend.repository.projection.RecipeLineRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductionPlanningService Tests")
+class ProductionPlanningServiceTest {
+
+    @Mock
+    private ProductIngredientRepository productIngredientRepository;
+
+    @Mock
+    private ProductComponentRepository productComponentRepository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    private RecipeMatrix recipeMatrix;
+    private ProductionPlanningService planningService;
+
+    private static final BigDecimal FLOUR_COST = new BigDecimal("2.00");
+    private static final BigDecimal EGG_COST = new BigDecimal("0.50");
+
+    @BeforeEach
+    void setUp() {
+        // Producto 1: 0.5 kg harina + 3 huevos
+        // Producto 2: 0.25 kg harina
+        // Producto 3 (torta): 2 huevos + 0.5 x producto 1 (masa)
+        when(productIngredientRepository.findActiveRecipeLines()).thenReturn(List.of(
+                new RecipeLineRow(1L, 10L, "Harina", UnitOfMeasure.KILOGRAMO, FLOUR_COST, new BigDecimal("0.5000")),
+                new RecipeLineRow(1L, 11L, "Huevo", UnitOfMeasure.UNIDAD, EGG_COST, new BigDecimal("3.0000")),
+                new RecipeLineRow(2L, 10L, "Harina", UnitOfMeasure.KILOGRAMO, FLOUR_COST, new BigDecimal("0.2500")),
+                new RecipeLineRow(3L, 11L, "Huevo", UnitOfMeasure.UNIDAD, EGG_COST, new BigDecimal("2.0000"))));
+        when(productComponentRepository.findActiveComponentRows()).thenReturn(List.of(
+                new RecipeComponentRow(3L, 1L, new BigDecimal("0.5000"))));
+
+        recipeMatrix = new RecipeMatrix(productIngredientRepository, productComponentRepository, ingredientRepository);
+        recipeMatrix.reload();
+        planningService = new ProductionPlanningService(recipeMatrix);
+    }
+
+    private static ProductionPlanRequest.Item item(long productId, int quantity) {
+        return new ProductionPlanRequest.Item(productId, quantity);
+    }
+
+    @Nested
+    @DisplayName("plan Tests")
+    class PlanTests {
+
+        @Test
+        @DisplayName("Debe sumar los ingredientes compartidos entre productos")
+        void shouldAggregateIngredients() {
+            ProductionPlanDTO plan = planningService.plan(List.of(item(1L, 2), item(2L, 4)));
+
+            assertThat(plan.requirements())
+                    .extracting(IngredientRequirementDTO::ingredientName)
+                    .containsExactly("Harina", "Huevo");
+            assertThat(plan.requirements().get(0).quantity()).isEqualByComparingTo("2.0");
+            assertThat(plan.requirements().get(0).unitOfMeasure()).isEqualTo(UnitOfMeasure.KILOGRAMO);
+            assertThat(plan.requirements().get(1).quantity()).isEqualByComparingTo("6");
+            assertThat(plan.productsWithoutRecipe()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Debe expandir las sub-recetas")
+        void shouldExpandSubRecipes() {
+            ProductionPlanDTO plan = planningService.plan(List.of(item(3L, 2)));
+
+            // 2 tortas = 4 huevos + 1 masa (0.5 kg harina + 3 huevos)
+            assertThat(plan.requirements().get(0).quantity()).isEqualByComparingTo("0.5");
+            assertThat(plan.requirements().get(1).quantity()).isEqualByComparingTo("7");
+        }
+
+        @Test
+        @DisplayName("Debe informar los productos sin receta")
+        void shouldReportProductsWithoutRecipe() {
+            ProductionPlanDTO plan = planningService.plan(List.of(item(99L, 1)));
+
+            assertThat(plan.requirements()).isEmpty();
+            assertThat(plan.productsWithoutRecipe()).containsExactly(99L);
+        }
+
+        @Test
+        @DisplayName("Debe rechazar cantidades no positivas")
+        void shouldRejectInvalidQuantity() {
+            assertThatThrownBy(() -> planningService.plan(List.of(item(1L, 0))))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("cost Tests")
+    class CostTests {
+
+        @Test
+        @DisplayName("Debe costear recetas anidadas")
+        void shouldCostNestedRecipes() {
+            // masa = 0.5*2 + 3*0.5 = 2.5 ; torta = 2*0.5 + 0.5*2.5 = 2.25
+            assertThat(recipeMatrix.snapshot().cost(1L)).isEqualByComparingTo("2.5");
+            assertThat(recipeMatrix.snapshot().cost(3L)).isEqualByComparingTo("2.25");
+        }
+
+        @Test
+        @DisplayName("Debe invalidar solo los productos afectados cuando cambia el costo de un ingrediente")
+        void shouldInvalidateAncestorsOnIngredientChange() {
+            Ingredient egg = new Ingredient("Huevo", new BigDecimal("1.00"), UnitOfMeasure.UNIDAD);
+            egg.setId(11L);
+            when(ingredientRepository.findById(11L)).thenReturn(Optional.of(egg));
+            recipeMatrix.snapshot().cost(3L);
+            BigDecimal unrelated = recipeMatrix.snapshot().cost(2L);
+
+            recipeMatrix.refreshIngredient(11L);
+
+            // masa = 0.5*2 + 3*1 = 4 ; torta = 2*1 + 0.5*4 = 4
+            assertThat(recipeMatrix.snapshot().cost(1L)).isEqualByComparingTo("4");
+            assertThat(recipeMatrix.snapshot().cost(3L)).isEqualByComparingTo("4");
+            // El producto 2 no usa huevo: su costo memorizado sigue siendo el mismo objeto
+            assertThat(recipeMatrix.snapshot().cost(2L)).isSameAs(unrelated);
+        }
+    }
+
+    @Nested
+    @DisplayName("refreshProduct Tests")
+    class RefreshProductTests {
+
+        @Test
+        @DisplayName("Debe reemplazar una receta y sus ancestros sin recargar todo")
+        void shouldRefreshSingleProduct() {
+            when(productIngredientRepository.findActiveRecipeLinesByProductId(1L)).thenReturn(List.of(
+                    new RecipeLineRow(1L, 12L, "Azucar", UnitOfMeasure.GRAMO, new BigDecimal("0.01"), new BigDecimal("100"))));
+            when(productComponentRepository.findActiveComponentRowsByParentId(1L)).thenReturn(List.of());
+            recipeMatrix.snapshot().flatten(3L);
+
+            recipeMatrix.refreshProduct(1L);
+            ProductionPlanDTO plan = planningService.plan(List.of(item(3L, 2)));
+
+            assertThat(plan.requirements())
+                    .extracting(IngredientRequirementDTO::ingredientName)
+                    .containsExactly("Azucar", "Huevo");
+            assertThat(plan.requirements().get(0).quantity()).isEqualByComparingTo("100");
+            verify(productIngredientRepository, times(1)).findActiveRecipeLines();
+        }
+
+        @Test
+        @DisplayName("Debe quitar el producto cuando su receta queda vacia")
+        void shouldDropEmptyRecipe() {
+            when(productIngredientRepository.findActiveRecipeLinesByProductId(2L)).thenReturn(List.of());
+            when(productComponentRepository.findActiveComponentRowsByParentId(2L)).thenReturn(List.of());
+
+            recipeMatrix.refreshProduct(2L);
+
+            assertThat(recipeMatrix.snapshot().hasRecipe(2L)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.malva_pastry_shop.backend.service.inventory;
+
+import com.malva_pastry_shop.backend.repository.IngredientPriceHistoryRepository;
+import com.malva_pastry_shop.backend.repository.ProductIngredientRepository;
+import com.malva_pastry_shop.backend.repository.projection.FlattenedRecipeLine;
+import com.malva_pastry_shop.backend.support.QueryBudgetTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Costo de receta a una fecha contra la base: una receta con un ingrediente
+ * activo y uno en la papelera. Las filas se llaman "Costo QB ..." y se
+ * borran al terminar.
+ */
+@DisplayName("Costo de receta a una fecha")
+class RecipeCostAsOfTest extends QueryBudgetTestSupport {
+
+    private static final String NAMES = "name LIKE 'Costo QB%'";
+
+    @Autowired
+    private IngredientPriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private ProductIngredientRepository productIngredientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = jdbcTemplate.queryForObject("INSERT INTO products (name, inserted_at)"
+                + " VALUES ('Costo QB torta', NOW()) RETURNING id", Long.class);
+        recipeLine(ingredient("Costo QB harina", "2.00", false), "1.5");
+        recipeLine(ingredient("Costo QB manteca", "10.00", true), "1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM product_ingredients WHERE product_id IN"
+                + " (SELECT id FROM products WHERE " + NAMES + ")");
+        jdbcTemplate.update("DELETE FROM products WHERE " + NAMES);
+        jdbcTemplate.update("DELETE FROM ingredients WHERE " + NAMES);
+    }
+
+    private long ingredient(String name, String unitCost, boolean trashed) {
+        return jdbcTemplate.queryForObject("INSERT INTO ingredients (name, unit_cost, unit_of_measure, deleted_at,"
+                + " inserted_at) VALUES (?, ?, 'KILOGRAMO', " + (trashed ? "NOW()" : "NULL") + ", NOW())"
+                + " RETURNING id", Long.class, name, new BigDecimal(unitCost));
+    }
+
+    private void recipeLine(long ingredientId, String quantity) {
+        jdbcTemplate.update("INSERT INTO product_ingredients (product_id, ingredient_id, quantity, inserted_at)"
+                + " VALUES (?, ?, ?, NOW())", productId, ingredientId, new BigDecimal(quantity));
+    }
+
+    @Test
+    @DisplayName("Debe costear a hoy igual que la receta actual, sin los ingredientes en la papelera")
+    void shouldMatchTheCurrentCost() {
+        LocalDate today = LocalDate.now();
+        BigDecimal current = productIngredientRepository.findFlattenedRecipe(productId).stream()
+                .map(line -> line.getUnitCost().multiply(line.getQuantity()))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal asOf = priceHistoryRepository.calculateRecipeCostAsOf(productId, today);
+        List<Object[]> trend = priceHistoryRepository.calculateRecipeCostTrend(List.of(productId), today, today);
+
+        assertThat(productIngredientRepository.findFlattenedRecipe(productId))
+                .extracting(FlattenedRecipeLine::getIngredientName).containsExactly("Costo QB harina");
+        assertThat(asOf).isEqualByComparingTo("3.00").isEqualByComparingTo(current);
+        assertThat(trend).hasSize(1);
+        assertThat((BigDecimal) trend.get(0)[2]).isEqualByComparingTo("3.00");
+    }
+}
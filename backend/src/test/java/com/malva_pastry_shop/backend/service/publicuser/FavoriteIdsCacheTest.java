@@ -0,0 +1,77 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import com.malva_pastry_shop.backend.event.FavoritesChangedEvent;
+import com.malva_pastry_shop.backend.repository.FavoriteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavoriteIdsCache Tests")
+class FavoriteIdsCacheTest {
+
+    @Mock
+    private FavoriteRepository favoriteRepository;
+
+    @InjectMocks
+    private FavoriteIdsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "maxUsers", 2);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+    }
+
+    @Test
+    @DisplayName("Debe cargar los ids una vez y responder las consultas siguientes desde memoria")
+    void shouldCacheIds() {
+        when(favoriteRepository.findProductIdsByPublicUserId(1L)).thenReturn(List.of(3L, 8L, 21L));
+
+        long[] first = cache.productIds(1L);
+        long[] second = cache.productIds(1L);
+
+        assertThat(second).isSameAs(first).containsExactly(3L, 8L, 21L);
+        assertThat(FavoriteIdsCache.contains(first, 8L)).isTrue();
+        assertThat(FavoriteIdsCache.contains(first, 9L)).isFalse();
+        verify(favoriteRepository, times(1)).findProductIdsByPublicUserId(1L);
+    }
+
+    @Test
+    @DisplayName("Debe recargar los ids despues de que cambian los favoritos del usuario")
+    void shouldInvalidateOnChange() {
+        when(favoriteRepository.findProductIdsByPublicUserId(1L))
+                .thenReturn(List.of(3L))
+                .thenReturn(List.of(3L, 5L));
+
+        cache.productIds(1L);
+        cache.onFavoritesChanged(new FavoritesChangedEvent(1L));
+
+        assertThat(cache.productIds(1L)).containsExactly(3L, 5L);
+    }
+
+    @Test
+    @DisplayName("Debe desalojar al usuario usado hace mas tiempo cuando esta lleno")
+    void shouldEvictLeastRecentlyUsed() {
+        when(favoriteRepository.findProductIdsByPublicUserId(anyLong())).thenReturn(List.of());
+
+        cache.productIds(1L);
+        cache.productIds(2L);
+        cache.productIds(1L);
+        cache.productIds(3L);
+        cache.productIds(1L);
+        cache.productIds(2L);
+
+        verify(favoriteRepository, times(1)).findProductIdsByPublicUserId(1L);
+        verify(favoriteRepository, times(2)).findProductIdsByPublicUserId(2L);
+    }
+}
@@ -0,0 +1,98 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.event.FavoritesChangedEvent;
+import com.malva_pastry_shop.backend.event.PopularitySignalEvent;
+import com.malva_pastry_shop.backend.repository.FavoriteRepository;
+import com.malva_pastry_shop.backend.service.storefront.CatalogService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FavoriteService Tests")
+class FavoriteServiceTest {
+
+    @Mock
+    private FavoriteRepository favoriteRepository;
+
+    @Mock
+    private FavoriteIdsCache favoriteIdsCache;
+
+    @Mock
+    private CatalogService catalogService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private FavoriteService favoriteService;
+
+    @Nested
+    @DisplayName("findProductIds Tests")
+    class FindProductIdsTests {
+
+        @Test
+        @DisplayName("Debe responder una pagina entera de tarjetas con los ids en cache")
+        void shouldIntersectWithPage() {
+            when(favoriteIdsCache.productIds(1L)).thenReturn(new long[] { 3L, 8L, 21L });
+
+            long[] result = favoriteService.findProductIds(1L, List.of(21L, 4L, 3L, 3L));
+
+            assertThat(result).containsExactly(3L, 21L);
+            verifyNoInteractions(favoriteRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("add Tests")
+    class AddTests {
+
+        @Test
+        @DisplayName("Debe guardar el favorito y publicar los eventos de cache y popularidad")
+        void shouldAddFavorite() {
+            when(catalogService.findProduct(5L)).thenReturn(Optional.of(mock(ProductPublicDTO.class)));
+            when(favoriteRepository.insertIfAbsent(1L, 5L)).thenReturn(1);
+
+            assertThat(favoriteService.add(1L, 5L)).isTrue();
+
+            verify(eventPublisher).publishEvent(new FavoritesChangedEvent(1L));
+            verify(eventPublisher).publishEvent(isA(PopularitySignalEvent.class));
+        }
+
+        @Test
+        @DisplayName("No debe hacer nada cuando el producto ya es favorito")
+        void shouldIgnoreDuplicate() {
+            when(catalogService.findProduct(5L)).thenReturn(Optional.of(mock(ProductPublicDTO.class)));
+            // Tambien cubre el alta paralela: el indice unico descarta la segunda fila
+            when(favoriteRepository.insertIfAbsent(1L, 5L)).thenReturn(0);
+
+            assertThat(favoriteService.add(1L, 5L)).isFalse();
+
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("Debe lanzar excepcion cuando el producto no esta en el catalogo publico")
+        void shouldRejectHiddenProduct() {
+            when(catalogService.findProduct(5L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> favoriteService.add(1L, 5L))
+                    .isInstanceOf(EntityNotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.malva_pastry_shop.backend.service.publicuser;
+
+import com.malva_pastry_shop.backend.domain.auth.User;
+import com.malva_pastry_shop.backend.domain.publicuser.ProductReview;
+import com.malva_pastry_shop.backend.domain.publicuser.PublicUser;
+import com.malva_pastry_shop.backend.domain.publicuser.ReviewStatus;
+import com.malva_pastry_shop.backend.domain.storefront.Product;
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.repository.ProductRatingStatsRepository;
+import com.malva_pastry_shop.backend.repository.ProductReviewRepository;
+import com.malva_pastry_shop.backend.repository.projection.ReviewModerationRow;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductReviewService Tests")
+class ProductReviewServiceTest {
+
+    @Mock
+    private ProductReviewRepository reviewRepository;
+
+    @Mock
+    private ProductRatingStatsRepository ratingStatsRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ProductReviewService reviewService;
+
+    private User admin;
+    private ProductReview review;
+
+    @BeforeEach
+    void setUp() {
+        admin = new User();
+        Product product = new Product();
+        product.setId(7L);
+        review = new ProductReview(new PublicUser(), product, "Muy rica la torta", 4);
+        review.setId(1L);
+    }
+
+    @Nested
+    @DisplayName("approve Tests")
+    class ApproveTests {
+
+        @Test
+        @DisplayName("Debe sumar la calificacion a las estadisticas al aprobar una resena pendiente")
+        void shouldAddRating() {
+            when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
+
+            ProductReview result = reviewService.approve(1L, admin);
+
+            assertThat(result.getStatus()).isEqualTo(ReviewStatus.APPROVED);
+            assertThat(result.getModeratedBy()).isSameAs(admin);
+            verify(ratingStatsRepository).applyDelta(7L, 4, 1);
+            verify(eventPublisher).publishEvent(new CatalogChangedEvent(7L));
+        }
+
+        @Test
+        @DisplayName("No debe tocar las estadisticas cuando la resena ya estaba aprobada")
+        void shouldIgnoreRepeatedApproval() {
+            review.approve(admin);
+            when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
+
+            reviewService.approve(1L, admin);
+
+            verify(ratingStatsRepository, never()).applyDelta(anyLong(), anyInt(), anyInt());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Debe lanzar excepcion cuando la resena no existe")
+        void shouldThrowWhenMissing() {
+            when(reviewRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> reviewService.approve(99L, admin))
+                    .isInstanceOf(EntityNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("reject Tests")
+    class RejectTests {
+
+        @Test
+        @DisplayName("Debe restar la calificacion al rechazar una resena aprobada")
+        void shouldSubtractRating() {
+            review.approve(admin);
+            when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
+
+            reviewService.reject(1L, admin);
+
+            assertThat(review.getStatus()).isEqualTo(ReviewStatus.REJECTED);
+            verify(ratingStatsRepository).applyDelta(7L, 4, -1);
+        }
+
+        @Test
+        @DisplayName("No debe tocar las estadisticas al rechazar una resena pendiente")
+        void shouldIgnorePendingRejection() {
+            when(reviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(review));
+
+            reviewService.reject(1L, admin);
+
+            verifyNoInteractions(ratingStatsRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("moderateAll Tests")
+    class ModerateAllTests {
+
+        private ReviewModerationRow row(long id, long productId, int rating, ReviewStatus status) {
+            ReviewModerationRow row = mock(ReviewModerationRow.class);
+            lenient().when(row.getId()).thenReturn(id);
+            lenient().when(row.getProductId()).thenReturn(productId);
+            lenient().when(row.getRating()).thenReturn(rating);
+            lenient().when(row.getStatus()).thenReturn(status.name());
+            return row;
+        }
+
+        private List<Object[]> appliedDeltas() {
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate).batchUpdate(eq(ProductReviewService.APPLY_DELTAS_SQL), rows.capture());
+            return rows.getValue();
+        }
+
+        @Test
+        @DisplayName("Debe actualizar todas las resenas de una vez y aplicar una fila de deltas por producto")
+        void shouldApproveInBulk() {
+            List<ReviewModerationRow> rows = List.of(
+                    row(1L, 7L, 5, ReviewStatus.PENDING),
+                    row(2L, 7L, 5, ReviewStatus.REJECTED),
+                    row(3L, 8L, 3, ReviewStatus.PENDING),
+                    row(4L, 8L, 4, ReviewStatus.APPROVED),
+                    row(5L, 7L, 4, ReviewStatus.PENDING));
+            when(reviewRepository.findModerationRowsForUpdate(any())).thenReturn(rows);
+
+            int changed = reviewService.moderateAll(List.of(1L, 2L, 3L, 4L, 5L), ReviewStatus.APPROVED, admin);
+
+            assertThat(changed).isEqualTo(4);
+            verify(reviewRepository).updateStatus(eq(List.of(1L, 2L, 3L, 5L)), eq(ReviewStatus.APPROVED), eq(admin), any());
+            // producto, cantidad, suma, rating_1..rating_5
+            assertThat(appliedDeltas()).containsExactlyInAnyOrder(
+                    new Object[] { 7L, 3, 14, 0, 0, 0, 1, 2 },
+                    new Object[] { 8L, 1, 3, 0, 0, 1, 0, 0 });
+            verifyNoInteractions(ratingStatsRepository);
+            verify(eventPublisher).publishEvent(CatalogChangedEvent.all());
+        }
+
+        @Test
+        @DisplayName("Debe restar solo las resenas aprobadas al rechazar")
+        void shouldRejectInBulk() {
+            List<ReviewModerationRow> rows = List.of(
+                    row(1L, 7L, 5, ReviewStatus.APPROVED),
+                    row(2L, 7L, 2, ReviewStatus.PENDING));
+            when(reviewRepository.findModerationRowsForUpdate(any())).thenReturn(rows);
+
+            int changed = reviewService.moderateAll(List.of(1L, 2L), ReviewStatus.REJECTED, admin);
+
+            assertThat(changed).isEqualTo(2);
+            assertThat(appliedDeltas()).containsExactly(new Object[] { 7L, -1, -5, 0, 0, 0, 0, -1 });
+            verifyNoInteractions(ratingStatsRepository);
+            verify(eventPublisher).publishEvent(new CatalogChangedEvent(7L));
+        }
+
+        @Test
+        @DisplayName("Debe rechazar lotes sobre el limite sin consultar")
+        void shouldRejectOversizedBatch() {
+            List<Long> ids = LongStream.rangeClosed(1, ProductReviewService.MAX_BULK_SIZE + 1)
+                    .boxed().toList();
+
+            assertThatThrownBy(() -> reviewService.moderateAll(ids, ReviewStatus.APPROVED, admin))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(reviewRepository);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.dto.response.publicdto.CatalogPageDTO;
+import com.malva_pastry_shop.backend.dto.response.publicdto.CatalogPageDTO.FacetCount;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+import com.malva_pastry_shop.backend.repository.ProductTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static com.malva_pastry_shop.backend.support.CatalogRows.product;
+import static com.malva_pastry_shop.backend.support.CatalogRows.tag;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CatalogFacetIndex Tests")
+class CatalogFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTagRepository productTagRepository;
+
+    private CatalogFacetIndex index;
+
+    private static final long TORTAS = 1L;
+    private static final long GALLETAS = 2L;
+    private static final long SIN_GLUTEN = 10L;
+    private static final long VEGANO = 11L;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findCatalogRows()).thenReturn(List.of(
+                product(1L, "Torta de chocolate", "45.00", 2, TORTAS, "Tortas"),
+                product(2L, "Torta vegana", "60.00", 3, TORTAS, "Tortas"),
+                product(3L, "Galletas de avena", "8.50", 0, GALLETAS, "Galletas"),
+                product(4L, "Torta de boda", "350.00", 10, TORTAS, "Tortas")));
+        when(productTagRepository.findCatalogRows()).thenReturn(List.of(
+                tag(1L, SIN_GLUTEN, "Sin gluten"),
+                tag(2L, SIN_GLUTEN, "Sin gluten"),
+                tag(2L, VEGANO, "Vegano"),
+                tag(3L, VEGANO, "Vegano")));
+
+        index = new CatalogFacetIndex(productRepository, productTagRepository);
+        index.reload();
+    }
+
+    private CatalogPageDTO search(CatalogFacetIndex.Query query) {
+        return index.snapshot().search(query, CatalogFacetIndex.Sort.NAME, 0, 24);
+    }
+
+    private static CatalogFacetIndex.Query query(Long categoryId, List<Long> tagIds, boolean allTags,
+            String minPrice, String maxPrice, Integer maxPrepDays) {
+        return new CatalogFacetIndex.Query(categoryId, tagIds,
+                allTags,
+                minPrice != null ? new BigDecimal(minPrice) : null,
+                maxPrice != null ? new BigDecimal(maxPrice) : null,
+                maxPrepDays);
+    }
+
+    private static List<Long> ids(CatalogPageDTO page) {
+        return page.content().stream().map(ProductPublicDTO::id).toList();
+    }
+
+    private static int count(List<FacetCount> facets, String key) {
+        return facets.stream().filter(f -> f.key().equals(key)).mapToInt(FacetCount::count).findFirst().orElse(0);
+    }
+
+    @Nested
+    @DisplayName("search Tests")
+    class SearchTests {
+
+        @Test
+        @DisplayName("Debe devolver todos los productos ordenados por nombre sin filtros")
+        void shouldReturnAllWithoutFilters() {
+            CatalogPageDTO page = search(query(null, null, false, null, null, null));
+
+            assertThat(page.totalElements()).isEqualTo(4);
+            assertThat(ids(page)).containsExactly(3L, 4L, 1L, 2L);
+        }
+
+        @Test
+        @DisplayName("Debe combinar filtros de categoria, tag y precio")
+        void shouldCombineFilters() {
+            CatalogPageDTO page = search(query(TORTAS, List.of(SIN_GLUTEN), false, "40", "50", null));
+
+            assertThat(ids(page)).containsExactly(1L);
+        }
+
+        @Test
+        @DisplayName("Debe distinguir entre cualquier tag y todos los tags")
+        void shouldMatchAnyOrAllTags() {
+            List<Long> tags = List.of(SIN_GLUTEN, VEGANO);
+
+            assertThat(ids(search(query(null, tags, false, null, null, null)))).containsExactlyInAnyOrder(1L, 2L, 3L);
+            assertThat(ids(search(query(null, tags, true, null, null, null)))).containsExactly(2L);
+        }
+
+        @Test
+        @DisplayName("Debe revisar los valores exactos en rangos de precio y preparacion cubiertos en parte")
+        void shouldRefineEdgeBuckets() {
+            // 45 y 60 caen en [20,50) y [50,100); el limite 55 corta el segundo rango
+            assertThat(ids(search(query(null, null, false, "45", "55", null)))).containsExactly(1L);
+            // 10 dias cae en el rango abierto "7 o mas"
+            assertThat(ids(search(query(null, null, false, null, null, 9)))).doesNotContain(4L);
+            assertThat(ids(search(query(null, null, false, null, null, 10)))).contains(4L);
+        }
+
+        @Test
+        @DisplayName("Debe paginar y ordenar por precio")
+        void shouldPageAndSortByPrice() {
+            CatalogPageDTO page = index.snapshot().search(query(null, null, false, null, null, null),
+                    CatalogFacetIndex.Sort.PRICE_DESC, 1, 2);
+
+            assertThat(ids(page)).containsExactly(1L, 3L);
+            assertThat(page.totalPages()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Debe contar cada faceta con los filtros de las otras dimensiones")
+        void shouldCountFacets() {
+            CatalogPageDTO page = search(query(GALLETAS, null, false, null, null, null));
+
+            // La categoria seleccionada no reduce sus propios conteos
+            assertThat(count(page.facets().categories(), "1")).isEqualTo(3);
+            assertThat(count(page.facets().categories(), "2")).isEqualTo(1);
+            // Los tags se cuentan dentro de la categoria
+            assertThat(count(page.facets().tags(), String.valueOf(VEGANO))).isEqualTo(1);
+            assertThat(count(page.facets().tags(), String.valueOf(SIN_GLUTEN))).isZero();
+            assertThat(count(page.facets().priceRanges(), "0-10")).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("rankOrder Tests")
+    class RankOrderTests {
+
+        @Test
+        @DisplayName("Debe poner primero los productos activos rankeados y el resto por nombre")
+        void shouldPlaceRankedFirst() {
+            CatalogFacetIndex.Snapshot snapshot = index.snapshot();
+            // 99 no esta en el catalogo
+            int[] order = snapshot.rankOrder(new long[] { 2L, 99L, 4L });
+
+            CatalogPageDTO page = snapshot.search(query(null, null, false, null, null, null), order, 0, 24);
+
+            assertThat(ids(page)).containsExactly(2L, 4L, 3L, 1L);
+        }
+    }
+
+    @Nested
+    @DisplayName("refreshProduct Tests")
+    class RefreshTests {
+
+        @Test
+        @DisplayName("Debe reemplazar un producto sin recargar todo el indice")
+        void shouldUpdateSingleProduct() {
+            when(productRepository.findCatalogRowById(3L))
+                    .thenReturn(Optional.of(product(3L, "Galletas de avena", "12.00", 0, TORTAS, "Tortas")));
+            when(productTagRepository.findCatalogRowsByProductId(3L)).thenReturn(List.of());
+
+            index.refreshProduct(3L);
+
+            assertThat(ids(search(query(GALLETAS, null, false, null, null, null)))).isEmpty();
+            assertThat(ids(search(query(TORTAS, null, false, null, null, null)))).contains(3L);
+            assertThat(ids(search(query(null, List.of(VEGANO), false, null, null, null)))).containsExactly(2L);
+            verify(productRepository, times(1)).findCatalogRows();
+        }
+
+        @Test
+        @DisplayName("Debe quitar un producto que ya no esta activo")
+        void shouldRemoveInactiveProduct() {
+            when(productRepository.findCatalogRowById(1L)).thenReturn(Optional.empty());
+
+            index.refreshProduct(1L);
+
+            assertThat(index.snapshot().productCount()).isEqualTo(3);
+            assertThat(index.snapshot().product(1L)).isEmpty();
+            verify(productTagRepository, never()).findCatalogRowsByProductId(1L);
+        }
+    }
+}
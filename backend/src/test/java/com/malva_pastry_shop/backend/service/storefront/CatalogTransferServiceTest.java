@@ -0,0 +1,157 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.CategoryEntry;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.ComponentLine;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.IngredientEntry;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.ProductEntry;
+import com.malva_pastry_shop.backend.dto.transfer.CatalogTransferDTO.RecipeLine;
+import com.malva_pastry_shop.backend.service.inventory.RecipeMatrix;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CatalogTransferService Tests")
+class CatalogTransferServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CatalogTransferService transferService;
+
+    @BeforeEach
+    void setUp() {
+        // Base vacia: los indices precargados no devuelven filas
+        lenient().when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyLong())).thenReturn(true);
+    }
+
+    private static ProductEntry product(String name, String category, List<RecipeLine> ingredients,
+            List<ComponentLine> components) {
+        return new ProductEntry(name, null, null, 1, new BigDecimal("10.00"), null, category, null,
+                ingredients, components);
+    }
+
+    private static CatalogTransferDTO catalog(List<IngredientEntry> ingredients, List<ProductEntry> products) {
+        return new CatalogTransferDTO(CatalogTransferDTO.FORMAT_VERSION,
+                List.of(new CategoryEntry("Tortas", null, null)), null, ingredients, products);
+    }
+
+    @Nested
+    @DisplayName("importCatalog validation Tests")
+    class ValidationTests {
+
+        @Test
+        @DisplayName("Debe informar cada referencia invalida y no escribir nada")
+        void shouldRejectUnknownReferences() {
+            CatalogTransferDTO catalog = catalog(List.of(), List.of(
+                    product("Torta de chocolate", "galletas",
+                            List.of(new RecipeLine("Harina", BigDecimal.ONE)), null),
+                    product("Torta de chocolate", "tortas", null, null)));
+
+            assertThatThrownBy(() -> transferService.importCatalog(catalog, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("3 error(es)")
+                    .hasMessageContaining("categoria inexistente 'galletas'")
+                    .hasMessageContaining("ingrediente inexistente 'Harina'")
+                    .hasMessageContaining("clave repetida en el archivo 'torta-de-chocolate'");
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("Debe rechazar nombres que solo difieren en mayusculas")
+        void shouldRejectCaseInsensitiveDuplicateNames() {
+            CatalogTransferDTO catalog = catalog(List.of(), List.of(
+                    new ProductEntry("Torta Marmolada", "torta-marmolada", null, 1, BigDecimal.TEN, null,
+                            "tortas", null, null, null),
+                    new ProductEntry("torta marmolada", "torta-marmolada-2", null, 1, BigDecimal.TEN, null,
+                            "tortas", null, null, null)));
+
+            assertThatThrownBy(() -> transferService.importCatalog(catalog, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("nombre repetido en el archivo 'torta marmolada'");
+        }
+
+        @Test
+        @DisplayName("Debe rechazar slugs con caracteres fuera de [a-z0-9-]")
+        void shouldRejectInvalidSlugs() {
+            CatalogTransferDTO catalog = new CatalogTransferDTO(CatalogTransferDTO.FORMAT_VERSION,
+                    List.of(new CategoryEntry("Tortas", "../../tortas", null)), null, List.of(), List.of(
+                            new ProductEntry("Torta Marmolada", "Torta Marmolada", null, 1, BigDecimal.TEN,
+                                    null, null, null, null, null)));
+
+            assertThatThrownBy(() -> transferService.importCatalog(catalog, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Categoria #1 (../../tortas): el slug solo puede tener")
+                    .hasMessageContaining("Producto #1 (Torta Marmolada): el slug solo puede tener");
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+        }
+
+        @Test
+        @DisplayName("Debe detectar un ciclo entre sub-recetas del archivo")
+        void shouldRejectCycles() {
+            CatalogTransferDTO catalog = catalog(
+                    List.of(new IngredientEntry("Harina", null, new BigDecimal("1.50"), UnitOfMeasure.KILOGRAMO)),
+                    List.of(
+                            product("Bizcocho", "tortas", null,
+                                    List.of(new ComponentLine("relleno", BigDecimal.ONE))),
+                            product("Relleno", "tortas", null,
+                                    List.of(new ComponentLine("bizcocho", new BigDecimal("0.5"))))));
+
+            assertThatThrownBy(() -> transferService.importCatalog(catalog, null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("ciclo");
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+        }
+
+        @Test
+        @DisplayName("Debe rechazar una cadena de sub-recetas de mas niveles que el maximo")
+        void shouldRejectTooManyLevels() {
+            List<ProductEntry> products = new ArrayList<>();
+            for (int i = 0; i <= RecipeMatrix.MAX_DEPTH + 1; i++) {
+                List<ComponentLine> components = i <= RecipeMatrix.MAX_DEPTH
+                        ? List.of(new ComponentLine("nivel-" + (i + 1), BigDecimal.ONE))
+                        : null;
+                products.add(product("Nivel " + i, "tortas", null, components));
+            }
+
+            assertThatThrownBy(() -> transferService.importCatalog(catalog(List.of(), products), null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("cadena de " + (RecipeMatrix.MAX_DEPTH + 1) + " niveles");
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), any(int[].class));
+        }
+
+        @Test
+        @DisplayName("Debe negarse a correr mientras otra importacion tiene el lock")
+        void shouldRejectConcurrentImport() {
+            when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyLong())).thenReturn(false);
+
+            assertThatThrownBy(() -> transferService.importCatalog(catalog(List.of(), List.of()), null))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
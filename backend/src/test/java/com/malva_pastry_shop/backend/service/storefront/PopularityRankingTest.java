@@ -0,0 +1,109 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.event.PopularitySignalEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PopularityRanking Tests")
+class PopularityRankingTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PopularityRanking ranking;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ranking, "halfLifeDays", 14.0);
+        ReflectionTestUtils.setField(ranking, "saleWeight", 1.0);
+        ReflectionTestUtils.setField(ranking, "favoriteWeight", 3.0);
+    }
+
+    @Nested
+    @DisplayName("record Tests")
+    class RecordTests {
+
+        @Test
+        @DisplayName("Debe dejar que una senal reciente le gane a una mayor dos vidas medias mas vieja")
+        void shouldDecayOlderSignals() {
+            // 3 unidades hace 28 dias valen 0.75 hoy; 1 unidad de hoy vale 1
+            ranking.onPopularitySignal(PopularitySignalEvent.sale(1L, 3, NOW.minusDays(28)));
+            ranking.onPopularitySignal(PopularitySignalEvent.sale(2L, 1, NOW));
+
+            assertThat(ranking.rankedProductIds()).containsExactly(2L, 1L);
+        }
+
+        @Test
+        @DisplayName("Debe sumar las senales del mismo producto")
+        void shouldAccumulateSignals() {
+            ranking.onPopularitySignal(PopularitySignalEvent.sale(1L, 2, NOW));
+            ranking.onPopularitySignal(PopularitySignalEvent.sale(2L, 1, NOW));
+            ranking.onPopularitySignal(PopularitySignalEvent.favorite(2L, NOW));
+
+            assertThat(ranking.rankedProductIds()).containsExactly(2L, 1L);
+        }
+
+        @Test
+        @DisplayName("Debe reusar los ids ordenados mientras nada cambie")
+        void shouldReuseRanking() {
+            ranking.onPopularitySignal(PopularitySignalEvent.sale(1L, 1, NOW));
+
+            long[] first = ranking.rankedProductIds();
+
+            assertThat(ranking.rankedProductIds()).isSameAs(first);
+        }
+    }
+
+    @Nested
+    @DisplayName("flush Tests")
+    class FlushTests {
+
+        @Test
+        @DisplayName("Debe combinar las senales pendientes en un lote y conservarlas si falla")
+        void shouldRetryFailedBatch() {
+            ranking.onPopularitySignal(PopularitySignalEvent.sale(1L, 1, NOW));
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("db"));
+
+            ranking.flush();
+
+            assertThat(ranking.rankedProductIds()).containsExactly(1L);
+            verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        }
+
+        @Test
+        @DisplayName("Debe saltear la escritura cuando no hay senales pendientes")
+        void shouldOnlyReloadWhenIdle() {
+            ranking.flush();
+
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        }
+    }
+
+    @Test
+    @DisplayName("logAdd debe coincidir con log(e^a + e^b) sin desbordar")
+    void shouldAddInLogSpace() {
+        assertThat(PopularityRanking.logAdd(Math.log(2), Math.log(3))).isCloseTo(Math.log(5), within(1e-12));
+        assertThat(PopularityRanking.logAdd(1000, 1000)).isCloseTo(1000 + Math.log(2), within(1e-9));
+        assertThat(PopularityRanking.logAdd(-1e9, 5)).isEqualTo(5.0);
+    }
+}
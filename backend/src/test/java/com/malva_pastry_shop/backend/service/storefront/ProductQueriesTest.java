@@ -0,0 +1,169 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.domain.storefront.Product;
+import com.malva_pastry_shop.backend.service.inventory.IngredientService;
+import com.malva_pastry_shop.backend.support.QueryBudgetFixture;
+import com.malva_pastry_shop.backend.support.QueryBudgetTestSupport;
+import com.malva_pastry_shop.backend.support.QueryCountingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Consultas de productos contra la base, con los datos de
+ * {@link QueryBudgetFixture}: cada producto QB tiene los tres tags y los
+ * tres ingredientes QB.
+ */
+@DisplayName("Consultas de productos")
+class ProductQueriesTest extends QueryBudgetTestSupport {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    private QueryBudgetFixture.Data data;
+
+    @BeforeEach
+    void setUp() {
+        data = fixture.data();
+    }
+
+    private static Pageable byName(int page, int size) {
+        return PageRequest.of(page, size, Sort.by("name").ascending());
+    }
+
+    /** Ejecuta la llamada y verifica que use exactamente {@code expected} sentencias */
+    private static <T> T withQueries(int expected, Supplier<T> call) {
+        List<String> queries;
+        T result;
+        QueryCountingConfig.startRecording();
+        try {
+            result = call.get();
+        } finally {
+            queries = QueryCountingConfig.stopRecording();
+        }
+        assertThat(queries).as("sentencias ejecutadas: %s", queries).hasSize(expected);
+        return result;
+    }
+
+    @Nested
+    @DisplayName("Consultas por Tag")
+    class ByTag {
+
+        @Test
+        @DisplayName("Debe paginar los productos de un tag filtrando por nombre")
+        void shouldPageProductsOfTag() {
+            Page<Product> first = productService.getProductsByTag(data.tagIds().get(0), " qb ", byName(0, 2));
+            Page<Product> second = productService.getProductsByTag(data.tagIds().get(0), "QB", byName(1, 2));
+
+            assertThat(first.getTotalElements()).isEqualTo(QueryBudgetFixture.SIZE);
+            assertThat(first.getContent()).extracting(Product::getName)
+                    .containsExactly("Producto QB 1", "Producto QB 2");
+            assertThat(second.getContent()).extracting(Product::getName)
+                    .containsExactly("Producto QB 3");
+        }
+
+        @Test
+        @DisplayName("Debe listar como disponibles solo los productos activos sin el tag")
+        void shouldListProductsWithoutTag() {
+            Long tagId = data.tagIds().get(0);
+            long active = productService.findAllActive(Pageable.unpaged()).getTotalElements();
+
+            Page<Product> available = productService.getAvailableProductsForTag(tagId, null, byName(0, 500));
+
+            assertThat(productService.getAvailableProductsForTag(tagId, "QB", byName(0, 10))).isEmpty();
+            assertThat(available.getTotalElements()).isEqualTo(active - QueryBudgetFixture.SIZE);
+            assertThat(available.getContent()).extracting(Product::getName)
+                    .noneMatch(name -> name.startsWith("Producto QB"));
+        }
+
+        @Test
+        @DisplayName("Debe buscar % y _ como texto y no como comodines")
+        void shouldSearchWildcardsLiterally() {
+            Long tagId = data.tagIds().get(0);
+
+            assertThat(productService.getProductsByTag(tagId, "QB_1", byName(0, 10))).isEmpty();
+            assertThat(productService.getProductsByTag(tagId, "Producto%1", byName(0, 10))).isEmpty();
+            assertThat(productService.getAvailableProductsForTag(tagId, "%", byName(0, 10))).isEmpty();
+            assertThat(productService.getProductsByTag(tagId, "QB 1", byName(0, 10)))
+                    .extracting(Product::getName).containsExactly("Producto QB 1");
+        }
+    }
+
+    @Nested
+    @DisplayName("Sub-recetas disponibles")
+    class AvailableComponents {
+
+        @Test
+        @DisplayName("Debe excluir el propio producto y sus sub-recetas con una pagina y su conteo")
+        void shouldPageComponentCandidates() {
+            Long parentId = data.productId();
+            Long componentId = data.productIds().get(1);
+
+            Page<Product> forParent = withQueries(2,
+                    () -> productService.getAvailableComponentsForProduct(parentId, "QB", byName(0, 10)));
+            Page<Product> forComponent = productService.getAvailableComponentsForProduct(componentId, "qb",
+                    byName(0, 1));
+
+            assertThat(forParent).isEmpty();
+            assertThat(forComponent.getTotalElements()).isEqualTo(QueryBudgetFixture.SIZE - 1);
+            assertThat(forComponent.getContent()).extracting(Product::getName).containsExactly("Producto QB 1");
+        }
+    }
+
+    @Nested
+    @DisplayName("Conteos de los listados")
+    class ListCounts {
+
+        @Test
+        @DisplayName("Debe contar los productos de todos los tags de la pagina con una sola consulta")
+        void shouldCountTagsInOneQuery() {
+            Map<Long, Long> counts = withQueries(1, () -> productService.countProductsByTags(data.tagIds()));
+
+            assertThat(counts).hasSize(QueryBudgetFixture.SIZE)
+                    .allSatisfy((tagId, count) -> assertThat(count).isEqualTo(QueryBudgetFixture.SIZE));
+        }
+
+        @Test
+        @DisplayName("Debe contar los productos de todas las categorias de la pagina con una sola consulta")
+        void shouldCountCategoriesInOneQuery() {
+            Map<Long, Long> counts = withQueries(1,
+                    () -> categoryService.countProducts(List.of(data.categoryId(), -1L)));
+
+            assertThat(counts).containsExactly(Map.entry(data.categoryId(), (long) QueryBudgetFixture.SIZE));
+        }
+
+        @Test
+        @DisplayName("Debe contar los productos que usan cada ingrediente con una sola consulta")
+        void shouldCountIngredientsInOneQuery() {
+            Map<Long, Long> counts = withQueries(1,
+                    () -> ingredientService.countProductsUsingIngredients(data.ingredientIds()));
+
+            assertThat(counts).hasSize(QueryBudgetFixture.SIZE)
+                    .allSatisfy((ingredientId, count) -> assertThat(count).isEqualTo(QueryBudgetFixture.SIZE));
+        }
+
+        @Test
+        @DisplayName("No debe consultar la base para una pagina vacia")
+        void shouldSkipEmptyPages() {
+            assertThat(withQueries(0, () -> productService.countProductsByTags(List.of()))).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.domain.storefront.ProductRecommendation;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.repository.ProductRecommendationRepository;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+import com.malva_pastry_shop.backend.repository.ProductTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.malva_pastry_shop.backend.support.CatalogRows.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RelatedProductsIndex Tests")
+class RelatedProductsIndexTest {
+
+    @Mock
+    private ProductRecommendationRepository recommendationRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTagRepository productTagRepository;
+
+    private RelatedProductsIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Catalogo activo: el producto 4 fue dado de baja despues del calculo
+        when(productRepository.findCatalogRows()).thenReturn(List.of(
+                product(1L, "Torta de chocolate", "10.00", 1, 1L, "Tortas"),
+                product(2L, "Torta vegana", "10.00", 1, 1L, "Tortas"),
+                product(3L, "Galletas de avena", "10.00", 1, 1L, "Tortas"),
+                product(5L, "Alfajores", "10.00", 1, 1L, "Tortas")));
+        when(productTagRepository.findCatalogRows()).thenReturn(List.of());
+        CatalogFacetIndex catalog = new CatalogFacetIndex(productRepository, productTagRepository);
+        catalog.reload();
+
+        when(recommendationRepository.findAll()).thenReturn(List.of(
+                recommendation(1L, 4L, 3L, 2L, 5L)));
+
+        index = new RelatedProductsIndex(recommendationRepository, catalog);
+        index.reload();
+    }
+
+    private static ProductRecommendation recommendation(Long productId, Long... related) {
+        ProductRecommendation recommendation = new ProductRecommendation();
+        recommendation.setProductId(productId);
+        recommendation.setRelatedProductIds(related);
+        recommendation.setComputedAt(LocalDateTime.now());
+        return recommendation;
+    }
+
+    @Test
+    @DisplayName("Debe mantener el orden calculado, saltear productos inactivos y aplicar el limite")
+    void shouldResolveInOrder() {
+        List<ProductPublicDTO> related = index.related(1L, 2);
+
+        assertThat(related).extracting(ProductPublicDTO::id).containsExactly(3L, 2L);
+    }
+
+    @Test
+    @DisplayName("Debe devolver una lista vacia para productos sin recomendaciones")
+    void shouldReturnEmptyWhenNotComputed() {
+        assertThat(index.related(2L, 8)).isEmpty();
+        verify(recommendationRepository, times(1)).findAll();
+    }
+}
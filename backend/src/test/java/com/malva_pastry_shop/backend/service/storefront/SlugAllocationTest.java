@@ -0,0 +1,106 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.dto.request.CategoryRequest;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+import com.malva_pastry_shop.backend.support.QueryBudgetFixture;
+import com.malva_pastry_shop.backend.support.QueryBudgetTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Slugs unicos contra la base. Los productos QB de
+ * {@link QueryBudgetFixture} tienen los slugs producto-qb-1, -2 y -3.
+ */
+@DisplayName("Asignacion de slugs")
+class SlugAllocationTest extends QueryBudgetTestSupport {
+
+    private static final String CATEGORY_NAMES = "name IN ('Slug QB', 'Slug QB!')";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private QueryBudgetFixture.Data data;
+
+    @BeforeEach
+    void setUp() {
+        data = fixture.data();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM categories WHERE " + CATEGORY_NAMES);
+    }
+
+    @Test
+    @DisplayName("Debe tomar el mayor sufijo numerico en uso e ignorar otros slugs con el mismo prefijo")
+    void shouldParseTheSuffixCounter() {
+        assertThat(productRepository.findMaxSlugCounter("producto-qb", -1L)).isEqualTo(3);
+        assertThat(productRepository.findMaxSlugCounter("producto-qb-1", -1L)).isEqualTo(1);
+        assertThat(productRepository.findMaxSlugCounter("producto-q", -1L)).isZero();
+        assertThat(productRepository.findMaxSlugCounter("producto-qb-1", data.productId())).isZero();
+    }
+
+    @Test
+    @DisplayName("Debe asignar el siguiente sufijo libre salvo que el slug sea del mismo producto")
+    void shouldAllocateTheNextFreeSuffix() {
+        assertThat(productService.allocateSlug("Producto QB 1", null)).isEqualTo("producto-qb-1-2");
+        assertThat(productService.allocateSlug("Producto QB 1", data.productId())).isEqualTo("producto-qb-1");
+        assertThat(productService.allocateSlug("Producto QB 4", null)).isEqualTo("producto-qb-4");
+    }
+
+    @Test
+    @DisplayName("Debe ordenar dos altas con el mismo slug en paralelo en lugar de fallar en el indice unico")
+    void shouldSerializeConcurrentCreates() throws Exception {
+        CountDownLatch firstCreated = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            String slug = categoryService.create(category("Slug QB")).getSlug();
+            firstCreated.countDown();
+            // El segundo alta espera el lock mientras esta transaccion sigue abierta
+            sleep(500);
+            return slug;
+        }));
+        assertThat(firstCreated.await(10, TimeUnit.SECONDS)).isTrue();
+
+        String second = categoryService.create(category("Slug QB!")).getSlug();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("slug-qb");
+        assertThat(second).isEqualTo("slug-qb-2");
+    }
+
+    private static CategoryRequest category(String name) {
+        CategoryRequest request = new CategoryRequest();
+        request.setName(name);
+        return request;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.repository.CategoryRepository;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SlugResolver Tests")
+class SlugResolverTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @InjectMocks
+    private SlugResolver slugResolver;
+
+    @Nested
+    @DisplayName("resolve Tests")
+    class ResolveTests {
+
+        @Test
+        @DisplayName("Debe consultar la base una sola vez por slug activo")
+        void shouldCacheActiveSlugs() {
+            when(productRepository.findActiveIdBySlug("torta-de-chocolate")).thenReturn(Optional.of(7L));
+
+            assertThat(slugResolver.resolveProduct("torta-de-chocolate")).contains(7L);
+            assertThat(slugResolver.resolveProduct("torta-de-chocolate")).contains(7L);
+
+            verify(productRepository, times(1)).findActiveIdBySlug("torta-de-chocolate");
+        }
+
+        @Test
+        @DisplayName("No debe guardar en cache los slugs que no existen")
+        void shouldNotCacheMisses() {
+            when(categoryRepository.findActiveIdBySlug("tortas")).thenReturn(Optional.empty(), Optional.of(3L));
+
+            assertThat(slugResolver.resolveCategory("tortas")).isEmpty();
+            assertThat(slugResolver.resolveCategory("tortas")).contains(3L);
+        }
+
+        @Test
+        @DisplayName("No debe consultar la base con un slug vacio")
+        void shouldIgnoreBlankSlugs() {
+            assertThat(slugResolver.resolveProduct(" ")).isEmpty();
+            assertThat(slugResolver.resolveCategory(null)).isEmpty();
+
+            verify(productRepository, never()).findActiveIdBySlug(anyString());
+            verifyNoInteractions(categoryRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("onCatalogChanged Tests")
+    class InvalidationTests {
+
+        @Test
+        @DisplayName("Debe descartar solo las entradas del producto que cambio")
+        void shouldEvictChangedProduct() {
+            when(productRepository.findActiveIdBySlug("alfajor")).thenReturn(Optional.of(1L));
+            when(productRepository.findActiveIdBySlug("budin")).thenReturn(Optional.of(2L));
+            slugResolver.resolveProduct("alfajor");
+            slugResolver.resolveProduct("budin");
+
+            slugResolver.onCatalogChanged(new CatalogChangedEvent(1L));
+            slugResolver.resolveProduct("alfajor");
+            slugResolver.resolveProduct("budin");
+
+            verify(productRepository, times(2)).findActiveIdBySlug("alfajor");
+            verify(productRepository, times(1)).findActiveIdBySlug("budin");
+        }
+
+        @Test
+        @DisplayName("Debe vaciar productos y categorias ante un cambio general")
+        void shouldClearOnGeneralChange() {
+            when(productRepository.findActiveIdBySlug("alfajor")).thenReturn(Optional.of(1L));
+            when(categoryRepository.findActiveIdBySlug("tortas")).thenReturn(Optional.of(3L));
+            slugResolver.resolveProduct("alfajor");
+            slugResolver.resolveCategory("tortas");
+
+            slugResolver.onCatalogChanged(CatalogChangedEvent.all());
+            slugResolver.resolveProduct("alfajor");
+            slugResolver.resolveCategory("tortas");
+
+            verify(productRepository, times(2)).findActiveIdBySlug("alfajor");
+            verify(categoryRepository, times(2)).findActiveIdBySlug("tortas");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.event.CatalogChangedEvent;
+import com.malva_pastry_shop.backend.repository.ProductRepository;
+import com.malva_pastry_shop.backend.repository.ProductTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.malva_pastry_shop.backend.support.CatalogRows.product;
+import static com.malva_pastry_shop.backend.support.CatalogRows.tag;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StaticCatalogPublisher Tests")
+class StaticCatalogPublisherTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductTagRepository productTagRepository;
+
+    @TempDir
+    private Path directory;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private CatalogFacetIndex index;
+    private StaticCatalogPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findCatalogRows()).thenReturn(List.of(
+                product(1L, "Torta de chocolate", "45.00", 1, 1L, "Tortas"),
+                product(2L, "Galletas de avena", "8.50", 1, 2L, "Galletas")));
+        when(productTagRepository.findCatalogRows()).thenReturn(List.of(
+                tag(1L, 10L, "Sin gluten")));
+
+        index = new CatalogFacetIndex(productRepository, productTagRepository);
+        index.reload();
+
+        publisher = new StaticCatalogPublisher(index, jsonMapper);
+        ReflectionTestUtils.setField(publisher, "enabled", true);
+        ReflectionTestUtils.setField(publisher, "directory", directory);
+        ReflectionTestUtils.setField(publisher, "debounceMillis", 60_000L);
+        ReflectionTestUtils.setField(publisher, "keepVersions", 2);
+    }
+
+    private JsonNode read(Path path) throws IOException {
+        return jsonMapper.readTree(Files.readAllBytes(path));
+    }
+
+    @Test
+    @DisplayName("Debe escribir los archivos versionados, sus copias gzip y el manifiesto")
+    void shouldPublishFiles() throws IOException {
+        String version = publisher.publish();
+
+        Path root = directory.resolve(version);
+        assertThat(read(directory.resolve("manifest.json")).get("version").asString()).isEqualTo(version);
+        assertThat(read(root.resolve("products.json")).get("totalElements").asInt()).isEqualTo(2);
+        assertThat(read(root.resolve("categories/tortas.json")).get("content")).hasSize(1);
+        assertThat(read(root.resolve("tags/sin-gluten.json")).get("content").get(0).get("id").asLong())
+                .isEqualTo(1L);
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(root.resolve("products.json.gz")))) {
+            assertThat(in.readAllBytes()).isEqualTo(Files.readAllBytes(root.resolve("products.json")));
+        }
+    }
+
+    @Test
+    @DisplayName("Debe mantener la misma version mientras el catalogo no cambie")
+    void shouldReuseVersionForSameContent() {
+        String first = publisher.publish();
+
+        assertThat(publisher.publish()).isEqualTo(first);
+        index.reload();
+        assertThat(publisher.publish()).isEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("Debe esperar el periodo de debounce antes de publicar un cambio")
+    void shouldDebounceChanges() {
+        publisher.onCatalogChanged(CatalogChangedEvent.all());
+        publisher.publishIfDue();
+        assertThat(publisher.currentVersion()).isNull();
+
+        ReflectionTestUtils.setField(publisher, "debounceMillis", 0L);
+        publisher.publishIfDue();
+        assertThat(publisher.currentVersion()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("No debe resolver rutas fuera del directorio de la version")
+    void shouldRefusePathsOutsideRoot() {
+        Path root = directory.resolve("v-test");
+
+        assertThat(StaticCatalogPublisher.resolveInside(root, "categories/tortas.json"))
+                .isEqualTo(root.toAbsolutePath().normalize().resolve("categories/tortas.json"));
+        assertThatThrownBy(() -> StaticCatalogPublisher.resolveInside(root, "categories/../../manifest.json"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> StaticCatalogPublisher.resolveInside(root, "/etc/passwd"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
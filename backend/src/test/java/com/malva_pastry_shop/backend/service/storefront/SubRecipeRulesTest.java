@@ -0,0 +1,142 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.service.inventory.RecipeMatrix;
+import com.malva_pastry_shop.backend.support.QueryBudgetTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reglas de las sub-recetas contra la base. Las filas del test se llaman
+ * "Receta QB ..." y se borran al terminar.
+ */
+@DisplayName("Reglas de sub-recetas")
+class SubRecipeRulesTest extends QueryBudgetTestSupport {
+
+    private static final String NAMES = "name LIKE 'Receta QB%'";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        String products = "SELECT id FROM products WHERE " + NAMES;
+        jdbcTemplate.update("DELETE FROM product_components WHERE parent_id IN (" + products + ")"
+                + " OR component_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM products WHERE " + NAMES);
+    }
+
+    // ========== Datos ==========
+
+    private long product(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO products (name, inserted_at) VALUES (?, NOW()) RETURNING id",
+                Long.class, name);
+    }
+
+    private long trashedProduct(String name) {
+        return jdbcTemplate.queryForObject("INSERT INTO products (name, deleted_at, inserted_at)"
+                + " VALUES (?, NOW(), NOW()) RETURNING id", Long.class, name);
+    }
+
+    private boolean exists(long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM products WHERE id = ?)", Boolean.class, id));
+    }
+
+    private void link(long parentId, long componentId) {
+        jdbcTemplate.update("INSERT INTO product_components (parent_id, component_id, quantity, inserted_at)"
+                + " VALUES (?, ?, 1, NOW())", parentId, componentId);
+    }
+
+    /** Cadena de {@code levels} niveles: levels + 1 productos, cada uno sub-receta del anterior */
+    private List<Long> chain(int levels) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i <= levels; i++) {
+            ids.add(product("Receta QB nivel " + i));
+            if (i > 0) {
+                link(ids.get(i - 1), ids.get(i));
+            }
+        }
+        return ids;
+    }
+
+    // ========== Tests ==========
+
+    @Nested
+    @DisplayName("Niveles de sub-recetas")
+    class DepthTests {
+
+        @Test
+        @DisplayName("Debe aceptar hasta el nivel maximo y rechazar el siguiente por abajo y por arriba")
+        void shouldRejectTheLevelPastTheMaximum() {
+            List<Long> ids = chain(RecipeMatrix.MAX_DEPTH - 1);
+            long last = product("Receta QB ultimo nivel");
+            long extra = product("Receta QB nivel de mas");
+            long top = product("Receta QB raiz de mas");
+
+            productService.addComponentToProduct(ids.getLast(), last, BigDecimal.ONE);
+
+            assertThatThrownBy(() -> productService.addComponentToProduct(last, extra, BigDecimal.ONE))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("mas de " + RecipeMatrix.MAX_DEPTH + " niveles");
+            assertThatThrownBy(() -> productService.addComponentToProduct(top, ids.getFirst(), BigDecimal.ONE))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("mas de " + RecipeMatrix.MAX_DEPTH + " niveles");
+            assertThat(productService.getProductComponents(last)).isEmpty();
+            assertThat(productService.getProductComponents(top)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Papelera")
+    class TrashTests {
+
+        @Test
+        @DisplayName("No debe eliminar permanentemente una sub-receta de un producto activo")
+        void shouldKeepComponentsOfActiveParents() {
+            long parent = product("Receta QB torta");
+            long component = trashedProduct("Receta QB relleno");
+            link(parent, component);
+
+            assertThatThrownBy(() -> productService.hardDelete(component))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("sub-receta de 1 producto(s) activo(s)");
+            assertThat(exists(component)).isTrue();
+
+            jdbcTemplate.update("UPDATE products SET deleted_at = NOW() WHERE id = ?", parent);
+            productService.hardDelete(component);
+
+            assertThat(exists(component)).isFalse();
+        }
+
+        @Test
+        @DisplayName("No debe restaurar un producto con sub-recetas en la papelera")
+        void shouldNotRestoreWithTrashedComponents() {
+            long parent = trashedProduct("Receta QB torta");
+            long component = trashedProduct("Receta QB relleno");
+            link(parent, component);
+
+            assertThatThrownBy(() -> productService.restore(parent))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Receta QB relleno");
+
+            productService.restore(component);
+            productService.restore(parent);
+
+            assertThat(productService.getProductComponents(parent)).hasSize(1);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.malva_pastry_shop.backend.service.storefront;
+
+import com.malva_pastry_shop.backend.support.QueryBudgetTestSupport;
+import com.malva_pastry_shop.backend.util.AdvisoryLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Purga de la papelera contra la base, con retencion de 30 dias. Las filas
+ * del test se llaman "Purga QB ..." y se borran al terminar; los datos de
+ * los demas tests estan activos o se eliminaron recien, asi que la purga no
+ * los toca.
+ */
+@DisplayName("TrashPurgeJob Tests")
+class TrashPurgeJobTest extends QueryBudgetTestSupport {
+
+    private static final String NAMES = "name LIKE 'Purga QB%'";
+
+    @Autowired
+    private TrashPurgeJob trashPurgeJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        configure(200, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        configure(200, 50);
+        String products = "SELECT id FROM products WHERE " + NAMES;
+        jdbcTemplate.update("DELETE FROM product_tags WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM product_ingredients WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM product_components WHERE parent_id IN (" + products + ")"
+                + " OR component_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM ingredient_price_history WHERE ingredient_id IN"
+                + " (SELECT id FROM ingredients WHERE " + NAMES + ")");
+        jdbcTemplate.update("DELETE FROM products WHERE " + NAMES);
+        jdbcTemplate.update("DELETE FROM categories WHERE " + NAMES);
+        jdbcTemplate.update("DELETE FROM tags WHERE " + NAMES);
+        jdbcTemplate.update("DELETE FROM ingredients WHERE " + NAMES);
+    }
+
+    private void configure(int batchSize, int maxBatches) {
+        ReflectionTestUtils.setField(trashPurgeJob, "retentionDays", 30);
+        ReflectionTestUtils.setField(trashPurgeJob, "batchSize", batchSize);
+        ReflectionTestUtils.setField(trashPurgeJob, "maxBatches", maxBatches);
+    }
+
+    // ========== Datos ==========
+
+    /** Fecha de eliminacion hace {@code days} dias; null = activo */
+    private static Timestamp deleted(Integer days) {
+        return days != null ? Timestamp.valueOf(LocalDateTime.now().minusDays(days)) : null;
+    }
+
+    private long product(String name, Integer deletedDaysAgo, Long categoryId) {
+        return jdbcTemplate.queryForObject("INSERT INTO products (name, category_id, deleted_at, inserted_at)"
+                + " VALUES (?, ?, ?, NOW()) RETURNING id", Long.class, name, categoryId, deleted(deletedDaysAgo));
+    }
+
+    private long category(String name, Integer deletedDaysAgo) {
+        return jdbcTemplate.queryForObject("INSERT INTO categories (name, deleted_at, inserted_at)"
+                + " VALUES (?, ?, NOW()) RETURNING id", Long.class, name, deleted(deletedDaysAgo));
+    }
+
+    private long tag(String name, Integer deletedDaysAgo) {
+        return jdbcTemplate.queryForObject("INSERT INTO tags (name, slug, deleted_at, inserted_at)"
+                + " VALUES (?, ?, ?, NOW()) RETURNING id", Long.class,
+                name, name.toLowerCase().replace(' ', '-'), deleted(deletedDaysAgo));
+    }
+
+    private long ingredient(String name, Integer deletedDaysAgo) {
+        return jdbcTemplate.queryForObject("INSERT INTO ingredients (name, unit_cost, unit_of_measure, deleted_at,"
+                + " inserted_at) VALUES (?, 1.00, 'KILOGRAMO', ?, NOW()) RETURNING id", Long.class,
+                name, deleted(deletedDaysAgo));
+    }
+
+    private boolean exists(String table, long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + table + " WHERE id = ?)", Boolean.class, id));
+    }
+
+    private int count(String sql, long id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+
+    // ========== Tests ==========
+
+    @Nested
+    @DisplayName("Seleccion de candidatos")
+    class CandidateTests {
+
+        @Test
+        @DisplayName("Debe purgar solo lo eliminado antes del corte junto con sus dependencias")
+        void shouldPurgeOnlyExpiredRows() {
+            long expired = product("Purga QB vencido", 40, null);
+            long recent = product("Purga QB reciente", 5, null);
+            long active = product("Purga QB activo", null, null);
+            long tagId = tag("Purga QB etiqueta", null);
+            jdbcTemplate.update("INSERT INTO product_tags (product_id, tag_id, inserted_at) VALUES (?, ?, NOW())",
+                    expired, tagId);
+
+            TrashPurgeJob.Result result = trashPurgeJob.purge();
+
+            assertThat(result.products()).isEqualTo(1);
+            assertThat(exists("products", expired)).isFalse();
+            assertThat(exists("products", recent)).isTrue();
+            assertThat(exists("products", active)).isTrue();
+            assertThat(exists("tags", tagId)).isTrue();
+            assertThat(count("SELECT COUNT(*) FROM product_tags WHERE product_id = ?", expired)).isZero();
+        }
+
+        @Test
+        @DisplayName("No debe purgar un producto que es sub-receta de un producto que se conserva")
+        void shouldKeepComponentsInUse() {
+            long component = product("Purga QB relleno", 40, null);
+            long parent = product("Purga QB torta", null, null);
+            long orphan = product("Purga QB bizcocho", 40, null);
+            long expiredParent = product("Purga QB torta vieja", 40, null);
+            jdbcTemplate.update("INSERT INTO product_components (parent_id, component_id, quantity, inserted_at)"
+                    + " VALUES (?, ?, 1, NOW()), (?, ?, 1, NOW())", parent, component, expiredParent, orphan);
+
+            trashPurgeJob.purge();
+
+            assertThat(exists("products", component)).isTrue();
+            assertThat(exists("products", orphan)).isFalse();
+            assertThat(exists("products", expiredParent)).isFalse();
+        }
+
+        @Test
+        @DisplayName("No debe purgar una categoria con productos, aunque esten en la papelera")
+        void shouldKeepCategoriesWithProducts() {
+            long used = category("Purga QB con productos", 40);
+            long empty = category("Purga QB vacia", 40);
+            product("Purga QB en categoria", 5, used);
+
+            TrashPurgeJob.Result result = trashPurgeJob.purge();
+
+            assertThat(result.categories()).isEqualTo(1);
+            assertThat(exists("categories", used)).isTrue();
+            assertThat(exists("categories", empty)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Debe purgar la categoria que queda vacia al purgar sus productos")
+        void shouldPurgeCategoriesEmptiedInTheSameRun() {
+            long categoryId = category("Purga QB vaciada", 40);
+            product("Purga QB ultimo producto", 40, categoryId);
+
+            TrashPurgeJob.Result result = trashPurgeJob.purge();
+
+            assertThat(result.products()).isEqualTo(1);
+            assertThat(result.categories()).isEqualTo(1);
+            assertThat(exists("categories", categoryId)).isFalse();
+        }
+
+        @Test
+        @DisplayName("No debe purgar un ingrediente usado en una receta")
+        void shouldKeepIngredientsInRecipes() {
+            long used = ingredient("Purga QB harina", 40);
+            long unused = ingredient("Purga QB azucar", 40);
+            long productId = product("Purga QB pan", null, null);
+            jdbcTemplate.update("INSERT INTO product_ingredients (product_id, ingredient_id, quantity, inserted_at)"
+                    + " VALUES (?, ?, 1, NOW())", productId, used);
+            jdbcTemplate.update("INSERT INTO ingredient_price_history (ingredient_id, unit_cost, valid_from,"
+                    + " inserted_at) VALUES (?, 1.00, NOW(), NOW())", unused);
+
+            TrashPurgeJob.Result result = trashPurgeJob.purge();
+
+            assertThat(result.ingredients()).isEqualTo(1);
+            assertThat(exists("ingredients", used)).isTrue();
+            assertThat(exists("ingredients", unused)).isFalse();
+            assertThat(count("SELECT COUNT(*) FROM ingredient_price_history WHERE ingredient_id = ?", unused))
+                    .isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Lotes y lock")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Debe purgar por lotes y dejar para la proxima ejecucion lo que supera maxBatches")
+        void shouldLoopBatchesUpToTheLimit() {
+            for (int i = 1; i <= 5; i++) {
+                tag("Purga QB tag " + i, 40);
+            }
+            configure(2, 2);
+
+            assertThat(trashPurgeJob.purge().tags()).isEqualTo(4);
+            assertThat(trashPurgeJob.purge().tags()).isEqualTo(1);
+            assertThat(trashPurgeJob.purge().tags()).isZero();
+        }
+
+        @Test
+        @DisplayName("Debe omitir la purga mientras otra instancia tiene el lock")
+        void shouldSkipWhileLocked() throws Exception {
+            long tagId = tag("Purga QB bloqueado", 40);
+            CountDownLatch locked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                    status -> {
+                        AdvisoryLock.transactionLock(jdbcTemplate, AdvisoryLock.TRASH_PURGE);
+                        locked.countDown();
+                        await(release);
+                    }));
+            try {
+                assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+                assertThat(trashPurgeJob.purge()).isEqualTo(new TrashPurgeJob.Result(0, 0, 0, 0));
+                assertThat(exists("tags", tagId)).isTrue();
+            } finally {
+                release.countDown();
+                holder.get(10, TimeUnit.SECONDS);
+            }
+
+            assertThat(trashPurgeJob.purge().tags()).isEqualTo(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.malva_pastry_shop.backend.support;
+
+import com.malva_pastry_shop.backend.repository.projection.CatalogProductRow;
+import com.malva_pastry_shop.backend.repository.projection.CatalogTagRow;
+import com.malva_pastry_shop.backend.util.SlugUtil;
+
+import java.math.BigDecimal;
+
+/**
+ * Filas del catalogo para los tests de los indices en memoria. Los slugs
+ * salen del nombre, como en la base; lo que el test no indica queda en null
+ * (sin descripcion, imagen ni resenas).
+ */
+public final class CatalogRows {
+
+    private CatalogRows() {
+    }
+
+    public static CatalogProductRow product(long id, String name, String price, Integer preparationDays,
+            Long categoryId, String categoryName) {
+        return new CatalogProductRow(id, name, null, null, new BigDecimal(price), preparationDays, null,
+                categoryId, categoryName, SlugUtil.generateSlug(categoryName), null, null, null);
+    }
+
+    public static CatalogTagRow tag(long productId, long tagId, String name) {
+        return new CatalogTagRow(productId, tagId, name, SlugUtil.generateSlug(name), null);
+    }
+}
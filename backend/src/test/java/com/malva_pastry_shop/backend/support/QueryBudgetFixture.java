@@ -0,0 +1,210 @@
+package com.malva_pastry_shop.backend.support;
+
+import com.malva_pastry_shop.backend.domain.auth.User;
+import com.malva_pastry_shop.backend.domain.inventory.UnitOfMeasure;
+import com.malva_pastry_shop.backend.domain.publicuser.PublicUser;
+import com.malva_pastry_shop.backend.domain.publicuser.ProductReview;
+import com.malva_pastry_shop.backend.domain.storefront.Product;
+import com.malva_pastry_shop.backend.dto.request.CategoryRequest;
+import com.malva_pastry_shop.backend.dto.request.IngredientRequest;
+import com.malva_pastry_shop.backend.dto.request.ProductRequest;
+import com.malva_pastry_shop.backend.dto.request.SaleRequest;
+import com.malva_pastry_shop.backend.dto.request.TagRequest;
+import com.malva_pastry_shop.backend.dto.response.publicdto.ProductPublicDTO;
+import com.malva_pastry_shop.backend.repository.ProductReviewRepository;
+import com.malva_pastry_shop.backend.repository.PublicUserRepository;
+import com.malva_pastry_shop.backend.repository.UserRepository;
+import com.malva_pastry_shop.backend.security.JwtTokenProvider;
+import com.malva_pastry_shop.backend.service.inventory.IngredientService;
+import com.malva_pastry_shop.backend.service.publicuser.FavoriteService;
+import com.malva_pastry_shop.backend.service.sales.SaleService;
+import com.malva_pastry_shop.backend.service.storefront.CatalogFacetIndex;
+import com.malva_pastry_shop.backend.service.storefront.CatalogService;
+import com.malva_pastry_shop.backend.service.storefront.CategoryService;
+import com.malva_pastry_shop.backend.service.storefront.ProductService;
+import com.malva_pastry_shop.backend.service.storefront.TagService;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos de los tests de presupuesto de consultas, creados con los mismos
+ * servicios que usa el panel. Cada relacion tiene {@link #SIZE} filas para
+ * que un N+1 se note en la cuenta: una categoria con SIZE productos, cada
+ * producto con SIZE tags y SIZE ingredientes, el primero con los demas como
+ * sub-recetas, una venta por producto y un usuario publico con una resena
+ * pendiente de cada uno y SIZE favoritos del catalogo sembrado.
+ *
+ * Los datos se confirman (los pedidos tienen que correr sin la transaccion
+ * del test, como en produccion) y se crean una vez por contexto. Todo lleva
+ * la marca QB en el nombre o el email: se borra por esa marca antes de crear,
+ * por si quedo algo de una corrida cortada, y al cerrar el contexto.
+ */
+public class QueryBudgetFixture implements DisposableBean {
+
+    public static final int SIZE = 3;
+
+    private static final String PUBLIC_USER_EMAIL = "qb@example.com";
+
+    /** Ids de lo creado; admin es el usuario sembrado por DataSeeder */
+    public record Data(User admin, Long categoryId, List<Long> productIds, List<Long> tagIds,
+            List<Long> ingredientIds, List<Long> saleIds, Long publicUserId, String publicUserToken) {
+
+        public Long productId() {
+            return productIds.get(0);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final PublicUserRepository publicUserRepository;
+    private final ProductReviewRepository productReviewRepository;
+    private final CategoryService categoryService;
+    private final TagService tagService;
+    private final IngredientService ingredientService;
+    private final ProductService productService;
+    private final SaleService saleService;
+    private final FavoriteService favoriteService;
+    private final CatalogService catalogService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Data data;
+
+    public QueryBudgetFixture(UserRepository userRepository, PublicUserRepository publicUserRepository,
+            ProductReviewRepository productReviewRepository, CategoryService categoryService,
+            TagService tagService, IngredientService ingredientService, ProductService productService,
+            SaleService saleService, FavoriteService favoriteService, CatalogService catalogService,
+            JwtTokenProvider jwtTokenProvider, JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.publicUserRepository = publicUserRepository;
+        this.productReviewRepository = productReviewRepository;
+        this.categoryService = categoryService;
+        this.tagService = tagService;
+        this.ingredientService = ingredientService;
+        this.productService = productService;
+        this.saleService = saleService;
+        this.favoriteService = favoriteService;
+        this.catalogService = catalogService;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Datos del contexto; se crean en la primera llamada */
+    public synchronized Data data() {
+        if (data == null) {
+            deleteAll();
+            data = create();
+        }
+        return data;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (data != null) {
+            deleteAll();
+            data = null;
+        }
+    }
+
+    private Data create() {
+        User admin = userRepository.findByEmail("admin@malva.com")
+                .orElseThrow(() -> new IllegalStateException("Falta el admin sembrado por DataSeeder"));
+
+        CategoryRequest categoryRequest = new CategoryRequest();
+        categoryRequest.setName("Presupuesto QB");
+        Long categoryId = categoryService.create(categoryRequest).getId();
+
+        List<Long> tagIds = new ArrayList<>();
+        List<Long> ingredientIds = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 1; i <= SIZE; i++) {
+            TagRequest tagRequest = new TagRequest();
+            tagRequest.setName("Tag QB " + i);
+            tagIds.add(tagService.create(tagRequest).getId());
+
+            IngredientRequest ingredientRequest = new IngredientRequest();
+            ingredientRequest.setName("Ingrediente QB " + i);
+            ingredientRequest.setUnitCost(BigDecimal.valueOf(i));
+            ingredientRequest.setUnitOfMeasure(UnitOfMeasure.GRAMO);
+            ingredientRequest.setOnHandQuantity(BigDecimal.valueOf(1000));
+            ingredientRequest.setReorderPoint(BigDecimal.valueOf(100));
+            Long ingredientId = ingredientService.create(ingredientRequest).getId();
+            // Un cambio de costo deja historial de precios
+            ingredientRequest.setUnitCost(BigDecimal.valueOf(i + 1));
+            ingredientService.update(ingredientId, ingredientRequest);
+            ingredientIds.add(ingredientId);
+
+            ProductRequest productRequest = new ProductRequest();
+            productRequest.setName("Producto QB " + i);
+            productRequest.setBasePrice(BigDecimal.valueOf(10L * i));
+            productRequest.setPreparationDays(i);
+            productRequest.setCategoryId(categoryId);
+            productIds.add(productService.create(productRequest, admin).getId());
+        }
+
+        for (Long productId : productIds) {
+            for (int i = 0; i < SIZE; i++) {
+                productService.addTagToProduct(productId, tagIds.get(i));
+                productService.addIngredientToProduct(productId, ingredientIds.get(i), BigDecimal.valueOf(i + 1));
+            }
+        }
+        for (Long componentId : productIds.subList(1, SIZE)) {
+            productService.addComponentToProduct(productIds.get(0), componentId, BigDecimal.ONE);
+        }
+
+        List<Long> saleIds = new ArrayList<>();
+        for (Long productId : productIds) {
+            SaleRequest saleRequest = new SaleRequest();
+            saleRequest.setProductId(productId);
+            saleRequest.setQuantity(2);
+            saleRequest.setUnitPrice(BigDecimal.TEN);
+            saleIds.add(saleService.create(saleRequest, admin).getId());
+        }
+
+        PublicUser publicUser = new PublicUser("google-qb", PUBLIC_USER_EMAIL, "Usuario QB", null);
+        publicUser = publicUserRepository.save(publicUser);
+        for (Long productId : productIds) {
+            Product product = productService.findById(productId);
+            productReviewRepository.save(new ProductReview(publicUser, product, "Resena del producto QB", 5));
+        }
+        List<ProductPublicDTO> catalog = catalogService.search(
+                new CatalogFacetIndex.Query(null, null, false, null, null, null),
+                CatalogFacetIndex.Sort.NAME, 0, SIZE).content();
+        for (ProductPublicDTO product : catalog) {
+            favoriteService.add(publicUser.getId(), product.id());
+        }
+
+        return new Data(admin, categoryId, productIds, tagIds, ingredientIds, saleIds,
+                publicUser.getId(), jwtTokenProvider.generateToken(publicUser));
+    }
+
+    // Las ventas descuentan stock solo de los ingredientes QB; las tablas
+    // derivadas (popularidad, ratings, relacionados) no tienen FK
+    private void deleteAll() {
+        String products = "SELECT id FROM products WHERE name LIKE 'Producto QB %'";
+        String ingredients = "SELECT id FROM ingredients WHERE name LIKE 'Ingrediente QB %'";
+        String publicUsers = "SELECT id FROM public_users WHERE email = '" + PUBLIC_USER_EMAIL + "'";
+
+        jdbcTemplate.update("DELETE FROM favorites WHERE public_user_id IN (" + publicUsers + ")");
+        jdbcTemplate.update("DELETE FROM product_reviews WHERE public_user_id IN (" + publicUsers + ")");
+        jdbcTemplate.update("DELETE FROM public_users WHERE id IN (" + publicUsers + ")");
+        jdbcTemplate.update("DELETE FROM sale_ingredients WHERE sale_id IN (SELECT id FROM sales WHERE product_id IN ("
+                + products + "))");
+        jdbcTemplate.update("DELETE FROM sales WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM product_tags WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM product_ingredients WHERE product_id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM product_components WHERE parent_id IN (" + products + ")");
+        for (String table : List.of("product_popularity", "product_rating_stats", "product_recommendations")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE product_id IN (" + products + ")");
+        }
+        jdbcTemplate.update("DELETE FROM products WHERE id IN (" + products + ")");
+        jdbcTemplate.update("DELETE FROM tags WHERE name LIKE 'Tag QB %'");
+        jdbcTemplate.update("DELETE FROM ingredient_price_history WHERE ingredient_id IN (" + ingredients + ")");
+        jdbcTemplate.update("DELETE FROM ingredients WHERE id IN (" + ingredients + ")");
+        jdbcTemplate.update("DELETE FROM categories WHERE name = 'Presupuesto QB'");
+    }
+}
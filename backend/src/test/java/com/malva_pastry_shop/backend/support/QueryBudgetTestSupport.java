@@ -0,0 +1,85 @@
+package com.malva_pastry_shop.backend.support;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base de los tests de presupuesto de consultas: cuantas sentencias SQL
+ * ejecuta cada endpoint.
+ *
+ * Los tests no son transaccionales a proposito: con la transaccion del test
+ * abierta la vista podria cargar relaciones perezosas que en produccion
+ * (open-in-view apagado) tiran LazyInitializationException, y esas cargas
+ * sumarian a la cuenta. Los datos son los de {@link QueryBudgetFixture}.
+ *
+ * El pedido se ejecuta dos veces y se cuenta la segunda: la primera llena
+ * los caches de la aplicacion (contadores, favoritos). Los datos tienen
+ * varias filas por relacion: un N+1 suma sentencias y el test falla con la
+ * lista de lo ejecutado.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import({ QueryCountingConfig.class, QueryBudgetFixture.class })
+public abstract class QueryBudgetTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected QueryBudgetFixture fixture;
+
+    /**
+     * GET con el servlet path que pone Tomcat con el DispatcherServlet en "/";
+     * MockMvc lo deja vacio y los filtros que eligen por getServletPath()
+     * (JWT, bulkhead) no verian la ruta.
+     */
+    protected static MockHttpServletRequestBuilder get(String urlTemplate, Object... uriVariables) {
+        String path = UriComponentsBuilder.fromUriString(urlTemplate).buildAndExpand(uriVariables).getPath();
+        return MockMvcRequestBuilders.get(urlTemplate, uriVariables).servletPath(path);
+    }
+
+    /**
+     * Verifica que el pedido responda 2xx ejecutando exactamente
+     * {@code expected} sentencias, todas de lectura (SELECT o WITH).
+     */
+    protected void assertQueryBudget(RequestBuilder request, int expected) throws Exception {
+        List<String> queries = recordQueries(request);
+
+        String executed = queries.stream().collect(Collectors.joining("\n  ", "\n  ", ""));
+        assertThat(queries)
+                .as("sentencias ejecutadas:%s", executed)
+                .hasSize(expected)
+                .allSatisfy(sql -> assertThat(sql).containsPattern("(?i)^(select|with)\\b"));
+    }
+
+    /** Sentencias del segundo pedido (ver javadoc de la clase) */
+    protected List<String> recordQueries(RequestBuilder request) throws Exception {
+        perform(request);
+
+        List<String> queries;
+        QueryCountingConfig.startRecording();
+        try {
+            perform(request);
+        } finally {
+            queries = QueryCountingConfig.stopRecording();
+        }
+        return queries;
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+}
@@ -0,0 +1,80 @@
+package com.malva_pastry_shop.backend.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Envuelve el DataSource con datasource-proxy y guarda las sentencias que
+ * ejecuta cada hilo mientras hay una grabacion abierta (ver
+ * {@link #startRecording()}). Los pedidos de MockMvc corren en el hilo del
+ * test, asi que las tareas programadas y los listeners de otros hilos no
+ * se cuentan.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountingConfig {
+
+    private static final String PROXY_NAME = "query-budget";
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !isRecording(dataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(PROXY_NAME)
+                            .listener(new RecordingListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // El perfil SQL de la aplicacion tambien es un ProxyDataSource
+    private static boolean isRecording(DataSource dataSource) {
+        return dataSource instanceof ProxyDataSource proxy
+                && PROXY_NAME.equals(proxy.getProxyConfig().getDataSourceName());
+    }
+
+    /** Empieza a grabar las sentencias del hilo actual (descarta lo anterior) */
+    public static void startRecording() {
+        RECORDED.set(new ArrayList<>());
+    }
+
+    /** Termina la grabacion y devuelve las sentencias en orden */
+    public static List<String> stopRecording() {
+        List<String> recorded = RECORDED.get();
+        RECORDED.remove();
+        return recorded == null ? List.of() : recorded;
+    }
+
+    private static class RecordingListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<String> recorded = RECORDED.get();
+            if (recorded != null) {
+                for (QueryInfo queryInfo : queryInfoList) {
+                    recorded.add(queryInfo.getQuery().strip().replaceAll("\\s+", " "));
+                }
+            }
+        }
+    }
+}